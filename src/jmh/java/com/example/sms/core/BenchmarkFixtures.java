@@ -0,0 +1,192 @@
+package com.example.sms.core;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.env.StandardEnvironment;
+
+import com.aliyun.dysmsapi20170525.Client;
+import com.aliyun.dysmsapi20170525.models.SendBatchSmsRequest;
+import com.aliyun.dysmsapi20170525.models.SendBatchSmsResponse;
+import com.aliyun.dysmsapi20170525.models.SendBatchSmsResponseBody;
+import com.aliyun.dysmsapi20170525.models.SendSmsRequest;
+import com.aliyun.dysmsapi20170525.models.SendSmsResponse;
+import com.aliyun.dysmsapi20170525.models.SendSmsResponseBody;
+import com.aliyun.teaopenapi.models.Config;
+import com.aliyun.teautil.models.RuntimeOptions;
+import com.example.sms.config.RateLimitConfig;
+import com.example.sms.config.SceneConfig;
+import com.example.sms.config.SmsProperties;
+
+/**
+ * 基准公用装配：脱离 Spring 手工组装组件，服务商调用替换为进程内桩。
+ */
+final class BenchmarkFixtures implements AutoCloseable {
+
+    static final String NOTIFY_SCENE = "bench-notify";
+    static final String VERIFY_SCENE = "bench-verify";
+    static final int MOBILE_POOL_SIZE = 1 << 16;
+
+    final SmsProperties properties;
+    final SceneConfigResolver sceneConfigResolver;
+    final ExpiringStoreSweeper sweeper;
+    final LeasedRateLimiter leasedRateLimiter;
+    final RateLimitHelper rateLimitHelper;
+    final IdempotencyHelper idempotencyHelper;
+    final SmsAsyncExecutor asyncExecutor;
+    final AliyunSmsClient aliyunSmsClient;
+    final VerifyCodeHelper verifyCodeHelper;
+    final StubClient stubClient;
+
+    BenchmarkFixtures(RateLimitConfig rateLimit, long idempotencyWindowSeconds) throws Exception {
+        this(rateLimit, idempotencyWindowSeconds, properties -> {
+        }, 0);
+    }
+
+    /**
+     * @param customizer 组装组件前调整配置
+     * @param providerLatencyMillis 桩客户端每次调用阻塞的时长，模拟慢服务商
+     */
+    BenchmarkFixtures(RateLimitConfig rateLimit, long idempotencyWindowSeconds, Consumer<SmsProperties> customizer,
+                      long providerLatencyMillis) throws Exception {
+        properties = new SmsProperties();
+        customizer.accept(properties);
+        Map<String, SceneConfig> scenes = new LinkedHashMap<>();
+        scenes.put(NOTIFY_SCENE, scene(SceneConfig.SceneType.NOTIFY, rateLimit, idempotencyWindowSeconds));
+        scenes.put(VERIFY_SCENE, scene(SceneConfig.SceneType.VERIFY_CODE, rateLimit, idempotencyWindowSeconds));
+        properties.setScenes(scenes);
+        properties.validate();
+
+        sceneConfigResolver = new SceneConfigResolver(properties, new StandardEnvironment());
+        sweeper = new ExpiringStoreSweeper(properties, SmsMetrics.NOOP);
+        RedisRateLimiter redisRateLimiter = new RedisRateLimiter(null);
+        leasedRateLimiter = new LeasedRateLimiter(null, redisRateLimiter, sweeper);
+        rateLimitHelper = new RateLimitHelper(properties, redisRateLimiter, leasedRateLimiter,
+            new AbuseDetector(properties, SmsMetrics.NOOP), sweeper, SmsMetrics.NOOP);
+        idempotencyHelper = new IdempotencyHelper(properties, new RedisIdempotencyStore(null), SmsMetrics.NOOP);
+        asyncExecutor = new SmsAsyncExecutor(properties);
+        ProviderErrorMapper providerErrorMapper = new ProviderErrorMapper();
+        DefaultListableBeanFactory providers = new DefaultListableBeanFactory();
+        SmsProviderRouter providerRouter = new SmsProviderRouter(properties, providers.getBeanProvider(SmsProvider.class),
+            new ProviderCallGuard(properties, providerErrorMapper, SmsMetrics.NOOP),
+            new SendLaneBulkhead(properties, SmsMetrics.NOOP),
+            new ProviderQuotaGovernor(properties, null, SmsMetrics.NOOP), providerErrorMapper,
+            new SendJournal(properties, SmsMetrics.NOOP),
+            new DeliveryReceiptTracker(properties, providers.getBeanProvider(DeliveryReceiptListener.class), SmsMetrics.NOOP),
+            SmsMetrics.NOOP);
+        aliyunSmsClient = new AliyunSmsClient(properties, sceneConfigResolver, rateLimitHelper,
+            idempotencyHelper, providerErrorMapper, asyncExecutor, SmsMetrics.NOOP, providerRouter, new StandardEnvironment());
+        stubClient = new StubClient(providerLatencyMillis);
+        aliyunSmsClient.useClient(stubClient);
+        providers.registerSingleton("aliyunSmsClient", aliyunSmsClient);
+        verifyCodeHelper = new VerifyCodeHelper(aliyunSmsClient, sceneConfigResolver, null, properties, providerErrorMapper);
+    }
+
+    static RateLimitConfig unlimited() {
+        RateLimitConfig config = new RateLimitConfig();
+        config.setPerMobileDayLimit(Long.MAX_VALUE);
+        config.setPerIpMinuteLimit(Long.MAX_VALUE);
+        return config;
+    }
+
+    static String[] mobiles(int size) {
+        String[] mobiles = new String[size];
+        for (int i = 0; i < size; i++) {
+            mobiles[i] = String.valueOf(13_800_000_000L + i);
+        }
+        return mobiles;
+    }
+
+    static String[] ips(int size) {
+        String[] ips = new String[size];
+        for (int i = 0; i < size; i++) {
+            ips[i] = "10." + ((i >> 16) & 0xff) + "." + ((i >> 8) & 0xff) + "." + (i & 0xff);
+        }
+        return ips;
+    }
+
+    static Map<String, String> notifyParams() {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("name", "张三");
+        params.put("orderNo", "202401010001");
+        params.put("amount", "99.00");
+        params.put("ignored", "not-in-whitelist");
+        return params;
+    }
+
+    private static SceneConfig scene(SceneConfig.SceneType type, RateLimitConfig rateLimit, long idempotencyWindowSeconds) {
+        SceneConfig config = new SceneConfig();
+        config.setSignName("基准签名");
+        config.setTemplateCode("SMS_BENCH");
+        config.setType(type);
+        config.setRateLimit(rateLimit);
+        config.setIdempotencyWindowSeconds(idempotencyWindowSeconds);
+        if (type == SceneConfig.SceneType.VERIFY_CODE) {
+            config.setExpireSeconds(300);
+            config.setCodeParamKey("code");
+            config.setParamWhitelist(Collections.singletonList("code"));
+        } else {
+            config.setParamWhitelist(Arrays.asList("name", "orderNo", "amount"));
+        }
+        return config;
+    }
+
+    @Override
+    public void close() {
+        sweeper.destroy();
+        leasedRateLimiter.destroy();
+        asyncExecutor.destroy();
+    }
+
+    /**
+     * 进程内桩客户端，不发起网络请求，按 latencyMillis 阻塞后返回成功响应，并统计在途调用的峰值。
+     */
+    static final class StubClient extends Client {
+
+        private final long latencyMillis;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger peakInFlight = new AtomicInteger();
+
+        StubClient(long latencyMillis) throws Exception {
+            super(new Config()
+                .setAccessKeyId("bench")
+                .setAccessKeySecret("bench")
+                .setEndpoint("dysmsapi.aliyuncs.com"));
+            this.latencyMillis = latencyMillis;
+        }
+
+        int resetPeakInFlight() {
+            return peakInFlight.getAndSet(0);
+        }
+
+        @Override
+        public SendSmsResponse sendSmsWithOptions(SendSmsRequest request, RuntimeOptions runtime) throws Exception {
+            if (latencyMillis > 0) {
+                peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(latencyMillis);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }
+            return new SendSmsResponse().setBody(new SendSmsResponseBody()
+                .setCode("OK")
+                .setBizId("bench-biz")
+                .setRequestId("bench-request"));
+        }
+
+        @Override
+        public SendBatchSmsResponse sendBatchSmsWithOptions(SendBatchSmsRequest request, RuntimeOptions runtime) {
+            return new SendBatchSmsResponse().setBody(new SendBatchSmsResponseBody()
+                .setCode("OK")
+                .setBizId("bench-biz")
+                .setRequestId("bench-request"));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.sms.core;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 本地幂等表预占、确认与释放，均包含指纹计算。reserveCommit 确认后再释放，号码池循环时不会命中已确认的指纹，
+ * 两个基准都始终走预占成功路径。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class IdempotencyBenchmark {
+
+    private BenchmarkFixtures fixtures;
+    private ScenePlan plan;
+    private Map<String, String> params;
+    private String[] mobiles;
+    private int index;
+
+    @Setup
+    public void setUp() throws Exception {
+        fixtures = new BenchmarkFixtures(BenchmarkFixtures.unlimited(), 60);
+        plan = fixtures.sceneConfigResolver.getPlan(BenchmarkFixtures.NOTIFY_SCENE);
+        params = plan.filterParams(BenchmarkFixtures.notifyParams());
+        mobiles = BenchmarkFixtures.mobiles(BenchmarkFixtures.MOBILE_POOL_SIZE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public void reserveRelease() {
+        fixtures.idempotencyHelper.reserve(plan, nextMobile(), params).release();
+    }
+
+    @Benchmark
+    public void reserveCommit() {
+        IdempotencyHelper.Reservation reservation = fixtures.idempotencyHelper.reserve(plan, nextMobile(), params);
+        reservation.commit();
+        reservation.release();
+    }
+
+    private String nextMobile() {
+        index = (index + 1) & (mobiles.length - 1);
+        return mobiles[index];
+    }
+}
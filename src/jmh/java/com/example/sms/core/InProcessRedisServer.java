@@ -0,0 +1,409 @@
+package com.example.sms.core;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.data.redis.core.script.RedisScript;
+
+/**
+ * 基准用的进程内 Redis 替身，只实现 RESP2 协议与基准涉及的少量命令，Lua 脚本以 Java 实现按正文或 SHA1 注册。
+ * 每个响应在命令到达后延迟 latencyMicros 写回，模拟一次网络往返：逐条调用每条命令各付一次延迟，
+ * 流水线中的命令几乎同时到达，整体只付一次延迟。
+ */
+final class InProcessRedisServer implements Closeable {
+
+    private static final byte[] OK = "+OK\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NIL = "$-1\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final long latencyNanos;
+    private final ServerSocket serverSocket;
+    private final Map<String, Entry> data = new HashMap<>();
+    private final Map<String, Script> scripts = new ConcurrentHashMap<>();
+    private final List<Socket> clients = new ArrayList<>();
+    private volatile boolean running = true;
+
+    InProcessRedisServer(long latencyMicros) throws IOException {
+        this.latencyNanos = TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::accept, "redis-stand-in-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * 注册脚本的 Java 实现，EVAL 按正文匹配，EVALSHA 按 SHA1 匹配。
+     * 流水线中 EVAL 的正文按 ASCII 发送，每个非 ASCII 字节变为 ?，因此按替换后的正文登记。
+     */
+    void registerScript(RedisScript<?> script, Script implementation) {
+        scripts.put(asciiBody(script.getScriptAsString()), implementation);
+        scripts.put(script.getSha1(), implementation);
+    }
+
+    private static String asciiBody(String body) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] < 0) {
+                bytes[i] = '?';
+            }
+        }
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * 供脚本实现调用的原子操作，调用时已持有数据锁。
+     */
+    long incr(String key) {
+        Entry entry = live(key);
+        long value = entry == null ? 1 : Long.parseLong((String) entry.value) + 1;
+        long expireAt = entry == null ? 0 : entry.expireAt;
+        data.put(key, new Entry(String.valueOf(value), expireAt));
+        return value;
+    }
+
+    String get(String key) {
+        Entry entry = live(key);
+        return entry == null || !(entry.value instanceof String) ? null : (String) entry.value;
+    }
+
+    void set(String key, String value, long ttlSeconds) {
+        data.put(key, new Entry(value, ttlSeconds > 0 ? System.currentTimeMillis() + ttlSeconds * 1000 : 0));
+    }
+
+    boolean exists(String key) {
+        return live(key) != null;
+    }
+
+    long ttl(String key) {
+        Entry entry = live(key);
+        if (entry == null) {
+            return -2;
+        }
+        return entry.expireAt == 0 ? -1 : (entry.expireAt - System.currentTimeMillis()) / 1000;
+    }
+
+    boolean expire(String key, long ttlSeconds) {
+        Entry entry = live(key);
+        if (entry == null) {
+            return false;
+        }
+        entry.expireAt = System.currentTimeMillis() + ttlSeconds * 1000;
+        return true;
+    }
+
+    private Entry live(String key) {
+        Entry entry = data.get(key);
+        if (entry != null && entry.expireAt != 0 && entry.expireAt <= System.currentTimeMillis()) {
+            data.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private void accept() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                synchronized (clients) {
+                    clients.add(socket);
+                }
+                Connection connection = new Connection(socket);
+                Thread reader = new Thread(connection::read, "redis-stand-in-read");
+                Thread writer = new Thread(connection::write, "redis-stand-in-write");
+                reader.setDaemon(true);
+                writer.setDaemon(true);
+                reader.start();
+                writer.start();
+            } catch (IOException ex) {
+                return;
+            }
+        }
+    }
+
+    private byte[] dispatch(List<String> command) {
+        String name = command.get(0).toUpperCase(Locale.ROOT);
+        synchronized (data) {
+            switch (name) {
+                case "PING":
+                    return simple("PONG");
+                case "SELECT":
+                case "CLIENT":
+                    return OK;
+                case "GET":
+                    return bulk(get(command.get(1)));
+                case "SET":
+                    return set(command);
+                case "INCR":
+                    return integer(incr(command.get(1)));
+                case "EXPIRE":
+                    return integer(expire(command.get(1), Long.parseLong(command.get(2))) ? 1 : 0);
+                case "TTL":
+                    return integer(ttl(command.get(1)));
+                case "DEL":
+                    return integer(data.remove(command.get(1)) == null ? 0 : 1);
+                case "HGETALL":
+                    return hashGetAll(command.get(1));
+                case "HSET":
+                case "HMSET":
+                    return hashSet(name, command);
+                case "EVAL":
+                case "EVALSHA":
+                    return eval(name, command);
+                default:
+                    return error("ERR unknown command '" + command.get(0) + "'");
+            }
+        }
+    }
+
+    private byte[] set(List<String> command) {
+        long ttlSeconds = 0;
+        boolean onlyIfAbsent = false;
+        for (int i = 3; i < command.size(); i++) {
+            String option = command.get(i).toUpperCase(Locale.ROOT);
+            if ("EX".equals(option)) {
+                ttlSeconds = Long.parseLong(command.get(++i));
+            } else if ("NX".equals(option)) {
+                onlyIfAbsent = true;
+            }
+        }
+        if (onlyIfAbsent && exists(command.get(1))) {
+            return NIL;
+        }
+        set(command.get(1), command.get(2), ttlSeconds);
+        return OK;
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] hashGetAll(String key) {
+        Entry entry = live(key);
+        Map<String, String> hash = entry == null ? new HashMap<>() : (Map<String, String>) entry.value;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(out, "*" + hash.size() * 2 + "\r\n");
+        hash.forEach((field, value) -> {
+            write(out, bulk(field));
+            write(out, bulk(value));
+        });
+        return out.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] hashSet(String name, List<String> command) {
+        Entry entry = live(command.get(1));
+        if (entry == null) {
+            entry = new Entry(new HashMap<String, String>(), 0);
+            data.put(command.get(1), entry);
+        }
+        Map<String, String> hash = (Map<String, String>) entry.value;
+        int added = 0;
+        for (int i = 2; i + 1 < command.size(); i += 2) {
+            added += hash.put(command.get(i), command.get(i + 1)) == null ? 1 : 0;
+        }
+        return "HMSET".equals(name) ? OK : integer(added);
+    }
+
+    private byte[] eval(String name, List<String> command) {
+        Script script = scripts.get("EVAL".equals(name) ? asciiBody(command.get(1)) : command.get(1));
+        if (script == null) {
+            return "EVALSHA".equals(name)
+                ? error("NOSCRIPT No matching script. Please use EVAL.")
+                : error("ERR script not registered in stand-in");
+        }
+        int numKeys = Integer.parseInt(command.get(2));
+        List<String> keys = command.subList(3, 3 + numKeys);
+        List<String> args = command.subList(3 + numKeys, command.size());
+        return integer(script.run(this, keys, args));
+    }
+
+    private static byte[] simple(String value) {
+        return ("+" + value + "\r\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] error(String message) {
+        return ("-" + message + "\r\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] integer(long value) {
+        return (":" + value + "\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] bulk(String value) {
+        if (value == null) {
+            return NIL;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length + 16);
+        write(out, "$" + bytes.length + "\r\n");
+        write(out, bytes);
+        write(out, "\r\n");
+        return out.toByteArray();
+    }
+
+    private static void write(ByteArrayOutputStream out, String value) {
+        write(out, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void write(ByteArrayOutputStream out, byte[] bytes) {
+        out.write(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+        synchronized (clients) {
+            for (Socket client : clients) {
+                client.close();
+            }
+        }
+    }
+
+    /**
+     * 脚本的 Java 实现，返回整数结果。
+     */
+    interface Script {
+
+        long run(InProcessRedisServer server, List<String> keys, List<String> args);
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+        private long expireAt;
+
+        private Entry(Object value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+
+    private static final class Response {
+
+        private final long dueAt;
+        private final byte[] payload;
+
+        private Response(long dueAt, byte[] payload) {
+            this.dueAt = dueAt;
+            this.payload = payload;
+        }
+    }
+
+    /**
+     * 单个客户端连接：读线程解析并执行命令，写线程按到期时间依次写回响应。
+     */
+    private final class Connection {
+
+        private final Socket socket;
+        private final BlockingQueue<Response> responses = new LinkedBlockingQueue<>();
+
+        private Connection(Socket socket) {
+            this.socket = socket;
+        }
+
+        private void read() {
+            try (InputStream in = new BufferedInputStream(socket.getInputStream())) {
+                List<String> command;
+                while ((command = readCommand(in)) != null) {
+                    long arrivedAt = System.nanoTime();
+                    responses.put(new Response(arrivedAt + latencyNanos, dispatch(command)));
+                }
+            } catch (IOException ex) {
+                // 客户端断开
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void write() {
+            try {
+                OutputStream out = socket.getOutputStream();
+                while (running && !socket.isClosed()) {
+                    Response response = responses.poll(100, TimeUnit.MILLISECONDS);
+                    if (response == null) {
+                        continue;
+                    }
+                    long wait;
+                    while ((wait = response.dueAt - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    out.write(response.payload);
+                    if (responses.isEmpty()) {
+                        out.flush();
+                    }
+                }
+            } catch (IOException ex) {
+                // 客户端断开
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * 解析一条 RESP 数组命令，连接关闭时返回 null。
+         */
+        private List<String> readCommand(InputStream in) throws IOException {
+            String header = readLine(in);
+            if (header == null) {
+                return null;
+            }
+            if (header.charAt(0) != '*') {
+                return new ArrayList<>(Arrays.asList(header.trim().split("\\s+")));
+            }
+            int count = Integer.parseInt(header.substring(1));
+            List<String> command = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String length = readLine(in);
+                if (length == null) {
+                    return null;
+                }
+                byte[] bytes = new byte[Integer.parseInt(length.substring(1))];
+                int read = 0;
+                while (read < bytes.length) {
+                    int n = in.read(bytes, read, bytes.length - read);
+                    if (n < 0) {
+                        return null;
+                    }
+                    read += n;
+                }
+                readLine(in);
+                command.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+            return command;
+        }
+
+        private String readLine(InputStream in) throws IOException {
+            StringBuilder line = new StringBuilder();
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b == '\r') {
+                    in.read();
+                    return line.toString();
+                }
+                line.append((char) b);
+            }
+            return null;
+        }
+    }
+}
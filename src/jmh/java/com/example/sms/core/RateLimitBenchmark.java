@@ -0,0 +1,80 @@
+package com.example.sms.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * 内存限流在多线程下的吞吐：distinct 模拟大量不同号码与 IP，hot 模拟少量热点 key 的竞争。
+ * abuseDetection 开启热点检测并将阈值设为不可达，只衡量 Sketch 计数本身的开销。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class RateLimitBenchmark {
+
+    @Param({"distinct", "hot"})
+    public String keys;
+
+    @Param({"false", "true"})
+    public boolean abuseDetection;
+
+    private BenchmarkFixtures fixtures;
+    private ScenePlan plan;
+    private String[] mobiles;
+    private String[] ips;
+
+    @Setup
+    public void setUp() throws Exception {
+        fixtures = new BenchmarkFixtures(BenchmarkFixtures.unlimited(), 0);
+        plan = fixtures.sceneConfigResolver.getPlan(BenchmarkFixtures.NOTIFY_SCENE);
+        fixtures.properties.getAbuse().setEnabled(abuseDetection);
+        fixtures.properties.getAbuse().setIpPrefixThreshold(Long.MAX_VALUE);
+        fixtures.properties.getAbuse().setMobilePrefixThreshold(Long.MAX_VALUE);
+        int size = "hot".equals(keys) ? 4 : BenchmarkFixtures.MOBILE_POOL_SIZE;
+        mobiles = BenchmarkFixtures.mobiles(size);
+        ips = BenchmarkFixtures.ips(size);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public void checkAndRecord(Cursor cursor) {
+        int i = cursor.next(mobiles.length);
+        fixtures.rateLimitHelper.checkAndRecord(BenchmarkFixtures.NOTIFY_SCENE, mobiles[i], ips[i], plan);
+    }
+
+    /**
+     * 每个线程独立的下标游标，避免共享计数器本身成为竞争点。
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int index;
+
+        int next(int size) {
+            index = (index + 1) & (size - 1);
+            return index;
+        }
+    }
+}
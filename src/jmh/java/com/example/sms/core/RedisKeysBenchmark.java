@@ -0,0 +1,54 @@
+package com.example.sms.core;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Redis key 拼装开销。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RedisKeysBenchmark {
+
+    private final String scene = BenchmarkFixtures.NOTIFY_SCENE;
+    private final String mobile = "13800000000";
+    private final String ip = "10.0.0.1";
+    private final LocalDate date = LocalDate.now();
+    private final LocalDateTime minute = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+
+    @Benchmark
+    public String smsCode() {
+        return SmsRedisKeys.smsCode(scene, mobile);
+    }
+
+    @Benchmark
+    public String limitMobileDay() {
+        return SmsRedisKeys.limitMobileDay(scene, mobile, date);
+    }
+
+    @Benchmark
+    public String limitIpMinute() {
+        return SmsRedisKeys.limitIpMinute(scene, ip, minute);
+    }
+
+    @Benchmark
+    public String idempotent() {
+        return SmsRedisKeys.idempotent(scene, "bench-biz");
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.sms.core;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.example.sms.config.RateLimitConfig;
+
+/**
+ * Redis 往返次数对比，服务端为模拟了往返延迟的进程内替身（{@link InProcessRedisServer}），不依赖外部 Redis。
+ * incrThenExpire 为旧实现的 INCR + EXPIRE 两次往返，incrWithTtl 为原子脚本一次往返，pipelined 为整批一次往返；
+ * rateLimit 系列对比批量发送时逐个与合并执行限流脚本（IP 计数与手机号分两步执行）。
+ * 连接工厂未配置连接池，流水线每次新建独占连接，结果包含建连开销，与未开启连接池的部署一致。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RedisPipelineBenchmark {
+
+    private static final long TTL_SECONDS = 3600;
+
+    /** 单批 key 数 */
+    @Param({"1", "10", "100"})
+    public int batchSize;
+
+    /** 模拟的单次往返延迟，单位微秒 */
+    @Param({"200"})
+    public long latencyMicros;
+
+    private InProcessRedisServer server;
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate template;
+    private RedisSmsRepository repository;
+    private RedisRateLimiter rateLimiter;
+    private RateLimitConfig rateLimit;
+    private List<String> keys;
+    private List<String> mobiles;
+    private List<String> ips;
+
+    @Setup
+    public void setUp() throws Exception {
+        server = new InProcessRedisServer(latencyMicros);
+        server.registerScript(SmsRedisScripts.INCR_WITH_TTL, (redis, keys, args) -> {
+            long value = redis.incr(keys.get(0));
+            if (value == 1 || redis.ttl(keys.get(0)) == -1) {
+                redis.expire(keys.get(0), Long.parseLong(args.get(0)));
+            }
+            return value;
+        });
+        server.registerScript(SmsRedisScripts.RATE_LIMIT, RedisPipelineBenchmark::rateLimit);
+        server.registerScript(SmsRedisScripts.RATE_LIMIT_LEASE, RedisPipelineBenchmark::leaseOne);
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", server.getPort()));
+        connectionFactory.afterPropertiesSet();
+        template = new StringRedisTemplate(connectionFactory);
+        repository = new RedisSmsRepository(template);
+        rateLimiter = new RedisRateLimiter(repository);
+        rateLimit = new RateLimitConfig();
+        rateLimit.setPerMobileIntervalSeconds(0);
+        rateLimit.setPerMobileDayLimit(Integer.MAX_VALUE);
+        rateLimit.setPerIpMinuteLimit(Integer.MAX_VALUE);
+        keys = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            keys.add("bench:counter:" + i);
+        }
+        mobiles = Arrays.asList(BenchmarkFixtures.mobiles(batchSize));
+        ips = Arrays.asList(BenchmarkFixtures.ips(batchSize));
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        connectionFactory.destroy();
+        server.close();
+    }
+
+    @Benchmark
+    public long incrThenExpire() {
+        long sum = 0;
+        for (String key : keys) {
+            Long value = template.opsForValue().increment(key);
+            template.expire(key, Duration.ofSeconds(TTL_SECONDS));
+            sum += value == null ? 0 : value;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long incrWithTtl() {
+        long sum = 0;
+        for (String key : keys) {
+            sum += repository.incrWithTtl(key, TTL_SECONDS);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public List<Object> pipelinedIncrWithTtl() {
+        RedisSmsRepository.Batch batch = repository.batch();
+        for (String key : keys) {
+            batch.incrWithTtl(key, TTL_SECONDS);
+        }
+        return batch.execute();
+    }
+
+    @Benchmark
+    public int rateLimitSequential() {
+        int passed = 0;
+        for (int i = 0; i < batchSize; i++) {
+            passed += rateLimiter.checkAndRecord(BenchmarkFixtures.NOTIFY_SCENE, mobiles.get(i), ips.get(i), rateLimit) == null ? 1 : 0;
+        }
+        return passed;
+    }
+
+    @Benchmark
+    public List<RateLimitRule> rateLimitPipelined() {
+        return rateLimiter.checkAndRecordAll(BenchmarkFixtures.NOTIFY_SCENE, mobiles, ips, rateLimit);
+    }
+
+    /**
+     * rate_limit.lua 的 Java 实现，逻辑与脚本保持一致。
+     */
+    private static long rateLimit(InProcessRedisServer redis, List<String> keys, List<String> args) {
+        long interval = Long.parseLong(args.get(0));
+        long dayLimit = Long.parseLong(args.get(1));
+        if (interval > 0 && redis.exists(keys.get(0))) {
+            return 1;
+        }
+        if (dayLimit > 0 && count(redis, keys.get(1)) >= dayLimit) {
+            return 2;
+        }
+        if (interval > 0) {
+            redis.set(keys.get(0), "1", interval);
+        }
+        if (dayLimit > 0 && redis.incr(keys.get(1)) == 1) {
+            redis.expire(keys.get(1), Long.parseLong(args.get(2)));
+        }
+        return 0;
+    }
+
+    /**
+     * rate_limit_lease.lua 在单次租用数为 1 时的 Java 实现。
+     */
+    private static long leaseOne(InProcessRedisServer redis, List<String> keys, List<String> args) {
+        if (count(redis, keys.get(0)) >= Long.parseLong(args.get(0))) {
+            return 0;
+        }
+        if (redis.incr(keys.get(0)) == 1) {
+            redis.expire(keys.get(0), Long.parseLong(args.get(2)));
+        }
+        return 1;
+    }
+
+    private static long count(InProcessRedisServer redis, String key) {
+        String value = redis.get(key);
+        return value == null ? 0 : Long.parseLong(value);
+    }
+}
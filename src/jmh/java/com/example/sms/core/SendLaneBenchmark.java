@@ -0,0 +1,149 @@
+package com.example.sms.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.sms.config.SceneConfig.SceneType;
+import com.example.sms.config.SmsProperties;
+import com.example.sms.config.SmsProperties.LaneProperties;
+
+/**
+ * 通知洪峰下验证码取得发送并发的等待时间：notifyThreads 个后台线程持续占用并发，每次持有 notifyHoldMillis，
+ * 20 个基准线程以验证码身份申请并立即归还，得分为单次申请的耗时分布（看 p50/p99）。
+ * shared 为两类流量共用一个公平信号量（上限 64，通知最多等 100ms、验证码最多等 2s），
+ * lanes 为 {@link SendLaneBulkhead}（上限 64，验证码预留 16，其余参数取默认值）。
+ * 试验结束时记录通知的放行与被拒绝次数。
+ * 运行：mvn -Pjmh compile exec:exec -Djmh.args="SendLane"
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(20)
+@State(Scope.Benchmark)
+public class SendLaneBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(SendLaneBenchmark.class);
+
+    private static final int MAX_CONCURRENT = 64;
+    private static final int VERIFY_RESERVED = 16;
+
+    @Param({"shared", "lanes"})
+    public String mode;
+
+    @Param({"300"})
+    public int notifyThreads;
+
+    @Param({"50"})
+    public long notifyHoldMillis;
+
+    private SendLaneBulkhead bulkhead;
+    private Semaphore shared;
+    private LaneProperties lane;
+    private final AtomicLong notifyServed = new AtomicLong();
+    private final AtomicLong notifyShed = new AtomicLong();
+    private final AtomicLong verifyShed = new AtomicLong();
+    private final List<Thread> load = new ArrayList<>();
+    private final ThreadLocal<SendLaneBulkhead.Permit> permits = new ThreadLocal<>();
+    private volatile boolean running;
+
+    @Setup
+    public void setUp() {
+        SmsProperties properties = new SmsProperties();
+        lane = properties.getLane();
+        lane.setEnabled(true);
+        lane.setMaxConcurrent(MAX_CONCURRENT);
+        lane.setVerifyReserved(VERIFY_RESERVED);
+        bulkhead = new SendLaneBulkhead(properties, SmsMetrics.NOOP);
+        shared = new Semaphore(MAX_CONCURRENT, true);
+        running = true;
+        for (int i = 0; i < notifyThreads; i++) {
+            Thread thread = new Thread(this::notifyLoop, "bench-notify-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            load.add(thread);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        running = false;
+        for (Thread thread : load) {
+            thread.join();
+        }
+        log.info("[{}] notifyServed={} notifyShed={} verifyShed={}", mode, notifyServed.get(), notifyShed.get(), verifyShed.get());
+    }
+
+    @Benchmark
+    public boolean verifyAcquire() throws InterruptedException {
+        if (!acquire(SceneType.VERIFY_CODE)) {
+            verifyShed.incrementAndGet();
+            return false;
+        }
+        release(SceneType.VERIFY_CODE);
+        return true;
+    }
+
+    private void notifyLoop() {
+        while (running) {
+            try {
+                if (!acquire(SceneType.NOTIFY)) {
+                    notifyShed.incrementAndGet();
+                    // 被拒绝的调用方稍后重试，避免空转
+                    TimeUnit.MILLISECONDS.sleep(1);
+                    continue;
+                }
+                try {
+                    TimeUnit.MILLISECONDS.sleep(notifyHoldMillis);
+                } finally {
+                    release(SceneType.NOTIFY);
+                }
+                notifyServed.incrementAndGet();
+            } catch (InterruptedException ex) {
+                return;
+            }
+        }
+    }
+
+    private boolean acquire(SceneType type) throws InterruptedException {
+        if ("shared".equals(mode)) {
+            long waitMillis = type == SceneType.VERIFY_CODE ? lane.getVerifyMaxWaitMillis() : lane.getNotifyMaxWaitMillis();
+            return shared.tryAcquire(waitMillis, TimeUnit.MILLISECONDS);
+        }
+        try {
+            permits.set(bulkhead.acquire(type));
+            return true;
+        } catch (SmsException ex) {
+            return false;
+        }
+    }
+
+    private void release(SceneType type) {
+        if ("shared".equals(mode)) {
+            shared.release();
+            return;
+        }
+        permits.get().release();
+        permits.remove();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.sms.core;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * 发送路径各环节与完整 send 的开销，服务商调用替换为进程内桩客户端。
+ * 完整路径关闭幂等窗口，幂等开销见 {@link IdempotencyBenchmark}。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SendPathBenchmark {
+
+    private BenchmarkFixtures fixtures;
+    private ScenePlan plan;
+    private Map<String, String> rawParams;
+    private Map<String, String> safeParams;
+    private Map<String, Object> objectParams;
+    private String[] mobiles;
+    private int index;
+
+    @Setup
+    public void setUp() throws Exception {
+        fixtures = new BenchmarkFixtures(BenchmarkFixtures.unlimited(), 0);
+        plan = fixtures.sceneConfigResolver.getPlan(BenchmarkFixtures.NOTIFY_SCENE);
+        rawParams = BenchmarkFixtures.notifyParams();
+        safeParams = plan.filterParams(rawParams);
+        objectParams = fixtures.aliyunSmsClient.castToObjectMap(safeParams);
+        mobiles = BenchmarkFixtures.mobiles(BenchmarkFixtures.MOBILE_POOL_SIZE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public Map<String, String> filterParams() {
+        return plan.filterParams(rawParams);
+    }
+
+    @Benchmark
+    public Map<String, Object> castToObjectMap() {
+        return fixtures.aliyunSmsClient.castToObjectMap(safeParams);
+    }
+
+    @Benchmark
+    public String serializeParams() {
+        return fixtures.aliyunSmsClient.serializeParams(objectParams);
+    }
+
+    @Benchmark
+    public String hashCodeOfVerifyCode() {
+        return fixtures.verifyCodeHelper.hashCode("123456", "salt-0001");
+    }
+
+    @Benchmark
+    public void sendScene() {
+        index = (index + 1) & (mobiles.length - 1);
+        fixtures.aliyunSmsClient.send(BenchmarkFixtures.NOTIFY_SCENE, mobiles[index], rawParams, "10.0.0.1");
+    }
+}
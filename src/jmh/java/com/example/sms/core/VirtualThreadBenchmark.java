@@ -0,0 +1,139 @@
+package com.example.sms.core;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.management.ObjectName;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.sms.config.SmsProperties.AsyncProperties;
+
+/**
+ * 一次并发提交 sends 条慢服务商（每次阻塞 latencyMillis）异步发送并等待全部完成的耗时：
+ * pooled 为默认线程池（16 线程 + 200 队列，超出部分被拒绝），platform 为每个在途发送一个平台线程，
+ * virtual 为虚拟线程模式（需 Java 21+）。试验结束时再提交一轮，在发送途中记录日志：在途峰值、被拒绝数、
+ * 平台线程数、NMT 统计的线程栈提交内存与堆占用（虚拟线程栈位于堆中）。
+ * 运行：mvn -Pjmh compile exec:exec -Djmh.args="VirtualThread"
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-XX:NativeMemoryTracking=summary", "-Xss1m"})
+@State(Scope.Benchmark)
+public class VirtualThreadBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadBenchmark.class);
+
+    private static final Pattern NMT_THREAD = Pattern.compile("- +Thread \\(reserved=(\\d+)KB, committed=(\\d+)KB\\)");
+
+    @Param({"pooled", "platform", "virtual"})
+    private String mode;
+
+    @Param({"10000"})
+    private int sends;
+
+    @Param({"200"})
+    private long latencyMillis;
+
+    private BenchmarkFixtures fixtures;
+    private Map<String, String> params;
+    private String[] mobiles;
+
+    @Setup
+    public void setUp() throws Exception {
+        if ("virtual".equals(mode) && !VirtualThreads.isSupported()) {
+            throw new IllegalStateException("virtual mode requires Java 21+, running on " + System.getProperty("java.version"));
+        }
+        fixtures = new BenchmarkFixtures(BenchmarkFixtures.unlimited(), 0, properties -> {
+            // 只比较执行模型，关闭按服务商的自适应并发上限
+            properties.getProviderGuard().setEnabled(false);
+            AsyncProperties async = properties.getAsync();
+            if ("platform".equals(mode)) {
+                async.setCorePoolSize(sends);
+                async.setMaxPoolSize(sends);
+                async.setQueueCapacity(0);
+            } else if ("virtual".equals(mode)) {
+                async.setVirtualThreads(true);
+                async.setVirtualMaxConcurrent(sends);
+            }
+        }, latencyMillis);
+        params = BenchmarkFixtures.notifyParams();
+        mobiles = BenchmarkFixtures.mobiles(BenchmarkFixtures.MOBILE_POOL_SIZE);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        fixtures.stubClient.resetPeakInFlight();
+        List<CompletableFuture<SendResult>> futures = new ArrayList<>(sends);
+        int rejected = submitAll(futures);
+        TimeUnit.MILLISECONDS.sleep(latencyMillis / 2);
+        long[] threadMemory = nmtThreadMemory();
+        long heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        int platformThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        log.info("[{}] sends={} peakInFlight={} rejected={} platformThreads={} threadStackCommitted={}KB (reserved={}KB) heapUsed={}MB",
+            mode, sends, fixtures.stubClient.resetPeakInFlight(), rejected, platformThreads,
+            threadMemory[1], threadMemory[0], heapUsed >> 20);
+        fixtures.close();
+    }
+
+    @Benchmark
+    public int sendConcurrently() {
+        List<CompletableFuture<SendResult>> futures = new ArrayList<>(sends);
+        int rejected = submitAll(futures);
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        return rejected;
+    }
+
+    private int submitAll(List<CompletableFuture<SendResult>> futures) {
+        int rejected = 0;
+        for (int i = 0; i < sends; i++) {
+            try {
+                futures.add(fixtures.aliyunSmsClient.sendAsync(BenchmarkFixtures.NOTIFY_SCENE,
+                    mobiles[i & (mobiles.length - 1)], params, "10.0.0.1"));
+            } catch (SmsException ex) {
+                rejected++;
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * @return NMT Thread 分类的 {reserved, committed}，单位 KB，未开启 NMT 时为 -1
+     */
+    private static long[] nmtThreadMemory() {
+        try {
+            String summary = (String) ManagementFactory.getPlatformMBeanServer().invoke(
+                new ObjectName("com.sun.management:type=DiagnosticCommand"), "vmNativeMemory",
+                new Object[] {new String[] {"summary"}}, new String[] {String[].class.getName()});
+            Matcher matcher = NMT_THREAD.matcher(summary);
+            if (matcher.find()) {
+                return new long[] {Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2))};
+            }
+        } catch (Exception ex) {
+            // 非 HotSpot 或未开启 NMT
+        }
+        return new long[] {-1, -1};
+    }
+}
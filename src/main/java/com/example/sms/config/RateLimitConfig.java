@@ -7,6 +7,16 @@ import javax.validation.constraints.Min;
  */
 public class RateLimitConfig {
 
+    /** 日上限与 IP 分钟上限的计数方式 */
+    public enum Algorithm {
+        /** 固定窗口计数，窗口交界处最多放行两倍上限 */
+        FIXED_WINDOW,
+        /** GCRA 平滑限速：按上限折算为匀速并允许一定突发，每个 key 只保存一个时间戳，拒绝时给出可重试时间 */
+        GCRA
+    }
+
+    private Algorithm algorithm = Algorithm.FIXED_WINDOW;
+
     /** 每个手机号发送间隔，单位秒 */
     @Min(0)
     private long perMobileIntervalSeconds;
@@ -19,6 +29,35 @@ public class RateLimitConfig {
     @Min(0)
     private long perIpMinuteLimit;
 
+    /**
+     * GCRA 模式下单个手机号允许连续放行的次数，之后按 1 天 / 日上限 的间隔匀速放行。
+     * 任意 24 小时内最多放行约 日上限 + 突发次数 - 1 次：
+     * 突发越大，短时间内连续重发越宽松，但滑动 24 小时的总量越超出日上限；设为日上限时约为两倍，比固定窗口更宽松。
+     * 默认 3，与周期无关，允许用户短时间内重发两次，24 小时总量只多 2 次。
+     */
+    @Min(1)
+    private long perMobileBurst = 3;
+
+    /** GCRA 模式下单个 IP 允许连续放行的次数，含义与 perMobileBurst 相同，任意一分钟内最多约 分钟上限 + 突发次数 - 1 次 */
+    @Min(1)
+    private long perIpBurst = 3;
+
+    /**
+     * sms.limiter.backend=LEASED 时每个节点单次从 Redis 租用的 IP 分钟计数配额，0 表示每次发送都访问 Redis。
+     * 手机号间隔与日计数始终逐次精确校验，不租用。租用在 Redis 中按上限截断，全局不会超发；
+     * 节点未用完的配额在窗口结束时作废，每个 IP 每分钟最多少放行约 节点数 × 1.5 × leasePermits 次。
+     */
+    @Min(0)
+    private long leasePermits;
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(Algorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
     public long getPerMobileIntervalSeconds() {
         return perMobileIntervalSeconds;
     }
@@ -42,4 +81,28 @@ public class RateLimitConfig {
     public void setPerIpMinuteLimit(long perIpMinuteLimit) {
         this.perIpMinuteLimit = perIpMinuteLimit;
     }
+
+    public long getPerMobileBurst() {
+        return perMobileBurst;
+    }
+
+    public void setPerMobileBurst(long perMobileBurst) {
+        this.perMobileBurst = perMobileBurst;
+    }
+
+    public long getPerIpBurst() {
+        return perIpBurst;
+    }
+
+    public void setPerIpBurst(long perIpBurst) {
+        this.perIpBurst = perIpBurst;
+    }
+
+    public long getLeasePermits() {
+        return leasePermits;
+    }
+
+    public void setLeasePermits(long leasePermits) {
+        this.leasePermits = leasePermits;
+    }
 }
@@ -1,8 +1,10 @@
 package com.example.sms.config;
 
 import java.util.List;
+import java.util.Map;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotEmpty;
@@ -12,9 +14,11 @@ import javax.validation.constraints.NotEmpty;
  */
 public class SceneConfig {
 
-    /** 短信服务商，目前仅支持阿里云 */
+    /** 短信服务商 */
     public enum Provider {
-        ALIYUN
+        ALIYUN,
+        /** 进程内桩实现，仅用于联调与压测 */
+        STUB
     }
 
     /** 场景类型：验证码或通知 */
@@ -31,6 +35,12 @@ public class SceneConfig {
 
     private Provider provider = Provider.ALIYUN;
 
+    /** 多服务商按权重分流，未配置时全部走 provider */
+    private Map<Provider, Integer> providerWeights;
+
+    /** 选中的服务商不健康或熔断时的备用服务商 */
+    private Provider fallbackProvider;
+
     private SceneType type = SceneType.NOTIFY;
 
     @Min(0)
@@ -38,6 +48,15 @@ public class SceneConfig {
 
     private String codeParamKey;
 
+    /** 服务端签发的验证码位数 */
+    @Min(4)
+    @Max(10)
+    private int codeLength = 6;
+
+    /** 单个验证码允许的最大校验失败次数，达到后锁定至过期 */
+    @Min(1)
+    private int maxVerifyAttempts = 5;
+
     @NotEmpty
     private List<String> paramWhitelist;
 
@@ -71,6 +90,22 @@ public class SceneConfig {
         this.provider = provider;
     }
 
+    public Map<Provider, Integer> getProviderWeights() {
+        return providerWeights;
+    }
+
+    public void setProviderWeights(Map<Provider, Integer> providerWeights) {
+        this.providerWeights = providerWeights;
+    }
+
+    public Provider getFallbackProvider() {
+        return fallbackProvider;
+    }
+
+    public void setFallbackProvider(Provider fallbackProvider) {
+        this.fallbackProvider = fallbackProvider;
+    }
+
     public SceneType getType() {
         return type;
     }
@@ -95,6 +130,22 @@ public class SceneConfig {
         this.codeParamKey = codeParamKey;
     }
 
+    public int getCodeLength() {
+        return codeLength;
+    }
+
+    public void setCodeLength(int codeLength) {
+        this.codeLength = codeLength;
+    }
+
+    public int getMaxVerifyAttempts() {
+        return maxVerifyAttempts;
+    }
+
+    public void setMaxVerifyAttempts(int maxVerifyAttempts) {
+        this.maxVerifyAttempts = maxVerifyAttempts;
+    }
+
     public List<String> getParamWhitelist() {
         return paramWhitelist;
     }
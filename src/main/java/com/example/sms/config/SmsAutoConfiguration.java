@@ -1,12 +1,99 @@
 package com.example.sms.config;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import com.example.sms.config.SmsProperties.OutboxProperties;
+import com.example.sms.config.SmsProperties.ScheduleProperties;
+import com.example.sms.core.AliyunSmsClient;
+import com.example.sms.core.FileOutboxStore;
+import com.example.sms.core.FileScheduledSendStore;
+import com.example.sms.core.MicrometerSmsMetrics;
+import com.example.sms.core.OutboxStore;
+import com.example.sms.core.RedisOutboxStore;
+import com.example.sms.core.RedisScheduledSendStore;
+import com.example.sms.core.RedisSmsRepository;
+import com.example.sms.core.SceneConfigResolver;
+import com.example.sms.core.ScheduledSendStore;
+import com.example.sms.core.SmsMetrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * 短信组件自动配置入口。
  */
 @Configuration
 @EnableConfigurationProperties(SmsProperties.class)
 public class SmsAutoConfiguration {
+
+    /**
+     * 未引入 Micrometer 或未定义指标实现时使用空实现。
+     */
+    @Bean
+    @ConditionalOnMissingBean(SmsMetrics.class)
+    public SmsMetrics noopSmsMetrics() {
+        return SmsMetrics.NOOP;
+    }
+
+    /**
+     * 开启发件箱时默认使用 Redis Stream；本地文件需显式配置 sms.outbox.store=FILE，Redis 不可用时不会自动切换。
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "sms.outbox", name = "enabled", havingValue = "true")
+    @ConditionalOnMissingBean(OutboxStore.class)
+    public OutboxStore smsOutboxStore(SmsProperties smsProperties, ObjectProvider<RedisSmsRepository> redisSmsRepository) {
+        OutboxProperties outbox = smsProperties.getOutbox();
+        if (outbox.getStore() == OutboxProperties.Store.FILE) {
+            return new FileOutboxStore(outbox);
+        }
+        return new RedisOutboxStore(redisSmsRepository.getObject(), outbox);
+    }
+
+    /**
+     * 开启定时发送时默认使用 Redis ZSET；本地文件需显式配置 sms.schedule.store=FILE，Redis 不可用时不会自动切换。
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "sms.schedule", name = "enabled", havingValue = "true")
+    @ConditionalOnMissingBean(ScheduledSendStore.class)
+    public ScheduledSendStore smsScheduledSendStore(SmsProperties smsProperties, ObjectProvider<RedisSmsRepository> redisSmsRepository) {
+        ScheduleProperties schedule = smsProperties.getSchedule();
+        if (schedule.getStore() == ScheduleProperties.Store.FILE) {
+            return new FileScheduledSendStore(schedule);
+        }
+        return new RedisScheduledSendStore(redisSmsRepository.getObject());
+    }
+
+    /**
+     * classpath 存在 Micrometer 时启用，容器中没有 MeterRegistry 仍退化为空实现。
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    static class MicrometerMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(SmsMetrics.class)
+        public SmsMetrics smsMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            return registry == null ? SmsMetrics.NOOP : new MicrometerSmsMetrics(registry);
+        }
+    }
+
+    /**
+     * classpath 存在 Spring Cloud Context 时启用，配置刷新后按事件中变更的 key 重新编译短信场景或轮换阿里云客户端。
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.cloud.context.environment.EnvironmentChangeEvent")
+    static class EnvironmentRefreshConfiguration {
+
+        @Bean
+        public SmsEnvironmentChangeListener smsEnvironmentChangeListener(SceneConfigResolver sceneConfigResolver,
+                                                                         AliyunSmsClient aliyunSmsClient) {
+            return new SmsEnvironmentChangeListener(sceneConfigResolver, aliyunSmsClient);
+        }
+    }
 }
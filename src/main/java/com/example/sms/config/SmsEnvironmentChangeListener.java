@@ -0,0 +1,55 @@
+package com.example.sms.config;
+
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationListener;
+
+import com.example.sms.core.AliyunSmsClient;
+import com.example.sms.core.SceneConfigResolver;
+
+/**
+ * Spring Cloud 配置刷新后重新编译短信场景并按需轮换阿里云客户端，
+ * 仅在 classpath 存在 spring-cloud-context 时由 {@link SmsAutoConfiguration} 注册。
+ * 变更的 key 不涉及对应配置时不做任何处理。
+ */
+class SmsEnvironmentChangeListener implements ApplicationListener<EnvironmentChangeEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(SmsEnvironmentChangeListener.class);
+
+    private static final String SCENES_PREFIX = "sms.scenes";
+    private static final String ALIYUN_PREFIX = "sms.aliyun";
+
+    private final SceneConfigResolver sceneConfigResolver;
+    private final AliyunSmsClient aliyunSmsClient;
+
+    SmsEnvironmentChangeListener(SceneConfigResolver sceneConfigResolver, AliyunSmsClient aliyunSmsClient) {
+        this.sceneConfigResolver = sceneConfigResolver;
+        this.aliyunSmsClient = aliyunSmsClient;
+    }
+
+    @Override
+    public void onApplicationEvent(EnvironmentChangeEvent event) {
+        if (changed(event.getKeys(), SCENES_PREFIX)) {
+            try {
+                sceneConfigResolver.reload();
+            } catch (RuntimeException ex) {
+                log.warn("Reload sms scene plans failed, keep previous plans, err={}", ex.toString());
+            }
+        }
+        if (changed(event.getKeys(), ALIYUN_PREFIX)) {
+            aliyunSmsClient.reloadClient();
+        }
+    }
+
+    private static boolean changed(Set<String> keys, String prefix) {
+        for (String key : keys) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
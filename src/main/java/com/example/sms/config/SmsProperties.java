@@ -1,9 +1,12 @@
 package com.example.sms.config;
 
+import java.util.HashMap;
 import java.util.Map;
 
 import javax.annotation.PostConstruct;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotEmpty;
 
 import org.apache.commons.lang3.StringUtils;
@@ -21,8 +24,75 @@ import com.example.sms.core.SmsException;
 public class SmsProperties {
 
     /** 阿里云基础配置 */
+    @Valid
     private final AliyunProperties aliyun = new AliyunProperties();
 
+    /** 限流存储配置 */
+    private final LimiterProperties limiter = new LimiterProperties();
+
+    /** 幂等存储配置 */
+    @Valid
+    private final IdempotencyProperties idempotency = new IdempotencyProperties();
+
+    /** 异步发送线程池配置 */
+    @Valid
+    private final AsyncProperties async = new AsyncProperties();
+
+    /** 通知短信合并批量发送配置 */
+    @Valid
+    private final NotifyBatchProperties notifyBatch = new NotifyBatchProperties();
+
+    /** 本地过期存储配置 */
+    @Valid
+    private final LocalStoreProperties localStore = new LocalStoreProperties();
+
+    /** 服务商调用熔断与自适应并发配置 */
+    @Valid
+    private final ProviderGuardProperties providerGuard = new ProviderGuardProperties();
+
+    /** 服务商出站配额配置 */
+    @Valid
+    private final ProviderQuotaProperties providerQuota = new ProviderQuotaProperties();
+
+    /** 多服务商路由配置 */
+    @Valid
+    private final RoutingProperties routing = new RoutingProperties();
+
+    /** 服务商调用重试与对冲配置 */
+    @Valid
+    private final RetryProperties retry = new RetryProperties();
+
+    /** 验证码与通知的发送通道隔离配置 */
+    @Valid
+    private final LaneProperties lane = new LaneProperties();
+
+    /** 桩服务商配置 */
+    @Valid
+    private final StubProperties stub = new StubProperties();
+
+    /** 可靠发件箱配置 */
+    @Valid
+    private final OutboxProperties outbox = new OutboxProperties();
+
+    /** 定时发送配置 */
+    @Valid
+    private final ScheduleProperties schedule = new ScheduleProperties();
+
+    /** 发送审计日志配置 */
+    @Valid
+    private final JournalProperties journal = new JournalProperties();
+
+    /** 送达回执轮询配置 */
+    @Valid
+    private final ReceiptProperties receipt = new ReceiptProperties();
+
+    /** 服务端验证码存储配置 */
+    private final VerifyCodeProperties verifyCode = new VerifyCodeProperties();
+
+    /** 短信轰炸热点检测配置 */
+    @Valid
+    private final AbuseProperties abuse = new AbuseProperties();
+
     /** scene -> 配置映射 */
     @NotEmpty
     @Valid
@@ -34,6 +104,9 @@ public class SmsProperties {
             throw new SmsException(ErrorCode.INVALID_CONFIG, "短信场景配置不能为空");
         }
         scenes.forEach(this::validateScene);
+        if (lane.isEnabled() && lane.getVerifyReserved() >= lane.getMaxConcurrent()) {
+            throw new SmsException(ErrorCode.INVALID_CONFIG, "验证码预留并发必须小于发送通道总并发");
+        }
     }
 
     private void validateScene(String scene, SceneConfig config) {
@@ -51,12 +124,87 @@ public class SmsProperties {
                 throw new SmsException(ErrorCode.INVALID_CONFIG, "验证码场景" + scene + "白名单必须包含验证码参数名");
             }
         }
+        Map<SceneConfig.Provider, Integer> weights = config.getProviderWeights();
+        if (weights != null && !weights.isEmpty()) {
+            if (weights.values().stream().anyMatch(weight -> weight == null || weight < 0)
+                || weights.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+                throw new SmsException(ErrorCode.INVALID_CONFIG, "场景" + scene + "服务商权重必须为非负数且总和大于 0");
+            }
+        }
     }
 
     public AliyunProperties getAliyun() {
         return aliyun;
     }
 
+    public LimiterProperties getLimiter() {
+        return limiter;
+    }
+
+    public IdempotencyProperties getIdempotency() {
+        return idempotency;
+    }
+
+    public AsyncProperties getAsync() {
+        return async;
+    }
+
+    public NotifyBatchProperties getNotifyBatch() {
+        return notifyBatch;
+    }
+
+    public LocalStoreProperties getLocalStore() {
+        return localStore;
+    }
+
+    public ProviderGuardProperties getProviderGuard() {
+        return providerGuard;
+    }
+
+    public ProviderQuotaProperties getProviderQuota() {
+        return providerQuota;
+    }
+
+    public RoutingProperties getRouting() {
+        return routing;
+    }
+
+    public RetryProperties getRetry() {
+        return retry;
+    }
+
+    public LaneProperties getLane() {
+        return lane;
+    }
+
+    public StubProperties getStub() {
+        return stub;
+    }
+
+    public OutboxProperties getOutbox() {
+        return outbox;
+    }
+
+    public ScheduleProperties getSchedule() {
+        return schedule;
+    }
+
+    public JournalProperties getJournal() {
+        return journal;
+    }
+
+    public ReceiptProperties getReceipt() {
+        return receipt;
+    }
+
+    public VerifyCodeProperties getVerifyCode() {
+        return verifyCode;
+    }
+
+    public AbuseProperties getAbuse() {
+        return abuse;
+    }
+
     public Map<String, SceneConfig> getScenes() {
         return scenes;
     }
@@ -78,6 +226,22 @@ public class SmsProperties {
 
         private int timeout = 5000;
 
+        /** 是否复用长连接 */
+        private boolean keepAlive = true;
+
+        /**
+         * 连接池最大空闲连接数。SDK 按 endpoint 在进程内缓存 HTTP 客户端，以首次调用时的设置为准。
+         */
+        @Min(1)
+        private int maxIdleConns = 16;
+
+        /** 启动完成时预先建立到 endpoint 的连接，凭证或 endpoint 轮换后同样预热 */
+        private boolean warmUp;
+
+        /** 预热时并发建立的连接数，不超过 maxIdleConns 才能全部保留 */
+        @Min(1)
+        private int warmUpConnections = 4;
+
         public String getAccessKeyId() {
             return accessKeyId;
         }
@@ -110,6 +274,38 @@ public class SmsProperties {
             this.timeout = timeout;
         }
 
+        public boolean isKeepAlive() {
+            return keepAlive;
+        }
+
+        public void setKeepAlive(boolean keepAlive) {
+            this.keepAlive = keepAlive;
+        }
+
+        public int getMaxIdleConns() {
+            return maxIdleConns;
+        }
+
+        public void setMaxIdleConns(int maxIdleConns) {
+            this.maxIdleConns = maxIdleConns;
+        }
+
+        public boolean isWarmUp() {
+            return warmUp;
+        }
+
+        public void setWarmUp(boolean warmUp) {
+            this.warmUp = warmUp;
+        }
+
+        public int getWarmUpConnections() {
+            return warmUpConnections;
+        }
+
+        public void setWarmUpConnections(int warmUpConnections) {
+            this.warmUpConnections = warmUpConnections;
+        }
+
         public boolean isComplete() {
             return StringUtils.isNotBlank(accessKeyId)
                 && StringUtils.isNotBlank(accessKeySecret)
@@ -121,4 +317,1516 @@ public class SmsProperties {
             return "AliyunProperties{endpoint='" + endpoint + '\'' + "'}";
         }
     }
+
+    /**
+     * 限流存储配置，多实例部署时应使用 Redis 以保证限额全局生效。
+     */
+    public static class LimiterProperties {
+
+        /** 限流存储后端 */
+        public enum Backend {
+            /** 单机内存计数，限额按实例数放大 */
+            MEMORY,
+            /** Redis 计数，所有实例共享限额 */
+            REDIS,
+            /** 在 Redis 计数的基础上按场景 leasePermits 租用 IP 分钟配额在本地扣减，手机号间隔与日计数仍逐次访问 Redis */
+            LEASED
+        }
+
+        private Backend backend = Backend.MEMORY;
+
+        public Backend getBackend() {
+            return backend;
+        }
+
+        public void setBackend(Backend backend) {
+            this.backend = backend;
+        }
+    }
+
+    /**
+     * 幂等存储配置。发送前预占幂等 key，成功后延长至场景幂等窗口，服务商调用失败时释放。
+     */
+    public static class IdempotencyProperties {
+
+        /** 幂等存储后端 */
+        public enum Backend {
+            /** 单机内存表，仅拦截同一实例内的重复请求 */
+            MEMORY,
+            /** Redis 预占，所有实例共享幂等状态 */
+            REDIS
+        }
+
+        private Backend backend = Backend.MEMORY;
+
+        /** 预占后处理中状态的保留时间，单位秒，应大于服务商调用超时，进程异常退出时预占在此后自动失效 */
+        @Min(1)
+        private long inFlightTtlSeconds = 30;
+
+        public Backend getBackend() {
+            return backend;
+        }
+
+        public void setBackend(Backend backend) {
+            this.backend = backend;
+        }
+
+        public long getInFlightTtlSeconds() {
+            return inFlightTtlSeconds;
+        }
+
+        public void setInFlightTtlSeconds(long inFlightTtlSeconds) {
+            this.inFlightTtlSeconds = inFlightTtlSeconds;
+        }
+    }
+
+    /**
+     * 本地限流与幂等状态的内存上限与清理周期。
+     */
+    public static class LocalStoreProperties {
+
+        /** 单个存储的最大条目数，达到后先清理已到期条目，仍无空间则拒绝新 key，已有条目不会被淘汰 */
+        @Min(1)
+        private int maxEntries = 100_000;
+
+        /** 后台清理周期，单位毫秒 */
+        @Min(10)
+        private long sweepIntervalMillis = 1000;
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public long getSweepIntervalMillis() {
+            return sweepIntervalMillis;
+        }
+
+        public void setSweepIntervalMillis(long sweepIntervalMillis) {
+            this.sweepIntervalMillis = sweepIntervalMillis;
+        }
+    }
+
+    /**
+     * 短信轰炸热点检测：跨场景按 IP 网段与手机号段聚合请求数，使用定宽 Count-Min Sketch 与 Top-K，
+     * 内存与 key 数量无关。阈值按滑动窗口内的请求数计，0 表示不检测该维度。
+     */
+    public static class AbuseProperties {
+
+        /** 超过阈值时的处理方式 */
+        public enum Action {
+            /** 仅记录指标与日志 */
+            FLAG,
+            /** 拒绝发送，错误码 ABUSE_SUSPECTED */
+            REJECT
+        }
+
+        private boolean enabled;
+
+        private Action action = Action.FLAG;
+
+        /** 统计窗口，单位秒 */
+        @Min(1)
+        private long windowSeconds = 60;
+
+        /** 同一 IPv4 /24（IPv6 前四段）窗口内请求数阈值 */
+        @Min(0)
+        private long ipPrefixThreshold;
+
+        /** 同一手机号段窗口内请求数阈值 */
+        @Min(0)
+        private long mobilePrefixThreshold;
+
+        /** 手机号段长度，默认前 7 位 */
+        @Min(1)
+        private int mobilePrefixLength = 7;
+
+        /** Sketch 每行计数器数，向上取整为 2 的幂 */
+        @Min(64)
+        private int sketchWidth = 4096;
+
+        /** Sketch 行数 */
+        @Min(1)
+        @Max(8)
+        private int sketchDepth = 4;
+
+        /** 保留的热点数 */
+        @Min(1)
+        @Max(1000)
+        private int topK = 20;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Action getAction() {
+            return action;
+        }
+
+        public void setAction(Action action) {
+            this.action = action;
+        }
+
+        public long getWindowSeconds() {
+            return windowSeconds;
+        }
+
+        public void setWindowSeconds(long windowSeconds) {
+            this.windowSeconds = windowSeconds;
+        }
+
+        public long getIpPrefixThreshold() {
+            return ipPrefixThreshold;
+        }
+
+        public void setIpPrefixThreshold(long ipPrefixThreshold) {
+            this.ipPrefixThreshold = ipPrefixThreshold;
+        }
+
+        public long getMobilePrefixThreshold() {
+            return mobilePrefixThreshold;
+        }
+
+        public void setMobilePrefixThreshold(long mobilePrefixThreshold) {
+            this.mobilePrefixThreshold = mobilePrefixThreshold;
+        }
+
+        public int getMobilePrefixLength() {
+            return mobilePrefixLength;
+        }
+
+        public void setMobilePrefixLength(int mobilePrefixLength) {
+            this.mobilePrefixLength = mobilePrefixLength;
+        }
+
+        public int getSketchWidth() {
+            return sketchWidth;
+        }
+
+        public void setSketchWidth(int sketchWidth) {
+            this.sketchWidth = sketchWidth;
+        }
+
+        public int getSketchDepth() {
+            return sketchDepth;
+        }
+
+        public void setSketchDepth(int sketchDepth) {
+            this.sketchDepth = sketchDepth;
+        }
+
+        public int getTopK() {
+            return topK;
+        }
+
+        public void setTopK(int topK) {
+            this.topK = topK;
+        }
+    }
+
+    /**
+     * 异步发送线程池配置，线程池与队列均有界，避免服务商变慢时拖垮调用方。
+     * 开启 virtualThreads 且运行在 Java 21 及以上时改为每个任务一个虚拟线程，
+     * 在途任务数由 virtualMaxConcurrent 限制，线程池参数不再生效；运行时不支持虚拟线程时仍使用线程池。
+     */
+    public static class AsyncProperties {
+
+        /** 队列已满时的处理策略 */
+        public enum RejectPolicy {
+            /** 直接拒绝，返回 ASYNC_REJECTED */
+            REJECT,
+            /** 由调用线程同步执行 */
+            CALLER_RUNS
+        }
+
+        @Min(1)
+        private int corePoolSize = 4;
+
+        @Min(1)
+        private int maxPoolSize = 16;
+
+        @Min(0)
+        private int queueCapacity = 200;
+
+        @Min(0)
+        private long keepAliveSeconds = 60;
+
+        private RejectPolicy rejectPolicy = RejectPolicy.REJECT;
+
+        /** 是否在支持的运行时上使用虚拟线程执行异步发送与对冲调用 */
+        private boolean virtualThreads;
+
+        /** 虚拟线程模式下的最大在途任务数，超过时按 rejectPolicy 处理 */
+        @Min(1)
+        private int virtualMaxConcurrent = 10_000;
+
+        public int getCorePoolSize() {
+            return corePoolSize;
+        }
+
+        public void setCorePoolSize(int corePoolSize) {
+            this.corePoolSize = corePoolSize;
+        }
+
+        public int getMaxPoolSize() {
+            return maxPoolSize;
+        }
+
+        public void setMaxPoolSize(int maxPoolSize) {
+            this.maxPoolSize = maxPoolSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public long getKeepAliveSeconds() {
+            return keepAliveSeconds;
+        }
+
+        public void setKeepAliveSeconds(long keepAliveSeconds) {
+            this.keepAliveSeconds = keepAliveSeconds;
+        }
+
+        public RejectPolicy getRejectPolicy() {
+            return rejectPolicy;
+        }
+
+        public void setRejectPolicy(RejectPolicy rejectPolicy) {
+            this.rejectPolicy = rejectPolicy;
+        }
+
+        public boolean isVirtualThreads() {
+            return virtualThreads;
+        }
+
+        public void setVirtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+        }
+
+        public int getVirtualMaxConcurrent() {
+            return virtualMaxConcurrent;
+        }
+
+        public void setVirtualMaxConcurrent(int virtualMaxConcurrent) {
+            this.virtualMaxConcurrent = virtualMaxConcurrent;
+        }
+    }
+
+    /**
+     * 通知短信合并配置，开启后同一场景在等待窗口内的并发发送会合并为一次批量请求。
+     */
+    public static class NotifyBatchProperties {
+
+        private boolean enabled;
+
+        /** 首条请求入队后的最长等待时间，单位毫秒 */
+        @Min(0)
+        private long lingerMillis = 5;
+
+        /** 单批最大号码数，不超过服务商上限 100 */
+        @Min(1)
+        @Max(100)
+        private int maxBatchSize = 100;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getLingerMillis() {
+            return lingerMillis;
+        }
+
+        public void setLingerMillis(long lingerMillis) {
+            this.lingerMillis = lingerMillis;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+    }
+
+    /**
+     * 服务商调用保护：按错误率或慢调用比例熔断，并按延迟与限流信号自适应调整并发上限。
+     */
+    public static class ProviderGuardProperties {
+
+        private boolean enabled = true;
+
+        /** 统计窗口内的调用数，调用方错误（参数、号码、认证、账户）不计入 */
+        @Min(1)
+        private int windowSize = 50;
+
+        /** 窗口内调用数达到该值后才计算失败率 */
+        @Min(1)
+        private int minimumCalls = 20;
+
+        /** 失败率阈值（百分比），仅统计服务商侧故障 */
+        @Min(1)
+        @Max(100)
+        private int failureRateThreshold = 50;
+
+        /** 超过该耗时视为慢调用，单位毫秒 */
+        @Min(1)
+        private long slowCallThresholdMillis = 2000;
+
+        /** 慢调用比例阈值（百分比） */
+        @Min(1)
+        @Max(100)
+        private int slowCallRateThreshold = 80;
+
+        /** 熔断打开后的等待时间，单位毫秒 */
+        @Min(1)
+        private long openDurationMillis = 30_000;
+
+        /** 半开状态允许的探测调用数 */
+        @Min(1)
+        private int halfOpenPermittedCalls = 5;
+
+        /**
+         * 是否按 AIMD 自适应限制每个服务商的并发，默认关闭，只保留熔断；
+         * 开启后并发超过上限的调用以 PROVIDER_CONCURRENCY_LIMITED 快速失败
+         */
+        private boolean adaptiveLimit;
+
+        /** 开启自适应并发上限时的初始值 */
+        @Min(1)
+        private int initialLimit = 20;
+
+        @Min(1)
+        private int minLimit = 2;
+
+        @Min(1)
+        private int maxLimit = 100;
+
+        /** 出现限流或慢调用时并发上限的收缩系数 */
+        @Min(0)
+        @Max(1)
+        private double backoffRatio = 0.7;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getWindowSize() {
+            return windowSize;
+        }
+
+        public void setWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+        }
+
+        public int getMinimumCalls() {
+            return minimumCalls;
+        }
+
+        public void setMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+        }
+
+        public int getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(int failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public long getSlowCallThresholdMillis() {
+            return slowCallThresholdMillis;
+        }
+
+        public void setSlowCallThresholdMillis(long slowCallThresholdMillis) {
+            this.slowCallThresholdMillis = slowCallThresholdMillis;
+        }
+
+        public int getSlowCallRateThreshold() {
+            return slowCallRateThreshold;
+        }
+
+        public void setSlowCallRateThreshold(int slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+        }
+
+        public long getOpenDurationMillis() {
+            return openDurationMillis;
+        }
+
+        public void setOpenDurationMillis(long openDurationMillis) {
+            this.openDurationMillis = openDurationMillis;
+        }
+
+        public int getHalfOpenPermittedCalls() {
+            return halfOpenPermittedCalls;
+        }
+
+        public void setHalfOpenPermittedCalls(int halfOpenPermittedCalls) {
+            this.halfOpenPermittedCalls = halfOpenPermittedCalls;
+        }
+
+        public boolean isAdaptiveLimit() {
+            return adaptiveLimit;
+        }
+
+        public void setAdaptiveLimit(boolean adaptiveLimit) {
+            this.adaptiveLimit = adaptiveLimit;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public double getBackoffRatio() {
+            return backoffRatio;
+        }
+
+        public void setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+        }
+    }
+
+    /**
+     * 服务商出站配额：调用服务商前按账号、签名与模板预约发送时刻，超出配额的请求短暂等待而不是被服务商限流。
+     * 默认通过 Redis 在所有节点间共享，Redis 不可用时各节点按 qps / fallbackNodes 本地限速。
+     */
+    public static class ProviderQuotaProperties {
+
+        /** 配额状态存储 */
+        public enum Backend {
+            /** 单节点本地限速 */
+            MEMORY,
+            /** 所有节点共享 */
+            REDIS
+        }
+
+        private boolean enabled;
+
+        private Backend backend = Backend.REDIS;
+
+        /** 等待配额的最长时间，单位毫秒，超过时不发送并抛出 PROVIDER_QUOTA_LIMITED */
+        @Min(0)
+        private long maxWaitMillis = 200;
+
+        /** 允许的突发调用数，1 表示严格匀速 */
+        @Min(1)
+        private int burst = 1;
+
+        /** Redis 不可用时本地限速按配额除以该节点数 */
+        @Min(1)
+        private int fallbackNodes = 1;
+
+        /** 服务商（小写名称，如 aliyun）-> 账号级 QPS */
+        private Map<String, Long> qps = new HashMap<>();
+
+        /** 签名 -> QPS */
+        private Map<String, Long> signQps = new HashMap<>();
+
+        /** 模板编码 -> QPS */
+        private Map<String, Long> templateQps = new HashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Backend getBackend() {
+            return backend;
+        }
+
+        public void setBackend(Backend backend) {
+            this.backend = backend;
+        }
+
+        public long getMaxWaitMillis() {
+            return maxWaitMillis;
+        }
+
+        public void setMaxWaitMillis(long maxWaitMillis) {
+            this.maxWaitMillis = maxWaitMillis;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+
+        public int getFallbackNodes() {
+            return fallbackNodes;
+        }
+
+        public void setFallbackNodes(int fallbackNodes) {
+            this.fallbackNodes = fallbackNodes;
+        }
+
+        public Map<String, Long> getQps() {
+            return qps;
+        }
+
+        public void setQps(Map<String, Long> qps) {
+            this.qps = qps;
+        }
+
+        public Map<String, Long> getSignQps() {
+            return signQps;
+        }
+
+        public void setSignQps(Map<String, Long> signQps) {
+            this.signQps = signQps;
+        }
+
+        public Map<String, Long> getTemplateQps() {
+            return templateQps;
+        }
+
+        public void setTemplateQps(Map<String, Long> templateQps) {
+            this.templateQps = templateQps;
+        }
+    }
+
+    /**
+     * 多服务商路由：按滚动窗口内的 p99 延迟与错误率判断服务商健康状况，不健康的服务商不参与加权选择。
+     */
+    public static class RoutingProperties {
+
+        /** 每个服务商保留的最近调用样本数 */
+        @Min(1)
+        private int windowSize = 200;
+
+        /** 样本数达到该值后才评估健康状况 */
+        @Min(1)
+        private int minimumSamples = 20;
+
+        /** p99 延迟阈值，单位毫秒 */
+        @Min(1)
+        private long p99ThresholdMillis = 3000;
+
+        /** 错误率阈值（百分比），仅统计服务商侧故障 */
+        @Min(1)
+        @Max(100)
+        private int errorRateThreshold = 30;
+
+        /** 健康指标的重新计算间隔，单位毫秒 */
+        @Min(1)
+        private long refreshIntervalMillis = 1000;
+
+        public int getWindowSize() {
+            return windowSize;
+        }
+
+        public void setWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+        }
+
+        public int getMinimumSamples() {
+            return minimumSamples;
+        }
+
+        public void setMinimumSamples(int minimumSamples) {
+            this.minimumSamples = minimumSamples;
+        }
+
+        public long getP99ThresholdMillis() {
+            return p99ThresholdMillis;
+        }
+
+        public void setP99ThresholdMillis(long p99ThresholdMillis) {
+            this.p99ThresholdMillis = p99ThresholdMillis;
+        }
+
+        public int getErrorRateThreshold() {
+            return errorRateThreshold;
+        }
+
+        public void setErrorRateThreshold(int errorRateThreshold) {
+            this.errorRateThreshold = errorRateThreshold;
+        }
+
+        public long getRefreshIntervalMillis() {
+            return refreshIntervalMillis;
+        }
+
+        public void setRefreshIntervalMillis(long refreshIntervalMillis) {
+            this.refreshIntervalMillis = refreshIntervalMillis;
+        }
+    }
+
+    /**
+     * 桩服务商配置，仅用于联调与压测。
+     */
+    public static class StubProperties {
+
+        private boolean enabled;
+
+        /** 每次调用的模拟延迟，单位毫秒 */
+        @Min(0)
+        private long latencyMillis;
+
+        /** 模拟失败比例（百分比），失败时返回服务商限流 */
+        @Min(0)
+        @Max(100)
+        private int failurePercent;
+
+        /** 发送成功后多久可查到回执，单位毫秒 */
+        @Min(0)
+        private long receiptDelayMillis;
+
+        /** 回执为送达失败的比例（百分比） */
+        @Min(0)
+        @Max(100)
+        private int receiptFailurePercent;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getLatencyMillis() {
+            return latencyMillis;
+        }
+
+        public void setLatencyMillis(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+        }
+
+        public int getFailurePercent() {
+            return failurePercent;
+        }
+
+        public void setFailurePercent(int failurePercent) {
+            this.failurePercent = failurePercent;
+        }
+
+        public long getReceiptDelayMillis() {
+            return receiptDelayMillis;
+        }
+
+        public void setReceiptDelayMillis(long receiptDelayMillis) {
+            this.receiptDelayMillis = receiptDelayMillis;
+        }
+
+        public int getReceiptFailurePercent() {
+            return receiptFailurePercent;
+        }
+
+        public void setReceiptFailurePercent(int receiptFailurePercent) {
+            this.receiptFailurePercent = receiptFailurePercent;
+        }
+    }
+
+    /**
+     * 服务商调用重试与对冲：瞬时故障（接口限流、系统繁忙、超时）按带抖动的指数退避重试，参数、号码、认证、账户与未识别错误不重试，批量发送不重试；
+     * 可选在单号码发送耗时超过滚动 p95 时发起对冲请求，取先成功的结果。重试与对冲共用同一 outId，
+     * 并受进程级重试预算约束：每次发送存入 budgetPercent% 个令牌，每次重试或对冲消耗 1 个。
+     */
+    public static class RetryProperties {
+
+        /** 每次发送的最大尝试次数（含首次），1 表示不重试 */
+        @Min(1)
+        private int maxAttempts = 2;
+
+        /** 退避基数，第 n 次重试前在 [0, min(maxBackoffMillis, base × 2^(n-1))] 内随机等待，单位毫秒 */
+        @Min(1)
+        private long baseBackoffMillis = 50;
+
+        @Min(1)
+        private long maxBackoffMillis = 1000;
+
+        /** 重试预算占发送量的比例（百分比） */
+        @Min(0)
+        @Max(100)
+        private int budgetPercent = 10;
+
+        /** 重试预算余额上限，也是启动时的初始余额 */
+        @Min(0)
+        private int budgetCapacity = 20;
+
+        /** 是否对单号码发送发起对冲请求 */
+        private boolean hedgeEnabled;
+
+        /** 对冲等待的下限，滚动 p95 低于该值时按该值等待，单位毫秒 */
+        @Min(1)
+        private long hedgeMinDelayMillis = 100;
+
+        /** 执行对冲调用的线程数上限，线程用尽时不对冲 */
+        @Min(1)
+        private int hedgeMaxThreads = 64;
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public long getBaseBackoffMillis() {
+            return baseBackoffMillis;
+        }
+
+        public void setBaseBackoffMillis(long baseBackoffMillis) {
+            this.baseBackoffMillis = baseBackoffMillis;
+        }
+
+        public long getMaxBackoffMillis() {
+            return maxBackoffMillis;
+        }
+
+        public void setMaxBackoffMillis(long maxBackoffMillis) {
+            this.maxBackoffMillis = maxBackoffMillis;
+        }
+
+        public int getBudgetPercent() {
+            return budgetPercent;
+        }
+
+        public void setBudgetPercent(int budgetPercent) {
+            this.budgetPercent = budgetPercent;
+        }
+
+        public int getBudgetCapacity() {
+            return budgetCapacity;
+        }
+
+        public void setBudgetCapacity(int budgetCapacity) {
+            this.budgetCapacity = budgetCapacity;
+        }
+
+        public boolean isHedgeEnabled() {
+            return hedgeEnabled;
+        }
+
+        public void setHedgeEnabled(boolean hedgeEnabled) {
+            this.hedgeEnabled = hedgeEnabled;
+        }
+
+        public long getHedgeMinDelayMillis() {
+            return hedgeMinDelayMillis;
+        }
+
+        public void setHedgeMinDelayMillis(long hedgeMinDelayMillis) {
+            this.hedgeMinDelayMillis = hedgeMinDelayMillis;
+        }
+
+        public int getHedgeMaxThreads() {
+            return hedgeMaxThreads;
+        }
+
+        public void setHedgeMaxThreads(int hedgeMaxThreads) {
+            this.hedgeMaxThreads = hedgeMaxThreads;
+        }
+    }
+
+    /**
+     * 按场景类型划分的发送通道：验证码与通知共用 maxConcurrent 个服务商调用并发，其中 verifyReserved 个只供验证码使用；
+     * 并发占满时各通道在自己的有界队列中等待，释放的并发优先交给等待中的验证码。
+     * 通知通道的等待时间与服务商配额等待时间更短，饱和时先于验证码被削减或推迟。
+     */
+    public static class LaneProperties {
+
+        private boolean enabled;
+
+        /** 两个通道合计的服务商调用并发上限（不含对冲调用） */
+        @Min(1)
+        private int maxConcurrent = 64;
+
+        /** 只供验证码使用的并发数，必须小于 maxConcurrent */
+        @Min(0)
+        private int verifyReserved = 16;
+
+        /** 验证码通道的最大排队数 */
+        @Min(0)
+        private int verifyMaxQueue = 500;
+
+        /** 验证码通道的最长排队时间，单位毫秒 */
+        @Min(0)
+        private long verifyMaxWaitMillis = 2000;
+
+        /** 通知通道的最大排队数，超过后直接拒绝 */
+        @Min(0)
+        private int notifyMaxQueue = 200;
+
+        /** 通知通道的最长排队时间，单位毫秒 */
+        @Min(0)
+        private long notifyMaxWaitMillis = 100;
+
+        /** 通知通道等待出站配额的最长时间，替代 provider-quota.max-wait-millis，单位毫秒 */
+        @Min(0)
+        private long notifyQuotaMaxWaitMillis = 50;
+
+        /** 验证码异步发送专用线程数，与通知共用的异步线程池隔离 */
+        @Min(1)
+        private int verifyAsyncThreads = 4;
+
+        /** 验证码异步发送专用队列容量，0 表示不排队；虚拟线程模式下与线程数之和为验证码的在途任务上限 */
+        @Min(0)
+        private int verifyAsyncQueueCapacity = 200;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public int getVerifyReserved() {
+            return verifyReserved;
+        }
+
+        public void setVerifyReserved(int verifyReserved) {
+            this.verifyReserved = verifyReserved;
+        }
+
+        public int getVerifyMaxQueue() {
+            return verifyMaxQueue;
+        }
+
+        public void setVerifyMaxQueue(int verifyMaxQueue) {
+            this.verifyMaxQueue = verifyMaxQueue;
+        }
+
+        public long getVerifyMaxWaitMillis() {
+            return verifyMaxWaitMillis;
+        }
+
+        public void setVerifyMaxWaitMillis(long verifyMaxWaitMillis) {
+            this.verifyMaxWaitMillis = verifyMaxWaitMillis;
+        }
+
+        public int getNotifyMaxQueue() {
+            return notifyMaxQueue;
+        }
+
+        public void setNotifyMaxQueue(int notifyMaxQueue) {
+            this.notifyMaxQueue = notifyMaxQueue;
+        }
+
+        public long getNotifyMaxWaitMillis() {
+            return notifyMaxWaitMillis;
+        }
+
+        public void setNotifyMaxWaitMillis(long notifyMaxWaitMillis) {
+            this.notifyMaxWaitMillis = notifyMaxWaitMillis;
+        }
+
+        public long getNotifyQuotaMaxWaitMillis() {
+            return notifyQuotaMaxWaitMillis;
+        }
+
+        public void setNotifyQuotaMaxWaitMillis(long notifyQuotaMaxWaitMillis) {
+            this.notifyQuotaMaxWaitMillis = notifyQuotaMaxWaitMillis;
+        }
+
+        public int getVerifyAsyncThreads() {
+            return verifyAsyncThreads;
+        }
+
+        public void setVerifyAsyncThreads(int verifyAsyncThreads) {
+            this.verifyAsyncThreads = verifyAsyncThreads;
+        }
+
+        public int getVerifyAsyncQueueCapacity() {
+            return verifyAsyncQueueCapacity;
+        }
+
+        public void setVerifyAsyncQueueCapacity(int verifyAsyncQueueCapacity) {
+            this.verifyAsyncQueueCapacity = verifyAsyncQueueCapacity;
+        }
+    }
+
+    /**
+     * 送达回执轮询：发送成功后跟踪 bizId 与 outId，按号码与发送日期分组批量查询服务商回执，
+     * 查询速率受 qps 限制，得到最终状态或超过 maxAgeSeconds 后通知监听器并移出跟踪。
+     */
+    public static class ReceiptProperties {
+
+        private boolean enabled;
+
+        /** 发送后首次查询的延迟，单位秒 */
+        @Min(0)
+        private long initialDelaySeconds = 15;
+
+        /** 同一分组两次查询的最小间隔，仍未出结果时翻倍直至 maxPollIntervalSeconds，单位秒 */
+        @Min(1)
+        private long pollIntervalSeconds = 30;
+
+        @Min(1)
+        private long maxPollIntervalSeconds = 600;
+
+        /** 跟踪时长，超过后按 EXPIRED 通知，单位秒 */
+        @Min(1)
+        private long maxAgeSeconds = 6 * 3600;
+
+        /** 每个节点的回执查询速率上限，按服务商请求计，分页查询的每一页计一次 */
+        @Min(1)
+        private int qps = 10;
+
+        /** 最多同时跟踪的短信数，超出后新发送的短信不再跟踪 */
+        @Min(1)
+        private int maxPending = 100_000;
+
+        /** 服务商按该时区的日期归档发送记录 */
+        private String zoneId = "Asia/Shanghai";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getInitialDelaySeconds() {
+            return initialDelaySeconds;
+        }
+
+        public void setInitialDelaySeconds(long initialDelaySeconds) {
+            this.initialDelaySeconds = initialDelaySeconds;
+        }
+
+        public long getPollIntervalSeconds() {
+            return pollIntervalSeconds;
+        }
+
+        public void setPollIntervalSeconds(long pollIntervalSeconds) {
+            this.pollIntervalSeconds = pollIntervalSeconds;
+        }
+
+        public long getMaxPollIntervalSeconds() {
+            return maxPollIntervalSeconds;
+        }
+
+        public void setMaxPollIntervalSeconds(long maxPollIntervalSeconds) {
+            this.maxPollIntervalSeconds = maxPollIntervalSeconds;
+        }
+
+        public long getMaxAgeSeconds() {
+            return maxAgeSeconds;
+        }
+
+        public void setMaxAgeSeconds(long maxAgeSeconds) {
+            this.maxAgeSeconds = maxAgeSeconds;
+        }
+
+        public int getQps() {
+            return qps;
+        }
+
+        public void setQps(int qps) {
+            this.qps = qps;
+        }
+
+        public int getMaxPending() {
+            return maxPending;
+        }
+
+        public void setMaxPending(int maxPending) {
+            this.maxPending = maxPending;
+        }
+
+        public String getZoneId() {
+            return zoneId;
+        }
+
+        public void setZoneId(String zoneId) {
+            this.zoneId = zoneId;
+        }
+    }
+
+    /**
+     * 发送审计日志：每次服务商调用以二进制记录追加到内存映射的分段文件，由单个后台线程写入，
+     * 开启后成功发送的 INFO 日志降为 DEBUG。
+     */
+    public static class JournalProperties {
+
+        private boolean enabled;
+
+        /** 分段文件目录 */
+        private String directory = "sms-journal";
+
+        /** 单个分段文件大小，写满后切换新文件，单位字节 */
+        @Min(65_536)
+        @Max(Integer.MAX_VALUE)
+        private long segmentBytes = 64L * 1024 * 1024;
+
+        /** 保留的分段文件数，超出后删除最早的分段 */
+        @Min(1)
+        private int maxSegments = 24;
+
+        /** 内存环形缓冲容量，向上取整为 2 的幂，写满时丢弃新记录而不阻塞发送 */
+        @Min(16)
+        private int ringCapacity = 16_384;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public long getSegmentBytes() {
+            return segmentBytes;
+        }
+
+        public void setSegmentBytes(long segmentBytes) {
+            this.segmentBytes = segmentBytes;
+        }
+
+        public int getMaxSegments() {
+            return maxSegments;
+        }
+
+        public void setMaxSegments(int maxSegments) {
+            this.maxSegments = maxSegments;
+        }
+
+        public int getRingCapacity() {
+            return ringCapacity;
+        }
+
+        public void setRingCapacity(int ringCapacity) {
+            this.ringCapacity = ringCapacity;
+        }
+    }
+
+    /**
+     * 定时发送：通知短信按指定时间持久化到 Redis ZSET（显式选择 FILE 时为本地文件），
+     * 各节点只认领未来 lookaheadMillis 内到期的消息放入本地时间轮，到期后按场景合并批量发送。
+     */
+    public static class ScheduleProperties {
+
+        /** 定时发送存储 */
+        public enum Store {
+            /** Redis ZSET，多实例共享 */
+            REDIS,
+            /** 本地文件日志，仅单实例 */
+            FILE
+        }
+
+        private boolean enabled;
+
+        /** 存储，默认 REDIS；FILE 仅适用于单实例，需显式选择，不会因 Redis 不可用而自动切换 */
+        private Store store = Store.REDIS;
+
+        /** 本地文件存储目录 */
+        private String fileDirectory = "sms-schedule";
+
+        /** 每次写入后是否强制刷盘 */
+        private boolean fileSync = true;
+
+        /** 时间轮刻度，即到期发送的最大延迟，单位毫秒 */
+        @Min(10)
+        private long tickMillis = 100;
+
+        /** 时间轮每层的槽数 */
+        @Min(16)
+        private int wheelSize = 512;
+
+        /** 每次认领未来多长时间内到期的消息，单位毫秒 */
+        @Min(1)
+        private long lookaheadMillis = 10_000;
+
+        /** 认领间隔，单位毫秒 */
+        @Min(1)
+        private long loadIntervalMillis = 1000;
+
+        /** 单次认领的最大条数 */
+        @Min(1)
+        private int loadBatchSize = 1000;
+
+        /** 本地时间轮最多持有的消息数，达到后暂停认领 */
+        @Min(1)
+        private int maxBuffered = 20_000;
+
+        /** 认领后超过到期时间该时长仍未完成时视为节点失联，消息重新排期，单位毫秒 */
+        @Min(1)
+        private long leaseMillis = 60_000;
+
+        /** 最大发送次数（含首次），仅瞬时故障时重试；本地拒绝未发出（异步队列、发送通道已满等）的延后不计入 */
+        @Min(1)
+        private int maxAttempts = 3;
+
+        /** 重试间隔，单位毫秒 */
+        @Min(1)
+        private long retryDelayMillis = 30_000;
+
+        /** 最远可预约的天数 */
+        @Min(1)
+        private int maxDelayDays = 30;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Store getStore() {
+            return store;
+        }
+
+        public void setStore(Store store) {
+            this.store = store;
+        }
+
+        public String getFileDirectory() {
+            return fileDirectory;
+        }
+
+        public void setFileDirectory(String fileDirectory) {
+            this.fileDirectory = fileDirectory;
+        }
+
+        public boolean isFileSync() {
+            return fileSync;
+        }
+
+        public void setFileSync(boolean fileSync) {
+            this.fileSync = fileSync;
+        }
+
+        public long getTickMillis() {
+            return tickMillis;
+        }
+
+        public void setTickMillis(long tickMillis) {
+            this.tickMillis = tickMillis;
+        }
+
+        public int getWheelSize() {
+            return wheelSize;
+        }
+
+        public void setWheelSize(int wheelSize) {
+            this.wheelSize = wheelSize;
+        }
+
+        public long getLookaheadMillis() {
+            return lookaheadMillis;
+        }
+
+        public void setLookaheadMillis(long lookaheadMillis) {
+            this.lookaheadMillis = lookaheadMillis;
+        }
+
+        public long getLoadIntervalMillis() {
+            return loadIntervalMillis;
+        }
+
+        public void setLoadIntervalMillis(long loadIntervalMillis) {
+            this.loadIntervalMillis = loadIntervalMillis;
+        }
+
+        public int getLoadBatchSize() {
+            return loadBatchSize;
+        }
+
+        public void setLoadBatchSize(int loadBatchSize) {
+            this.loadBatchSize = loadBatchSize;
+        }
+
+        public int getMaxBuffered() {
+            return maxBuffered;
+        }
+
+        public void setMaxBuffered(int maxBuffered) {
+            this.maxBuffered = maxBuffered;
+        }
+
+        public long getLeaseMillis() {
+            return leaseMillis;
+        }
+
+        public void setLeaseMillis(long leaseMillis) {
+            this.leaseMillis = leaseMillis;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public long getRetryDelayMillis() {
+            return retryDelayMillis;
+        }
+
+        public void setRetryDelayMillis(long retryDelayMillis) {
+            this.retryDelayMillis = retryDelayMillis;
+        }
+
+        public int getMaxDelayDays() {
+            return maxDelayDays;
+        }
+
+        public void setMaxDelayDays(int maxDelayDays) {
+            this.maxDelayDays = maxDelayDays;
+        }
+    }
+
+    /**
+     * 可靠发件箱：发送请求先持久化再由后台工作线程投递，失败按指数退避重试。
+     */
+    public static class OutboxProperties {
+
+        /** 发件箱存储 */
+        public enum Store {
+            /** Redis Stream + 消费组 */
+            REDIS,
+            /** 本地文件日志，仅单实例 */
+            FILE
+        }
+
+        private boolean enabled;
+
+        /** 存储，默认 REDIS；FILE 仅适用于单实例，需显式选择，不会因 Redis 不可用而自动切换 */
+        private Store store = Store.REDIS;
+
+        /** 投递工作线程数，即服务商调用的最大并发 */
+        @Min(1)
+        private int workers = 4;
+
+        /** 单次拉取的最大消息数 */
+        @Min(1)
+        private int batchSize = 10;
+
+        /** 无消息时的拉取间隔，单位毫秒 */
+        @Min(1)
+        private long pollIntervalMillis = 200;
+
+        /** 最大投递次数（含首次），超过后转入死信 */
+        @Min(1)
+        private int maxAttempts = 5;
+
+        /** 首次重试的基础退避时间，单位毫秒 */
+        @Min(1)
+        private long initialBackoffMillis = 1000;
+
+        /** 退避时间上限，单位毫秒 */
+        @Min(1)
+        private long maxBackoffMillis = 60_000;
+
+        /** 待确认消息空闲超过该时间视为消费者失联，可被认领，单位毫秒 */
+        @Min(1)
+        private long claimIdleMillis = 60_000;
+
+        /** 认领失联消息的检查间隔，单位毫秒 */
+        @Min(1)
+        private long claimIntervalMillis = 30_000;
+
+        /** 死信 Stream 保留条数 */
+        @Min(1)
+        private long deadLetterMaxLength = 10_000;
+
+        /** 本地文件存储目录 */
+        private String fileDirectory = "sms-outbox";
+
+        /** 本地文件每次写入后是否强制刷盘 */
+        private boolean fileSync = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Store getStore() {
+            return store;
+        }
+
+        public void setStore(Store store) {
+            this.store = store;
+        }
+
+        public int getWorkers() {
+            return workers;
+        }
+
+        public void setWorkers(int workers) {
+            this.workers = workers;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getPollIntervalMillis() {
+            return pollIntervalMillis;
+        }
+
+        public void setPollIntervalMillis(long pollIntervalMillis) {
+            this.pollIntervalMillis = pollIntervalMillis;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public long getInitialBackoffMillis() {
+            return initialBackoffMillis;
+        }
+
+        public void setInitialBackoffMillis(long initialBackoffMillis) {
+            this.initialBackoffMillis = initialBackoffMillis;
+        }
+
+        public long getMaxBackoffMillis() {
+            return maxBackoffMillis;
+        }
+
+        public void setMaxBackoffMillis(long maxBackoffMillis) {
+            this.maxBackoffMillis = maxBackoffMillis;
+        }
+
+        public long getClaimIdleMillis() {
+            return claimIdleMillis;
+        }
+
+        public void setClaimIdleMillis(long claimIdleMillis) {
+            this.claimIdleMillis = claimIdleMillis;
+        }
+
+        public long getClaimIntervalMillis() {
+            return claimIntervalMillis;
+        }
+
+        public void setClaimIntervalMillis(long claimIntervalMillis) {
+            this.claimIntervalMillis = claimIntervalMillis;
+        }
+
+        public long getDeadLetterMaxLength() {
+            return deadLetterMaxLength;
+        }
+
+        public void setDeadLetterMaxLength(long deadLetterMaxLength) {
+            this.deadLetterMaxLength = deadLetterMaxLength;
+        }
+
+        public String getFileDirectory() {
+            return fileDirectory;
+        }
+
+        public void setFileDirectory(String fileDirectory) {
+            this.fileDirectory = fileDirectory;
+        }
+
+        public boolean isFileSync() {
+            return fileSync;
+        }
+
+        public void setFileSync(boolean fileSync) {
+            this.fileSync = fileSync;
+        }
+    }
+
+    /**
+     * 服务端验证码存储，Redis 中只保存加盐哈希。
+     */
+    public static class VerifyCodeProperties {
+
+        /** 哈希盐中的服务端密钥，未配置时不允许签发验证码 */
+        private String secret;
+
+        /** 场景未配置 expireSeconds 时签发验证码的有效期，单位秒 */
+        @Min(1)
+        private long defaultExpireSeconds = 300;
+
+        public String getSecret() {
+            return secret;
+        }
+
+        public void setSecret(String secret) {
+            this.secret = secret;
+        }
+
+        public long getDefaultExpireSeconds() {
+            return defaultExpireSeconds;
+        }
+
+        public void setDefaultExpireSeconds(long defaultExpireSeconds) {
+            this.defaultExpireSeconds = defaultExpireSeconds;
+        }
+    }
 }
@@ -1,58 +1,107 @@
 package com.example.sms.core;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 
 import com.aliyun.dysmsapi20170525.Client;
+import com.aliyun.dysmsapi20170525.models.QuerySendDetailsRequest;
+import com.aliyun.dysmsapi20170525.models.QuerySendDetailsResponseBody;
+import com.aliyun.dysmsapi20170525.models.QuerySendDetailsResponseBody.QuerySendDetailsResponseBodySmsSendDetailDTOsSmsSendDetailDTO;
+import com.aliyun.dysmsapi20170525.models.QuerySmsSignListRequest;
+import com.aliyun.dysmsapi20170525.models.SendBatchSmsRequest;
+import com.aliyun.dysmsapi20170525.models.SendBatchSmsResponse;
+import com.aliyun.dysmsapi20170525.models.SendBatchSmsResponseBody;
 import com.aliyun.dysmsapi20170525.models.SendSmsRequest;
 import com.aliyun.dysmsapi20170525.models.SendSmsResponse;
 import com.aliyun.dysmsapi20170525.models.SendSmsResponseBody;
 import com.aliyun.teaopenapi.models.Config;
-import com.aliyun.teautil.exception.TeaException;
+import com.aliyun.tea.TeaException;
 import com.aliyun.teautil.models.RuntimeOptions;
 import com.example.sms.config.SceneConfig;
-import com.example.sms.config.SceneConfig.SceneType;
 import com.example.sms.config.SmsProperties;
+import com.example.sms.config.SmsProperties.AliyunProperties;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * 阿里云短信客户端封装，支持直接注入为组件或通过配置类注入 Bean。
+ * 场景发送经 {@link SmsProviderRouter} 选择服务商，本类同时作为阿里云的 {@link SmsProvider} 实现。
  */
 @Component
-public class AliyunSmsClient {
+public class AliyunSmsClient implements SmsProvider {
 
     private static final Logger log = LoggerFactory.getLogger(AliyunSmsClient.class);
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    /** 阿里云批量发送接口单次最多 100 个号码 */
+    public static final int MAX_BATCH_SIZE = 100;
+
+    /** 回执查询单页条数上限 */
+    private static final int RECEIPT_PAGE_SIZE = 50;
+    /** 单个号码单日最多翻页数，超出部分不再查询 */
+    private static final int MAX_RECEIPT_PAGES = 10;
 
     private final SmsProperties smsProperties;
     private final SceneConfigResolver sceneConfigResolver;
     private final RateLimitHelper rateLimitHelper;
     private final IdempotencyHelper idempotencyHelper;
     private final ProviderErrorMapper providerErrorMapper;
-    private final AtomicReference<Client> cachedClient = new AtomicReference<>();
+    private final SmsAsyncExecutor asyncExecutor;
+    private final SmsMetrics smsMetrics;
+    private final SmsProviderRouter providerRouter;
+    private final Environment environment;
+    /** 当前使用的 SDK 客户端，轮换时整体替换，进行中的调用在旧客户端上完成 */
+    private final AtomicReference<ClientGeneration> generation = new AtomicReference<>();
 
     public AliyunSmsClient(SmsProperties smsProperties,
                            SceneConfigResolver sceneConfigResolver,
                            RateLimitHelper rateLimitHelper,
                            IdempotencyHelper idempotencyHelper,
-                           ProviderErrorMapper providerErrorMapper) {
+                           ProviderErrorMapper providerErrorMapper,
+                           SmsAsyncExecutor asyncExecutor,
+                           SmsMetrics smsMetrics,
+                           SmsProviderRouter providerRouter,
+                           Environment environment) {
         this.smsProperties = smsProperties;
         this.sceneConfigResolver = sceneConfigResolver;
         this.rateLimitHelper = rateLimitHelper;
         this.idempotencyHelper = idempotencyHelper;
         this.providerErrorMapper = providerErrorMapper;
+        this.asyncExecutor = asyncExecutor;
+        this.smsMetrics = smsMetrics;
+        this.providerRouter = providerRouter;
+        this.environment = environment;
+    }
+
+    @Override
+    public SceneConfig.Provider getProvider() {
+        return SceneConfig.Provider.ALIYUN;
     }
 
     /**
@@ -64,43 +113,275 @@ public class AliyunSmsClient {
      * @param clientIp 客户端 IP，用于限流
      */
     public void send(String scene, String mobile, Map<String, String> params, String clientIp) {
-        SceneConfig config = sceneConfigResolver.getRequired(scene);
-        Map<String, String> safeParams = filterParams(config, params);
-        rateLimitHelper.checkAndRecord(scene, mobile, clientIp, config);
-        idempotencyHelper.check(scene, mobile, safeParams, config.getIdempotencyWindowSeconds());
+        ScenePlan plan = sceneConfigResolver.getPlan(scene);
+        Admission admission = admit(scene, mobile, params, clientIp, plan);
 
-        SendResult result = send(mobile, config.getSignName(), config.getTemplateCode(), castToObjectMap(safeParams), null);
-        if (!result.isSuccess()) {
-            throw new SmsException(result.getErrorCode() != null ? result.getErrorCode() : ErrorCode.CLIENT_ERROR,
-                "阿里云短信发送失败：" + result.getProviderCode());
+        dispatch(scene, mobile, plan, admission);
+    }
+
+    /**
+     * 异步发送短信，场景解析、参数过滤、限流与幂等校验仍在调用线程完成，校验失败直接抛出异常；
+     * 服务商调用在专用线程池执行（开启发送通道隔离时验证码使用独立线程池），发送失败时 future 以 SmsException 异常完成。
+     * 限流记录前先预检线程池容量，队列已满时不消耗限流额度。
+     * @throws SmsException 校验失败或异步队列已满
+     */
+    public CompletableFuture<SendResult> sendAsync(String scene, String mobile, Map<String, String> params, String clientIp) {
+        ScenePlan plan = sceneConfigResolver.getPlan(scene);
+        try {
+            asyncExecutor.ensureCapacity(plan.getType());
+        } catch (SmsException ex) {
+            smsMetrics.recordError(scene, ex.getErrorCode());
+            throw ex;
+        }
+        Admission admission = admit(scene, mobile, params, clientIp, plan);
+
+        try {
+            return asyncExecutor.submit(plan.getType(), () -> dispatch(scene, mobile, plan, admission));
+        } catch (SmsException ex) {
+            admission.getReservation().release();
+            throw ex;
         }
-        idempotencyHelper.mark(scene, mobile, safeParams, config.getIdempotencyWindowSeconds());
     }
 
     /**
-     * 使用新版阿里云短信 SDK 发送短信。
+     * 异步调用服务商发送短信，不做场景治理。
      */
-    public SendResult send(String mobile, String signName, String templateCode, Map<String, Object> params, String outId) {
-        long start = System.currentTimeMillis();
-        String maskedMobile = maskMobile(mobile);
-        Set<String> paramKeys = CollectionUtils.isEmpty(params) ? Collections.emptySet() : params.keySet();
+    public CompletableFuture<SendResult> sendAsync(String mobile, String signName, String templateCode, Map<String, Object> params, String outId) {
+        return asyncExecutor.submit(() -> send(mobile, signName, templateCode, params, outId));
+    }
+
+    /**
+     * 按场景批量发送，每个接收方独立做参数过滤、限流与幂等校验，限流校验合并为一次批量调用，
+     * 通过校验的接收方按 {@link #MAX_BATCH_SIZE} 分组调用批量接口。
+     * 单个接收方被拒绝或某一组发送失败不会抛出异常，而是体现在对应位置的结果中。
+     * @param scene 场景编码
+     * @param recipients 接收方列表
+     * @return 与 recipients 一一对应的发送结果
+     */
+    public List<SendResult> sendBatch(String scene, List<Recipient> recipients) {
+        ScenePlan plan = sceneConfigResolver.getPlan(scene);
+        SendResult[] results = new SendResult[recipients.size()];
+        List<Integer> accepted = new ArrayList<>(recipients.size());
+        List<Admission> admissions = new ArrayList<>(recipients.size());
+        admitAll(scene, recipients, plan, results, accepted, admissions);
+        for (int from = 0; from < accepted.size(); from += MAX_BATCH_SIZE) {
+            int to = Math.min(from + MAX_BATCH_SIZE, accepted.size());
+            List<String> mobiles = new ArrayList<>(to - from);
+            List<Map<String, Object>> paramsList = new ArrayList<>(to - from);
+            for (int j = from; j < to; j++) {
+                mobiles.add(recipients.get(accepted.get(j)).getMobile());
+                paramsList.add(castToObjectMap(admissions.get(j).getParams()));
+            }
+            SendResult batchResult;
+            try {
+                batchResult = providerRouter.sendBatch(scene, plan, mobiles, paramsList, null);
+            } catch (SmsException ex) {
+                batchResult = rejected(ex);
+            }
+            if (!batchResult.isSuccess()) {
+                smsMetrics.recordError(scene, batchResult.getErrorCode() != null ? batchResult.getErrorCode() : ErrorCode.CLIENT_ERROR);
+            }
+            for (int j = from; j < to; j++) {
+                results[accepted.get(j)] = batchResult;
+                if (batchResult.isSuccess()) {
+                    admissions.get(j).getReservation().commit();
+                } else {
+                    settleFailure(admissions.get(j), batchResult.getErrorCode());
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * 批量版本的 {@link #admit}：先逐个过滤参数，再一次性校验限流（Redis 后端下只需一次往返），最后逐个预占幂等。
+     * 被拒绝的接收方写入 results 对应位置，通过的接收方按原顺序写入 accepted 与 admissions。
+     */
+    private void admitAll(String scene, List<Recipient> recipients, ScenePlan plan,
+                          SendResult[] results, List<Integer> accepted, List<Admission> admissions) {
+        List<Integer> filtered = new ArrayList<>(recipients.size());
+        List<Map<String, String>> filteredParams = new ArrayList<>(recipients.size());
+        List<String> mobiles = new ArrayList<>(recipients.size());
+        List<String> clientIps = new ArrayList<>(recipients.size());
+        for (int i = 0; i < recipients.size(); i++) {
+            Recipient recipient = recipients.get(i);
+            try {
+                filteredParams.add(plan.filterParams(recipient.getParams()));
+                filtered.add(i);
+                mobiles.add(recipient.getMobile());
+                clientIps.add(recipient.getClientIp());
+            } catch (SmsException ex) {
+                results[i] = rejectedAdmission(scene, ex);
+            }
+        }
+        if (filtered.isEmpty()) {
+            return;
+        }
+        List<SmsException> limited;
         try {
-            SendSmsRequest request = buildRequest(mobile, signName, templateCode, params, outId);
-            SendSmsResponse response = getClient().sendSmsWithOptions(request, buildRuntimeOptions());
-            SendSmsResponseBody body = response.getBody();
+            limited = rateLimitHelper.checkAndRecordAll(scene, mobiles, clientIps, plan);
+        } catch (SmsException ex) {
+            filtered.forEach(i -> results[i] = rejectedAdmission(scene, ex));
+            return;
+        }
+        for (int k = 0; k < filtered.size(); k++) {
+            int i = filtered.get(k);
+            if (limited.get(k) != null) {
+                results[i] = rejectedAdmission(scene, limited.get(k));
+                continue;
+            }
+            try {
+                admissions.add(new Admission(filteredParams.get(k), idempotencyHelper.reserve(plan, mobiles.get(k), filteredParams.get(k))));
+                accepted.add(i);
+            } catch (SmsException ex) {
+                results[i] = rejectedAdmission(scene, ex);
+            }
+        }
+    }
+
+    private SendResult rejectedAdmission(String scene, SmsException ex) {
+        smsMetrics.recordError(scene, ex.getErrorCode());
+        return rejected(ex);
+    }
+
+    /**
+     * 使用阿里云批量接口发送，同一请求内所有号码共用签名与模板。
+     * @param mobiles 号码列表，最多 {@link #MAX_BATCH_SIZE} 个
+     * @param paramsList 与号码一一对应的模板参数
+     */
+    @Override
+    public SendResult sendBatch(List<String> mobiles, String signName, String templateCode, List<Map<String, Object>> paramsList, String outId) {
+        if (mobiles.isEmpty() || mobiles.size() > MAX_BATCH_SIZE || mobiles.size() != paramsList.size()) {
+            throw new SmsException(ErrorCode.CLIENT_ERROR, "批量发送号码数量非法：" + mobiles.size());
+        }
+        long start = System.nanoTime();
+        try {
+            SendBatchSmsRequest request = buildBatchRequest(mobiles, signName, templateCode, paramsList, outId);
+            ClientGeneration client = client();
+            SendBatchSmsResponse response = client.client.sendBatchSmsWithOptions(request, client.runtime);
+            SendBatchSmsResponseBody body = response.getBody();
             String providerCode = body == null ? null : body.getCode();
             boolean success = "OK".equalsIgnoreCase(providerCode);
             ErrorCode errorCode = success ? null : providerErrorMapper.mapCode(providerCode);
-            long cost = System.currentTimeMillis() - start;
-            log.info("Aliyun SMS send {} mobile={}, traceId={}, requestId={}, providerRequestId={}, code={}, cost={}ms, paramKeys={}",
+            long cost = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            logOutcome(success, "Aliyun SMS batch send {} size={}, traceId={}, requestId={}, providerRequestId={}, code={}, cost={}ms",
                 success ? "success" : "fail",
-                maskedMobile,
+                mobiles.size(),
                 currentTraceId(),
                 body == null ? "" : body.getRequestId(),
                 body == null ? "" : body.getBizId(),
                 providerCode,
+                cost);
+            return new SendResult(
+                success,
+                body == null ? null : body.getBizId(),
+                providerCode,
+                body == null ? null : body.getMessage(),
+                body == null ? null : body.getRequestId(),
+                errorCode);
+        } catch (Exception ex) {
+            ErrorCode mapped = providerErrorMapper.mapException(ex);
+            long cost = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            log.warn("Aliyun SMS batch send exception size={}, traceId={}, cost={}ms, errorCode={}, err={}",
+                mobiles.size(),
+                currentTraceId(),
                 cost,
-                paramKeys);
+                mapped,
+                ex.toString());
+            throw new SmsException(mapped, "阿里云短信批量发送异常", ex);
+        }
+    }
+
+    private SendResult rejected(SmsException ex) {
+        return new SendResult(false, null, null, ex.getMessage(), null, ex.getErrorCode());
+    }
+
+    /**
+     * 发送前的场景治理：参数白名单过滤、限流与幂等预占，被拒绝时计入错误指标。
+     * 返回的预占必须由调用方确认或释放。
+     */
+    Admission admit(String scene, String mobile, Map<String, String> params, String clientIp, ScenePlan plan) {
+        try {
+            Map<String, String> safeParams = plan.filterParams(params);
+            rateLimitHelper.checkAndRecord(scene, mobile, clientIp, plan);
+            return new Admission(safeParams, idempotencyHelper.reserve(plan, mobile, safeParams));
+        } catch (SmsException ex) {
+            smsMetrics.recordError(scene, ex.getErrorCode());
+            throw ex;
+        }
+    }
+
+    /**
+     * 投递已通过 {@link #admit} 校验的请求（发件箱、服务端验证码签发），只调用服务商，成功后确认幂等预占，
+     * 明确失败时释放，结果未知时保留。
+     * @param outId 外部流水号，重试之间保持不变
+     */
+    SendResult deliver(String scene, String mobile, Admission admission, String outId) {
+        ScenePlan plan = sceneConfigResolver.getPlan(scene);
+        return dispatch(scene, mobile, plan, admission, outId);
+    }
+
+    private SendResult dispatch(String scene, String mobile, ScenePlan plan, Admission admission) {
+        return dispatch(scene, mobile, plan, admission, null);
+    }
+
+    private SendResult dispatch(String scene, String mobile, ScenePlan plan, Admission admission, String outId) {
+        SendResult result;
+        try {
+            result = providerRouter.send(scene, plan, mobile, castToObjectMap(admission.getParams()), outId);
+        } catch (SmsException ex) {
+            settleFailure(admission, ex.getErrorCode());
+            smsMetrics.recordError(scene, ex.getErrorCode());
+            throw ex;
+        }
+        if (!result.isSuccess()) {
+            ErrorCode errorCode = result.getErrorCode() != null ? result.getErrorCode() : ErrorCode.CLIENT_ERROR;
+            settleFailure(admission, result.getErrorCode());
+            smsMetrics.recordError(scene, errorCode);
+            throw new SmsException(errorCode, "短信发送失败：" + result.getProviderCode());
+        }
+        admission.getReservation().commit();
+        return result;
+    }
+
+    /**
+     * 服务商明确未受理或请求未发出时释放幂等预占，允许立即重发；超时等结果未知时保留预占，
+     * 在 in-flight-ttl-seconds 内拒绝同一请求，避免短信已送达后再次下发。
+     */
+    private void settleFailure(Admission admission, ErrorCode errorCode) {
+        if (errorCode != null && providerErrorMapper.isOutcomeUnknown(errorCode)) {
+            return;
+        }
+        admission.getReservation().release();
+    }
+
+    /**
+     * 使用新版阿里云短信 SDK 发送短信。
+     */
+    @Override
+    public SendResult send(String mobile, String signName, String templateCode, Map<String, Object> params, String outId) {
+        long start = System.nanoTime();
+        Set<String> paramKeys = CollectionUtils.isEmpty(params) ? Collections.emptySet() : params.keySet();
+        try {
+            SendSmsRequest request = buildRequest(mobile, signName, templateCode, params, outId);
+            ClientGeneration client = client();
+            SendSmsResponse response = client.client.sendSmsWithOptions(request, client.runtime);
+            SendSmsResponseBody body = response.getBody();
+            String providerCode = body == null ? null : body.getCode();
+            boolean success = "OK".equalsIgnoreCase(providerCode);
+            ErrorCode errorCode = success ? null : providerErrorMapper.mapCode(providerCode);
+            long cost = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (outcomeLogged(success)) {
+                logOutcome(success, "Aliyun SMS send {} mobile={}, traceId={}, requestId={}, providerRequestId={}, code={}, cost={}ms, paramKeys={}",
+                    success ? "success" : "fail",
+                    maskMobile(mobile),
+                    currentTraceId(),
+                    body == null ? "" : body.getRequestId(),
+                    body == null ? "" : body.getBizId(),
+                    providerCode,
+                    cost,
+                    paramKeys);
+            }
             return new SendResult(
                 success,
                 body == null ? null : body.getBizId(),
@@ -110,9 +391,9 @@ public class AliyunSmsClient {
                 errorCode);
         } catch (Exception ex) {
             ErrorCode mapped = providerErrorMapper.mapException(ex);
-            long cost = System.currentTimeMillis() - start;
+            long cost = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
             log.warn("Aliyun SMS send exception mobile={}, traceId={}, cost={}ms, errorCode={}, paramKeys={}, err={}",
-                maskedMobile,
+                maskMobile(mobile),
                 currentTraceId(),
                 cost,
                 mapped,
@@ -122,11 +403,70 @@ public class AliyunSmsClient {
         }
     }
 
-    private Map<String, Object> castToObjectMap(Map<String, String> params) {
+    @Override
+    public boolean supportsReceiptQuery() {
+        return true;
+    }
+
+    /**
+     * 分页查询号码当天的发送详情，SendStatus 1 为等待回执、2 为失败、3 为成功，每一页请求前都经过 pacer 限速。
+     */
+    @Override
+    public List<DeliveryReceipt> queryReceipts(String mobile, String sendDate, RequestPacer pacer) {
+        List<DeliveryReceipt> receipts = new ArrayList<>();
+        try {
+            ClientGeneration client = client();
+            for (long page = 1; page <= MAX_RECEIPT_PAGES; page++) {
+                pacer.await();
+                QuerySendDetailsRequest request = new QuerySendDetailsRequest()
+                    .setPhoneNumber(mobile)
+                    .setSendDate(sendDate)
+                    .setPageSize((long) RECEIPT_PAGE_SIZE)
+                    .setCurrentPage(page);
+                QuerySendDetailsResponseBody body = client.client.querySendDetailsWithOptions(request, client.runtime).getBody();
+                String providerCode = body == null ? null : body.getCode();
+                if (!"OK".equalsIgnoreCase(providerCode)) {
+                    throw new SmsException(providerErrorMapper.mapCode(providerCode), "阿里云短信回执查询失败：" + providerCode);
+                }
+                List<QuerySendDetailsResponseBodySmsSendDetailDTOsSmsSendDetailDTO> details = body.getSmsSendDetailDTOs() == null
+                    ? null : body.getSmsSendDetailDTOs().getSmsSendDetailDTO();
+                if (CollectionUtils.isEmpty(details)) {
+                    break;
+                }
+                for (QuerySendDetailsResponseBodySmsSendDetailDTOsSmsSendDetailDTO detail : details) {
+                    receipts.add(new DeliveryReceipt(detail.getOutId(), mobile, receiptStatus(detail.getSendStatus()),
+                        detail.getErrCode(), detail.getReceiveDate()));
+                }
+                if (details.size() < RECEIPT_PAGE_SIZE || page * RECEIPT_PAGE_SIZE >= NumberUtils.toLong(body.getTotalCount())) {
+                    break;
+                }
+            }
+        } catch (SmsException ex) {
+            throw ex;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SmsException(ErrorCode.CLIENT_ERROR, "回执查询等待限速时被中断", ex);
+        } catch (Exception ex) {
+            throw new SmsException(providerErrorMapper.mapException(ex), "阿里云短信回执查询异常", ex);
+        }
+        return receipts;
+    }
+
+    private static DeliveryReceipt.Status receiptStatus(Long sendStatus) {
+        if (sendStatus == null || sendStatus == 1L) {
+            return DeliveryReceipt.Status.PENDING;
+        }
+        return sendStatus == 3L ? DeliveryReceipt.Status.DELIVERED : DeliveryReceipt.Status.FAILED;
+    }
+
+    /**
+     * 过滤后的参数以只读视图交给服务商，避免逐次复制。
+     */
+    Map<String, Object> castToObjectMap(Map<String, String> params) {
         if (CollectionUtils.isEmpty(params)) {
             return Collections.emptyMap();
         }
-        return params.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        return Collections.unmodifiableMap(params);
     }
 
     private SendSmsRequest buildRequest(String mobile, String signName, String templateCode, Map<String, Object> params, String outId) {
@@ -141,34 +481,164 @@ public class AliyunSmsClient {
         return request;
     }
 
-    private RuntimeOptions buildRuntimeOptions() {
+    private SendBatchSmsRequest buildBatchRequest(List<String> mobiles, String signName, String templateCode,
+                                                  List<Map<String, Object>> paramsList, String outId) {
+        return new SendBatchSmsRequest()
+            .setPhoneNumberJson(serializeParams(mobiles))
+            .setSignNameJson(serializeParams(Collections.nCopies(mobiles.size(), signName)))
+            .setTemplateCode(templateCode)
+            .setTemplateParamJson(serializeParams(paramsList))
+            .setOutId(outId);
+    }
+
+    private static RuntimeOptions buildRuntimeOptions(AliyunProperties aliyun) {
         RuntimeOptions options = new RuntimeOptions();
-        int timeout = smsProperties.getAliyun().getTimeout();
-        options.setConnectTimeout(timeout);
-        options.setReadTimeout(timeout);
+        options.setConnectTimeout(aliyun.getTimeout());
+        options.setReadTimeout(aliyun.getTimeout());
+        options.setKeepAlive(aliyun.isKeepAlive());
+        options.setMaxIdleConns(aliyun.getMaxIdleConns());
         return options;
     }
 
-    private Client getClient() throws Exception {
-        Client existing = cachedClient.get();
+    /**
+     * 直接替换 SDK 客户端，仅供基准与测试注入桩实现。
+     */
+    void useClient(Client client) {
+        generation.set(new ClientGeneration(client, buildRuntimeOptions(smsProperties.getAliyun()), smsProperties.getAliyun()));
+    }
+
+    /**
+     * 按给定配置新建 SDK 客户端并原子替换，进行中的调用在旧客户端上完成，之后的调用使用新客户端。
+     * 用于轮换 AccessKey 或切换 endpoint，开启预热时同步预热新客户端后再替换。
+     * @throws SmsException 配置不完整或客户端创建失败时抛出 INVALID_CONFIG，原客户端保持不变
+     */
+    public void refreshClient(AliyunProperties aliyun) {
+        ClientGeneration created = createGeneration(aliyun);
+        if (aliyun.isWarmUp()) {
+            warmUp(created);
+        }
+        generation.set(created);
+        log.info("Aliyun SMS client refreshed, endpoint={}", aliyun.getEndpoint());
+    }
+
+    /**
+     * 从当前 Environment 重新绑定 sms.aliyun，客户端相关配置有变化才轮换，轮换失败时保留原客户端。
+     * classpath 存在 spring-cloud-context 时由 {@code SmsEnvironmentChangeListener} 在配置刷新后调用。
+     */
+    public void reloadClient() {
+        AliyunProperties rebound = Binder.get(environment)
+            .bind("sms.aliyun", Bindable.of(AliyunProperties.class))
+            .orElse(null);
+        ClientGeneration current = generation.get();
+        if (rebound == null || (current != null && sameClientSettings(current.settings, rebound))) {
+            return;
+        }
+        try {
+            refreshClient(rebound);
+        } catch (RuntimeException ex) {
+            log.warn("Refresh Aliyun SMS client failed, keep previous client, err={}", ex.toString());
+        }
+    }
+
+    /**
+     * 启动完成时预热，在就绪探针放行流量之前完成。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        AliyunProperties aliyun = smsProperties.getAliyun();
+        if (!aliyun.isWarmUp() || !aliyun.isComplete()) {
+            return;
+        }
+        try {
+            warmUp(client());
+        } catch (RuntimeException ex) {
+            log.warn("Aliyun SMS client warm-up failed, err={}", ex.toString());
+        }
+    }
+
+    /**
+     * 并发发起只读的签名列表查询，每个并发请求建立一条连接并完成 TLS 握手，结束后留在 SDK 连接池中。
+     * 查询本身失败（如账号无该接口权限）不影响连接预热。
+     */
+    private void warmUp(ClientGeneration target) {
+        int connections = target.settings.getWarmUpConnections();
+        long start = System.nanoTime();
+        ExecutorService warmers = Executors.newFixedThreadPool(connections, runnable -> {
+            Thread thread = new Thread(runnable, "sms-aliyun-warm-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Callable<Object>> calls = new ArrayList<>(connections);
+            for (int i = 0; i < connections; i++) {
+                calls.add(() -> target.client.querySmsSignListWithOptions(
+                    new QuerySmsSignListRequest().setPageIndex(1).setPageSize(1), target.runtime));
+            }
+            List<Future<Object>> results = warmers.invokeAll(calls, target.settings.getTimeout() * 2L, TimeUnit.MILLISECONDS);
+            int failed = 0;
+            for (Future<Object> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException | CancellationException ex) {
+                    failed++;
+                    log.debug("Aliyun SMS warm-up call failed, err={}", String.valueOf(ex.getCause()));
+                }
+            }
+            log.info("Aliyun SMS client warmed up, connections={}, failedCalls={}, cost={}ms",
+                connections, failed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            warmers.shutdownNow();
+        }
+    }
+
+    /**
+     * 首次调用时创建客户端，加锁保证只创建一个。
+     */
+    private ClientGeneration client() {
+        ClientGeneration existing = generation.get();
         if (existing != null) {
             return existing;
         }
-        if (!smsProperties.getAliyun().isComplete()) {
+        synchronized (generation) {
+            existing = generation.get();
+            if (existing == null) {
+                existing = createGeneration(smsProperties.getAliyun());
+                generation.set(existing);
+            }
+            return existing;
+        }
+    }
+
+    private ClientGeneration createGeneration(AliyunProperties aliyun) {
+        if (!aliyun.isComplete()) {
             throw new SmsException(ErrorCode.INVALID_CONFIG, "阿里云短信配置不完整");
         }
         Config config = new Config()
-            .setAccessKeyId(smsProperties.getAliyun().getAccessKeyId())
-            .setAccessKeySecret(smsProperties.getAliyun().getAccessKeySecret())
-            .setEndpoint(smsProperties.getAliyun().getEndpoint())
-            .setConnectTimeout(smsProperties.getAliyun().getTimeout())
-            .setReadTimeout(smsProperties.getAliyun().getTimeout());
-        Client created = new Client(config);
-        cachedClient.compareAndSet(null, created);
-        return cachedClient.get();
+            .setAccessKeyId(aliyun.getAccessKeyId())
+            .setAccessKeySecret(aliyun.getAccessKeySecret())
+            .setEndpoint(aliyun.getEndpoint())
+            .setConnectTimeout(aliyun.getTimeout())
+            .setReadTimeout(aliyun.getTimeout())
+            .setMaxIdleConns(aliyun.getMaxIdleConns());
+        try {
+            return new ClientGeneration(new Client(config), buildRuntimeOptions(aliyun), aliyun);
+        } catch (Exception ex) {
+            throw new SmsException(ErrorCode.INVALID_CONFIG, "阿里云短信客户端创建失败", ex);
+        }
     }
 
-    private String serializeParams(Map<String, Object> params) {
+    private static boolean sameClientSettings(AliyunProperties left, AliyunProperties right) {
+        return Objects.equals(left.getAccessKeyId(), right.getAccessKeyId())
+            && Objects.equals(left.getAccessKeySecret(), right.getAccessKeySecret())
+            && Objects.equals(left.getEndpoint(), right.getEndpoint())
+            && left.getTimeout() == right.getTimeout()
+            && left.isKeepAlive() == right.isKeepAlive()
+            && left.getMaxIdleConns() == right.getMaxIdleConns();
+    }
+
+    String serializeParams(Object params) {
         try {
             return OBJECT_MAPPER.writeValueAsString(params);
         } catch (JsonProcessingException e) {
@@ -176,20 +646,19 @@ public class AliyunSmsClient {
         }
     }
 
-    private Map<String, String> filterParams(SceneConfig config, Map<String, String> params) {
-        if (CollectionUtils.isEmpty(params)) {
-            return Collections.emptyMap();
-        }
-        Map<String, String> filtered = new java.util.HashMap<>();
-        for (String key : config.getParamWhitelist()) {
-            if (params.containsKey(key)) {
-                filtered.put(key, params.get(key));
-            }
-        }
-        if (config.getType() == SceneType.VERIFY_CODE && !filtered.containsKey(config.getCodeParamKey())) {
-            throw new SmsException(ErrorCode.INVALID_CONFIG, "验证码场景缺少必要参数");
+    /**
+     * 开启发送审计日志后每次调用已有结构化记录，成功结果降为 DEBUG，失败仍按 INFO 输出。
+     */
+    private boolean outcomeLogged(boolean success) {
+        return success && smsProperties.getJournal().isEnabled() ? log.isDebugEnabled() : log.isInfoEnabled();
+    }
+
+    private void logOutcome(boolean success, String format, Object... args) {
+        if (success && smsProperties.getJournal().isEnabled()) {
+            log.debug(format, args);
+        } else {
+            log.info(format, args);
         }
-        return filtered;
     }
 
     private String maskMobile(String mobile) {
@@ -202,4 +671,42 @@ public class AliyunSmsClient {
     private String currentTraceId() {
         return Objects.toString(MDC.get("traceId"), "");
     }
+
+    /**
+     * 通过场景治理的请求：白名单过滤后的参数与幂等预占。
+     */
+    static final class Admission {
+
+        private final Map<String, String> params;
+        private final IdempotencyHelper.Reservation reservation;
+
+        Admission(Map<String, String> params, IdempotencyHelper.Reservation reservation) {
+            this.params = params;
+            this.reservation = reservation;
+        }
+
+        Map<String, String> getParams() {
+            return params;
+        }
+
+        IdempotencyHelper.Reservation getReservation() {
+            return reservation;
+        }
+    }
+
+    /**
+     * 一代 SDK 客户端及其配置，运行时选项预先构建并在调用间共享，SDK 只读取不修改。
+     */
+    private static final class ClientGeneration {
+
+        private final Client client;
+        private final RuntimeOptions runtime;
+        private final AliyunProperties settings;
+
+        private ClientGeneration(Client client, RuntimeOptions runtime, AliyunProperties settings) {
+            this.client = client;
+            this.runtime = runtime;
+            this.settings = settings;
+        }
+    }
 }
@@ -0,0 +1,62 @@
+package com.example.sms.core;
+
+/**
+ * 一条短信的送达回执。
+ */
+public final class DeliveryReceipt {
+
+    public enum Status {
+        /** 已提交运营商，尚无回执 */
+        PENDING,
+        /** 已送达 */
+        DELIVERED,
+        /** 送达失败 */
+        FAILED,
+        /** 跟踪期内未取得最终状态 */
+        EXPIRED;
+
+        public boolean isFinal() {
+            return this != PENDING;
+        }
+    }
+
+    private final String outId;
+    private final String mobile;
+    private final Status status;
+    private final String providerCode;
+    private final String receiveDate;
+
+    public DeliveryReceipt(String outId, String mobile, Status status, String providerCode, String receiveDate) {
+        this.outId = outId;
+        this.mobile = mobile;
+        this.status = status;
+        this.providerCode = providerCode;
+        this.receiveDate = receiveDate;
+    }
+
+    public String getOutId() {
+        return outId;
+    }
+
+    public String getMobile() {
+        return mobile;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * 运营商回执码，例如 DELIVERED 或失败原因。
+     */
+    public String getProviderCode() {
+        return providerCode;
+    }
+
+    /**
+     * 运营商回执时间，服务商原始格式。
+     */
+    public String getReceiveDate() {
+        return receiveDate;
+    }
+}
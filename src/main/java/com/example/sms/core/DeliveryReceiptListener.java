@@ -0,0 +1,14 @@
+package com.example.sms.core;
+
+/**
+ * 送达回执监听器，注册为 Spring Bean 即可生效。
+ * 在回执轮询线程上回调，耗时操作应自行转交其他线程。
+ */
+public interface DeliveryReceiptListener {
+
+    /**
+     * 短信取得最终状态（送达、失败或跟踪超时）时回调，每条短信每个号码只回调一次。
+     * @param bizId 服务商发送回执 id
+     */
+    void onReceipt(String scene, String bizId, DeliveryReceipt receipt);
+}
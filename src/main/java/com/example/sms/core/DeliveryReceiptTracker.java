@@ -0,0 +1,326 @@
+package com.example.sms.core;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import com.example.sms.config.SmsProperties;
+import com.example.sms.config.SmsProperties.ReceiptProperties;
+
+/**
+ * 送达回执轮询。发送成功的短信按服务商、号码与发送日期分组跟踪，一次回执查询即可覆盖同组的全部短信，
+ * 查询结果按 outId 关联，未指定 outId 的发送由 {@link SmsProviderRouter} 生成。
+ * 分组按下次查询时间排序，单个后台线程依次查询到期的分组，分页查询的每一页都计入 qps 预算，
+ * 仍无结果的分组查询间隔翻倍。短信取得最终状态或超过跟踪时长后通知 {@link DeliveryReceiptListener} 并移出跟踪。
+ */
+@Component
+public class DeliveryReceiptTracker implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(DeliveryReceiptTracker.class);
+
+    private static final DateTimeFormatter SEND_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+    /** 没有到期分组时的最长休眠时间 */
+    private static final long IDLE_SLEEP_MILLIS = 1000;
+
+    private final ReceiptProperties properties;
+    private final ObjectProvider<DeliveryReceiptListener> listeners;
+    private final SmsMetrics smsMetrics;
+    private final ZoneId zoneId;
+    /** 分组 key -> 分组，与 schedule、pending 一起由 groups 加锁保护 */
+    private final Map<String, ReceiptGroup> groups = new HashMap<>();
+    /** 等待查询的分组，按下次查询时间排序；正在查询的分组不在其中 */
+    private final TreeSet<ReceiptGroup> schedule = new TreeSet<>(
+        Comparator.comparingLong((ReceiptGroup group) -> group.nextPollAt).thenComparingLong(group -> group.id));
+    private long groupSequence;
+    private int pending;
+    private final AtomicLong untracked = new AtomicLong();
+    private final Thread poller;
+    private volatile boolean running;
+    /** 仅轮询线程访问 */
+    private long nextQueryNanos;
+
+    public DeliveryReceiptTracker(SmsProperties smsProperties,
+                                  ObjectProvider<DeliveryReceiptListener> listeners,
+                                  SmsMetrics smsMetrics) {
+        this.properties = smsProperties.getReceipt();
+        this.listeners = listeners;
+        this.smsMetrics = smsMetrics;
+        this.zoneId = ZoneId.of(properties.getZoneId());
+        if (!properties.isEnabled()) {
+            this.poller = null;
+            return;
+        }
+        this.nextQueryNanos = System.nanoTime();
+        smsMetrics.gauge("sms.receipt.pending", "receipt", "tracked", this::pending);
+        smsMetrics.gauge("sms.receipt.untracked", "receipt", "overflow", untracked::get);
+        this.running = true;
+        this.poller = new Thread(this::poll, "sms-receipt");
+        poller.setDaemon(true);
+        poller.start();
+    }
+
+    /**
+     * 跟踪一次发送成功的短信，批量发送时每个号码各跟踪一条。
+     * @param providerName 服务商小写名称
+     */
+    public void track(String scene, SmsProvider provider, String providerName, List<String> mobiles,
+                      String bizId, String outId) {
+        if (!running || outId == null || !provider.supportsReceiptQuery()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        String sendDate = SEND_DATE.format(Instant.ofEpochMilli(now).atZone(zoneId));
+        long firstPollAt = now + TimeUnit.SECONDS.toMillis(properties.getInitialDelaySeconds());
+        long expireAt = now + TimeUnit.SECONDS.toMillis(properties.getMaxAgeSeconds());
+        synchronized (groups) {
+            for (String mobile : mobiles) {
+                if (pending >= properties.getMaxPending()) {
+                    untracked.incrementAndGet();
+                    continue;
+                }
+                String key = providerName + '|' + mobile + '|' + sendDate;
+                ReceiptGroup group = groups.get(key);
+                if (group == null) {
+                    group = new ReceiptGroup(++groupSequence, key, provider, mobile, sendDate);
+                    groups.put(key, group);
+                }
+                group.entries.add(new PendingReceipt(scene, bizId, outId, expireAt));
+                pending++;
+                // 新短信按首次查询延迟重新计时，正在查询的分组在查询结束后处理
+                group.backoffMillis = 0;
+                if (group.polling) {
+                    group.refreshed = true;
+                } else if (group.nextPollAt == 0 || group.nextPollAt > firstPollAt) {
+                    schedule.remove(group);
+                    group.nextPollAt = firstPollAt;
+                    schedule.add(group);
+                }
+            }
+        }
+    }
+
+    private int pending() {
+        synchronized (groups) {
+            return pending;
+        }
+    }
+
+    private void poll() {
+        while (running) {
+            try {
+                ReceiptGroup group = nextDue();
+                if (group != null) {
+                    poll(group);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.warn("Delivery receipt poll failed, err={}", ex.toString());
+            }
+        }
+    }
+
+    /**
+     * 取出一个到期分组，没有时休眠到最早的分组到期。
+     */
+    private ReceiptGroup nextDue() throws InterruptedException {
+        long sleep;
+        synchronized (groups) {
+            long now = System.currentTimeMillis();
+            ReceiptGroup first = schedule.isEmpty() ? null : schedule.first();
+            if (first != null && first.nextPollAt <= now) {
+                schedule.pollFirst();
+                first.polling = true;
+                return first;
+            }
+            sleep = first == null ? IDLE_SLEEP_MILLIS : Math.min(IDLE_SLEEP_MILLIS, first.nextPollAt - now);
+        }
+        TimeUnit.MILLISECONDS.sleep(sleep);
+        return null;
+    }
+
+    /**
+     * 每次服务商请求前调用，一个分组的分页查询逐页计入 qps 预算。
+     */
+    private void pace() throws InterruptedException {
+        long now = System.nanoTime();
+        long wait = nextQueryNanos - now;
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+        nextQueryNanos = (wait > 0 ? nextQueryNanos : now) + TimeUnit.SECONDS.toNanos(1) / properties.getQps();
+    }
+
+    private void poll(ReceiptGroup group) {
+        List<PendingReceipt> snapshot;
+        synchronized (groups) {
+            snapshot = new ArrayList<>(group.entries);
+        }
+        Map<String, DeliveryReceipt> receipts = null;
+        try {
+            receipts = byOutId(group.provider.queryReceipts(group.mobile, group.sendDate, this::pace));
+        } catch (SmsException ex) {
+            log.warn("Query delivery receipts failed provider={}, mobile={}, sendDate={}, errorCode={}, err={}",
+                group.provider.getProvider(), maskMobile(group.mobile), group.sendDate, ex.getErrorCode(), ex.getMessage());
+        }
+        long now = System.currentTimeMillis();
+        List<PendingReceipt> done = new ArrayList<>();
+        List<DeliveryReceipt> results = new ArrayList<>();
+        synchronized (groups) {
+            for (PendingReceipt entry : snapshot) {
+                DeliveryReceipt receipt = receipts == null ? null : receipts.get(entry.outId);
+                if (receipt == null || !receipt.getStatus().isFinal()) {
+                    if (now < entry.expireAt) {
+                        continue;
+                    }
+                    receipt = new DeliveryReceipt(entry.outId, group.mobile, DeliveryReceipt.Status.EXPIRED, null, null);
+                }
+                group.entries.remove(entry);
+                pending--;
+                done.add(entry);
+                results.add(receipt);
+            }
+            group.polling = false;
+            if (group.entries.isEmpty()) {
+                groups.remove(group.key);
+            } else {
+                reschedule(group, now);
+            }
+        }
+        for (int i = 0; i < done.size(); i++) {
+            publish(done.get(i), results.get(i));
+        }
+    }
+
+    /**
+     * 查询间隔从 pollIntervalSeconds 起翻倍，不晚于分组内最早的过期时间。
+     */
+    private void reschedule(ReceiptGroup group, long now) {
+        long interval = TimeUnit.SECONDS.toMillis(properties.getPollIntervalSeconds());
+        group.backoffMillis = group.backoffMillis == 0 ? interval
+            : Math.min(group.backoffMillis * 2, TimeUnit.SECONDS.toMillis(properties.getMaxPollIntervalSeconds()));
+        long next = now + group.backoffMillis;
+        if (group.refreshed) {
+            group.refreshed = false;
+            next = Math.min(next, now + TimeUnit.SECONDS.toMillis(properties.getInitialDelaySeconds()));
+        }
+        for (PendingReceipt entry : group.entries) {
+            next = Math.min(next, entry.expireAt);
+        }
+        group.nextPollAt = next;
+        schedule.add(group);
+    }
+
+    /**
+     * 同一 outId 可能对应多次发送（重试），取最有利的状态：送达优先，其次仍在等待，最后为失败。
+     */
+    private static Map<String, DeliveryReceipt> byOutId(List<DeliveryReceipt> receipts) {
+        Map<String, DeliveryReceipt> byOutId = new HashMap<>();
+        for (DeliveryReceipt receipt : receipts) {
+            if (receipt.getOutId() == null) {
+                continue;
+            }
+            byOutId.merge(receipt.getOutId(), receipt, (a, b) -> rank(b) > rank(a) ? b : a);
+        }
+        return byOutId;
+    }
+
+    private static int rank(DeliveryReceipt receipt) {
+        switch (receipt.getStatus()) {
+            case DELIVERED:
+                return 3;
+            case PENDING:
+                return 2;
+            default:
+                return 1;
+        }
+    }
+
+    private void publish(PendingReceipt entry, DeliveryReceipt receipt) {
+        smsMetrics.recordReceipt(entry.scene, receipt.getStatus());
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onReceipt(entry.scene, entry.bizId, receipt);
+            } catch (RuntimeException ex) {
+                log.warn("Delivery receipt listener failed scene={}, bizId={}, err={}", entry.scene, entry.bizId, ex.toString());
+            }
+        });
+    }
+
+    private static String maskMobile(String mobile) {
+        if (StringUtils.length(mobile) < 7) {
+            return "**" + StringUtils.right(mobile, 2);
+        }
+        return StringUtils.left(mobile, 3) + "****" + StringUtils.right(mobile, 2);
+    }
+
+    /**
+     * 停止轮询，跟踪中的短信不再通知。
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        if (poller == null) {
+            return;
+        }
+        running = false;
+        poller.interrupt();
+        poller.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * 同一服务商、号码与发送日期的跟踪中短信。
+     */
+    private static final class ReceiptGroup {
+
+        private final long id;
+        private final String key;
+        private final SmsProvider provider;
+        private final String mobile;
+        private final String sendDate;
+        private final List<PendingReceipt> entries = new ArrayList<>(1);
+        private long nextPollAt;
+        private long backoffMillis;
+        private boolean polling;
+        /** 查询期间加入了新短信 */
+        private boolean refreshed;
+
+        private ReceiptGroup(long id, String key, SmsProvider provider, String mobile, String sendDate) {
+            this.id = id;
+            this.key = key;
+            this.provider = provider;
+            this.mobile = mobile;
+            this.sendDate = sendDate;
+        }
+    }
+
+    private static final class PendingReceipt {
+
+        private final String scene;
+        private final String bizId;
+        private final String outId;
+        private final long expireAt;
+
+        private PendingReceipt(String scene, String bizId, String outId, long expireAt) {
+            this.scene = scene;
+            this.bizId = bizId;
+            this.outId = outId;
+            this.expireAt = expireAt;
+        }
+    }
+}
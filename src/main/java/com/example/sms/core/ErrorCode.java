@@ -14,12 +14,21 @@ public enum ErrorCode {
     /** 发送被限流 */
     RATE_LIMITED,
 
+    /** 来源网段或号段请求量异常，疑似短信轰炸 */
+    ABUSE_SUSPECTED,
+
     /** 幂等窗口内重复请求 */
     IDEMPOTENT_REJECTED,
 
     /** 客户端内部错误 */
     CLIENT_ERROR,
 
+    /** 异步发送队列已满 */
+    ASYNC_REJECTED,
+
+    /** 验证码校验失败次数过多，已锁定 */
+    VERIFY_CODE_LOCKED,
+
     /** 服务商限流 */
     PROVIDER_THROTTLED,
 
@@ -29,6 +38,30 @@ public enum ErrorCode {
     /** 服务商认证失败 */
     PROVIDER_AUTH_ERROR,
 
-    /** 服务商未知错误 */
-    PROVIDER_ERROR
+    /** 服务商账户异常（余额不足、欠费停机、产品未开通等），重试无效 */
+    PROVIDER_ACCOUNT_ERROR,
+
+    /** 服务商对单个号码的发送频率管控，重试无效 */
+    PROVIDER_MOBILE_LIMITED,
+
+    /** 服务商系统繁忙或不可达，请求未被受理 */
+    PROVIDER_UNAVAILABLE,
+
+    /** 服务商调用超时、连接中断或等待结果时被中断，请求可能已被受理；唯一表示发送结果未知的错误码 */
+    PROVIDER_TIMEOUT,
+
+    /** 服务商返回未识别的错误 */
+    PROVIDER_ERROR,
+
+    /** 服务商熔断中，快速失败 */
+    PROVIDER_CIRCUIT_OPEN,
+
+    /** 服务商并发已达自适应上限 */
+    PROVIDER_CONCURRENCY_LIMITED,
+
+    /** 出站配额在最长等待时间内无法满足，请求未发出 */
+    PROVIDER_QUOTA_LIMITED,
+
+    /** 发送通道并发与排队已满，请求未发出 */
+    LANE_SATURATED
 }
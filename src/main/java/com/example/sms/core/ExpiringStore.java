@@ -0,0 +1,232 @@
+package com.example.sms.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 带过期时间的内存存储，供限流与幂等等本地状态复用。
+ * 过期登记按秒落入时间轮槽位，清理只处理到期槽位，均摊 O(1)；
+ * 条目数达到上限时先清理已到期的条目，仍无空间则拒绝新 key，已有条目不受影响，
+ * 大量一次性 key 不会挤掉正在生效的限流状态。
+ */
+public final class ExpiringStore<V> {
+
+    /** 时间轮槽位数（秒），超过一圈的 TTL 按圈数多次经过槽位 */
+    private static final int WHEEL_SIZE = 4096;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private final String name;
+    private final int maxEntries;
+    private final Map<String, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<ConcurrentLinkedQueue<Node<V>>> wheel = new AtomicReferenceArray<>(WHEEL_SIZE);
+    private final ReentrantLock sweepLock = new ReentrantLock();
+    /** 因条目数达到上限被拒绝的新 key 数 */
+    private final AtomicLong rejected = new AtomicLong();
+    private long sweptUntil;
+
+    public ExpiringStore(String name, int maxEntries) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.set(i, new ConcurrentLinkedQueue<>());
+        }
+        this.sweptUntil = nowSeconds();
+    }
+
+    /**
+     * 获取未过期的值，已过期视为不存在。
+     */
+    public V get(String key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expireAt <= nowSeconds()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * 获取未过期的值，不存在时创建；TTL 仅在创建时生效。
+     * @return 条目数已达上限且 key 不存在时返回 null
+     */
+    public V getOrCreate(String key, long ttlSeconds, Supplier<V> factory) {
+        while (true) {
+            Entry<V> existing = entries.get(key);
+            long now = nowSeconds();
+            if (existing != null && existing.expireAt > now) {
+                return existing.value;
+            }
+            if (existing == null && !hasRoom()) {
+                return null;
+            }
+            Entry<V> created = new Entry<>(factory.get(), now + ttlSeconds);
+            if (install(key, existing, created)) {
+                return created.value;
+            }
+        }
+    }
+
+    /**
+     * 写入值并设置 TTL，覆盖已有值。
+     * @return 条目数已达上限且 key 不存在时不写入并返回 false
+     */
+    public boolean put(String key, V value, long ttlSeconds) {
+        if (!entries.containsKey(key) && !hasRoom()) {
+            return false;
+        }
+        Entry<V> created = new Entry<>(value, nowSeconds() + ttlSeconds);
+        entries.put(key, created);
+        schedule(key, created);
+        return true;
+    }
+
+    /**
+     * 仅在 key 不存在或已过期时写入。
+     * @return 是否写入成功，条目数已达上限且 key 不存在时返回 false
+     */
+    public boolean putIfAbsent(String key, V value, long ttlSeconds) {
+        while (true) {
+            Entry<V> existing = entries.get(key);
+            long now = nowSeconds();
+            if (existing != null && existing.expireAt > now) {
+                return false;
+            }
+            if (existing == null && !hasRoom()) {
+                return false;
+            }
+            if (install(key, existing, new Entry<>(value, now + ttlSeconds))) {
+                return true;
+            }
+        }
+    }
+
+    public void remove(String key) {
+        entries.remove(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * 清理截至当前秒的所有到期槽位，由后台定时任务调用。
+     */
+    public void sweep() {
+        sweepLock.lock();
+        try {
+            sweepExpired();
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    /**
+     * 条目数未达上限时允许新 key；达到上限时先清理已到期的条目再判断，仅一个线程执行清理，其余调用方不等待。
+     */
+    private boolean hasRoom() {
+        if (entries.size() < maxEntries) {
+            return true;
+        }
+        if (sweepLock.tryLock()) {
+            try {
+                sweepExpired();
+            } finally {
+                sweepLock.unlock();
+            }
+        }
+        if (entries.size() < maxEntries) {
+            return true;
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    private void sweepExpired() {
+        long now = nowSeconds();
+        long from = Math.max(sweptUntil + 1, now - WHEEL_MASK);
+        for (long second = from; second <= now; second++) {
+            drainSlot(second, now);
+        }
+        sweptUntil = now;
+    }
+
+    private boolean install(String key, Entry<V> expired, Entry<V> created) {
+        boolean installed = expired == null
+            ? entries.putIfAbsent(key, created) == null
+            : entries.replace(key, expired, created);
+        if (installed) {
+            schedule(key, created);
+        }
+        return installed;
+    }
+
+    private void schedule(String key, Entry<V> entry) {
+        wheel.get((int) (entry.expireAt & WHEEL_MASK)).offer(new Node<>(key, entry));
+    }
+
+    /**
+     * 处理单个槽位：丢弃失效登记，删除到期条目，未到期的登记放回槽位。
+     */
+    private void drainSlot(long second, long now) {
+        int slot = (int) (second & WHEEL_MASK);
+        ConcurrentLinkedQueue<Node<V>> queue = wheel.get(slot);
+        List<Node<V>> retained = new ArrayList<>();
+        Node<V> node;
+        while ((node = queue.poll()) != null) {
+            if (entries.get(node.key) != node.entry) {
+                continue;
+            }
+            if (node.entry.expireAt <= now) {
+                entries.remove(node.key, node.entry);
+            } else {
+                retained.add(node);
+            }
+        }
+        if (!retained.isEmpty()) {
+            queue.addAll(retained);
+        }
+    }
+
+    private static long nowSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+        private final long expireAt;
+
+        private Entry(V value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+
+    private static final class Node<V> {
+
+        private final String key;
+        private final Entry<V> entry;
+
+        private Node(String key, Entry<V> entry) {
+            this.key = key;
+            this.entry = entry;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.sms.core;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import com.example.sms.config.SmsProperties;
+import com.example.sms.config.SmsProperties.LocalStoreProperties;
+
+/**
+ * 本地过期存储的创建与后台清理，所有存储共用一个守护线程。
+ */
+@Component
+public class ExpiringStoreSweeper implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpiringStoreSweeper.class);
+
+    private final LocalStoreProperties properties;
+    private final List<ExpiringStore<?>> stores = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService scheduler;
+    private final SmsMetrics smsMetrics;
+
+    public ExpiringStoreSweeper(SmsProperties smsProperties, SmsMetrics smsMetrics) {
+        this.properties = smsProperties.getLocalStore();
+        this.smsMetrics = smsMetrics;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sms-store-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getSweepIntervalMillis();
+        scheduler.scheduleWithFixedDelay(this::sweepAll, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 创建并登记一个过期存储，条目上限取全局配置，同时注册条目数与拒绝数指标。
+     */
+    public <V> ExpiringStore<V> create(String name) {
+        ExpiringStore<V> store = new ExpiringStore<>(name, properties.getMaxEntries());
+        stores.add(store);
+        smsMetrics.gauge("sms.local_store.size", "store", name, store::size);
+        smsMetrics.gauge("sms.local_store.rejected", "store", name, store::getRejected);
+        return store;
+    }
+
+    private void sweepAll() {
+        for (ExpiringStore<?> store : stores) {
+            try {
+                store.sweep();
+            } catch (RuntimeException ex) {
+                log.warn("本地存储清理失败 store={}, err={}", store.getName(), ex.toString());
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
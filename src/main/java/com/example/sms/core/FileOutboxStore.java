@@ -0,0 +1,225 @@
+package com.example.sms.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import com.example.sms.config.SmsProperties.OutboxProperties;
+
+/**
+ * 本地文件发件箱，Redis 不可用时的单实例退路。
+ * 追加写日志：A 行登记消息及到期时间（同一 id 以最后一行为准），D 行表示已完成；
+ * 启动时重放日志恢复未完成消息，进程崩溃时处理中的消息会在重启后重新投递。
+ * 已完成的行数超过未完成消息数时重写日志压缩体积。
+ */
+public class FileOutboxStore implements OutboxStore, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(FileOutboxStore.class);
+
+    private static final String ADD = "A";
+    private static final String DONE = "D";
+    private static final String SEPARATOR = "\t";
+    /** 日志行数至少达到该值才考虑压缩 */
+    private static final int COMPACT_MIN_LINES = 10_000;
+
+    private final Path journalPath;
+    private final Path deadPath;
+    private final boolean sync;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    private final Map<String, Pending> entries = new LinkedHashMap<>();
+    private final PriorityQueue<Pending> ready = new PriorityQueue<>(Comparator.comparingLong((Pending pending) -> pending.dueAt));
+    private FileChannel journal;
+    private int journalLines;
+
+    public FileOutboxStore(OutboxProperties properties) {
+        Path directory = Paths.get(properties.getFileDirectory());
+        this.journalPath = directory.resolve("outbox.log");
+        this.deadPath = directory.resolve("dead.log");
+        this.sync = properties.isFileSync();
+        try {
+            Files.createDirectories(directory);
+            this.lockChannel = FileChannel.open(directory.resolve("outbox.lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            this.lock = lockChannel.tryLock();
+            if (lock == null) {
+                lockChannel.close();
+                throw new SmsException(ErrorCode.INVALID_CONFIG, "发件箱目录已被其他进程占用：" + directory);
+            }
+            replay();
+            this.journal = openJournal();
+        } catch (IOException ex) {
+            throw new SmsException(ErrorCode.INVALID_CONFIG, "发件箱目录不可用：" + directory, ex);
+        }
+        log.info("File outbox loaded path={}, pending={}", journalPath, entries.size());
+    }
+
+    @Override
+    public synchronized void append(OutboxMessage message) {
+        schedule(message, System.currentTimeMillis());
+    }
+
+    @Override
+    public synchronized List<OutboxMessage> poll(int max) {
+        long now = System.currentTimeMillis();
+        List<OutboxMessage> messages = new ArrayList<>(Math.min(max, ready.size()));
+        while (messages.size() < max && !ready.isEmpty() && ready.peek().dueAt <= now) {
+            Pending pending = ready.poll();
+            if (entries.get(pending.message.getId()) == pending) {
+                messages.add(pending.message.withReceipt(pending.message.getId(), 1));
+            }
+        }
+        return messages;
+    }
+
+    @Override
+    public synchronized void ack(OutboxMessage message) {
+        complete(message);
+    }
+
+    @Override
+    public synchronized void retry(OutboxMessage current, OutboxMessage next, long delayMillis) {
+        schedule(next, System.currentTimeMillis() + delayMillis);
+    }
+
+    @Override
+    public synchronized void deadLetter(OutboxMessage message, ErrorCode errorCode) {
+        try {
+            Files.write(deadPath, (message.toJson() + SEPARATOR + errorCode.name() + "\n").getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        complete(message);
+    }
+
+    @Override
+    public List<OutboxMessage> claimStale(int max) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public synchronized void destroy() throws IOException {
+        journal.close();
+        lock.release();
+        lockChannel.close();
+    }
+
+    private void schedule(OutboxMessage message, long dueAt) {
+        write(ADD + SEPARATOR + dueAt + SEPARATOR + message.toJson());
+        Pending pending = new Pending(message, dueAt);
+        entries.put(message.getId(), pending);
+        ready.add(pending);
+    }
+
+    private void complete(OutboxMessage message) {
+        if (entries.remove(message.getId()) == null) {
+            return;
+        }
+        write(DONE + SEPARATOR + message.getId());
+        if (journalLines >= COMPACT_MIN_LINES && journalLines > entries.size() * 2) {
+            compact();
+        }
+    }
+
+    private void write(String line) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
+            }
+            if (sync) {
+                journal.force(false);
+            }
+            journalLines++;
+        } catch (IOException ex) {
+            throw new SmsException(ErrorCode.CLIENT_ERROR, "发件箱写入失败", ex);
+        }
+    }
+
+    /**
+     * 只保留未完成消息重写日志，先写临时文件再原子替换。
+     */
+    private void compact() {
+        Path temp = journalPath.resolveSibling("outbox.log.tmp");
+        try {
+            List<String> lines = new ArrayList<>(entries.size());
+            for (Pending pending : entries.values()) {
+                lines.add(ADD + SEPARATOR + pending.dueAt + SEPARATOR + pending.message.toJson());
+            }
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            journal.close();
+            Files.move(temp, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            journal = openJournal();
+            journalLines = lines.size();
+        } catch (IOException ex) {
+            log.warn("File outbox compaction failed path={}, err={}", journalPath, ex.toString());
+            try {
+                if (!journal.isOpen()) {
+                    journal = openJournal();
+                }
+            } catch (IOException reopen) {
+                throw new SmsException(ErrorCode.CLIENT_ERROR, "发件箱日志无法重新打开", reopen);
+            }
+        }
+    }
+
+    private void replay() throws IOException {
+        if (!Files.exists(journalPath)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                journalLines++;
+                String[] parts = line.split(SEPARATOR, 3);
+                try {
+                    if (ADD.equals(parts[0]) && parts.length == 3) {
+                        OutboxMessage message = OutboxMessage.fromJson(parts[2]);
+                        entries.put(message.getId(), new Pending(message, Long.parseLong(parts[1])));
+                    } else if (DONE.equals(parts[0]) && parts.length == 2) {
+                        entries.remove(parts[1]);
+                    }
+                } catch (RuntimeException ex) {
+                    // 崩溃时可能留下写了一半的最后一行
+                    log.warn("Skip corrupted outbox journal line path={}, line={}", journalPath, journalLines);
+                }
+            }
+        }
+        ready.addAll(entries.values());
+    }
+
+    private FileChannel openJournal() throws IOException {
+        return FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static final class Pending {
+
+        private final OutboxMessage message;
+        private final long dueAt;
+
+        private Pending(OutboxMessage message, long dueAt) {
+            this.message = message;
+            this.dueAt = dueAt;
+        }
+    }
+}
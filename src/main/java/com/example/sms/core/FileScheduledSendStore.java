@@ -0,0 +1,245 @@
+package com.example.sms.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import com.example.sms.config.SmsProperties.ScheduleProperties;
+
+/**
+ * 本地文件定时发送存储，Redis 不可用时的单实例退路。
+ * 日志格式与 {@link FileOutboxStore} 相同：A 行登记消息及到期时间（同一 id 以最后一行为准），D 行表示已完成或已取消。
+ * 待发送消息按到期时间保存在有序集合中，认领只遍历窗口内的消息；认领状态不落盘，重启后未完成消息重新排期。
+ */
+public class FileScheduledSendStore implements ScheduledSendStore, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(FileScheduledSendStore.class);
+
+    private static final String ADD = "A";
+    private static final String DONE = "D";
+    private static final String SEPARATOR = "\t";
+    /** 日志行数至少达到该值才考虑压缩 */
+    private static final int COMPACT_MIN_LINES = 10_000;
+    private static final Comparator<Entry> BY_DUE = Comparator.comparingLong((Entry entry) -> entry.dueAt)
+        .thenComparing(entry -> entry.send.getId());
+
+    private final Path journalPath;
+    private final boolean sync;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    /** id -> 消息，包含待发送与已认领 */
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final TreeSet<Entry> pending = new TreeSet<>(BY_DUE);
+    /** 已认领消息按租约到期时间排序 */
+    private final TreeSet<Entry> claimed = new TreeSet<>(BY_DUE);
+    private FileChannel journal;
+    private int journalLines;
+
+    public FileScheduledSendStore(ScheduleProperties properties) {
+        Path directory = Paths.get(properties.getFileDirectory());
+        this.journalPath = directory.resolve("schedule.log");
+        this.sync = properties.isFileSync();
+        try {
+            Files.createDirectories(directory);
+            this.lockChannel = FileChannel.open(directory.resolve("schedule.lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            this.lock = lockChannel.tryLock();
+            if (lock == null) {
+                lockChannel.close();
+                throw new SmsException(ErrorCode.INVALID_CONFIG, "定时发送目录已被其他进程占用：" + directory);
+            }
+            replay();
+            this.journal = openJournal();
+        } catch (IOException ex) {
+            throw new SmsException(ErrorCode.INVALID_CONFIG, "定时发送目录不可用：" + directory, ex);
+        }
+        log.info("File schedule store loaded path={}, pending={}", journalPath, entries.size());
+    }
+
+    @Override
+    public synchronized void add(ScheduledSend send) {
+        write(ADD + SEPARATOR + send.getDueAt() + SEPARATOR + send.toJson());
+        unlink(entries.get(send.getId()));
+        Entry entry = new Entry(send, send.getDueAt());
+        entries.put(send.getId(), entry);
+        pending.add(entry);
+    }
+
+    @Override
+    public synchronized boolean cancel(String id) {
+        Entry entry = entries.get(id);
+        if (entry == null || entry.claimed) {
+            return false;
+        }
+        remove(entry);
+        return true;
+    }
+
+    @Override
+    public synchronized List<ScheduledSend> claim(long untilMillis, long leaseMillis, int max) {
+        long now = System.currentTimeMillis();
+        while (!claimed.isEmpty() && claimed.first().dueAt <= now) {
+            Entry expired = claimed.pollFirst();
+            expired.claimed = false;
+            expired.dueAt = now;
+            pending.add(expired);
+        }
+        List<ScheduledSend> sends = new ArrayList<>(Math.min(max, pending.size()));
+        Iterator<Entry> iterator = pending.iterator();
+        List<Entry> leased = new ArrayList<>();
+        while (sends.size() < max && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.dueAt > untilMillis) {
+                break;
+            }
+            iterator.remove();
+            sends.add(entry.send.withDueAt(entry.dueAt));
+            entry.claimed = true;
+            entry.dueAt = Math.max(entry.dueAt, now) + leaseMillis;
+            leased.add(entry);
+        }
+        claimed.addAll(leased);
+        return sends;
+    }
+
+    @Override
+    public synchronized boolean complete(ScheduledSend send) {
+        Entry entry = entries.get(send.getId());
+        if (entry == null || !entry.claimed) {
+            return false;
+        }
+        remove(entry);
+        return true;
+    }
+
+    @Override
+    public synchronized void reschedule(ScheduledSend next) {
+        add(next);
+    }
+
+    @Override
+    public synchronized void destroy() throws IOException {
+        journal.close();
+        lock.release();
+        lockChannel.close();
+    }
+
+    private void unlink(Entry entry) {
+        if (entry != null) {
+            (entry.claimed ? claimed : pending).remove(entry);
+        }
+    }
+
+    private void remove(Entry entry) {
+        unlink(entry);
+        entries.remove(entry.send.getId());
+        write(DONE + SEPARATOR + entry.send.getId());
+        if (journalLines >= COMPACT_MIN_LINES && journalLines > entries.size() * 2) {
+            compact();
+        }
+    }
+
+    private void write(String line) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
+            }
+            if (sync) {
+                journal.force(false);
+            }
+            journalLines++;
+        } catch (IOException ex) {
+            throw new SmsException(ErrorCode.CLIENT_ERROR, "定时发送日志写入失败", ex);
+        }
+    }
+
+    /**
+     * 只保留未完成消息重写日志，先写临时文件再原子替换。已认领消息按原到期时间写入。
+     */
+    private void compact() {
+        Path temp = journalPath.resolveSibling("schedule.log.tmp");
+        try {
+            List<String> lines = new ArrayList<>(entries.size());
+            for (Entry entry : entries.values()) {
+                long dueAt = entry.claimed ? entry.send.getDueAt() : entry.dueAt;
+                lines.add(ADD + SEPARATOR + dueAt + SEPARATOR + entry.send.toJson());
+            }
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            journal.close();
+            Files.move(temp, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            journal = openJournal();
+            journalLines = lines.size();
+        } catch (IOException ex) {
+            log.warn("File schedule store compaction failed path={}, err={}", journalPath, ex.toString());
+            try {
+                if (!journal.isOpen()) {
+                    journal = openJournal();
+                }
+            } catch (IOException reopen) {
+                throw new SmsException(ErrorCode.CLIENT_ERROR, "定时发送日志无法重新打开", reopen);
+            }
+        }
+    }
+
+    private void replay() throws IOException {
+        if (!Files.exists(journalPath)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                journalLines++;
+                String[] parts = line.split(SEPARATOR, 3);
+                try {
+                    if (ADD.equals(parts[0]) && parts.length == 3) {
+                        long dueAt = Long.parseLong(parts[1]);
+                        ScheduledSend send = ScheduledSend.fromJson(parts[2], dueAt);
+                        entries.put(send.getId(), new Entry(send, dueAt));
+                    } else if (DONE.equals(parts[0]) && parts.length == 2) {
+                        entries.remove(parts[1]);
+                    }
+                } catch (RuntimeException ex) {
+                    // 崩溃时可能留下写了一半的最后一行
+                    log.warn("Skip corrupted schedule journal line path={}, line={}", journalPath, journalLines);
+                }
+            }
+        }
+        pending.addAll(entries.values());
+    }
+
+    private FileChannel openJournal() throws IOException {
+        return FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static final class Entry {
+
+        private final ScheduledSend send;
+        /** 待发送时为到期时间，已认领时为租约到期时间 */
+        private long dueAt;
+        private boolean claimed;
+
+        private Entry(ScheduledSend send, long dueAt) {
+            this.send = send;
+            this.dueAt = dueAt;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.sms.core;
+
+/**
+ * 可复用的 128 位指纹计算器，基于 MurmurHash3 x64_128，直接消费字符串的 UTF-16 字符，不做编码转换。
+ * 实例有状态且非线程安全，调用方按线程复用，计算过程不分配对象。
+ */
+final class Fingerprint128 {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+    private static final long SEED = 0x9e3779b97f4a7c15L;
+    /** 字段分隔符，U+FFFF 为非字符，不会出现在正常输入中 */
+    private static final char SEPARATOR = '\uFFFF';
+
+    private long h1;
+    private long h2;
+    private long k1;
+    private long k2;
+    /** 当前块内已写入的字符数，满 8 个字符（16 字节）混合一次 */
+    private int position;
+    private long length;
+    private long hi;
+    private long lo;
+
+    Fingerprint128 reset() {
+        h1 = SEED;
+        h2 = SEED;
+        k1 = 0;
+        k2 = 0;
+        position = 0;
+        length = 0;
+        return this;
+    }
+
+    /**
+     * 写入一个字段，字段之间以分隔符隔开，避免拼接歧义。
+     */
+    Fingerprint128 putField(String value) {
+        for (int i = 0, n = value.length(); i < n; i++) {
+            putChar(value.charAt(i));
+        }
+        putChar(SEPARATOR);
+        return this;
+    }
+
+    /**
+     * 结束计算，结果通过 {@link #hi()} 与 {@link #lo()} 读取，直到下一次 {@link #reset()}。
+     */
+    Fingerprint128 finish() {
+        if (position > 0) {
+            h2 ^= Long.rotateLeft(k2 * C2, 33) * C1;
+            h1 ^= Long.rotateLeft(k1 * C1, 31) * C2;
+        }
+        long a = h1 ^ length;
+        long b = h2 ^ length;
+        a += b;
+        b += a;
+        a = fmix(a);
+        b = fmix(b);
+        a += b;
+        b += a;
+        hi = a;
+        lo = b;
+        return this;
+    }
+
+    long hi() {
+        return hi;
+    }
+
+    long lo() {
+        return lo;
+    }
+
+    /**
+     * 定长 32 位十六进制表示，用作分布式存储的 key。
+     */
+    String toHex() {
+        return String.format("%016x%016x", hi, lo);
+    }
+
+    private void putChar(char c) {
+        long bits = c & 0xFFFFL;
+        if (position < 4) {
+            k1 |= bits << (position << 4);
+        } else {
+            k2 |= bits << ((position - 4) << 4);
+        }
+        length += 2;
+        if (++position == 8) {
+            mixBlock();
+        }
+    }
+
+    private void mixBlock() {
+        h1 ^= Long.rotateLeft(k1 * C1, 31) * C2;
+        h1 = Long.rotateLeft(h1, 27) + h2;
+        h1 = h1 * 5 + 0x52dce729;
+        h2 ^= Long.rotateLeft(k2 * C2, 33) * C1;
+        h2 = Long.rotateLeft(h2, 31) + h1;
+        h2 = h2 * 5 + 0x38495ab5;
+        k1 = 0;
+        k2 = 0;
+        position = 0;
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
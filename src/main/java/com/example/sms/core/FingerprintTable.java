@@ -0,0 +1,148 @@
+package com.example.sms.core;
+
+/**
+ * 以 128 位指纹为 key 的定容过期表，指纹与到期时间内联存放在基本类型数组中，读写不分配对象。
+ * 槽位按分段划分，每段一把锁；探测只在所属分段内线性进行且步数有界，
+ * 探测范围内没有空位或过期槽位时拒绝写入新指纹（与 {@link ExpiringStore} 达到上限时一致），
+ * 不覆盖仍有效的预占或已发送记录，内存占用在创建时即固定。
+ */
+final class FingerprintTable {
+
+    /**
+     * 写入结果。
+     */
+    enum Write {
+        /** 已写入或已刷新到期时间 */
+        WRITTEN,
+        /** 仅在不存在时写入，而指纹仍有效 */
+        PRESENT,
+        /** 探测范围内的槽位均被有效条目占用，未写入 */
+        FULL
+    }
+
+    private static final int STRIPES = 64;
+    private static final int MAX_PROBES = 16;
+    /** 每个槽位占用的 long 数：指纹高位、指纹低位、到期时间 */
+    private static final int SLOT_WIDTH = 3;
+    /** 已删除槽位的到期时间，非 0 以免截断探测链 */
+    private static final long EXPIRED = 1;
+
+    private final long[] slots;
+    private final int stripeMask;
+    private final int stripeShift;
+    private final Object[] locks = new Object[STRIPES];
+
+    /**
+     * @param maxEntries 预期最大条目数，槽位数取其两倍向上取 2 的幂，保持负载不超过一半
+     */
+    FingerprintTable(int maxEntries) {
+        int capacity = Math.max(STRIPES * MAX_PROBES, Integer.highestOneBit(Math.max(1, maxEntries) * 2 - 1) << 1);
+        int stripeSize = capacity / STRIPES;
+        this.slots = new long[capacity * SLOT_WIDTH];
+        this.stripeMask = stripeSize - 1;
+        this.stripeShift = Integer.numberOfTrailingZeros(stripeSize);
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * 写入指纹或刷新其到期时间。
+     * @return WRITTEN，或指纹不存在且没有可用槽位时返回 FULL
+     */
+    Write put(long hi, long lo, long expireAt, long now) {
+        return write(hi, lo, expireAt, now, false);
+    }
+
+    /**
+     * 仅在指纹不存在或已过期时写入。
+     * @return WRITTEN，指纹仍有效时返回 PRESENT，没有可用槽位时返回 FULL
+     */
+    Write putIfAbsent(long hi, long lo, long expireAt, long now) {
+        return write(hi, lo, expireAt, now, true);
+    }
+
+    /**
+     * 使指纹立即过期，槽位保留在探测链上供后续写入复用。
+     */
+    void remove(long hi, long lo) {
+        int stripe = stripe(lo);
+        int start = (int) hi;
+        synchronized (locks[stripe]) {
+            for (int i = 0; i < MAX_PROBES; i++) {
+                int base = slot(stripe, start + i);
+                if (slots[base + 2] == 0) {
+                    return;
+                }
+                if (slots[base] == hi && slots[base + 1] == lo) {
+                    slots[base + 2] = EXPIRED;
+                    return;
+                }
+            }
+        }
+    }
+
+    private Write write(long hi, long lo, long expireAt, long now, boolean onlyIfAbsent) {
+        int stripe = stripe(lo);
+        int start = (int) hi;
+        synchronized (locks[stripe]) {
+            int free = -1;
+            for (int i = 0; i < MAX_PROBES; i++) {
+                int base = slot(stripe, start + i);
+                long current = slots[base + 2];
+                if (current == 0) {
+                    if (free < 0) {
+                        free = base;
+                    }
+                    break;
+                }
+                if (slots[base] == hi && slots[base + 1] == lo) {
+                    if (onlyIfAbsent && current > now) {
+                        return Write.PRESENT;
+                    }
+                    slots[base + 2] = expireAt;
+                    return Write.WRITTEN;
+                }
+                if (current <= now && free < 0) {
+                    free = base;
+                }
+            }
+            if (free < 0) {
+                return Write.FULL;
+            }
+            slots[free] = hi;
+            slots[free + 1] = lo;
+            slots[free + 2] = expireAt;
+            return Write.WRITTEN;
+        }
+    }
+
+    /**
+     * 统计未过期条目数，需遍历全表，仅供监控采集使用。
+     */
+    int size(long now) {
+        int size = 0;
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            synchronized (locks[stripe]) {
+                for (int i = 0; i <= stripeMask; i++) {
+                    if (slots[slot(stripe, i) + 2] > now) {
+                        size++;
+                    }
+                }
+            }
+        }
+        return size;
+    }
+
+    int capacity() {
+        return slots.length / SLOT_WIDTH;
+    }
+
+    private int stripe(long lo) {
+        return (int) (lo >>> 58) & (STRIPES - 1);
+    }
+
+    private int slot(int stripe, int index) {
+        return ((stripe << stripeShift) | (index & stripeMask)) * SLOT_WIDTH;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.sms.core;
+
+import com.example.sms.config.RateLimitConfig;
+
+/**
+ * GCRA 参数换算：上限按周期折算为发放间隔 T，突发次数 B 换算为容差 (B - 1) × T，B 与周期无关（见 {@link RateLimitConfig}）。
+ * 请求在 max(TAT, now) - now 不超过容差时放行并将 TAT 推进 T，拒绝时不修改 TAT，
+ * 因此被拒绝的请求不消耗配额，且任意时长 t 内最多放行 B + t / T 次，不存在窗口交界处的双倍放行。
+ */
+final class Gcra {
+
+    static final long DAY_MILLIS = 86_400_000L;
+    static final long MINUTE_MILLIS = 60_000L;
+
+    private Gcra() {
+    }
+
+    static long mobileEmissionMillis(RateLimitConfig limit) {
+        return emissionMillis(limit.getPerMobileDayLimit(), DAY_MILLIS);
+    }
+
+    static long mobileToleranceMillis(RateLimitConfig limit) {
+        return toleranceMillis(limit.getPerMobileDayLimit(), limit.getPerMobileBurst(), DAY_MILLIS);
+    }
+
+    static long ipEmissionMillis(RateLimitConfig limit) {
+        return emissionMillis(limit.getPerIpMinuteLimit(), MINUTE_MILLIS);
+    }
+
+    static long ipToleranceMillis(RateLimitConfig limit) {
+        return toleranceMillis(limit.getPerIpMinuteLimit(), limit.getPerIpBurst(), MINUTE_MILLIS);
+    }
+
+    /**
+     * @return 发放间隔毫秒，上限未配置时返回 0
+     */
+    private static long emissionMillis(long max, long periodMillis) {
+        return max <= 0 ? 0 : Math.max(1, periodMillis / max);
+    }
+
+    private static long toleranceMillis(long max, long burst, long periodMillis) {
+        if (max <= 0) {
+            return 0;
+        }
+        return (Math.max(1, burst) - 1) * emissionMillis(max, periodMillis);
+    }
+}
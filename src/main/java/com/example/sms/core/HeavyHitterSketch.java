@@ -0,0 +1,198 @@
+package com.example.sms.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 按时间窗口滚动的 Count-Min Sketch 与 Top-K。每个窗口 depth × width 个计数器，
+ * 只保留当前与上一窗口，估算值为当前窗口计数加上一窗口按剩余比例折算的计数，近似滑动窗口。
+ * 估算值只会偏大，误差上限约为窗口总请求数 × e / width。
+ * 每次计数为 depth 次原子自增，与 key 数量无关；Top-K 仅在估算值超过当前最小热点时加锁更新。
+ */
+final class HeavyHitterSketch {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final int depth;
+    private final int mask;
+    private final long windowMillis;
+    private final int topK;
+
+    private volatile Window current;
+    private volatile Window previous;
+
+    /** Top-K，按窗口整体清空 */
+    private final String[] topKeys;
+    private final long[] topCounts;
+    private int topSize;
+    /** Top-K 已满时的最小计数，快速路径据此跳过加锁 */
+    private volatile long topFloor;
+
+    HeavyHitterSketch(int width, int depth, long windowMillis, int topK) {
+        int capacity = Integer.highestOneBit(Math.max(2, width) - 1) << 1;
+        this.depth = depth;
+        this.mask = capacity - 1;
+        this.windowMillis = windowMillis;
+        this.topK = topK;
+        this.topKeys = new String[topK];
+        this.topCounts = new long[topK];
+        this.current = new Window(-1, depth * capacity);
+        this.previous = current;
+    }
+
+    /**
+     * 对 source 的前 end 个字符计数一次，tag 区分维度，不为前缀分配字符串。
+     * @return 计入本次后的估算值
+     */
+    long add(char tag, String source, int end, long now) {
+        long hash = hash(tag, source, end);
+        Window window = window(now);
+        Window last = previous;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long count = Long.MAX_VALUE;
+        long lastCount = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = row * (mask + 1) + ((h1 + row * h2) & mask);
+            count = Math.min(count, window.counters.incrementAndGet(index));
+            if (last.id == window.id - 1) {
+                lastCount = Math.min(lastCount, last.counters.get(index));
+            }
+        }
+        long estimate = count;
+        if (lastCount != Long.MAX_VALUE) {
+            long remaining = (window.id + 1) * windowMillis - now;
+            estimate += lastCount * remaining / windowMillis;
+        }
+        if (topSize < topK || estimate > topFloor) {
+            offer(tag, source, end, estimate, window);
+        }
+        return estimate;
+    }
+
+    /**
+     * 到当前窗口结束的毫秒数。
+     */
+    long millisUntilRoll(long now) {
+        return windowMillis - now % windowMillis;
+    }
+
+    /**
+     * 当前窗口的热点快照，按估算值降序。
+     */
+    synchronized List<HeavyHitter> topK() {
+        List<HeavyHitter> hitters = new ArrayList<>(topSize);
+        for (int i = 0; i < topSize; i++) {
+            hitters.add(new HeavyHitter(topKeys[i], topCounts[i]));
+        }
+        hitters.sort((a, b) -> Long.compare(b.getEstimate(), a.getEstimate()));
+        return hitters;
+    }
+
+    private Window window(long now) {
+        long id = now / windowMillis;
+        Window window = current;
+        if (window.id == id) {
+            return window;
+        }
+        synchronized (this) {
+            window = current;
+            if (window.id != id) {
+                previous = window;
+                window = new Window(id, window.counters.length());
+                current = window;
+                topSize = 0;
+                topFloor = 0;
+            }
+            return window;
+        }
+    }
+
+    private synchronized void offer(char tag, String source, int end, long estimate, Window window) {
+        if (window != current) {
+            return;
+        }
+        String key = tag + ":" + source.substring(0, end);
+        int min = -1;
+        for (int i = 0; i < topSize; i++) {
+            if (topKeys[i].equals(key)) {
+                topCounts[i] = Math.max(topCounts[i], estimate);
+                topFloor = floor();
+                return;
+            }
+            if (min < 0 || topCounts[i] < topCounts[min]) {
+                min = i;
+            }
+        }
+        if (topSize < topK) {
+            topKeys[topSize] = key;
+            topCounts[topSize++] = estimate;
+        } else if (estimate > topCounts[min]) {
+            topKeys[min] = key;
+            topCounts[min] = estimate;
+        }
+        topFloor = floor();
+    }
+
+    private long floor() {
+        if (topSize < topK) {
+            return 0;
+        }
+        long floor = Long.MAX_VALUE;
+        for (int i = 0; i < topSize; i++) {
+            floor = Math.min(floor, topCounts[i]);
+        }
+        return floor;
+    }
+
+    /**
+     * FNV-1a 后接 MurmurHash3 fmix64，高低 32 位用作双重哈希。
+     */
+    private static long hash(char tag, String source, int end) {
+        long hash = (FNV_OFFSET ^ tag) * FNV_PRIME;
+        for (int i = 0; i < end; i++) {
+            hash = (hash ^ source.charAt(i)) * FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static final class Window {
+
+        private final long id;
+        private final AtomicLongArray counters;
+
+        private Window(long id, int size) {
+            this.id = id;
+            this.counters = new AtomicLongArray(size);
+        }
+    }
+
+    /**
+     * 热点条目，key 形如 i:192.168.1 或 m:1380013。
+     */
+    static final class HeavyHitter {
+
+        private final String key;
+        private final long estimate;
+
+        HeavyHitter(String key, long estimate) {
+            this.key = key;
+            this.estimate = estimate;
+        }
+
+        String getKey() {
+            return key;
+        }
+
+        long getEstimate() {
+            return estimate;
+        }
+    }
+}
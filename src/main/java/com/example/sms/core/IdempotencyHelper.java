@@ -1,70 +1,205 @@
 package com.example.sms.core;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.time.Instant;
-import java.util.Base64;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+import com.example.sms.config.SmsProperties;
+import com.example.sms.config.SmsProperties.IdempotencyProperties;
 
 /**
  * 幂等控制工具，用于防止短时间内重复发送。
+ * 请求以场景、手机号与参数名计算 128 位指纹，发送前预占、成功后确认、失败时释放，
+ * 并发的相同请求只有一个能通过预占。默认登记在定容的本地基本类型表中，
+ * 可通过 sms.idempotency.backend=REDIS 切换为多实例共享的 Redis 预占。
  */
 @Component
 public class IdempotencyHelper {
 
-    private final Map<String, Long> cache = new ConcurrentHashMap<>();
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyHelper.class);
+
+    private static final ThreadLocal<Fingerprint128> HASHERS = ThreadLocal.withInitial(Fingerprint128::new);
+
+    /** 指纹 -> 到期时间，容量由 sms.local-store.max-entries 决定 */
+    private final FingerprintTable table;
+    /** 本地表无可用槽位而拒绝的预占数 */
+    private final AtomicLong rejected = new AtomicLong();
+    private final IdempotencyProperties properties;
+    private final RedisIdempotencyStore redisIdempotencyStore;
+    private final SmsMetrics smsMetrics;
+
+    public IdempotencyHelper(SmsProperties smsProperties, RedisIdempotencyStore redisIdempotencyStore, SmsMetrics smsMetrics) {
+        this.table = new FingerprintTable(smsProperties.getLocalStore().getMaxEntries());
+        this.properties = smsProperties.getIdempotency();
+        this.redisIdempotencyStore = redisIdempotencyStore;
+        this.smsMetrics = smsMetrics;
+        smsMetrics.gauge("sms.local_store.size", "store", "idempotency", () -> table.size(System.currentTimeMillis()));
+        smsMetrics.gauge("sms.local_store.rejected", "store", "idempotency", rejected::get);
+    }
 
     /**
-     * 检查是否重复请求。
+     * 预占本次请求，场景未开启幂等时返回 {@link Reservation#NONE}。
+     * 调用方在服务商调用成功后 {@link Reservation#commit()}，失败后 {@link Reservation#release()}；
+     * 两者都未调用时预占在 sms.idempotency.in-flight-ttl-seconds 后失效。
+     * @throws SmsException 相同请求处理中或幂等窗口内已发送时抛出 IDEMPOTENT_REJECTED；
+     *     本地表无可用槽位时抛出 CLIENT_ERROR，宁可拒绝也不覆盖其他请求的幂等状态
      */
-    public void check(String scene, String mobile, Map<String, String> params, long windowSeconds) {
+    public Reservation reserve(ScenePlan plan, String mobile, Map<String, String> params) {
+        long windowSeconds = plan.getIdempotencyWindowSeconds();
         if (windowSeconds <= 0) {
-            return;
+            return Reservation.NONE;
+        }
+        Fingerprint128 fingerprint = fingerprint(plan, mobile, params);
+        if (properties.getBackend() == IdempotencyProperties.Backend.REDIS) {
+            return reserveRedis(plan, SmsRedisKeys.idempotent(plan.getScene(), fingerprint.toHex()), windowSeconds);
+        }
+        long hi = fingerprint.hi();
+        long lo = fingerprint.lo();
+        long now = System.currentTimeMillis();
+        FingerprintTable.Write write = table.putIfAbsent(hi, lo, now + properties.getInFlightTtlSeconds() * 1000, now);
+        if (write == FingerprintTable.Write.PRESENT) {
+            throw reject(plan, "幂等窗口内重复请求");
+        }
+        if (write == FingerprintTable.Write.FULL) {
+            rejected.incrementAndGet();
+            throw new SmsException(ErrorCode.CLIENT_ERROR, "本地幂等表已满，请稍后再试");
+        }
+        return new LocalReservation(hi, lo, windowSeconds);
+    }
+
+    private Reservation reserveRedis(ScenePlan plan, String key, long windowSeconds) {
+        String token = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        RedisIdempotencyStore.Conflict conflict = redisIdempotencyStore.reserve(key, token, properties.getInFlightTtlSeconds());
+        if (conflict == RedisIdempotencyStore.Conflict.IN_FLIGHT) {
+            throw reject(plan, "相同请求正在处理中");
         }
-        String key = buildKey(scene, mobile, params);
-        Long expiresAt = cache.get(key);
-        if (expiresAt != null && expiresAt > Instant.now().getEpochSecond()) {
-            throw new SmsException(ErrorCode.IDEMPOTENT_REJECTED, "幂等窗口内重复请求");
+        if (conflict == RedisIdempotencyStore.Conflict.SENT) {
+            throw reject(plan, "幂等窗口内重复请求");
         }
+        return new RedisReservation(key, token, windowSeconds);
+    }
+
+    private SmsException reject(ScenePlan plan, String message) {
+        smsMetrics.recordIdempotentRejected(plan.getScene());
+        return new SmsException(ErrorCode.IDEMPOTENT_REJECTED, message);
     }
 
     /**
-     * 记录请求，超时自动失效。
+     * 按场景预排序的白名单依次写入实际出现的参数名，参数已按白名单过滤，顺序与排序后的参数名一致。
+     * 不写入 value，避免敏感参数参与 hash。
      */
-    public void mark(String scene, String mobile, Map<String, String> params, long windowSeconds) {
-        if (windowSeconds <= 0) {
-            return;
+    private Fingerprint128 fingerprint(ScenePlan plan, String mobile, Map<String, String> params) {
+        Fingerprint128 fingerprint = HASHERS.get().reset()
+            .putField(plan.getScene())
+            .putField(mobile);
+        if (!CollectionUtils.isEmpty(params)) {
+            for (String key : plan.sortedParamKeys()) {
+                if (params.containsKey(key)) {
+                    fingerprint.putField(key);
+                }
+            }
         }
-        String key = buildKey(scene, mobile, params);
-        cache.put(key, Instant.now().getEpochSecond() + windowSeconds);
-        cleanup();
+        return fingerprint.finish();
+    }
+
+    /**
+     * 一次幂等预占，确认或释放只应调用其一。
+     */
+    public interface Reservation {
+
+        /** 场景未开启幂等时使用 */
+        Reservation NONE = new Reservation() {
+            @Override
+            public void commit() {
+            }
+
+            @Override
+            public void release() {
+            }
+        };
+
+        /**
+         * 发送成功，幂等状态保留至场景幂等窗口结束。
+         */
+        void commit();
+
+        /**
+         * 发送失败，释放预占使相同请求可以重试。
+         */
+        void release();
     }
 
-    private String buildKey(String scene, String mobile, Map<String, String> params) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance(\"SHA-256\");
-            digest.update(scene.getBytes(StandardCharsets.UTF_8));
-            digest.update(mobile.getBytes(StandardCharsets.UTF_8));
-            if (params != null) {
-                params.entrySet().stream()
-                    .sorted(Map.Entry.comparingByKey())
-                    .forEach(entry -> {
-                        digest.update(entry.getKey().getBytes(StandardCharsets.UTF_8));
-                        // 不写入 value，避免敏感参数参与 hash。
-                    });
+    private final class LocalReservation implements Reservation {
+
+        private final long hi;
+        private final long lo;
+        private final long windowSeconds;
+
+        private LocalReservation(long hi, long lo, long windowSeconds) {
+            this.hi = hi;
+            this.lo = lo;
+            this.windowSeconds = windowSeconds;
+        }
+
+        /**
+         * 预占在确认前已过期且槽位被占满时无法登记，只记录日志，不影响本次发送结果。
+         */
+        @Override
+        public void commit() {
+            long now = System.currentTimeMillis();
+            if (table.put(hi, lo, now + windowSeconds * 1000, now) == FingerprintTable.Write.FULL) {
+                rejected.incrementAndGet();
+                log.warn("Idempotency commit dropped, local table full, hi={}", Long.toHexString(hi));
             }
-            return Base64.getEncoder().encodeToString(digest.digest());
-        } catch (NoSuchAlgorithmException e) {
-            throw new SmsException(ErrorCode.CLIENT_ERROR, \"哈希算法不可用\", e);
+        }
+
+        @Override
+        public void release() {
+            table.remove(hi, lo);
         }
     }
 
-    private void cleanup() {
-        long now = Instant.now().getEpochSecond();
-        cache.entrySet().removeIf(entry -> entry.getValue() <= now);
+    private final class RedisReservation implements Reservation {
+
+        private final String key;
+        private final String token;
+        private final long windowSeconds;
+
+        private RedisReservation(String key, String token, long windowSeconds) {
+            this.key = key;
+            this.token = token;
+            this.windowSeconds = windowSeconds;
+        }
+
+        /**
+         * 短信已发出，确认失败只记录日志，不影响本次发送结果。
+         */
+        @Override
+        public void commit() {
+            try {
+                if (!redisIdempotencyStore.commit(key, token, windowSeconds)) {
+                    log.warn("Idempotency reservation expired before commit key={}", key);
+                }
+            } catch (SmsException ex) {
+                log.warn("Idempotency commit failed key={}, err={}", key, ex.toString());
+            }
+        }
+
+        /**
+         * 释放失败时预占在处理中 TTL 后自动失效。
+         */
+        @Override
+        public void release() {
+            try {
+                redisIdempotencyStore.release(key, token);
+            } catch (SmsException ex) {
+                log.warn("Idempotency release failed key={}, err={}", key, ex.toString());
+            }
+        }
     }
 }
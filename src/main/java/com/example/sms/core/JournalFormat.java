@@ -0,0 +1,66 @@
+package com.example.sms.core;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 发送审计日志的文件格式。分段文件名为 send-起始毫秒-序号.journal，按文件名排序即按时间排序。
+ * 文件头为 4 字节魔数与 2 字节版本，随后依次为记录：
+ * <pre>
+ * int    记录总长度（含本字段），0 表示分段内已无数据
+ * long   时间戳毫秒
+ * int    耗时微秒
+ * byte   标志位，bit0 为发送成功
+ * string 场景、服务商、脱敏手机号、bizId、服务商返回码、错误码名称
+ * </pre>
+ * string 为 short 字节数（-1 表示 null）加 UTF-8 字节。长度字段在记录其余部分写完后最后写入，
+ * 读取方看到非 0 长度时记录已完整。
+ */
+final class JournalFormat {
+
+    static final int MAGIC = 0x534d534a;
+    static final short VERSION = 1;
+    static final int FILE_HEADER_BYTES = 6;
+    /** 长度、时间戳、耗时、标志位 */
+    static final int RECORD_HEADER_BYTES = 4 + 8 + 4 + 1;
+    static final byte SUCCESS = 1;
+    static final int MAX_STRING_BYTES = Short.MAX_VALUE;
+
+    private static final String PREFIX = "send-";
+    private static final String SUFFIX = ".journal";
+
+    private JournalFormat() {
+    }
+
+    static String segmentName(long startMillis, int sequence) {
+        return String.format("%s%013d-%06d%s", PREFIX, startMillis, sequence, SUFFIX);
+    }
+
+    /**
+     * 从文件名解析分段的起始时间。
+     */
+    static long startMillis(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), PREFIX.length() + 13));
+    }
+
+    /**
+     * 目录下的全部分段，按时间升序；目录不存在时返回空列表。
+     */
+    static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return Collections.emptyList();
+        }
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            stream.forEach(segments::add);
+        }
+        segments.sort((a, b) -> a.getFileName().toString().compareTo(b.getFileName().toString()));
+        return segments;
+    }
+}
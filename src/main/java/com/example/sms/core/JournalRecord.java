@@ -0,0 +1,76 @@
+package com.example.sms.core;
+
+/**
+ * 一条发送审计记录，手机号已脱敏。
+ */
+public final class JournalRecord {
+
+    private final long timestampMillis;
+    private final long latencyMicros;
+    private final boolean success;
+    private final String scene;
+    private final String provider;
+    private final String maskedMobile;
+    private final String bizId;
+    private final String providerCode;
+    private final String errorCode;
+
+    JournalRecord(long timestampMillis, long latencyMicros, boolean success, String scene, String provider,
+                  String maskedMobile, String bizId, String providerCode, String errorCode) {
+        this.timestampMillis = timestampMillis;
+        this.latencyMicros = latencyMicros;
+        this.success = success;
+        this.scene = scene;
+        this.provider = provider;
+        this.maskedMobile = maskedMobile;
+        this.bizId = bizId;
+        this.providerCode = providerCode;
+        this.errorCode = errorCode;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public long getLatencyMicros() {
+        return latencyMicros;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public String getScene() {
+        return scene;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public String getMaskedMobile() {
+        return maskedMobile;
+    }
+
+    public String getBizId() {
+        return bizId;
+    }
+
+    public String getProviderCode() {
+        return providerCode;
+    }
+
+    /**
+     * {@link ErrorCode} 名称，成功时为 null。按名称保存，枚举增删后旧记录仍可读取。
+     */
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    @Override
+    public String toString() {
+        return "JournalRecord{timestampMillis=" + timestampMillis + ", scene='" + scene + "', provider='" + provider
+            + "', mobile='" + maskedMobile + "', bizId='" + bizId + "', providerCode='" + providerCode
+            + "', errorCode='" + errorCode + "', latencyMicros=" + latencyMicros + '}';
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.sms.core;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.example.sms.config.RateLimitConfig;
+
+/**
+ * 两级限流：只有 IP 分钟计数这类多个手机号共享的聚合计数按 leasePermits 从 Redis 租用配额，本地以原子计数扣减，
+ * 余量低于一半时后台续租，本地用尽时才同步访问 Redis。
+ * 单个手机号的间隔与日计数上限很小，租用会让多个节点各自缓存配额而少放行，仍由 rate_limit.lua 逐次精确校验。
+ * 计数 key 与 {@link RedisRateLimiter} 相同，可混合部署。被拒绝或校验异常的请求归还已扣减的本地配额。
+ * 租约保存在不淘汰已有条目的 {@link ExpiringStore} 中，仅随计数窗口过期；本地状态已满时不缓存租约，逐次从 Redis 取配额。
+ */
+@Component
+public class LeasedRateLimiter implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(LeasedRateLimiter.class);
+
+    /** 与 {@link RedisRateLimiter} 保持一致 */
+    private static final long IP_MINUTE_TTL_SECONDS = 120;
+    /** 续租队列上限，队列满时放弃本次续租，由后续扣减或同步租用补上 */
+    private static final int REFILL_QUEUE_CAPACITY = 1024;
+
+    private final RedisSmsRepository redisSmsRepository;
+    private final RedisRateLimiter redisRateLimiter;
+    /** Redis 计数 key -> 本地租约，随计数窗口过期 */
+    private final ExpiringStore<Lease> leases;
+    private final ExecutorService refiller;
+
+    public LeasedRateLimiter(RedisSmsRepository redisSmsRepository, RedisRateLimiter redisRateLimiter,
+                             ExpiringStoreSweeper expiringStoreSweeper) {
+        this.redisSmsRepository = redisSmsRepository;
+        this.redisRateLimiter = redisRateLimiter;
+        this.leases = expiringStoreSweeper.create("limit-lease");
+        this.refiller = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(REFILL_QUEUE_CAPACITY),
+            runnable -> {
+                Thread thread = new Thread(runnable, "sms-limit-lease");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * 校验并记录限流信息，被拒绝的请求不消耗配额。
+     * 先扣减本地 IP 配额，再由脚本原子校验手机号间隔与日计数，脚本拒绝或异常时归还 IP 配额。
+     * @return 触发的限流规则，放行时返回 null
+     */
+    public RateLimitRule checkAndRecord(String scene, String mobile, String clientIp, RateLimitConfig limit) {
+        Lease ip = null;
+        if (limit.getPerIpMinuteLimit() > 0 && StringUtils.hasText(clientIp)) {
+            LocalDateTime now = LocalDateTime.now();
+            long minuteTtl = 60 - now.getSecond();
+            ip = acquire(SmsRedisKeys.limitIpMinute(scene, clientIp, now.truncatedTo(ChronoUnit.MINUTES)),
+                limit.getPerIpMinuteLimit(), limit.getLeasePermits(), minuteTtl, IP_MINUTE_TTL_SECONDS);
+            if (ip == null) {
+                return RateLimitRule.IP_MINUTE;
+            }
+        }
+        RateLimitRule rejectedBy;
+        try {
+            rejectedBy = redisRateLimiter.checkAndRecordMobile(scene, mobile, limit);
+        } catch (RuntimeException ex) {
+            giveBack(ip);
+            throw ex;
+        }
+        if (rejectedBy != null) {
+            giveBack(ip);
+        }
+        return rejectedBy;
+    }
+
+    /**
+     * 扣减一个本地配额，本地用尽时同步租用。
+     * @return 扣减所在的租约，计数已达上限时返回 null
+     */
+    private Lease acquire(String key, long max, long leaseSize, long localTtlSeconds, long redisTtlSeconds) {
+        long size = Math.min(leaseSize, max);
+        Lease lease = leases.getOrCreate(key, localTtlSeconds, Lease::new);
+        if (lease == null) {
+            // 本地状态已满时不缓存租约，逐次从 Redis 取一个配额；被拒绝时该配额不退回，只会少放行
+            return lease(key, max, 1, redisTtlSeconds) > 0 ? new Lease() : null;
+        }
+        long left = lease.take();
+        if (left >= 0) {
+            if (left < (size + 1) / 2) {
+                refillAsync(key, lease, max, size, redisTtlSeconds);
+            }
+            return lease;
+        }
+        if (lease.drained) {
+            return null;
+        }
+        long granted = lease(key, max, size, redisTtlSeconds);
+        if (granted <= 0) {
+            lease.drained = true;
+            return null;
+        }
+        lease.permits.addAndGet(granted - 1);
+        return lease;
+    }
+
+    private void refillAsync(String key, Lease lease, long max, long size, long redisTtlSeconds) {
+        if (lease.drained || !lease.refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refiller.execute(() -> {
+                try {
+                    long granted = lease(key, max, size, redisTtlSeconds);
+                    if (granted > 0) {
+                        lease.permits.addAndGet(granted);
+                    } else {
+                        lease.drained = true;
+                    }
+                } catch (SmsException ex) {
+                    log.warn("限流配额续租失败 key={}, err={}", key, ex.toString());
+                } finally {
+                    lease.refilling.set(false);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            lease.refilling.set(false);
+        }
+    }
+
+    private long lease(String key, long max, long size, long redisTtlSeconds) {
+        Long granted;
+        try {
+            granted = redisSmsRepository.execute(SmsRedisScripts.RATE_LIMIT_LEASE, Collections.singletonList(key),
+                String.valueOf(max), String.valueOf(size), String.valueOf(redisTtlSeconds));
+        } catch (DataAccessException ex) {
+            throw new SmsException(ErrorCode.CLIENT_ERROR, "限流存储不可用", ex);
+        }
+        return granted == null ? 0 : granted;
+    }
+
+    private void giveBack(Lease lease) {
+        if (lease != null) {
+            lease.permits.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        refiller.shutdownNow();
+    }
+
+    /**
+     * 本节点持有的一段配额。
+     */
+    private static final class Lease {
+
+        private final AtomicLong permits = new AtomicLong();
+        private final AtomicBoolean refilling = new AtomicBoolean();
+        /** Redis 计数已达上限，计数在窗口内只增不减，本窗口内不再租用 */
+        private volatile boolean drained;
+
+        /**
+         * 无锁扣减一个配额。
+         * @return 扣减后的余量，没有余量时返回 -1 且不扣减
+         */
+        private long take() {
+            while (true) {
+                long current = permits.get();
+                if (current <= 0) {
+                    return -1;
+                }
+                if (permits.compareAndSet(current, current - 1)) {
+                    return current - 1;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.sms.core;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * 基于 Micrometer 的短信指标实现，计量器按标签组合缓存，避免每次发送重复查找注册表。
+ */
+public class MicrometerSmsMetrics implements SmsMetrics {
+
+    private static final String NONE = "none";
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> sendTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> quotaTimers = new ConcurrentHashMap<>();
+
+    public MicrometerSmsMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void recordSend(String scene, String provider, String code, long nanos) {
+        String sceneTag = tagValue(scene);
+        String codeTag = tagValue(code);
+        sendTimers.computeIfAbsent(sceneTag + '|' + provider + '|' + codeTag, key -> Timer.builder("sms.send")
+                .description("服务商调用耗时")
+                .tag("scene", sceneTag)
+                .tag("provider", provider)
+                .tag("code", codeTag)
+                .publishPercentileHistogram()
+                .register(registry))
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordError(String scene, ErrorCode errorCode) {
+        counter("sms.errors", scene, "error", errorCode.name()).increment();
+    }
+
+    @Override
+    public void recordRateLimited(String scene, RateLimitRule rule) {
+        counter("sms.rate_limited", scene, "rule", rule.name().toLowerCase(Locale.ROOT)).increment();
+    }
+
+    @Override
+    public void recordProviderQuota(String provider, long waitMicros, boolean rejected) {
+        if (rejected) {
+            counters.computeIfAbsent("sms.provider.quota_rejected|" + provider, key -> Counter.builder("sms.provider.quota_rejected")
+                    .tag("provider", provider)
+                    .register(registry))
+                .increment();
+            return;
+        }
+        quotaTimers.computeIfAbsent(provider, key -> Timer.builder("sms.provider.quota_wait")
+                .description("等待出站配额的时间")
+                .tag("provider", provider)
+                .register(registry))
+            .record(waitMicros, TimeUnit.MICROSECONDS);
+    }
+
+    @Override
+    public void recordAbuseSuspected(String scene, String dimension, boolean rejected) {
+        counter(rejected ? "sms.abuse.rejected" : "sms.abuse.flagged", scene, "dimension", dimension).increment();
+    }
+
+    @Override
+    public void recordRetry(String scene, String type) {
+        counter("sms.send.retries", scene, "type", type).increment();
+    }
+
+    @Override
+    public void recordIdempotentRejected(String scene) {
+        counter("sms.idempotent.rejected", scene, null, null).increment();
+    }
+
+    @Override
+    public void recordScheduleLeaseLost(String scene) {
+        counter("sms.schedule.lease_lost", scene, null, null).increment();
+    }
+
+    @Override
+    public void recordReceipt(String scene, DeliveryReceipt.Status status) {
+        counter("sms.receipt", scene, "status", status.name().toLowerCase(Locale.ROOT)).increment();
+    }
+
+    @Override
+    public void gauge(String name, String tagKey, String tagValue, Supplier<Number> value) {
+        Gauge.builder(name, value).tag(tagKey, tagValue).strongReference(true).register(registry);
+    }
+
+    private Counter counter(String name, String scene, String tagKey, String tagValue) {
+        String sceneTag = tagValue(scene);
+        return counters.computeIfAbsent(name + '|' + sceneTag + '|' + tagValue, key -> {
+            Counter.Builder builder = Counter.builder(name).tag("scene", sceneTag);
+            if (tagKey != null) {
+                builder.tag(tagKey, tagValue);
+            }
+            return builder.register(registry);
+        });
+    }
+
+    private String tagValue(String value) {
+        return value == null || value.isEmpty() ? NONE : value;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.sms.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import com.example.sms.config.SmsProperties;
+import com.example.sms.config.SmsProperties.NotifyBatchProperties;
+
+/**
+ * 通知短信合并器：同一场景在等待窗口内的并发发送合并为一次批量请求，
+ * 凑满单批上限时立即发送。每个接收方仍独立做白名单、限流与幂等校验。
+ */
+@Component
+public class NotifyBatcher implements DisposableBean {
+
+    private final NotifyBatchProperties properties;
+    private final SmsProperties smsProperties;
+    private final AliyunSmsClient aliyunSmsClient;
+    private final SmsAsyncExecutor asyncExecutor;
+    private final Map<String, Batch> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    public NotifyBatcher(SmsProperties smsProperties, AliyunSmsClient aliyunSmsClient, SmsAsyncExecutor asyncExecutor) {
+        this.properties = smsProperties.getNotifyBatch();
+        this.smsProperties = smsProperties;
+        this.aliyunSmsClient = aliyunSmsClient;
+        this.asyncExecutor = asyncExecutor;
+        this.scheduler = properties.isEnabled()
+            ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "sms-notify-batcher");
+                thread.setDaemon(true);
+                return thread;
+            })
+            : null;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * 同步调用方等待合并结果的上限：等待窗口加一次服务商调用的连接与读取超时，批量发送不重试。
+     */
+    public long getMaxWaitMillis() {
+        return properties.getLingerMillis() + 2L * smsProperties.getAliyun().getTimeout();
+    }
+
+    /**
+     * 加入当前场景的待发批次。
+     * 异步线程池拒绝时整批以 ASYNC_REJECTED 异常完成，此时尚未做限流与幂等校验，调用方可改为直接发送。
+     * @return 该接收方的发送结果，被拒绝时结果中带有对应错误码
+     */
+    public CompletableFuture<SendResult> submit(String scene, Recipient recipient) {
+        if (!isEnabled()) {
+            throw new SmsException(ErrorCode.INVALID_CONFIG, "通知短信合并发送未开启");
+        }
+        CompletableFuture<SendResult> future = new CompletableFuture<>();
+        while (true) {
+            Batch batch = pending.computeIfAbsent(scene, this::openBatch);
+            boolean full;
+            synchronized (batch) {
+                if (batch.closed) {
+                    continue;
+                }
+                batch.recipients.add(recipient);
+                batch.futures.add(future);
+                full = batch.recipients.size() >= properties.getMaxBatchSize();
+                if (full) {
+                    batch.closed = true;
+                    pending.remove(scene, batch);
+                }
+            }
+            if (full) {
+                flush(batch);
+            }
+            return future;
+        }
+    }
+
+    private Batch openBatch(String scene) {
+        Batch batch = new Batch(scene);
+        scheduler.schedule(() -> expire(batch), properties.getLingerMillis(), TimeUnit.MILLISECONDS);
+        return batch;
+    }
+
+    private void expire(Batch batch) {
+        synchronized (batch) {
+            if (batch.closed) {
+                return;
+            }
+            batch.closed = true;
+            pending.remove(batch.scene, batch);
+        }
+        flush(batch);
+    }
+
+    private void flush(Batch batch) {
+        CompletableFuture<List<SendResult>> results;
+        try {
+            results = asyncExecutor.submit(() -> aliyunSmsClient.sendBatch(batch.scene, batch.recipients));
+        } catch (SmsException ex) {
+            batch.futures.forEach(future -> future.completeExceptionally(ex));
+            return;
+        }
+        results.whenComplete((sendResults, ex) -> {
+            for (int i = 0; i < batch.futures.size(); i++) {
+                if (ex != null) {
+                    batch.futures.get(i).completeExceptionally(ex);
+                } else {
+                    batch.futures.get(i).complete(sendResults.get(i));
+                }
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        pending.values().forEach(this::expire);
+    }
+
+    private static final class Batch {
+
+        private final String scene;
+        private final List<Recipient> recipients = new ArrayList<>();
+        private final List<CompletableFuture<SendResult>> futures = new ArrayList<>();
+        private boolean closed;
+
+        private Batch(String scene) {
+            this.scene = scene;
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.example.sms.core;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
 
-import com.example.sms.config.SceneConfig;
 import com.example.sms.config.SceneConfig.SceneType;
 
 /**
@@ -16,10 +20,12 @@ public class NotifySmsHelper {
 
     private final AliyunSmsClient aliyunSmsClient;
     private final SceneConfigResolver sceneConfigResolver;
+    private final NotifyBatcher notifyBatcher;
 
-    public NotifySmsHelper(AliyunSmsClient aliyunSmsClient, SceneConfigResolver sceneConfigResolver) {
+    public NotifySmsHelper(AliyunSmsClient aliyunSmsClient, SceneConfigResolver sceneConfigResolver, NotifyBatcher notifyBatcher) {
         this.aliyunSmsClient = aliyunSmsClient;
         this.sceneConfigResolver = sceneConfigResolver;
+        this.notifyBatcher = notifyBatcher;
     }
 
     /**
@@ -30,8 +36,65 @@ public class NotifySmsHelper {
      * @param clientIp 客户端 IP
      */
     public void sendNotify(String scene, String mobile, Map<String, String> params, String clientIp) {
-        SceneConfig config = sceneConfigResolver.getRequired(scene);
-        Assert.isTrue(config.getType() == SceneType.NOTIFY, \"场景类型必须为通知\");
+        ScenePlan plan = sceneConfigResolver.getPlan(scene);
+        Assert.isTrue(plan.getType() == SceneType.NOTIFY, "场景类型必须为通知");
+        if (notifyBatcher.isEnabled()) {
+            sendMerged(scene, new Recipient(mobile, params, clientIp));
+            return;
+        }
         aliyunSmsClient.send(scene, mobile, params, clientIp);
     }
+
+    /**
+     * 批量发送通知类短信，每个接收方独立校验白名单、限流与幂等，
+     * 通过校验的接收方按服务商批量接口上限分组发送。
+     * @param scene 场景编码
+     * @param recipients 接收方列表
+     * @return 与 recipients 一一对应的发送结果
+     */
+    public List<SendResult> sendNotifyBatch(String scene, List<Recipient> recipients) {
+        ScenePlan plan = sceneConfigResolver.getPlan(scene);
+        Assert.isTrue(plan.getType() == SceneType.NOTIFY, "场景类型必须为通知");
+        return aliyunSmsClient.sendBatch(scene, recipients);
+    }
+
+    /**
+     * 异步发送通知类短信，场景与限流校验在调用线程完成。
+     * @see AliyunSmsClient#sendAsync(String, String, Map, String)
+     */
+    public CompletableFuture<SendResult> sendNotifyAsync(String scene, String mobile, Map<String, String> params, String clientIp) {
+        ScenePlan plan = sceneConfigResolver.getPlan(scene);
+        Assert.isTrue(plan.getType() == SceneType.NOTIFY, "场景类型必须为通知");
+        return aliyunSmsClient.sendAsync(scene, mobile, params, clientIp);
+    }
+
+    /**
+     * 合并发送并等待结果，等待上限见 {@link NotifyBatcher#getMaxWaitMillis()}，超时按结果未知处理。
+     * 异步线程池饱和导致整批被拒绝时，改为在调用线程直接发送。
+     */
+    private void sendMerged(String scene, Recipient recipient) {
+        SendResult result;
+        try {
+            result = notifyBatcher.submit(scene, recipient).get(notifyBatcher.getMaxWaitMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof SmsException) {
+                SmsException cause = (SmsException) ex.getCause();
+                if (cause.getErrorCode() == ErrorCode.ASYNC_REJECTED) {
+                    aliyunSmsClient.send(scene, recipient.getMobile(), recipient.getParams(), recipient.getClientIp());
+                    return;
+                }
+                throw cause;
+            }
+            throw new SmsException(ErrorCode.CLIENT_ERROR, "通知短信合并发送异常", ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new SmsException(ErrorCode.PROVIDER_TIMEOUT, "通知短信合并发送等待超时，发送结果未知", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SmsException(ErrorCode.PROVIDER_TIMEOUT, "通知短信合并发送等待被中断，发送结果未知", ex);
+        }
+        if (!result.isSuccess()) {
+            throw new SmsException(result.getErrorCode() != null ? result.getErrorCode() : ErrorCode.CLIENT_ERROR,
+                "通知短信发送失败：" + (result.getProviderCode() != null ? result.getProviderCode() : result.getProviderMessage()));
+        }
+    }
 }
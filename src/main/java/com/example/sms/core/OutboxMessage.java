@@ -0,0 +1,152 @@
+package com.example.sms.core;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 发件箱消息，参数已经过白名单过滤，投递时不再做限流与幂等校验。
+ * id 在重试之间保持不变，并作为服务商的外部流水号；receipt 为存储侧的本次投递句柄。
+ */
+public final class OutboxMessage {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, String>> FIELDS_TYPE = new TypeReference<Map<String, String>>() {
+    };
+
+    private final String id;
+    private final String scene;
+    private final String mobile;
+    private final Map<String, String> params;
+    private final String clientIp;
+    private final int attempt;
+    private final long createdAt;
+    private final String receipt;
+    private final long deliveries;
+
+    private OutboxMessage(String id, String scene, String mobile, Map<String, String> params, String clientIp,
+                          int attempt, long createdAt, String receipt, long deliveries) {
+        this.id = id;
+        this.scene = scene;
+        this.mobile = mobile;
+        this.params = params;
+        this.clientIp = clientIp;
+        this.attempt = attempt;
+        this.createdAt = createdAt;
+        this.receipt = receipt;
+        this.deliveries = deliveries;
+    }
+
+    static OutboxMessage create(String scene, String mobile, Map<String, String> params, String clientIp) {
+        return new OutboxMessage(UUID.randomUUID().toString().replace("-", ""), scene, mobile,
+            params == null ? Collections.emptyMap() : params, clientIp, 0, System.currentTimeMillis(), null, 0);
+    }
+
+    /**
+     * 下一次投递，投递次数加一，存储句柄清空。
+     */
+    OutboxMessage nextAttempt() {
+        return new OutboxMessage(id, scene, mobile, params, clientIp, attempt + 1, createdAt, null, 0);
+    }
+
+    /**
+     * 绑定存储侧的投递句柄与该句柄的累计投递次数。
+     */
+    OutboxMessage withReceipt(String receipt, long deliveries) {
+        return new OutboxMessage(id, scene, mobile, params, clientIp, attempt, createdAt, receipt, deliveries);
+    }
+
+    Map<String, String> toFields() {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("id", id);
+        fields.put("scene", scene);
+        fields.put("mobile", mobile);
+        fields.put("params", writeJson(params));
+        fields.put("clientIp", clientIp == null ? "" : clientIp);
+        fields.put("attempt", String.valueOf(attempt));
+        fields.put("createdAt", String.valueOf(createdAt));
+        return fields;
+    }
+
+    static OutboxMessage fromFields(Map<?, ?> fields) {
+        String clientIp = (String) fields.get("clientIp");
+        return new OutboxMessage(
+            (String) fields.get("id"),
+            (String) fields.get("scene"),
+            (String) fields.get("mobile"),
+            readJson((String) fields.get("params")),
+            clientIp == null || clientIp.isEmpty() ? null : clientIp,
+            Integer.parseInt((String) fields.get("attempt")),
+            Long.parseLong((String) fields.get("createdAt")),
+            null,
+            0);
+    }
+
+    String toJson() {
+        return writeJson(toFields());
+    }
+
+    static OutboxMessage fromJson(String json) {
+        return fromFields(readJson(json));
+    }
+
+    private static String writeJson(Map<String, String> map) {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(map);
+        } catch (JsonProcessingException ex) {
+            throw new SmsException(ErrorCode.CLIENT_ERROR, "发件箱消息序列化失败", ex);
+        }
+    }
+
+    private static Map<String, String> readJson(String json) {
+        if (json == null || json.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        try {
+            return OBJECT_MAPPER.readValue(json, FIELDS_TYPE);
+        } catch (JsonProcessingException ex) {
+            throw new SmsException(ErrorCode.CLIENT_ERROR, "发件箱消息反序列化失败", ex);
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getScene() {
+        return scene;
+    }
+
+    public String getMobile() {
+        return mobile;
+    }
+
+    public Map<String, String> getParams() {
+        return params;
+    }
+
+    public String getClientIp() {
+        return clientIp;
+    }
+
+    public int getAttempt() {
+        return attempt;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    String getReceipt() {
+        return receipt;
+    }
+
+    long getDeliveries() {
+        return deliveries;
+    }
+}
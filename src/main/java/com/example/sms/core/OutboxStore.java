@@ -0,0 +1,39 @@
+package com.example.sms.core;
+
+import java.util.List;
+
+/**
+ * 发件箱存储，消息在确认前不会丢失；实现需保证重试与死信登记时当前投递被原子确认。
+ */
+public interface OutboxStore {
+
+    /**
+     * 追加一条立即可投递的消息。
+     */
+    void append(OutboxMessage message);
+
+    /**
+     * 拉取当前可投递的消息并登记为本消费者处理中，不阻塞。
+     */
+    List<OutboxMessage> poll(int max);
+
+    /**
+     * 投递成功，确认并删除消息。
+     */
+    void ack(OutboxMessage message);
+
+    /**
+     * 确认当前投递，并在 delayMillis 后重新投递 next。
+     */
+    void retry(OutboxMessage current, OutboxMessage next, long delayMillis);
+
+    /**
+     * 确认当前投递并转入死信，不再重试。
+     */
+    void deadLetter(OutboxMessage message, ErrorCode errorCode);
+
+    /**
+     * 认领长时间未确认的消息（处理它们的消费者可能已失联），不支持多消费者的实现返回空列表。
+     */
+    List<OutboxMessage> claimStale(int max);
+}
@@ -0,0 +1,287 @@
+package com.example.sms.core;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.example.sms.config.SmsProperties;
+import com.example.sms.config.SmsProperties.ProviderGuardProperties;
+
+/**
+ * 服务商调用保护，按服务商独立维护熔断与并发上限：
+ * 窗口内服务商侧故障率或慢调用比例超过阈值时熔断并快速失败，等待期满后放行少量探测调用；
+ * 开启自适应并发上限后按 AIMD 调整，出现限流或慢调用时按比例收缩（每个往返最多一次），
+ * 正常且并发被充分使用时每个窗口（约 limit 次成功）加 1。未开启时不限制并发。
+ * 参数、号码、认证与账户等调用方错误不反映服务商健康，不计入熔断窗口、探测与并发调整。
+ */
+@Component
+public class ProviderCallGuard {
+
+    private static final Logger log = LoggerFactory.getLogger(ProviderCallGuard.class);
+
+    private final ProviderGuardProperties properties;
+    private final ProviderErrorMapper providerErrorMapper;
+    private final SmsMetrics smsMetrics;
+    private final Map<String, Guard> guards = new ConcurrentHashMap<>();
+
+    public ProviderCallGuard(SmsProperties smsProperties, ProviderErrorMapper providerErrorMapper, SmsMetrics smsMetrics) {
+        this.properties = smsProperties.getProviderGuard();
+        this.providerErrorMapper = providerErrorMapper;
+        this.smsMetrics = smsMetrics;
+    }
+
+    /**
+     * 申请一次服务商调用许可，调用结束后必须调用 {@link Permit#release(ErrorCode)}，请求未发出时调用 {@link Permit#cancel()}。
+     * 应在预约出站配额之前申请，熔断或并发已满时不会白白占用配额。
+     * @throws SmsException 熔断中抛出 PROVIDER_CIRCUIT_OPEN，并发已满抛出 PROVIDER_CONCURRENCY_LIMITED
+     */
+    public Permit acquire(String provider) {
+        if (!properties.isEnabled()) {
+            return Permit.NOOP;
+        }
+        return guards.computeIfAbsent(provider, this::createGuard).acquire();
+    }
+
+    private Guard createGuard(String provider) {
+        Guard guard = new Guard(provider);
+        if (properties.isAdaptiveLimit()) {
+            smsMetrics.gauge("sms.provider.concurrency_limit", "provider", provider, () -> guard.limit);
+        }
+        smsMetrics.gauge("sms.provider.circuit_open", "provider", provider, () -> guard.circuit == Circuit.CLOSED ? 0 : 1);
+        return guard;
+    }
+
+    /**
+     * 单次调用许可。
+     */
+    public interface Permit {
+
+        Permit NOOP = new Permit() {
+            @Override
+            public void begin() {
+            }
+
+            @Override
+            public void release(ErrorCode errorCode) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        };
+
+        /**
+         * 请求即将发出，慢调用从此刻起计时；未调用时从取得许可起计时。
+         */
+        void begin();
+
+        /**
+         * 归还许可并记录调用结果。
+         * @param errorCode 调用失败时的错误码，成功传 null
+         */
+        void release(ErrorCode errorCode);
+
+        /**
+         * 请求未发出时归还许可，不记录结果，半开状态下的探测名额一并归还。
+         */
+        void cancel();
+    }
+
+    private enum Circuit {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final class Guard {
+
+        private static final byte FAULT = 1;
+        private static final byte SLOW = 2;
+
+        private final String provider;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final byte[] outcomes = new byte[properties.getWindowSize()];
+        private volatile Circuit circuit = Circuit.CLOSED;
+        private volatile double limit = properties.getInitialLimit();
+        /** 上次收缩的时刻，此前发出的调用再出现限流或慢调用不再收缩 */
+        private long lastDecreaseNanos = System.nanoTime();
+        private long openedAt;
+        private int cursor;
+        private int calls;
+        private int faults;
+        private int slows;
+        private int probesIssued;
+        private int probesSucceeded;
+
+        private Guard(String provider) {
+            this.provider = provider;
+        }
+
+        private Permit acquire() {
+            boolean probe = circuit != Circuit.CLOSED && admitProbe();
+            while (true) {
+                int current = inFlight.get();
+                if (properties.isAdaptiveLimit() && current >= (int) limit) {
+                    if (probe) {
+                        returnProbe();
+                    }
+                    throw new SmsException(ErrorCode.PROVIDER_CONCURRENCY_LIMITED, "服务商并发已达上限，请稍后再试");
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return new GuardPermit(probe, current + 1);
+                }
+            }
+        }
+
+        /**
+         * 熔断打开且未到探测时间时快速失败；半开状态下仅放行有限的探测调用。
+         */
+        private synchronized boolean admitProbe() {
+            if (circuit == Circuit.CLOSED) {
+                return false;
+            }
+            if (circuit == Circuit.OPEN) {
+                if (System.currentTimeMillis() - openedAt < properties.getOpenDurationMillis()) {
+                    throw new SmsException(ErrorCode.PROVIDER_CIRCUIT_OPEN, "服务商熔断中，请稍后再试");
+                }
+                circuit = Circuit.HALF_OPEN;
+                probesIssued = 0;
+                probesSucceeded = 0;
+                log.info("Provider circuit half-open provider={}", provider);
+            }
+            if (probesIssued >= properties.getHalfOpenPermittedCalls()) {
+                throw new SmsException(ErrorCode.PROVIDER_CIRCUIT_OPEN, "服务商熔断中，请稍后再试");
+            }
+            probesIssued++;
+            return true;
+        }
+
+        private synchronized void returnProbe() {
+            if (circuit == Circuit.HALF_OPEN && probesIssued > 0) {
+                probesIssued--;
+            }
+        }
+
+        private final class GuardPermit implements Permit {
+
+            private final boolean probe;
+            private final int used;
+            private volatile long startNanos = System.nanoTime();
+
+            private GuardPermit(boolean probe, int used) {
+                this.probe = probe;
+                this.used = used;
+            }
+
+            @Override
+            public void begin() {
+                startNanos = System.nanoTime();
+            }
+
+            @Override
+            public void release(ErrorCode errorCode) {
+                inFlight.decrementAndGet();
+                record(probe, used, startNanos, errorCode);
+            }
+
+            @Override
+            public void cancel() {
+                inFlight.decrementAndGet();
+                if (probe) {
+                    returnProbe();
+                }
+            }
+        }
+
+        private synchronized void record(boolean probe, int used, long startNanos, ErrorCode errorCode) {
+            if (errorCode != null && providerErrorMapper.isCallerError(errorCode)) {
+                if (probe) {
+                    returnProbe();
+                }
+                return;
+            }
+            boolean fault = errorCode != null && providerErrorMapper.isProviderFault(errorCode);
+            boolean slow = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) >= properties.getSlowCallThresholdMillis();
+            if (properties.isAdaptiveLimit()) {
+                adjustLimit(used, startNanos, errorCode, slow);
+            }
+            if (probe) {
+                recordProbe(fault || slow);
+            } else if (circuit == Circuit.CLOSED) {
+                recordWindow(fault, slow);
+            }
+        }
+
+        /**
+         * 成功时每次加 1/limit，一个窗口内约 limit 次成功合计加 1，避免高吞吐下每次调用都加 1 使上限迅速涨满。
+         * 限流或慢调用只有在上次收缩之后发出的调用才触发收缩：同一次延迟抖动中同时在途的调用只收缩一次，
+         * 不会连乘收缩系数把上限直接压到下限。
+         */
+        private void adjustLimit(int used, long startNanos, ErrorCode errorCode, boolean slow) {
+            if (errorCode == ErrorCode.PROVIDER_THROTTLED || slow) {
+                if (startNanos - lastDecreaseNanos > 0) {
+                    limit = Math.max(properties.getMinLimit(), limit * properties.getBackoffRatio());
+                    lastDecreaseNanos = System.nanoTime();
+                }
+            } else if (errorCode == null && used * 2 >= limit) {
+                limit = Math.min(properties.getMaxLimit(), limit + 1 / limit);
+            }
+        }
+
+        private void recordProbe(boolean failed) {
+            if (circuit != Circuit.HALF_OPEN) {
+                return;
+            }
+            if (failed) {
+                open("probe failed");
+                return;
+            }
+            if (++probesSucceeded >= properties.getHalfOpenPermittedCalls()) {
+                circuit = Circuit.CLOSED;
+                resetWindow();
+                log.info("Provider circuit closed provider={}", provider);
+            }
+        }
+
+        private void recordWindow(boolean fault, boolean slow) {
+            byte previous = outcomes[cursor];
+            if (calls == outcomes.length) {
+                faults -= previous & FAULT;
+                slows -= (previous & SLOW) >> 1;
+            } else {
+                calls++;
+            }
+            outcomes[cursor] = (byte) ((fault ? FAULT : 0) | (slow ? SLOW : 0));
+            faults += fault ? 1 : 0;
+            slows += slow ? 1 : 0;
+            cursor = (cursor + 1) % outcomes.length;
+            if (calls < properties.getMinimumCalls()) {
+                return;
+            }
+            if (faults * 100 >= properties.getFailureRateThreshold() * calls) {
+                open("failure rate " + faults + "/" + calls);
+            } else if (slows * 100 >= properties.getSlowCallRateThreshold() * calls) {
+                open("slow call rate " + slows + "/" + calls);
+            }
+        }
+
+        private void open(String reason) {
+            circuit = Circuit.OPEN;
+            openedAt = System.currentTimeMillis();
+            resetWindow();
+            log.warn("Provider circuit opened provider={}, reason={}, limit={}", provider, reason, (int) limit);
+        }
+
+        private void resetWindow() {
+            cursor = 0;
+            calls = 0;
+            faults = 0;
+            slows = 0;
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package com.example.sms.core;
 
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Locale;
 import java.util.Set;
 
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
-import com.aliyun.teautil.exception.TeaException;
+import com.aliyun.tea.TeaException;
 
 /**
  * 服务商错误码到领域错误码的映射。
@@ -14,28 +21,76 @@ import com.aliyun.teautil.exception.TeaException;
 @Component
 public class ProviderErrorMapper {
 
-    private static final Set<String> THROTTLED_CODES = Set.of(
+    /** 服务商接口级限流，稍后重试可恢复 */
+    private static final Set<String> THROTTLED_CODES = setOf(
+        "Throttling",
+        "Throttling.User",
+        "Throttling.Api"
+    );
+
+    /** 单个号码触发服务商的分钟级、小时级、天级流控或黑名单管控，换时间重试同一号码无效 */
+    private static final Set<String> MOBILE_LIMITED_CODES = setOf(
         "isv.BUSINESS_LIMIT_CONTROL",
         "BUSINESS_LIMIT_CONTROL",
-        "Throttling"
+        "isv.BLACK_KEY_CONTROL_LIMIT"
     );
 
-    private static final Set<String> INVALID_PARAM_CODES = Set.of(
+    private static final Set<String> INVALID_PARAM_CODES = setOf(
         "isv.INVALID_PARAMETERS",
         "isv.MISSING_PARAMETER",
+        "isv.MOBILE_NUMBER_ILLEGAL",
+        "isv.MOBILE_COUNT_OVER_LIMIT",
+        "isv.DOMESTIC_NUMBER_NOT_SUPPORTED",
+        "isv.SMS_TEMPLATE_ILLEGAL",
+        "isv.SMS_SIGNATURE_ILLEGAL",
+        "isv.SMS_SIGN_ILLEGAL",
+        "isv.SMS_CONTENT_ILLEGAL",
+        "isv.TEMPLATE_MISSING_PARAMETERS",
+        "isv.TEMPLATE_PARAMS_ILLEGAL",
+        "isv.INVALID_JSON_PARAM",
+        "isv.PARAM_LENGTH_LIMIT",
+        "isv.PARAM_NOT_SUPPORT_URL",
+        "isv.EXTEND_CODE_ERROR",
         "MissingParameter",
         "InvalidParameter",
         "InvalidPhoneNumber",
         "SignatureNonceUsed"
     );
 
-    private static final Set<String> AUTH_CODES = Set.of(
+    private static final Set<String> AUTH_CODES = setOf(
         "InvalidAccessKeyId.NotFound",
         "SignatureDoesNotMatch",
         "isv.ACCOUNT_NOT_EXISTS",
+        "isv.RAM_PERMISSION_DENY",
+        "isp.RAM_PERMISSION_DENY",
         "AuthFailure"
     );
 
+    private static final Set<String> ACCOUNT_CODES = setOf(
+        "isv.AMOUNT_NOT_ENOUGH",
+        "isv.OUT_OF_SERVICE",
+        "isv.ACCOUNT_ABNORMAL",
+        "isv.PRODUCT_UN_SUBSCRIPT",
+        "isv.PRODUCT_UNSUBSCRIBE",
+        "isv.DAY_LIMIT_CONTROL"
+    );
+
+    /** 服务商系统错误，请求未被受理 */
+    private static final Set<String> UNAVAILABLE_CODES = setOf(
+        "isp.SYSTEM_ERROR",
+        "isv.SYSTEM_ERROR",
+        "isp.GATEWAY_ERROR",
+        "InternalError",
+        "ServiceUnavailable"
+    );
+
+    private static Set<String> setOf(String... codes) {
+        return Collections.unmodifiableSet(new HashSet<>(Arrays.asList(codes)));
+    }
+
+    /**
+     * 服务商返回码到领域错误码，未列出的返回码映射为 PROVIDER_ERROR，不重试。
+     */
     public ErrorCode mapCode(String providerCode) {
         if (!StringUtils.hasText(providerCode)) {
             return ErrorCode.PROVIDER_ERROR;
@@ -44,15 +99,82 @@ public class ProviderErrorMapper {
         if (THROTTLED_CODES.contains(code)) {
             return ErrorCode.PROVIDER_THROTTLED;
         }
+        if (MOBILE_LIMITED_CODES.contains(code)) {
+            return ErrorCode.PROVIDER_MOBILE_LIMITED;
+        }
         if (INVALID_PARAM_CODES.contains(code)) {
             return ErrorCode.PROVIDER_INVALID_PARAM;
         }
         if (AUTH_CODES.contains(code)) {
             return ErrorCode.PROVIDER_AUTH_ERROR;
         }
+        if (ACCOUNT_CODES.contains(code)) {
+            return ErrorCode.PROVIDER_ACCOUNT_ERROR;
+        }
+        if (UNAVAILABLE_CODES.contains(code)) {
+            return ErrorCode.PROVIDER_UNAVAILABLE;
+        }
         return ErrorCode.PROVIDER_ERROR;
     }
 
+    /**
+     * 是否为服务商侧故障（限流、系统错误、超时或未识别错误），计入熔断统计；
+     * 参数、号码、认证与账户错误属于调用方问题，不计入。
+     */
+    public boolean isProviderFault(ErrorCode errorCode) {
+        return isTransient(errorCode) || errorCode == ErrorCode.PROVIDER_ERROR;
+    }
+
+    /**
+     * 是否为调用方问题（参数、号码、模板签名、认证与账户错误），服务商已正常应答，
+     * 不计入熔断窗口与并发上限调整。
+     */
+    public boolean isCallerError(ErrorCode errorCode) {
+        return errorCode == ErrorCode.PROVIDER_INVALID_PARAM
+            || errorCode == ErrorCode.PROVIDER_MOBILE_LIMITED
+            || errorCode == ErrorCode.PROVIDER_AUTH_ERROR
+            || errorCode == ErrorCode.PROVIDER_ACCOUNT_ERROR;
+    }
+
+    /**
+     * 是否为可立即退避重试的瞬时故障：接口限流、系统繁忙或不可达、调用超时。
+     */
+    public boolean isTransient(ErrorCode errorCode) {
+        return errorCode == ErrorCode.PROVIDER_THROTTLED
+            || errorCode == ErrorCode.PROVIDER_UNAVAILABLE
+            || errorCode == ErrorCode.PROVIDER_TIMEOUT;
+    }
+
+    /**
+     * 调用结果是否未知：仅限请求已发出后的超时、连接中断或等待结果时被中断（PROVIDER_TIMEOUT），服务商可能已受理，
+     * 此时不能释放幂等预占或撤销已写入的验证码。其余失败（含存储不可用、序列化失败等本地的 CLIENT_ERROR）
+     * 均表示服务商明确未受理或请求未发出。
+     */
+    public boolean isOutcomeUnknown(ErrorCode errorCode) {
+        return errorCode == ErrorCode.PROVIDER_TIMEOUT;
+    }
+
+    /**
+     * 是否值得稍后重试：瞬时故障或请求未发出（熔断、并发受限、配额不足、发送通道已满、异步队列已满）。
+     */
+    public boolean isRetryable(ErrorCode errorCode) {
+        return isTransient(errorCode) || isNotSent(errorCode);
+    }
+
+    /**
+     * 请求是否在本地被拒绝、未发往服务商（熔断、并发受限、配额不足、发送通道已满、异步队列已满），不应计为一次发送。
+     */
+    public boolean isNotSent(ErrorCode errorCode) {
+        return errorCode == ErrorCode.PROVIDER_CIRCUIT_OPEN
+            || errorCode == ErrorCode.PROVIDER_CONCURRENCY_LIMITED
+            || errorCode == ErrorCode.PROVIDER_QUOTA_LIMITED
+            || errorCode == ErrorCode.LANE_SATURATED
+            || errorCode == ErrorCode.ASYNC_REJECTED;
+    }
+
+    /**
+     * 异常映射：服务商错误码优先，其次按异常链区分连接失败（未发出）与读超时、连接中断（结果未知）。
+     */
     public ErrorCode mapException(Exception ex) {
         if (ex instanceof SmsException) {
             return ((SmsException) ex).getErrorCode();
@@ -64,7 +186,18 @@ public class ProviderErrorMapper {
                 Object dataCode = tex.getData().get("Code");
                 code = dataCode == null ? null : dataCode.toString();
             }
-            return mapCode(code);
+            if (StringUtils.hasText(code)) {
+                return mapCode(code);
+            }
+        }
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof UnknownHostException
+                || cause instanceof NoRouteToHostException) {
+                return ErrorCode.PROVIDER_UNAVAILABLE;
+            }
+            if (cause instanceof IOException) {
+                return ErrorCode.PROVIDER_TIMEOUT;
+            }
         }
         String message = ex.getMessage();
         if (message != null && message.toLowerCase(Locale.ROOT).contains("throttl")) {
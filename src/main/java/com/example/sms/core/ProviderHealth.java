@@ -0,0 +1,84 @@
+package com.example.sms.core;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import com.example.sms.config.SmsProperties.RoutingProperties;
+
+/**
+ * 单个服务商的滚动健康统计：最近 N 次调用的耗时与是否故障。
+ * p95、p99 与错误率按固定间隔重新计算并缓存，路由与对冲判断只读取缓存值。
+ */
+final class ProviderHealth {
+
+    private final RoutingProperties properties;
+    private final long[] latencies;
+    private final boolean[] faults;
+    private int cursor;
+    private int samples;
+    private long computedAt;
+    private volatile long p95Millis;
+    private volatile long p99Millis;
+    private volatile int errorRate;
+    private volatile boolean evaluated;
+
+    ProviderHealth(RoutingProperties properties) {
+        this.properties = properties;
+        this.latencies = new long[properties.getWindowSize()];
+        this.faults = new boolean[properties.getWindowSize()];
+    }
+
+    synchronized void record(long elapsedNanos, boolean fault) {
+        latencies[cursor] = elapsedNanos;
+        faults[cursor] = fault;
+        cursor = (cursor + 1) % latencies.length;
+        if (samples < latencies.length) {
+            samples++;
+        }
+        long now = System.currentTimeMillis();
+        if (samples >= properties.getMinimumSamples() && now - computedAt >= properties.getRefreshIntervalMillis()) {
+            recompute();
+            computedAt = now;
+        }
+    }
+
+    /**
+     * 样本不足时视为健康。
+     */
+    boolean isHealthy() {
+        return !evaluated
+            || (p99Millis < properties.getP99ThresholdMillis() && errorRate < properties.getErrorRateThreshold());
+    }
+
+    /**
+     * 样本不足时返回 -1。
+     */
+    long getP95Millis() {
+        return evaluated ? p95Millis : -1;
+    }
+
+    long getP99Millis() {
+        return p99Millis;
+    }
+
+    int getErrorRate() {
+        return errorRate;
+    }
+
+    private void recompute() {
+        long[] sorted = Arrays.copyOf(latencies, samples);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(samples * 0.99) - 1;
+        int p95Index = (int) Math.ceil(samples * 0.95) - 1;
+        int faultCount = 0;
+        for (int i = 0; i < samples; i++) {
+            if (faults[i]) {
+                faultCount++;
+            }
+        }
+        p95Millis = TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, p95Index)]);
+        p99Millis = TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, index)]);
+        errorRate = faultCount * 100 / samples;
+        evaluated = true;
+    }
+}
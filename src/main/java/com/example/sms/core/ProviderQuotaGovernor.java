@@ -0,0 +1,182 @@
+package com.example.sms.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import com.example.sms.config.SceneConfig.SceneType;
+import com.example.sms.config.SmsProperties;
+import com.example.sms.config.SmsProperties.LaneProperties;
+import com.example.sms.config.SmsProperties.ProviderQuotaProperties;
+
+/**
+ * 服务商出站配额控制，在调用服务商前按账号、签名与模板的 QPS 预约发送时刻。
+ * 预约采用 GCRA，等价于容量为 burst 的令牌桶，每个桶只保存一个理论到达时间：
+ * 所需等待不超过 maxWaitMillis 时占用配额并等待到预约时刻，否则不占用配额并抛出 PROVIDER_QUOTA_LIMITED。
+ * REDIS 后端下所有节点共享配额，Redis 不可用时退化为本地限速，速率按 fallbackNodes 均分。
+ * 开启发送通道隔离时，通知短信的最长等待改为 notifyQuotaMaxWaitMillis，使桶内排队的通知始终很短，
+ * 配额紧张时通知先被拒绝，验证码不会排在大量通知之后。
+ */
+@Component
+public class ProviderQuotaGovernor {
+
+    private static final Logger log = LoggerFactory.getLogger(ProviderQuotaGovernor.class);
+
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+
+    private final ProviderQuotaProperties properties;
+    private final LaneProperties laneProperties;
+    private final RedisSmsRepository redisSmsRepository;
+    private final SmsMetrics smsMetrics;
+    /** 本地桶 key -> 理论到达时间（微秒，基于 nanoTime），桶数量由配置决定 */
+    private final Map<String, Long> localTats = new HashMap<>();
+    private volatile boolean redisUnavailable;
+
+    public ProviderQuotaGovernor(SmsProperties smsProperties, RedisSmsRepository redisSmsRepository, SmsMetrics smsMetrics) {
+        this.properties = smsProperties.getProviderQuota();
+        this.laneProperties = smsProperties.getLane();
+        this.redisSmsRepository = redisSmsRepository;
+        this.smsMetrics = smsMetrics;
+    }
+
+    /**
+     * 预约一次服务商调用的配额，必要时阻塞等待到预约时刻。
+     * @param provider 服务商小写名称
+     * @throws SmsException 最长等待时间内无法满足时抛出 PROVIDER_QUOTA_LIMITED，请求未发出
+     */
+    public void acquire(String provider, ScenePlan plan) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        List<Bucket> buckets = buckets(provider, plan);
+        if (buckets.isEmpty()) {
+            return;
+        }
+        long maxWaitMicros = TimeUnit.MILLISECONDS.toMicros(laneProperties.isEnabled() && plan.getType() == SceneType.NOTIFY
+            ? laneProperties.getNotifyQuotaMaxWaitMillis()
+            : properties.getMaxWaitMillis());
+        long wait = properties.getBackend() == ProviderQuotaProperties.Backend.REDIS
+            ? reserveShared(buckets, maxWaitMicros)
+            : reserveLocal(buckets, maxWaitMicros, 1);
+        if (wait < 0) {
+            smsMetrics.recordProviderQuota(provider, -wait, true);
+            throw new SmsException(ErrorCode.PROVIDER_QUOTA_LIMITED, "服务商出站配额已满，请稍后再试",
+                TimeUnit.MICROSECONDS.toMillis(-wait) + 1);
+        }
+        smsMetrics.recordProviderQuota(provider, wait, false);
+        if (wait > 0) {
+            try {
+                TimeUnit.MICROSECONDS.sleep(wait);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new SmsException(ErrorCode.CLIENT_ERROR, "等待服务商配额时被中断", ex);
+            }
+        }
+    }
+
+    private List<Bucket> buckets(String provider, ScenePlan plan) {
+        List<Bucket> buckets = new ArrayList<>(3);
+        add(buckets, provider, "global", properties.getQps().get(provider));
+        if (plan.getSignName() != null) {
+            add(buckets, provider, "sign:" + plan.getSignName(), properties.getSignQps().get(plan.getSignName()));
+        }
+        if (plan.getTemplateCode() != null) {
+            add(buckets, provider, "template:" + plan.getTemplateCode(), properties.getTemplateQps().get(plan.getTemplateCode()));
+        }
+        return buckets;
+    }
+
+    private void add(List<Bucket> buckets, String provider, String name, Long qps) {
+        if (qps != null && qps > 0) {
+            buckets.add(new Bucket(SmsRedisKeys.providerQuota(provider, name), qps));
+        }
+    }
+
+    /**
+     * @return 需等待的微秒数，无法满足时返回所需等待的相反数
+     */
+    private long reserveShared(List<Bucket> buckets, long maxWaitMicros) {
+        List<String> keys = new ArrayList<>(buckets.size());
+        String[] args = new String[buckets.size() * 2 + 1];
+        args[0] = String.valueOf(maxWaitMicros);
+        for (int i = 0; i < buckets.size(); i++) {
+            Bucket bucket = buckets.get(i);
+            long emission = emissionMicros(bucket.qps);
+            keys.add(bucket.key);
+            args[i * 2 + 1] = String.valueOf(emission);
+            args[i * 2 + 2] = String.valueOf(toleranceMicros(emission));
+        }
+        Long wait;
+        try {
+            wait = redisSmsRepository.execute(SmsRedisScripts.PROVIDER_QUOTA_ACQUIRE, keys, args);
+        } catch (DataAccessException ex) {
+            if (!redisUnavailable) {
+                redisUnavailable = true;
+                log.warn("Provider quota store unavailable, falling back to local pacing: {}", ex.toString());
+            }
+            return reserveLocal(buckets, maxWaitMicros, properties.getFallbackNodes());
+        }
+        if (redisUnavailable) {
+            redisUnavailable = false;
+            log.info("Provider quota store recovered");
+        }
+        return wait == null ? 0 : wait;
+    }
+
+    /**
+     * 与 provider_quota_acquire.lua 相同的预约逻辑，多个桶在同一把锁内一起判断与推进。
+     * @param divisor 本地速率为配置 QPS 除以该值
+     */
+    private long reserveLocal(List<Bucket> buckets, long maxWaitMicros, int divisor) {
+        long now = TimeUnit.NANOSECONDS.toMicros(System.nanoTime());
+        synchronized (localTats) {
+            long wait = 0;
+            long[] tats = new long[buckets.size()];
+            long[] emissions = new long[buckets.size()];
+            for (int i = 0; i < buckets.size(); i++) {
+                Bucket bucket = buckets.get(i);
+                long emission = emissionMicros(Math.max(1, bucket.qps / divisor));
+                Long stored = localTats.get(bucket.key);
+                long tat = stored == null ? now : Math.max(stored, now);
+                wait = Math.max(wait, tat - toleranceMicros(emission) - now);
+                tats[i] = tat;
+                emissions[i] = emission;
+            }
+            if (wait > maxWaitMicros) {
+                return -wait;
+            }
+            // 实际发送时刻由最慢的桶决定，其余桶也按该时刻推进，避免较快的桶把等待期间的额度再发给后续请求
+            long sendAt = now + wait;
+            for (int i = 0; i < buckets.size(); i++) {
+                localTats.put(buckets.get(i).key, Math.max(tats[i], sendAt) + emissions[i]);
+            }
+            return wait;
+        }
+    }
+
+    private long emissionMicros(long qps) {
+        return Math.max(1, MICROS_PER_SECOND / qps);
+    }
+
+    private long toleranceMicros(long emissionMicros) {
+        return (properties.getBurst() - 1) * emissionMicros;
+    }
+
+    private static final class Bucket {
+
+        private final String key;
+        private final long qps;
+
+        private Bucket(String key, long qps) {
+            this.key = key;
+            this.qps = qps;
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.example.sms.core;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
@@ -12,34 +14,170 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
 import com.example.sms.config.RateLimitConfig;
-import com.example.sms.config.SceneConfig;
+import com.example.sms.config.RateLimitConfig.Algorithm;
+import com.example.sms.config.SmsProperties;
+import com.example.sms.config.SmsProperties.LimiterProperties.Backend;
 
 /**
- * 简单限流工具，基于内存计数实现，可替换为 Redis 实现。
+ * 限流工具，默认基于内存计数，可通过 sms.limiter.backend=REDIS 切换为分布式实现，
+ * LEASED 时配置了 leasePermits 的场景改为租用配额在本地扣减。
+ * 场景配置 algorithm=GCRA 时日上限与 IP 分钟上限改为平滑限速，每个 key 只保存一个时间戳；
+ * GCRA 没有可租用的计数，LEASED 后端下直接走 Redis。拒绝时在异常中给出可重试时间。
  */
 @Component
 public class RateLimitHelper {
 
     private static final Logger log = LoggerFactory.getLogger(RateLimitHelper.class);
 
-    /** 场景+手机号 -> 上次发送时间戳 */
-    private final Map<String, Long> mobileIntervalCache = new ConcurrentHashMap<>();
-    /** 场景+手机号+日期 -> 当日计数 */
-    private final Map<String, AtomicLong> mobileDayCounter = new ConcurrentHashMap<>();
-    /** 场景+IP+分钟窗口 -> 计数 */
-    private final Map<String, AtomicLong> ipMinuteCounter = new ConcurrentHashMap<>();
+    /** IP 分钟计数保留两个窗口 */
+    private static final long IP_MINUTE_TTL_SECONDS = 120;
+    /** 日计数在次日零点后额外保留的秒数 */
+    private static final long DAY_TTL_SLACK_SECONDS = 60;
+    /** 本地状态已满时的建议重试时间，到期条目按秒清理 */
+    private static final long CAPACITY_RETRY_MILLIS = 1000;
+
+    /** 场景+手机号 -> 上次发送时间戳，间隔过后自动失效 */
+    private final ExpiringStore<Long> mobileIntervalCache;
+    /** 场景+手机号+日期 -> 当日计数，次日失效 */
+    private final ExpiringStore<AtomicLong> mobileDayCounter;
+    /** 场景+IP+分钟窗口 -> 计数，两个窗口后失效 */
+    private final ExpiringStore<AtomicLong> ipMinuteCounter;
+    /** 场景+手机号 -> GCRA 理论到达时间（毫秒），到达后自动失效 */
+    private final ExpiringStore<AtomicLong> mobileRateTat;
+    /** 场景+IP -> GCRA 理论到达时间（毫秒），到达后自动失效 */
+    private final ExpiringStore<AtomicLong> ipRateTat;
+
+    private final SmsProperties smsProperties;
+    private final RedisRateLimiter redisRateLimiter;
+    private final LeasedRateLimiter leasedRateLimiter;
+    private final AbuseDetector abuseDetector;
+    private final SmsMetrics smsMetrics;
+
+    public RateLimitHelper(SmsProperties smsProperties,
+                           RedisRateLimiter redisRateLimiter,
+                           LeasedRateLimiter leasedRateLimiter,
+                           AbuseDetector abuseDetector,
+                           ExpiringStoreSweeper expiringStoreSweeper,
+                           SmsMetrics smsMetrics) {
+        this.smsProperties = smsProperties;
+        this.redisRateLimiter = redisRateLimiter;
+        this.leasedRateLimiter = leasedRateLimiter;
+        this.abuseDetector = abuseDetector;
+        this.smsMetrics = smsMetrics;
+        this.mobileIntervalCache = expiringStoreSweeper.create("limit-mobile-interval");
+        this.mobileDayCounter = expiringStoreSweeper.create("limit-mobile-day");
+        this.ipMinuteCounter = expiringStoreSweeper.create("limit-ip-minute");
+        this.mobileRateTat = expiringStoreSweeper.create("limit-mobile-rate");
+        this.ipRateTat = expiringStoreSweeper.create("limit-ip-rate");
+    }
 
     /**
-     * 校验并记录限流信息。
+     * 校验并记录限流信息，被拒绝的请求不消耗配额。
+     * @throws SmsException 触发限流时抛出 RATE_LIMITED，并尽量给出可重试时间；热点检测拒绝时抛出 ABUSE_SUSPECTED
      */
-    public void checkAndRecord(String scene, String mobile, String clientIp, SceneConfig config) {
-        RateLimitConfig limit = config.getRateLimit();
+    public void checkAndRecord(String scene, String mobile, String clientIp, ScenePlan plan) {
+        abuseDetector.inspect(scene, mobile, clientIp);
+        RateLimitConfig limit = plan.getRateLimit();
+        Backend backend = smsProperties.getLimiter().getBackend();
+        if (limit.getAlgorithm() == Algorithm.GCRA) {
+            if (backend != Backend.MEMORY) {
+                RateLimitRejection rejection = redisRateLimiter.checkAndRecordSmooth(scene, mobile, clientIp, limit);
+                if (rejection != null) {
+                    throw reject(scene, clientIp, rejection.getRule(), rejection.getRetryAfterMillis());
+                }
+                return;
+            }
+            checkAndRecordSmooth(scene, mobile, clientIp, limit);
+            return;
+        }
+        if (backend == Backend.LEASED && limit.getLeasePermits() > 0) {
+            RateLimitRule rejectedBy = leasedRateLimiter.checkAndRecord(scene, mobile, clientIp, limit);
+            if (rejectedBy != null) {
+                throw reject(scene, clientIp, rejectedBy, fixedWindowRetryAfter(rejectedBy));
+            }
+            return;
+        }
+        if (backend != Backend.MEMORY) {
+            RateLimitRule rejectedBy = redisRateLimiter.checkAndRecord(scene, mobile, clientIp, limit);
+            if (rejectedBy != null) {
+                throw reject(scene, clientIp, rejectedBy, fixedWindowRetryAfter(rejectedBy));
+            }
+            return;
+        }
         long now = Instant.now().getEpochSecond();
         checkInterval(scene, mobile, limit, now);
-        checkMobileDaily(scene, mobile, limit, now);
-        checkIpMinute(scene, clientIp, limit, now);
-        // 记录发送行为
-        mobileIntervalCache.put(buildMobileKey(scene, mobile), now);
+        AtomicLong day = checkMobileDaily(scene, mobile, limit);
+        AtomicLong ip;
+        try {
+            ip = checkIpMinute(scene, clientIp, limit, now);
+        } catch (SmsException ex) {
+            giveBack(day);
+            throw ex;
+        }
+        if (!recordInterval(scene, mobile, limit, now)) {
+            giveBack(day);
+            giveBack(ip);
+            throw reject(scene, clientIp, RateLimitRule.CAPACITY, CAPACITY_RETRY_MILLIS);
+        }
+    }
+
+    /**
+     * 批量校验并记录限流信息，Redis 后端下所有接收方只需一次往返。
+     * @return 与 mobiles 一一对应的拒绝原因，放行的位置为 null
+     * @throws SmsException 限流存储不可用
+     */
+    public List<SmsException> checkAndRecordAll(String scene, List<String> mobiles, List<String> clientIps, ScenePlan plan) {
+        Backend backend = smsProperties.getLimiter().getBackend();
+        boolean smooth = plan.getRateLimit().getAlgorithm() == Algorithm.GCRA;
+        if (backend == Backend.MEMORY || (backend == Backend.LEASED && !smooth && plan.getRateLimit().getLeasePermits() > 0)) {
+            List<SmsException> rejections = new ArrayList<>(mobiles.size());
+            for (int i = 0; i < mobiles.size(); i++) {
+                try {
+                    checkAndRecord(scene, mobiles.get(i), clientIps.get(i), plan);
+                    rejections.add(null);
+                } catch (SmsException ex) {
+                    rejections.add(ex);
+                }
+            }
+            return rejections;
+        }
+        // 先做热点检测，未被拒绝的接收方再合并为一次 Redis 往返
+        List<SmsException> rejections = new ArrayList<>(mobiles.size());
+        List<Integer> positions = new ArrayList<>(mobiles.size());
+        List<String> admittedMobiles = new ArrayList<>(mobiles.size());
+        List<String> admittedIps = new ArrayList<>(mobiles.size());
+        for (int i = 0; i < mobiles.size(); i++) {
+            try {
+                abuseDetector.inspect(scene, mobiles.get(i), clientIps.get(i));
+                rejections.add(null);
+                positions.add(i);
+                admittedMobiles.add(mobiles.get(i));
+                admittedIps.add(clientIps.get(i));
+            } catch (SmsException ex) {
+                rejections.add(ex);
+            }
+        }
+        if (positions.isEmpty()) {
+            return rejections;
+        }
+        if (smooth) {
+            List<RateLimitRejection> results = redisRateLimiter.checkAndRecordSmoothAll(scene, admittedMobiles, admittedIps, plan.getRateLimit());
+            for (int i = 0; i < results.size(); i++) {
+                RateLimitRejection rejection = results.get(i);
+                if (rejection != null) {
+                    rejections.set(positions.get(i), reject(scene, admittedIps.get(i), rejection.getRule(), rejection.getRetryAfterMillis()));
+                }
+            }
+            return rejections;
+        }
+        List<RateLimitRule> rules = redisRateLimiter.checkAndRecordAll(scene, admittedMobiles, admittedIps, plan.getRateLimit());
+        for (int i = 0; i < rules.size(); i++) {
+            RateLimitRule rule = rules.get(i);
+            if (rule != null) {
+                rejections.set(positions.get(i), reject(scene, admittedIps.get(i), rule, fixedWindowRetryAfter(rule)));
+            }
+        }
+        return rejections;
     }
 
     private void checkInterval(String scene, String mobile, RateLimitConfig limit, long now) {
@@ -49,49 +187,180 @@ public class RateLimitHelper {
         }
         Long last = mobileIntervalCache.get(buildMobileKey(scene, mobile));
         if (last != null && now - last < interval) {
-            throw new SmsException(ErrorCode.RATE_LIMITED, "发送过于频繁，请稍后再试");
+            throw reject(scene, null, RateLimitRule.INTERVAL, (interval - (now - last)) * 1000);
         }
     }
 
-    private void checkMobileDaily(String scene, String mobile, RateLimitConfig limit, long now) {
+    /**
+     * @return 是否记录成功，本地状态已满时返回 false
+     */
+    private boolean recordInterval(String scene, String mobile, RateLimitConfig limit, long now) {
+        return limit.getPerMobileIntervalSeconds() <= 0
+            || mobileIntervalCache.put(buildMobileKey(scene, mobile), now, limit.getPerMobileIntervalSeconds());
+    }
+
+    /**
+     * @return 已计入的日计数，未配置日上限时返回 null
+     */
+    private AtomicLong checkMobileDaily(String scene, String mobile, RateLimitConfig limit) {
         long dayLimit = limit.getPerMobileDayLimit();
         if (dayLimit <= 0) {
-            return;
+            return null;
         }
         String key = buildMobileDayKey(scene, mobile);
-        AtomicLong counter = mobileDayCounter.computeIfAbsent(key, k -> new AtomicLong());
-        long count = counter.incrementAndGet();
-        if (count > dayLimit) {
-            throw new SmsException(ErrorCode.RATE_LIMITED, "当日发送次数已达上限");
+        AtomicLong counter = mobileDayCounter.getOrCreate(key, secondsUntilTomorrow() + DAY_TTL_SLACK_SECONDS, AtomicLong::new);
+        if (counter == null) {
+            throw reject(scene, null, RateLimitRule.CAPACITY, CAPACITY_RETRY_MILLIS);
         }
-        // 简易清理：日期变化时重置
-        String today = LocalDate.now().toString();
-        if (!key.endsWith(today)) {
-            mobileDayCounter.remove(key);
+        if (!incrementBelow(counter, dayLimit)) {
+            throw reject(scene, null, RateLimitRule.DAILY, fixedWindowRetryAfter(RateLimitRule.DAILY));
         }
+        return counter;
     }
 
-    private void checkIpMinute(String scene, String clientIp, RateLimitConfig limit, long now) {
+    /**
+     * @return 已计入的 IP 分钟计数，未配置上限或没有 IP 时返回 null
+     */
+    private AtomicLong checkIpMinute(String scene, String clientIp, RateLimitConfig limit, long now) {
         long ipLimit = limit.getPerIpMinuteLimit();
         if (ipLimit <= 0 || !StringUtils.hasText(clientIp)) {
-            return;
+            return null;
         }
         String key = buildIpKey(scene, clientIp, now / 60);
-        AtomicLong counter = ipMinuteCounter.computeIfAbsent(key, k -> new AtomicLong());
-        long count = counter.incrementAndGet();
-        if (count > ipLimit) {
-            log.warn("IP 限流触发，scene={}, ip={}", scene, clientIp);
-            throw new SmsException(ErrorCode.RATE_LIMITED, "发送频率受限");
-        }
-        // 旧窗口清理
-        ipMinuteCounter.keySet().removeIf(k -> {
-            String[] parts = k.split("#");
-            if (parts.length < 3) {
+        AtomicLong counter = ipMinuteCounter.getOrCreate(key, IP_MINUTE_TTL_SECONDS, AtomicLong::new);
+        if (counter == null) {
+            throw reject(scene, clientIp, RateLimitRule.CAPACITY, CAPACITY_RETRY_MILLIS);
+        }
+        if (!incrementBelow(counter, ipLimit)) {
+            throw reject(scene, clientIp, RateLimitRule.IP_MINUTE, (60 - now % 60) * 1000);
+        }
+        return counter;
+    }
+
+    /**
+     * 计数未达上限时加一，已达上限时不修改，被拒绝的请求不消耗配额。
+     */
+    private boolean incrementBelow(AtomicLong counter, long max) {
+        while (true) {
+            long current = counter.get();
+            if (current >= max) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current + 1)) {
                 return true;
             }
-            long window = Long.parseLong(parts[2]);
-            return now / 60 - window > 1;
-        });
+        }
+    }
+
+    private void giveBack(AtomicLong counter) {
+        if (counter != null) {
+            counter.decrementAndGet();
+        }
+    }
+
+    /**
+     * 内存 GCRA：间隔校验后依次推进手机号与 IP 的理论到达时间，后一项拒绝时撤回前一项。
+     */
+    private void checkAndRecordSmooth(String scene, String mobile, String clientIp, RateLimitConfig limit) {
+        long nowMillis = System.currentTimeMillis();
+        long now = nowMillis / 1000;
+        checkInterval(scene, mobile, limit, now);
+        String mobileKey = buildMobileKey(scene, mobile);
+        long mobileEmission = Gcra.mobileEmissionMillis(limit);
+        if (mobileEmission > 0) {
+            long wait = advance(mobileRateTat, mobileKey, mobileEmission, Gcra.mobileToleranceMillis(limit), nowMillis);
+            if (wait != 0) {
+                throw wait < 0
+                    ? reject(scene, null, RateLimitRule.CAPACITY, CAPACITY_RETRY_MILLIS)
+                    : reject(scene, null, RateLimitRule.MOBILE_RATE, wait);
+            }
+        }
+        String ipKey = scene + "#" + clientIp;
+        long ipEmission = StringUtils.hasText(clientIp) ? Gcra.ipEmissionMillis(limit) : 0;
+        if (ipEmission > 0) {
+            long wait = advance(ipRateTat, ipKey, ipEmission, Gcra.ipToleranceMillis(limit), nowMillis);
+            if (wait != 0) {
+                retreat(mobileRateTat, mobileKey, mobileEmission);
+                throw wait < 0
+                    ? reject(scene, clientIp, RateLimitRule.CAPACITY, CAPACITY_RETRY_MILLIS)
+                    : reject(scene, clientIp, RateLimitRule.IP_RATE, wait);
+            }
+        }
+        if (!recordInterval(scene, mobile, limit, now)) {
+            retreat(mobileRateTat, mobileKey, mobileEmission);
+            retreat(ipRateTat, ipKey, ipEmission);
+            throw reject(scene, clientIp, RateLimitRule.CAPACITY, CAPACITY_RETRY_MILLIS);
+        }
+    }
+
+    /**
+     * 撤回一次已推进的理论到达时间。
+     */
+    private void retreat(ExpiringStore<AtomicLong> store, String key, long emissionMillis) {
+        if (emissionMillis > 0) {
+            AtomicLong tat = store.get(key);
+            if (tat != null) {
+                tat.addAndGet(-emissionMillis);
+            }
+        }
+    }
+
+    /**
+     * 符合速率时以 CAS 推进理论到达时间，并将条目有效期续至新的到达时间；到达时间之后条目等价于不存在。
+     * @return 放行时返回 0，否则返回需等待的毫秒数；本地状态已满无法为新 key 计数时返回 -1
+     */
+    private long advance(ExpiringStore<AtomicLong> store, String key, long emissionMillis, long toleranceMillis, long nowMillis) {
+        AtomicLong tat = store.getOrCreate(key, (emissionMillis + toleranceMillis) / 1000 + 1, AtomicLong::new);
+        if (tat == null) {
+            return -1;
+        }
+        while (true) {
+            long current = tat.get();
+            long base = Math.max(current, nowMillis);
+            long wait = base - toleranceMillis - nowMillis;
+            if (wait > 0) {
+                return wait;
+            }
+            long next = base + emissionMillis;
+            if (tat.compareAndSet(current, next)) {
+                store.put(key, tat, (next - nowMillis) / 1000 + 1);
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * 固定窗口下的可重试时间：日上限到次日零点，IP 分钟上限到下一分钟，间隔限制未知。
+     */
+    private long fixedWindowRetryAfter(RateLimitRule rule) {
+        if (rule == RateLimitRule.DAILY) {
+            return secondsUntilTomorrow() * 1000;
+        }
+        if (rule == RateLimitRule.IP_MINUTE) {
+            return (60 - Instant.now().getEpochSecond() % 60) * 1000;
+        }
+        return 0L;
+    }
+
+    private SmsException reject(String scene, String clientIp, RateLimitRule rule, long retryAfterMillis) {
+        smsMetrics.recordRateLimited(scene, rule);
+        switch (rule) {
+            case INTERVAL:
+            case MOBILE_RATE:
+                return new SmsException(ErrorCode.RATE_LIMITED, "发送过于频繁，请稍后再试", retryAfterMillis);
+            case DAILY:
+                return new SmsException(ErrorCode.RATE_LIMITED, "当日发送次数已达上限", retryAfterMillis);
+            case CAPACITY:
+                return new SmsException(ErrorCode.RATE_LIMITED, "发送繁忙，请稍后再试", retryAfterMillis);
+            default:
+                log.warn("IP 限流触发，scene={}, ip={}", scene, clientIp);
+                return new SmsException(ErrorCode.RATE_LIMITED, "发送频率受限", retryAfterMillis);
+        }
+    }
+
+    private long secondsUntilTomorrow() {
+        LocalDateTime now = LocalDateTime.now();
+        return Duration.between(now, now.toLocalDate().plusDays(1).atStartOfDay()).getSeconds();
     }
 
     private String buildMobileKey(String scene, String mobile) {
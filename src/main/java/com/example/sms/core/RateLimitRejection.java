@@ -0,0 +1,26 @@
+package com.example.sms.core;
+
+/**
+ * 限流拒绝结果，携带触发的规则与建议的重试等待时间。
+ */
+public final class RateLimitRejection {
+
+    private final RateLimitRule rule;
+    private final long retryAfterMillis;
+
+    public RateLimitRejection(RateLimitRule rule, long retryAfterMillis) {
+        this.rule = rule;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public RateLimitRule getRule() {
+        return rule;
+    }
+
+    /**
+     * 建议的最短重试等待时间，单位毫秒，0 表示未知。
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.sms.core;
+
+/**
+ * 限流规则，用于区分触发的限额。
+ */
+public enum RateLimitRule {
+
+    /** 同一手机号发送间隔 */
+    INTERVAL,
+
+    /** 同一手机号每日上限 */
+    DAILY,
+
+    /** 同一 IP 每分钟上限 */
+    IP_MINUTE,
+
+    /** 同一手机号平滑限速（GCRA），速率由每日上限折算 */
+    MOBILE_RATE,
+
+    /** 同一 IP 平滑限速（GCRA），速率由每分钟上限折算 */
+    IP_RATE,
+
+    /** 本地限流状态已达条目上限，无法为新的手机号或 IP 计数 */
+    CAPACITY
+}
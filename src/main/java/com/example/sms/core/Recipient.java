@@ -0,0 +1,32 @@
+package com.example.sms.core;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 批量发送的单个接收方。
+ */
+public class Recipient {
+
+    private final String mobile;
+    private final Map<String, String> params;
+    private final String clientIp;
+
+    public Recipient(String mobile, Map<String, String> params, String clientIp) {
+        this.mobile = mobile;
+        this.params = params == null ? Collections.emptyMap() : params;
+        this.clientIp = clientIp;
+    }
+
+    public String getMobile() {
+        return mobile;
+    }
+
+    public Map<String, String> getParams() {
+        return params;
+    }
+
+    public String getClientIp() {
+        return clientIp;
+    }
+}
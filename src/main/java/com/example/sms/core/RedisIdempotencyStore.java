@@ -0,0 +1,76 @@
+package com.example.sms.core;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+/**
+ * 基于 Redis 的分布式幂等存储。预占通过 SET NX 写入随机令牌并设置处理中 TTL，
+ * 确认与释放均先比对令牌，预占过期后被其他请求重新持有时不会被误改。
+ */
+@Component
+public class RedisIdempotencyStore {
+
+    /** 确认后写入的值，令牌为十六进制串，不会与之相同 */
+    private static final String SENT = "sent";
+
+    private static final long RESERVED = 0;
+    private static final long IN_FLIGHT = 1;
+
+    private final RedisSmsRepository redisSmsRepository;
+
+    public RedisIdempotencyStore(RedisSmsRepository redisSmsRepository) {
+        this.redisSmsRepository = redisSmsRepository;
+    }
+
+    /**
+     * 预占幂等 key。
+     * @return 预占成功返回 null，否则返回冲突原因
+     */
+    public Conflict reserve(String key, String token, long inFlightTtlSeconds) {
+        long code = execute(SmsRedisScripts.IDEMPOTENCY_RESERVE, key, token, String.valueOf(inFlightTtlSeconds), SENT);
+        if (code == RESERVED) {
+            return null;
+        }
+        return code == IN_FLIGHT ? Conflict.IN_FLIGHT : Conflict.SENT;
+    }
+
+    /**
+     * 确认发送成功，将预占延长至幂等窗口。
+     * @return 预占已过期或被他人持有时返回 false
+     */
+    public boolean commit(String key, String token, long windowSeconds) {
+        return execute(SmsRedisScripts.IDEMPOTENCY_COMMIT, key, token, SENT, String.valueOf(windowSeconds)) == 1;
+    }
+
+    /**
+     * 释放预占，允许相同请求重新发送。
+     */
+    public void release(String key, String token) {
+        execute(SmsRedisScripts.IDEMPOTENCY_RELEASE, key, token);
+    }
+
+    private long execute(RedisScript<Long> script, String key, String... args) {
+        List<String> keys = Collections.singletonList(key);
+        Long result;
+        try {
+            result = redisSmsRepository.execute(script, keys, args);
+        } catch (DataAccessException ex) {
+            throw new SmsException(ErrorCode.CLIENT_ERROR, "幂等存储不可用", ex);
+        }
+        return result == null ? 0L : result;
+    }
+
+    /**
+     * 预占冲突原因。
+     */
+    public enum Conflict {
+        /** 相同请求正在处理中 */
+        IN_FLIGHT,
+        /** 幂等窗口内已发送成功 */
+        SENT
+    }
+}
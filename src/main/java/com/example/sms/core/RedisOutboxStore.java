@@ -0,0 +1,91 @@
+package com.example.sms.core;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.StringRecord;
+
+import com.example.sms.config.SmsProperties.OutboxProperties;
+
+/**
+ * 基于 Redis Stream 消费组的发件箱，多实例共享同一消费组，每个实例一个消费者。
+ * 延迟重试放入 ZSET，拉取前由脚本把到期消息移回 Stream；失联消费者的待确认消息按空闲时间认领。
+ */
+public class RedisOutboxStore implements OutboxStore {
+
+    static final String GROUP = "sms-outbox";
+
+    private final RedisSmsRepository redisSmsRepository;
+    private final OutboxProperties properties;
+    private final String consumer;
+
+    public RedisOutboxStore(RedisSmsRepository redisSmsRepository, OutboxProperties properties) {
+        this.redisSmsRepository = redisSmsRepository;
+        this.properties = properties;
+        this.consumer = ManagementFactory.getRuntimeMXBean().getName();
+        redisSmsRepository.createGroupIfAbsent(SmsRedisKeys.outboxStream(), GROUP);
+    }
+
+    @Override
+    public void append(OutboxMessage message) {
+        redisSmsRepository.streamAdd(SmsRedisKeys.outboxStream(), message.toFields());
+    }
+
+    @Override
+    public List<OutboxMessage> poll(int max) {
+        redisSmsRepository.execute(SmsRedisScripts.OUTBOX_PROMOTE,
+            Arrays.asList(SmsRedisKeys.outboxDelayed(), SmsRedisKeys.outboxStream()),
+            String.valueOf(System.currentTimeMillis()), String.valueOf(max));
+        List<MapRecord<String, Object, Object>> records =
+            redisSmsRepository.streamReadGroup(SmsRedisKeys.outboxStream(), GROUP, consumer, max);
+        List<OutboxMessage> messages = new ArrayList<>(records.size());
+        for (MapRecord<String, Object, Object> record : records) {
+            messages.add(OutboxMessage.fromFields(record.getValue()).withReceipt(record.getId().getValue(), 1));
+        }
+        return messages;
+    }
+
+    @Override
+    public void ack(OutboxMessage message) {
+        redisSmsRepository.streamAckAndDelete(SmsRedisKeys.outboxStream(), GROUP, message.getReceipt());
+    }
+
+    @Override
+    public void retry(OutboxMessage current, OutboxMessage next, long delayMillis) {
+        redisSmsRepository.execute(SmsRedisScripts.OUTBOX_RETRY,
+            Arrays.asList(SmsRedisKeys.outboxStream(), SmsRedisKeys.outboxDelayed()),
+            GROUP, current.getReceipt(), String.valueOf(System.currentTimeMillis() + delayMillis), next.toJson());
+    }
+
+    @Override
+    public void deadLetter(OutboxMessage message, ErrorCode errorCode) {
+        List<String> args = new ArrayList<>();
+        args.add(GROUP);
+        args.add(message.getReceipt());
+        args.add(String.valueOf(properties.getDeadLetterMaxLength()));
+        message.toFields().forEach((key, value) -> {
+            args.add(key);
+            args.add(value);
+        });
+        args.add("errorCode");
+        args.add(errorCode.name());
+        redisSmsRepository.execute(SmsRedisScripts.OUTBOX_DEAD,
+            Arrays.asList(SmsRedisKeys.outboxStream(), SmsRedisKeys.outboxDead()),
+            args.toArray(new String[0]));
+    }
+
+    @Override
+    public List<OutboxMessage> claimStale(int max) {
+        Map<StringRecord, Long> claimed = redisSmsRepository.streamClaimIdle(SmsRedisKeys.outboxStream(), GROUP, consumer,
+            Duration.ofMillis(properties.getClaimIdleMillis()), max);
+        List<OutboxMessage> messages = new ArrayList<>(claimed.size());
+        claimed.forEach((record, deliveries) ->
+            messages.add(OutboxMessage.fromFields(record.getValue()).withReceipt(record.getId().getValue(), deliveries)));
+        return messages;
+    }
+}
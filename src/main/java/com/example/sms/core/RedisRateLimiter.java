@@ -0,0 +1,355 @@
+package com.example.sms.core;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.example.sms.config.RateLimitConfig;
+
+/**
+ * 基于 Redis 的分布式限流实现。手机号的间隔与日计数（GCRA 模式下为速率）带相同的 hash tag，由一次脚本调用原子校验并记录；
+ * IP 与手机号无法共用 hash tag，IP 计数先由单 key 脚本单独扣减，手机号被拒绝或校验异常时归还，集群模式下同样可用。
+ * GCRA 模式下手机号与 IP 各保存一个理论到达时间，由 rate_limit_gcra.lua 与 rate_limit_gcra_ip.lua 校验并给出可重试时间。
+ */
+@Component
+public class RedisRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisRateLimiter.class);
+
+    /** IP 分钟计数保留两个窗口，避免窗口切换瞬间 key 提前过期 */
+    private static final long IP_MINUTE_TTL_SECONDS = 120;
+    /** 日计数在次日零点后额外保留的秒数 */
+    private static final long DAY_TTL_SLACK_SECONDS = 60;
+
+    private static final long PASSED = 0;
+    private static final long INTERVAL_REJECTED = 1;
+    private static final long DAILY_REJECTED = 2;
+    /** rate_limit_gcra.lua 的返回码 */
+    private static final long MOBILE_RATE_REJECTED = 2;
+
+    private final RedisSmsRepository redisSmsRepository;
+
+    public RedisRateLimiter(RedisSmsRepository redisSmsRepository) {
+        this.redisSmsRepository = redisSmsRepository;
+    }
+
+    /**
+     * 校验并记录限流信息，被拒绝的请求不消耗配额。
+     * @return 触发的限流规则，放行时返回 null
+     */
+    public RateLimitRule checkAndRecord(String scene, String mobile, String clientIp, RateLimitConfig limit) {
+        LocalDateTime now = LocalDateTime.now();
+        String ipKey = ipMinuteKey(scene, clientIp, limit, now);
+        try {
+            if (ipKey != null && !leaseIpMinute(ipKey, limit)) {
+                return RateLimitRule.IP_MINUTE;
+            }
+        } catch (DataAccessException ex) {
+            throw new SmsException(ErrorCode.CLIENT_ERROR, "限流存储不可用", ex);
+        }
+        RateLimitRule rejectedBy;
+        try {
+            rejectedBy = toRule(redisSmsRepository.execute(SmsRedisScripts.RATE_LIMIT, keys(scene, mobile, now), args(limit, now)));
+        } catch (DataAccessException ex) {
+            refund(ipKey, 1);
+            throw new SmsException(ErrorCode.CLIENT_ERROR, "限流存储不可用", ex);
+        }
+        if (rejectedBy != null) {
+            refund(ipKey, 1);
+        }
+        return rejectedBy;
+    }
+
+    /**
+     * 只校验并记录手机号间隔与日计数，IP 分钟计数由调用方另行处理（见 {@link LeasedRateLimiter}）。
+     * @return 触发的限流规则，放行时返回 null
+     */
+    RateLimitRule checkAndRecordMobile(String scene, String mobile, RateLimitConfig limit) {
+        LocalDateTime now = LocalDateTime.now();
+        Long verdict;
+        try {
+            verdict = redisSmsRepository.execute(SmsRedisScripts.RATE_LIMIT, keys(scene, mobile, now), args(limit, now));
+        } catch (DataAccessException ex) {
+            throw new SmsException(ErrorCode.CLIENT_ERROR, "限流存储不可用", ex);
+        }
+        return toRule(verdict);
+    }
+
+    /**
+     * 批量校验并记录限流信息，依次经流水线扣减 IP 计数、校验手机号、归还被手机号拒绝的 IP 计数，最多三次往返。
+     * 脚本在服务端按顺序逐个执行，结果与逐个调用 {@link #checkAndRecord} 一致。
+     * @return 与 mobiles 一一对应的限流规则，放行的位置为 null
+     */
+    public List<RateLimitRule> checkAndRecordAll(String scene, List<String> mobiles, List<String> clientIps, RateLimitConfig limit) {
+        if (mobiles.size() == 1) {
+            return Collections.singletonList(checkAndRecord(scene, mobiles.get(0), clientIps.get(0), limit));
+        }
+        LocalDateTime now = LocalDateTime.now();
+        RateLimitRule[] rules = new RateLimitRule[mobiles.size()];
+        String[] ipKeys = new String[mobiles.size()];
+        RedisSmsRepository.Batch ipBatch = redisSmsRepository.batch();
+        for (int i = 0; i < mobiles.size(); i++) {
+            ipKeys[i] = ipMinuteKey(scene, clientIps.get(i), limit, now);
+            if (ipKeys[i] != null) {
+                ipBatch.script(SmsRedisScripts.RATE_LIMIT_LEASE, Collections.singletonList(ipKeys[i]), ipLeaseArgs(limit));
+            }
+        }
+        try {
+            if (ipBatch.size() > 0) {
+                List<Object> granted = ipBatch.execute();
+                for (int i = 0, k = 0; i < mobiles.size(); i++) {
+                    if (ipKeys[i] != null && ((Long) granted.get(k++)) <= 0) {
+                        rules[i] = RateLimitRule.IP_MINUTE;
+                        ipKeys[i] = null;
+                    }
+                }
+            }
+        } catch (DataAccessException ex) {
+            throw new SmsException(ErrorCode.CLIENT_ERROR, "限流存储不可用", ex);
+        }
+        RedisSmsRepository.Batch mobileBatch = redisSmsRepository.batch();
+        for (int i = 0; i < mobiles.size(); i++) {
+            if (rules[i] == null) {
+                mobileBatch.script(SmsRedisScripts.RATE_LIMIT, keys(scene, mobiles.get(i), now), args(limit, now));
+            }
+        }
+        List<Object> verdicts;
+        try {
+            verdicts = mobileBatch.size() > 0 ? mobileBatch.execute() : Collections.emptyList();
+        } catch (DataAccessException ex) {
+            refundAll(ipKeys, 1);
+            throw new SmsException(ErrorCode.CLIENT_ERROR, "限流存储不可用", ex);
+        }
+        for (int i = 0, k = 0; i < mobiles.size(); i++) {
+            if (rules[i] != null) {
+                continue;
+            }
+            rules[i] = toRule((Long) verdicts.get(k++));
+            if (rules[i] == null) {
+                ipKeys[i] = null;
+            }
+        }
+        refundAll(ipKeys, 1);
+        return Arrays.asList(rules);
+    }
+
+    /**
+     * GCRA 模式下校验并记录限流信息，被拒绝的请求不消耗配额。
+     * @return 拒绝结果，放行时返回 null
+     */
+    public RateLimitRejection checkAndRecordSmooth(String scene, String mobile, String clientIp, RateLimitConfig limit) {
+        String ipKey = ipRateKey(scene, clientIp, limit);
+        try {
+            if (ipKey != null) {
+                Long wait = redisSmsRepository.execute(SmsRedisScripts.RATE_LIMIT_GCRA_IP, Collections.singletonList(ipKey), ipRateArgs(limit));
+                if (wait != null && wait > 0) {
+                    return new RateLimitRejection(RateLimitRule.IP_RATE, wait);
+                }
+            }
+        } catch (DataAccessException ex) {
+            throw new SmsException(ErrorCode.CLIENT_ERROR, "限流存储不可用", ex);
+        }
+        RateLimitRejection rejection;
+        try {
+            rejection = toRejection(redisSmsRepository.execute(SmsRedisScripts.RATE_LIMIT_GCRA, smoothKeys(scene, mobile), smoothArgs(limit)));
+        } catch (DataAccessException ex) {
+            refund(ipKey, Gcra.ipEmissionMillis(limit));
+            throw new SmsException(ErrorCode.CLIENT_ERROR, "限流存储不可用", ex);
+        }
+        if (rejection != null) {
+            refund(ipKey, Gcra.ipEmissionMillis(limit));
+        }
+        return rejection;
+    }
+
+    /**
+     * GCRA 模式下的批量校验，与 {@link #checkAndRecordAll} 相同地分步经流水线执行。
+     * @return 与 mobiles 一一对应的拒绝结果，放行的位置为 null
+     */
+    public List<RateLimitRejection> checkAndRecordSmoothAll(String scene, List<String> mobiles, List<String> clientIps, RateLimitConfig limit) {
+        if (mobiles.size() == 1) {
+            return Collections.singletonList(checkAndRecordSmooth(scene, mobiles.get(0), clientIps.get(0), limit));
+        }
+        RateLimitRejection[] rejections = new RateLimitRejection[mobiles.size()];
+        String[] ipKeys = new String[mobiles.size()];
+        RedisSmsRepository.Batch ipBatch = redisSmsRepository.batch();
+        for (int i = 0; i < mobiles.size(); i++) {
+            ipKeys[i] = ipRateKey(scene, clientIps.get(i), limit);
+            if (ipKeys[i] != null) {
+                ipBatch.script(SmsRedisScripts.RATE_LIMIT_GCRA_IP, Collections.singletonList(ipKeys[i]), ipRateArgs(limit));
+            }
+        }
+        try {
+            if (ipBatch.size() > 0) {
+                List<Object> waits = ipBatch.execute();
+                for (int i = 0, k = 0; i < mobiles.size(); i++) {
+                    if (ipKeys[i] == null) {
+                        continue;
+                    }
+                    long wait = (Long) waits.get(k++);
+                    if (wait > 0) {
+                        rejections[i] = new RateLimitRejection(RateLimitRule.IP_RATE, wait);
+                        ipKeys[i] = null;
+                    }
+                }
+            }
+        } catch (DataAccessException ex) {
+            throw new SmsException(ErrorCode.CLIENT_ERROR, "限流存储不可用", ex);
+        }
+        RedisSmsRepository.Batch mobileBatch = redisSmsRepository.batch();
+        for (int i = 0; i < mobiles.size(); i++) {
+            if (rejections[i] == null) {
+                mobileBatch.script(SmsRedisScripts.RATE_LIMIT_GCRA, smoothKeys(scene, mobiles.get(i)), smoothArgs(limit));
+            }
+        }
+        List<Object> verdicts;
+        try {
+            verdicts = mobileBatch.size() > 0 ? mobileBatch.execute() : Collections.emptyList();
+        } catch (DataAccessException ex) {
+            refundAll(ipKeys, Gcra.ipEmissionMillis(limit));
+            throw new SmsException(ErrorCode.CLIENT_ERROR, "限流存储不可用", ex);
+        }
+        for (int i = 0, k = 0; i < mobiles.size(); i++) {
+            if (rejections[i] != null) {
+                continue;
+            }
+            rejections[i] = toRejection((List<?>) verdicts.get(k++));
+            if (rejections[i] == null) {
+                ipKeys[i] = null;
+            }
+        }
+        refundAll(ipKeys, Gcra.ipEmissionMillis(limit));
+        return Arrays.asList(rejections);
+    }
+
+    /**
+     * @return IP 分钟计数 key，未传 IP 或未配置上限时返回 null
+     */
+    private String ipMinuteKey(String scene, String clientIp, RateLimitConfig limit, LocalDateTime now) {
+        if (!StringUtils.hasText(clientIp) || limit.getPerIpMinuteLimit() <= 0) {
+            return null;
+        }
+        return SmsRedisKeys.limitIpMinute(scene, clientIp, now.truncatedTo(ChronoUnit.MINUTES));
+    }
+
+    /**
+     * 按上限截断地扣减一个 IP 分钟配额。
+     * @return 是否扣减成功
+     */
+    private boolean leaseIpMinute(String ipKey, RateLimitConfig limit) {
+        Long granted = redisSmsRepository.execute(SmsRedisScripts.RATE_LIMIT_LEASE, Collections.singletonList(ipKey), ipLeaseArgs(limit));
+        return granted != null && granted > 0;
+    }
+
+    private String[] ipLeaseArgs(RateLimitConfig limit) {
+        return new String[] {String.valueOf(limit.getPerIpMinuteLimit()), "1", String.valueOf(IP_MINUTE_TTL_SECONDS)};
+    }
+
+    private String ipRateKey(String scene, String clientIp, RateLimitConfig limit) {
+        return StringUtils.hasText(clientIp) && Gcra.ipEmissionMillis(limit) > 0 ? SmsRedisKeys.limitIpRate(scene, clientIp) : null;
+    }
+
+    private String[] ipRateArgs(RateLimitConfig limit) {
+        return new String[] {String.valueOf(Gcra.ipEmissionMillis(limit)), String.valueOf(Gcra.ipToleranceMillis(limit))};
+    }
+
+    /**
+     * 归还已扣减的 IP 配额，失败时只记录日志，该配额在窗口内不再可用，只会少放行。
+     */
+    private void refund(String ipKey, long amount) {
+        if (ipKey == null) {
+            return;
+        }
+        try {
+            redisSmsRepository.execute(SmsRedisScripts.RATE_LIMIT_REFUND, Collections.singletonList(ipKey), String.valueOf(amount));
+        } catch (DataAccessException ex) {
+            log.warn("Refund ip rate limit failed key={}, err={}", ipKey, ex.toString());
+        }
+    }
+
+    private void refundAll(String[] ipKeys, long amount) {
+        RedisSmsRepository.Batch batch = redisSmsRepository.batch();
+        for (String ipKey : ipKeys) {
+            if (ipKey != null) {
+                batch.script(SmsRedisScripts.RATE_LIMIT_REFUND, Collections.singletonList(ipKey), String.valueOf(amount));
+            }
+        }
+        if (batch.size() == 0) {
+            return;
+        }
+        try {
+            batch.execute();
+        } catch (DataAccessException ex) {
+            log.warn("Refund ip rate limits failed count={}, err={}", batch.size(), ex.toString());
+        }
+    }
+
+    private List<String> keys(String scene, String mobile, LocalDateTime now) {
+        return Arrays.asList(
+            SmsRedisKeys.limitMobileInterval(scene, mobile),
+            SmsRedisKeys.limitMobileDay(scene, mobile, now.toLocalDate()));
+    }
+
+    private String[] args(RateLimitConfig limit, LocalDateTime now) {
+        return new String[] {
+            String.valueOf(limit.getPerMobileIntervalSeconds()),
+            String.valueOf(limit.getPerMobileDayLimit()),
+            String.valueOf(secondsUntilTomorrow(now) + DAY_TTL_SLACK_SECONDS)
+        };
+    }
+
+    private List<String> smoothKeys(String scene, String mobile) {
+        return Arrays.asList(
+            SmsRedisKeys.limitMobileInterval(scene, mobile),
+            SmsRedisKeys.limitMobileRate(scene, mobile));
+    }
+
+    private String[] smoothArgs(RateLimitConfig limit) {
+        return new String[] {
+            String.valueOf(limit.getPerMobileIntervalSeconds()),
+            String.valueOf(Gcra.mobileEmissionMillis(limit)),
+            String.valueOf(Gcra.mobileToleranceMillis(limit))
+        };
+    }
+
+    private RateLimitRejection toRejection(List<?> verdict) {
+        long code = verdict == null || verdict.isEmpty() ? PASSED : ((Number) verdict.get(0)).longValue();
+        if (code == PASSED) {
+            return null;
+        }
+        long retryAfterMillis = ((Number) verdict.get(1)).longValue();
+        if (code == INTERVAL_REJECTED) {
+            return new RateLimitRejection(RateLimitRule.INTERVAL, retryAfterMillis);
+        }
+        if (code == MOBILE_RATE_REJECTED) {
+            return new RateLimitRejection(RateLimitRule.MOBILE_RATE, retryAfterMillis);
+        }
+        return null;
+    }
+
+    private RateLimitRule toRule(Long verdict) {
+        long code = verdict == null ? PASSED : verdict;
+        if (code == INTERVAL_REJECTED) {
+            return RateLimitRule.INTERVAL;
+        }
+        if (code == DAILY_REJECTED) {
+            return RateLimitRule.DAILY;
+        }
+        return null;
+    }
+
+    private long secondsUntilTomorrow(LocalDateTime now) {
+        LocalDateTime tomorrow = now.toLocalDate().plusDays(1).atStartOfDay();
+        return Duration.between(now, tomorrow).getSeconds();
+    }
+}
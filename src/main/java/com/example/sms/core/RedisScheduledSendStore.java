@@ -0,0 +1,63 @@
+package com.example.sms.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 基于 Redis 的定时发送存储：待发送与已认领各一个以时间为分值的 ZSET，消息内容存于 HASH，
+ * 多实例共享。认领只按分值区间读取，与积压总量无关。
+ */
+public class RedisScheduledSendStore implements ScheduledSendStore {
+
+    private final RedisSmsRepository redisSmsRepository;
+
+    public RedisScheduledSendStore(RedisSmsRepository redisSmsRepository) {
+        this.redisSmsRepository = redisSmsRepository;
+    }
+
+    @Override
+    public void add(ScheduledSend send) {
+        redisSmsRepository.execute(SmsRedisScripts.SCHEDULE_ADD,
+            Arrays.asList(SmsRedisKeys.schedulePending(), SmsRedisKeys.scheduleClaimed(), SmsRedisKeys.schedulePayload()),
+            send.getId(), String.valueOf(send.getDueAt()), send.toJson());
+    }
+
+    @Override
+    public boolean cancel(String id) {
+        return remove(SmsRedisKeys.schedulePending(), id);
+    }
+
+    @Override
+    public List<ScheduledSend> claim(long untilMillis, long leaseMillis, int max) {
+        List<?> claimed = redisSmsRepository.execute(SmsRedisScripts.SCHEDULE_CLAIM,
+            Arrays.asList(SmsRedisKeys.schedulePending(), SmsRedisKeys.scheduleClaimed(), SmsRedisKeys.schedulePayload()),
+            String.valueOf(System.currentTimeMillis()), String.valueOf(untilMillis), String.valueOf(leaseMillis),
+            String.valueOf(max));
+        if (claimed == null || claimed.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<ScheduledSend> sends = new ArrayList<>(claimed.size() / 3);
+        for (int i = 0; i + 2 < claimed.size(); i += 3) {
+            sends.add(ScheduledSend.fromJson((String) claimed.get(i + 1), Long.parseLong((String) claimed.get(i + 2))));
+        }
+        return sends;
+    }
+
+    @Override
+    public boolean complete(ScheduledSend send) {
+        return remove(SmsRedisKeys.scheduleClaimed(), send.getId());
+    }
+
+    @Override
+    public void reschedule(ScheduledSend next) {
+        add(next);
+    }
+
+    private boolean remove(String queue, String id) {
+        Long removed = redisSmsRepository.execute(SmsRedisScripts.SCHEDULE_REMOVE,
+            Arrays.asList(queue, SmsRedisKeys.schedulePayload()), id);
+        return removed != null && removed == 1L;
+    }
+}
@@ -1,12 +1,31 @@
 package com.example.sms.core;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StringRecord;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 
 /**
@@ -41,11 +60,11 @@ public class RedisSmsRepository {
         stringRedisTemplate.delete(key);
     }
 
+    /**
+     * 计数加一，首次创建时设置 TTL；INCR 与 EXPIRE 在一次脚本调用内原子完成。
+     */
     public long incrWithTtl(String key, long ttlSeconds) {
-        Long value = stringRedisTemplate.opsForValue().increment(key);
-        if (value != null && value == 1L) {
-            stringRedisTemplate.expire(key, Duration.ofSeconds(ttlSeconds));
-        }
+        Long value = execute(SmsRedisScripts.INCR_WITH_TTL, Collections.singletonList(key), String.valueOf(ttlSeconds));
         return value == null ? 0L : value;
     }
 
@@ -53,4 +72,172 @@ public class RedisSmsRepository {
         Boolean success = stringRedisTemplate.opsForValue().setIfAbsent(key, value, Duration.ofSeconds(ttlSeconds));
         return Boolean.TRUE.equals(success);
     }
+
+    /**
+     * 执行 Lua 脚本，脚本内的读写在服务端原子完成。
+     */
+    public <T> T execute(RedisScript<T> script, List<String> keys, String... args) {
+        return stringRedisTemplate.execute(script, keys, (Object[]) args);
+    }
+
+    /**
+     * 开启一个流水线批量操作，加入的命令在 {@link Batch#execute()} 时一次往返发送。
+     * Lettuce 的流水线使用独占连接，未配置 spring.redis.lettuce.pool 时每次执行都会新建连接，
+     * 只有一两条命令时直接调用单条方法更划算。
+     */
+    public Batch batch() {
+        return new Batch();
+    }
+
+    /**
+     * 创建消费组（Stream 不存在时一并创建），消费组已存在时忽略。
+     */
+    public void createGroupIfAbsent(String stream, String group) {
+        byte[] rawKey = stringRedisTemplate.getStringSerializer().serialize(stream);
+        try {
+            stringRedisTemplate.execute((RedisCallback<String>) connection ->
+                connection.xGroupCreate(rawKey, group, ReadOffset.from("0"), true));
+        } catch (DataAccessException ex) {
+            if (ex.getMessage() == null || !ex.getMessage().contains("BUSYGROUP")) {
+                throw ex;
+            }
+        }
+    }
+
+    public RecordId streamAdd(String stream, Map<String, String> fields) {
+        return stringRedisTemplate.opsForStream().add(stream, fields);
+    }
+
+    /**
+     * 以消费组方式读取尚未投递给任何消费者的消息，不阻塞。
+     */
+    public List<MapRecord<String, Object, Object>> streamReadGroup(String stream, String group, String consumer, int count) {
+        List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream().read(
+            Consumer.from(group, consumer),
+            StreamReadOptions.empty().count(count),
+            StreamOffset.create(stream, ReadOffset.lastConsumed()));
+        return records == null ? Collections.emptyList() : records;
+    }
+
+    public void streamAckAndDelete(String stream, String group, String recordId) {
+        stringRedisTemplate.opsForStream().acknowledge(stream, group, recordId);
+        stringRedisTemplate.opsForStream().delete(stream, recordId);
+    }
+
+    /**
+     * 认领空闲时间超过 minIdle 的待确认消息，用于接管已失联消费者的投递。
+     * @return 认领到的消息及其累计投递次数
+     */
+    public Map<StringRecord, Long> streamClaimIdle(String stream, String group, String consumer, Duration minIdle, int count) {
+        List<PendingMessage> idle = stringRedisTemplate.opsForStream()
+            .pending(stream, group, Range.unbounded(), count)
+            .stream()
+            .filter(message -> message.getElapsedTimeSinceLastDelivery().compareTo(minIdle) >= 0)
+            .collect(Collectors.toList());
+        if (idle.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        RecordId[] ids = idle.stream().map(PendingMessage::getId).toArray(RecordId[]::new);
+        Map<String, Long> deliveries = idle.stream()
+            .collect(Collectors.toMap(PendingMessage::getIdAsString, PendingMessage::getTotalDeliveryCount));
+        List<StringRecord> claimed = stringRedisTemplate.execute((RedisCallback<List<StringRecord>>) connection ->
+            ((StringRedisConnection) connection).xClaim(stream, group, consumer, minIdle, ids));
+        if (claimed == null) {
+            return Collections.emptyMap();
+        }
+        return claimed.stream().collect(Collectors.toMap(record -> record,
+            record -> deliveries.getOrDefault(record.getId().getValue(), 1L) + 1,
+            (first, second) -> first,
+            LinkedHashMap::new));
+    }
+
+    /**
+     * 流水线批量操作，结果按命令加入顺序返回（{@link #setHash} 除外）。
+     * 命令之间不保证原子性，需要原子读写时使用 {@link #script}。
+     */
+    public final class Batch {
+
+        private final List<Function<StringRedisConnection, Object>> commands = new ArrayList<>();
+
+        private Batch() {
+        }
+
+        /** 结果为 String，key 不存在时为 null */
+        public Batch get(String key) {
+            commands.add(connection -> connection.get(key));
+            return this;
+        }
+
+        /** 结果为 Long */
+        public Batch incr(String key) {
+            commands.add(connection -> connection.incr(key));
+            return this;
+        }
+
+        /** 结果为 Long，语义同 {@link RedisSmsRepository#incrWithTtl} */
+        public Batch incrWithTtl(String key, long ttlSeconds) {
+            return script(SmsRedisScripts.INCR_WITH_TTL, Collections.singletonList(key), String.valueOf(ttlSeconds));
+        }
+
+        /** 结果为 Boolean */
+        public Batch expire(String key, long ttlSeconds) {
+            commands.add(connection -> connection.expire(key, ttlSeconds));
+            return this;
+        }
+
+        /** 结果为 Map，key 不存在时为空 Map */
+        public Batch getHash(String key) {
+            commands.add(connection -> connection.hGetAll(key));
+            return this;
+        }
+
+        /**
+         * 写入哈希字段，values 不能为空。状态类命令不返回结果，不占用结果列表中的位置。
+         */
+        public Batch setHash(String key, Map<String, String> values) {
+            Assert.notEmpty(values, "哈希字段不能为空");
+            commands.add(connection -> {
+                connection.hMSet(key, values);
+                return null;
+            });
+            return this;
+        }
+
+        /** 结果为 Long，删除的 key 数 */
+        public Batch del(String key) {
+            commands.add(connection -> connection.del(key));
+            return this;
+        }
+
+        /**
+         * 执行 Lua 脚本。流水线中无法处理 NOSCRIPT 后重试，因此直接发送脚本正文。
+         */
+        public Batch script(RedisScript<?> script, List<String> keys, String... args) {
+            String[] keysAndArgs = new String[keys.size() + args.length];
+            keys.toArray(keysAndArgs);
+            System.arraycopy(args, 0, keysAndArgs, keys.size(), args.length);
+            ReturnType returnType = ReturnType.fromJavaType(script.getResultType());
+            commands.add(connection -> connection.eval(script.getScriptAsString(), returnType, keys.size(), keysAndArgs));
+            return this;
+        }
+
+        public int size() {
+            return commands.size();
+        }
+
+        /**
+         * 一次往返发送全部命令。
+         * @return 按加入顺序排列的命令结果
+         */
+        public List<Object> execute() {
+            if (commands.isEmpty()) {
+                return Collections.emptyList();
+            }
+            return stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                commands.forEach(command -> command.apply(stringConnection));
+                return null;
+            });
+        }
+    }
 }
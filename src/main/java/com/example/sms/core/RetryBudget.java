@@ -0,0 +1,51 @@
+package com.example.sms.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 进程级重试预算。每次发送存入 percent/100 个令牌，每次重试或对冲取出 1 个，余额不超过 capacity。
+ * 服务商整体故障时重试量被限制在发送量的 percent% 加上余额，避免重试放大故障。
+ * 余额以百分之一令牌为单位保存。
+ */
+final class RetryBudget {
+
+    private static final long UNIT = 100;
+
+    private final long percent;
+    private final long capacity;
+    private final AtomicLong balance;
+
+    RetryBudget(int percent, int capacity) {
+        this.percent = percent;
+        this.capacity = capacity * UNIT;
+        this.balance = new AtomicLong(this.capacity);
+    }
+
+    void deposit() {
+        if (percent == 0) {
+            return;
+        }
+        long current;
+        do {
+            current = balance.get();
+            if (current >= capacity) {
+                return;
+            }
+        } while (!balance.compareAndSet(current, Math.min(capacity, current + percent)));
+    }
+
+    boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < UNIT) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - UNIT));
+        return true;
+    }
+
+    long available() {
+        return balance.get() / UNIT;
+    }
+}
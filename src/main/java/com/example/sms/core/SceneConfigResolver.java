@@ -1,5 +1,14 @@
 package com.example.sms.core;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
 import com.example.sms.config.SceneConfig;
@@ -7,26 +16,61 @@ import com.example.sms.config.SmsProperties;
 
 /**
  * 场景配置解析工具，所有外部调用必须先通过 scene 查找配置。
+ * 场景在启动与刷新时编译为不可变的 {@link ScenePlan} 快照，刷新时整体替换引用，进行中的发送不受影响；
+ * 刷新只替换场景，其余 sms 配置需重启生效。
  */
 @Component
 public class SceneConfigResolver {
 
-    private final SmsProperties smsProperties;
+    private static final Logger log = LoggerFactory.getLogger(SceneConfigResolver.class);
+
+    private final Environment environment;
+    private volatile Map<String, ScenePlan> plans;
 
-    public SceneConfigResolver(SmsProperties smsProperties) {
-        this.smsProperties = smsProperties;
+    public SceneConfigResolver(SmsProperties smsProperties, Environment environment) {
+        this.environment = environment;
+        this.plans = compile(smsProperties);
     }
 
     /**
      * 根据 scene 获取配置，未找到抛出业务异常。
      * @param scene 场景编码
-     * @return 场景配置
+     * @return 场景配置的独立副本，修改不影响已编译的场景
      */
     public SceneConfig getRequired(String scene) {
-        SceneConfig config = smsProperties.getScenes().get(scene);
-        if (config == null) {
+        return getPlan(scene).getConfig();
+    }
+
+    /**
+     * 根据 scene 获取预编译的执行计划，未找到抛出业务异常。
+     */
+    public ScenePlan getPlan(String scene) {
+        ScenePlan plan = plans.get(scene);
+        if (plan == null) {
             throw new SmsException(ErrorCode.SCENE_NOT_FOUND, "未找到短信场景:" + scene);
         }
-        return config;
+        return plan;
+    }
+
+    /**
+     * 从当前 Environment 重新绑定并校验 sms 配置，全部场景编译成功后一次性替换快照。
+     * 只有 sms.scenes 会生效；限流后端、线程池、服务商客户端等其余配置在启动时读取，需重启后生效。
+     * classpath 存在 spring-cloud-context 时由 {@code SmsEnvironmentChangeListener} 在配置刷新后调用。
+     * @throws SmsException 新配置不合法时抛出，原快照保持不变
+     */
+    public void reload() {
+        SmsProperties reloaded = Binder.get(environment)
+            .bind("sms", Bindable.of(SmsProperties.class))
+            .orElseThrow(() -> new SmsException(ErrorCode.INVALID_CONFIG, "短信场景配置不能为空"));
+        reloaded.validate();
+        Map<String, ScenePlan> compiled = compile(reloaded);
+        plans = compiled;
+        log.info("Reloaded sms scene plans scenes={}", compiled.keySet());
+    }
+
+    private Map<String, ScenePlan> compile(SmsProperties smsProperties) {
+        Map<String, ScenePlan> compiled = new HashMap<>();
+        smsProperties.getScenes().forEach((scene, config) -> compiled.put(scene, ScenePlan.compile(scene, config)));
+        return Collections.unmodifiableMap(compiled);
     }
 }
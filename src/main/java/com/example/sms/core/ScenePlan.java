@@ -0,0 +1,292 @@
+package com.example.sms.core;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.util.CollectionUtils;
+
+import com.example.sms.config.RateLimitConfig;
+import com.example.sms.config.SceneConfig;
+import com.example.sms.config.SceneConfig.Provider;
+import com.example.sms.config.SceneConfig.SceneType;
+
+/**
+ * 场景的预编译执行计划，创建后不可变，发送路径只读取计划而不再访问配置 Bean。
+ * 白名单预先展开为数组，签名、模板、路由、限流与幂等设置在编译时复制，配置刷新不影响进行中的发送。
+ */
+public final class ScenePlan {
+
+    private final String scene;
+    private final SceneType type;
+    private final String signName;
+    private final String templateCode;
+    private final Provider provider;
+    private final Map<Provider, Integer> providerWeights;
+    private final Provider fallbackProvider;
+    private final String[] paramKeys;
+    /** 按字典序排列的白名单，幂等指纹按此顺序写入参数名，避免每次发送排序 */
+    private final String[] sortedParamKeys;
+    private final String codeParamKey;
+    private final long expireSeconds;
+    private final int codeLength;
+    private final int maxVerifyAttempts;
+    private final RateLimitConfig rateLimit;
+    private final long idempotencyWindowSeconds;
+
+    private ScenePlan(String scene, SceneConfig source) {
+        this.scene = scene;
+        this.type = source.getType();
+        this.signName = source.getSignName();
+        this.templateCode = source.getTemplateCode();
+        this.provider = source.getProvider();
+        this.providerWeights = CollectionUtils.isEmpty(source.getProviderWeights())
+            ? Collections.emptyMap()
+            : Collections.unmodifiableMap(new EnumMap<>(source.getProviderWeights()));
+        this.fallbackProvider = source.getFallbackProvider();
+        this.paramKeys = source.getParamWhitelist().stream().distinct().toArray(String[]::new);
+        this.sortedParamKeys = paramKeys.clone();
+        Arrays.sort(sortedParamKeys);
+        this.codeParamKey = source.getCodeParamKey();
+        this.expireSeconds = source.getExpireSeconds();
+        this.codeLength = source.getCodeLength();
+        this.maxVerifyAttempts = source.getMaxVerifyAttempts();
+        this.rateLimit = new FrozenRateLimitConfig(source.getRateLimit());
+        this.idempotencyWindowSeconds = source.getIdempotencyWindowSeconds();
+    }
+
+    /**
+     * 编译场景配置，调用方需先完成配置校验。
+     */
+    public static ScenePlan compile(String scene, SceneConfig source) {
+        return new ScenePlan(scene, source);
+    }
+
+    /**
+     * 按白名单过滤模板参数，未传参数或未命中任何字段时返回共享的空 Map。
+     * @throws SmsException 验证码场景缺少验证码参数
+     */
+    public Map<String, String> filterParams(Map<String, String> params) {
+        if (CollectionUtils.isEmpty(params)) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> filtered = Collections.emptyMap();
+        for (String key : paramKeys) {
+            String value = params.get(key);
+            if (value != null || params.containsKey(key)) {
+                if (filtered.isEmpty()) {
+                    filtered = new HashMap<>(paramKeys.length * 4 / 3 + 1);
+                }
+                filtered.put(key, value);
+            }
+        }
+        if (type == SceneType.VERIFY_CODE && !filtered.containsKey(codeParamKey)) {
+            throw new SmsException(ErrorCode.INVALID_CONFIG, "验证码场景缺少必要参数");
+        }
+        return filtered;
+    }
+
+    public String getScene() {
+        return scene;
+    }
+
+    public SceneType getType() {
+        return type;
+    }
+
+    public String getSignName() {
+        return signName;
+    }
+
+    public String getTemplateCode() {
+        return templateCode;
+    }
+
+    public Provider getProvider() {
+        return provider;
+    }
+
+    public Map<Provider, Integer> getProviderWeights() {
+        return providerWeights;
+    }
+
+    public Provider getFallbackProvider() {
+        return fallbackProvider;
+    }
+
+    /**
+     * 字典序白名单，仅供包内只读使用。
+     */
+    String[] sortedParamKeys() {
+        return sortedParamKeys;
+    }
+
+    public String getCodeParamKey() {
+        return codeParamKey;
+    }
+
+    public long getExpireSeconds() {
+        return expireSeconds;
+    }
+
+    public int getCodeLength() {
+        return codeLength;
+    }
+
+    public int getMaxVerifyAttempts() {
+        return maxVerifyAttempts;
+    }
+
+    /**
+     * 编译时复制的限流设置，只读，调用任何 setter 抛出 UnsupportedOperationException。
+     */
+    public RateLimitConfig getRateLimit() {
+        return rateLimit;
+    }
+
+    public long getIdempotencyWindowSeconds() {
+        return idempotencyWindowSeconds;
+    }
+
+    /**
+     * 与计划一致的配置副本，供仍以 {@link SceneConfig} 为入参的旧调用方使用。
+     * 每次调用返回新副本，调用方修改不会影响计划或其他调用方。
+     */
+    public SceneConfig getConfig() {
+        return toConfig();
+    }
+
+    private SceneConfig toConfig() {
+        SceneConfig copy = new SceneConfig();
+        copy.setSignName(signName);
+        copy.setTemplateCode(templateCode);
+        copy.setProvider(provider);
+        copy.setProviderWeights(providerWeights.isEmpty() ? null : providerWeights);
+        copy.setFallbackProvider(fallbackProvider);
+        copy.setType(type);
+        copy.setExpireSeconds(expireSeconds);
+        copy.setCodeParamKey(codeParamKey);
+        copy.setCodeLength(codeLength);
+        copy.setMaxVerifyAttempts(maxVerifyAttempts);
+        copy.setParamWhitelist(Collections.unmodifiableList(Arrays.asList(paramKeys.clone())));
+        copy.setRateLimit(copy(rateLimit));
+        copy.setIdempotencyWindowSeconds(idempotencyWindowSeconds);
+        return copy;
+    }
+
+    private static RateLimitConfig copy(RateLimitConfig source) {
+        RateLimitConfig copy = new RateLimitConfig();
+        if (source != null) {
+            copy.setPerMobileIntervalSeconds(source.getPerMobileIntervalSeconds());
+            copy.setPerMobileDayLimit(source.getPerMobileDayLimit());
+            copy.setPerIpMinuteLimit(source.getPerIpMinuteLimit());
+            copy.setAlgorithm(source.getAlgorithm());
+            copy.setPerMobileBurst(source.getPerMobileBurst());
+            copy.setPerIpBurst(source.getPerIpBurst());
+            copy.setLeasePermits(source.getLeasePermits());
+        }
+        return copy;
+    }
+
+    /**
+     * 编译时取值的只读限流设置，取值保存在 final 字段中，setter 一律拒绝，
+     * 共享计划的发送线程之间不会互相修改限流参数。
+     */
+    private static final class FrozenRateLimitConfig extends RateLimitConfig {
+
+        private final Algorithm algorithm;
+        private final long perMobileIntervalSeconds;
+        private final long perMobileDayLimit;
+        private final long perIpMinuteLimit;
+        private final long perMobileBurst;
+        private final long perIpBurst;
+        private final long leasePermits;
+
+        private FrozenRateLimitConfig(RateLimitConfig source) {
+            RateLimitConfig values = source != null ? source : new RateLimitConfig();
+            this.algorithm = values.getAlgorithm();
+            this.perMobileIntervalSeconds = values.getPerMobileIntervalSeconds();
+            this.perMobileDayLimit = values.getPerMobileDayLimit();
+            this.perIpMinuteLimit = values.getPerIpMinuteLimit();
+            this.perMobileBurst = values.getPerMobileBurst();
+            this.perIpBurst = values.getPerIpBurst();
+            this.leasePermits = values.getLeasePermits();
+        }
+
+        @Override
+        public Algorithm getAlgorithm() {
+            return algorithm;
+        }
+
+        @Override
+        public void setAlgorithm(Algorithm algorithm) {
+            throw readOnly();
+        }
+
+        @Override
+        public long getPerMobileIntervalSeconds() {
+            return perMobileIntervalSeconds;
+        }
+
+        @Override
+        public void setPerMobileIntervalSeconds(long perMobileIntervalSeconds) {
+            throw readOnly();
+        }
+
+        @Override
+        public long getPerMobileDayLimit() {
+            return perMobileDayLimit;
+        }
+
+        @Override
+        public void setPerMobileDayLimit(long perMobileDayLimit) {
+            throw readOnly();
+        }
+
+        @Override
+        public long getPerIpMinuteLimit() {
+            return perIpMinuteLimit;
+        }
+
+        @Override
+        public void setPerIpMinuteLimit(long perIpMinuteLimit) {
+            throw readOnly();
+        }
+
+        @Override
+        public long getPerMobileBurst() {
+            return perMobileBurst;
+        }
+
+        @Override
+        public void setPerMobileBurst(long perMobileBurst) {
+            throw readOnly();
+        }
+
+        @Override
+        public long getPerIpBurst() {
+            return perIpBurst;
+        }
+
+        @Override
+        public void setPerIpBurst(long perIpBurst) {
+            throw readOnly();
+        }
+
+        @Override
+        public long getLeasePermits() {
+            return leasePermits;
+        }
+
+        @Override
+        public void setLeasePermits(long leasePermits) {
+            throw readOnly();
+        }
+
+        private static UnsupportedOperationException readOnly() {
+            return new UnsupportedOperationException("场景计划的限流设置只读，请修改配置后重新编译计划");
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.sms.core;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 一条定时发送的通知短信，参数已经过白名单过滤，到期发送时仍做限流与幂等校验。
+ * 到期时间由存储保存（ZSET 分值或日志行），不包含在消息内容中。
+ */
+public final class ScheduledSend {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, String>> FIELDS_TYPE = new TypeReference<Map<String, String>>() {
+    };
+
+    private final String id;
+    private final String scene;
+    private final String mobile;
+    private final Map<String, String> params;
+    private final String clientIp;
+    private final int attempt;
+    private final long dueAt;
+
+    private ScheduledSend(String id, String scene, String mobile, Map<String, String> params, String clientIp,
+                          int attempt, long dueAt) {
+        this.id = id;
+        this.scene = scene;
+        this.mobile = mobile;
+        this.params = params;
+        this.clientIp = clientIp;
+        this.attempt = attempt;
+        this.dueAt = dueAt;
+    }
+
+    static ScheduledSend create(String scene, String mobile, Map<String, String> params, String clientIp, long dueAt) {
+        return new ScheduledSend(UUID.randomUUID().toString().replace("-", ""), scene, mobile,
+            params == null ? Collections.emptyMap() : params, clientIp, 0, dueAt);
+    }
+
+    /**
+     * 下一次发送，发送次数加一。
+     */
+    ScheduledSend retryAt(long dueAt) {
+        return new ScheduledSend(id, scene, mobile, params, clientIp, attempt + 1, dueAt);
+    }
+
+    ScheduledSend withDueAt(long dueAt) {
+        return new ScheduledSend(id, scene, mobile, params, clientIp, attempt, dueAt);
+    }
+
+    String toJson() {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("id", id);
+        fields.put("scene", scene);
+        fields.put("mobile", mobile);
+        fields.put("params", writeJson(params));
+        fields.put("clientIp", clientIp == null ? "" : clientIp);
+        fields.put("attempt", String.valueOf(attempt));
+        return writeJson(fields);
+    }
+
+    static ScheduledSend fromJson(String json, long dueAt) {
+        Map<String, String> fields = readJson(json);
+        String clientIp = fields.get("clientIp");
+        return new ScheduledSend(
+            fields.get("id"),
+            fields.get("scene"),
+            fields.get("mobile"),
+            readJson(fields.get("params")),
+            clientIp == null || clientIp.isEmpty() ? null : clientIp,
+            Integer.parseInt(fields.get("attempt")),
+            dueAt);
+    }
+
+    private static String writeJson(Map<String, String> map) {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(map);
+        } catch (JsonProcessingException ex) {
+            throw new SmsException(ErrorCode.CLIENT_ERROR, "定时发送消息序列化失败", ex);
+        }
+    }
+
+    private static Map<String, String> readJson(String json) {
+        if (json == null || json.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        try {
+            return OBJECT_MAPPER.readValue(json, FIELDS_TYPE);
+        } catch (JsonProcessingException ex) {
+            throw new SmsException(ErrorCode.CLIENT_ERROR, "定时发送消息反序列化失败", ex);
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getScene() {
+        return scene;
+    }
+
+    public String getMobile() {
+        return mobile;
+    }
+
+    public Map<String, String> getParams() {
+        return params;
+    }
+
+    public String getClientIp() {
+        return clientIp;
+    }
+
+    public int getAttempt() {
+        return attempt;
+    }
+
+    public long getDueAt() {
+        return dueAt;
+    }
+}
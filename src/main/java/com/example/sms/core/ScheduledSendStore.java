@@ -0,0 +1,38 @@
+package com.example.sms.core;
+
+import java.util.List;
+
+/**
+ * 定时发送存储。消息被认领后进入租约期，完成、重新排期或租约过期前不会被再次认领；
+ * 租约过期的消息视为持有节点失联，重新排期为立即到期。
+ */
+public interface ScheduledSendStore {
+
+    /**
+     * 按消息的到期时间登记。
+     */
+    void add(ScheduledSend send);
+
+    /**
+     * 取消尚未被认领的消息。
+     * @return 消息已进入发送窗口或不存在时返回 false
+     */
+    boolean cancel(String id);
+
+    /**
+     * 按到期时间升序认领不晚于 untilMillis 到期的消息，读取量只与返回条数有关。
+     * @param leaseMillis 到期后的租约时长
+     */
+    List<ScheduledSend> claim(long untilMillis, long leaseMillis, int max);
+
+    /**
+     * 发送完成（成功或放弃），删除消息。
+     * @return 消息仍处于认领中并已删除时返回 true；租约已过期被移回待发送队列或已被再次认领时返回 false，消息仍会再次发送
+     */
+    boolean complete(ScheduledSend send);
+
+    /**
+     * 结束当前认领，按 next 的到期时间重新排期。
+     */
+    void reschedule(ScheduledSend next);
+}
@@ -0,0 +1,286 @@
+package com.example.sms.core;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import com.example.sms.config.SmsProperties;
+import com.example.sms.config.SmsProperties.JournalProperties;
+
+/**
+ * 发送审计日志。发送线程只把字段填入预分配的环形缓冲槽位（无锁、无格式化），
+ * 单个后台线程负责脱敏、编码并写入内存映射的分段文件，分段写满后切换，超过保留数时删除最早的分段。
+ * 缓冲写满时丢弃新记录并计数，从不阻塞发送。格式见 {@link JournalFormat}，查询见 {@link SendJournalReader}。
+ */
+@Component
+public class SendJournal implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SendJournal.class);
+
+    /** 缓冲为空时写线程的休眠时间，发送线程不负责唤醒 */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final JournalProperties properties;
+    private final Path directory;
+    /** 未开启时为 null，不占用内存 */
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    /** 仅写线程修改 */
+    private long head;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean running;
+
+    private MappedByteBuffer segment;
+    private int segmentSequence;
+
+    public SendJournal(SmsProperties smsProperties, SmsMetrics smsMetrics) {
+        this.properties = smsProperties.getJournal();
+        this.directory = Paths.get(properties.getDirectory());
+        if (!properties.isEnabled()) {
+            this.slots = null;
+            this.mask = 0;
+            this.writer = null;
+            return;
+        }
+        int capacity = Integer.highestOneBit(Math.max(2, properties.getRingCapacity()) - 1) << 1;
+        this.slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot(i);
+        }
+        this.mask = capacity - 1;
+        try {
+            Files.createDirectories(directory);
+            rotate(System.currentTimeMillis());
+        } catch (IOException ex) {
+            throw new SmsException(ErrorCode.INVALID_CONFIG, "发送审计日志目录不可用：" + directory, ex);
+        }
+        smsMetrics.gauge("sms.journal.dropped", "journal", "send", dropped::get);
+        smsMetrics.gauge("sms.journal.backlog", "journal", "send", () -> tail.get() - head);
+        this.running = true;
+        this.writer = new Thread(this::drain, "sms-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * 登记一次服务商调用，只做字段赋值，脱敏与编码在写线程完成。
+     * @param errorCode 失败时的错误码，成功传 null
+     */
+    public void record(String scene, String provider, String mobile, String bizId, String providerCode,
+                       ErrorCode errorCode, long latencyNanos) {
+        if (!running) {
+            return;
+        }
+        while (true) {
+            long claim = tail.get();
+            Slot slot = slots[(int) claim & mask];
+            long sequence = slot.sequence;
+            if (sequence < claim) {
+                dropped.incrementAndGet();
+                return;
+            }
+            if (sequence == claim && tail.compareAndSet(claim, claim + 1)) {
+                slot.timestampMillis = System.currentTimeMillis();
+                slot.latencyNanos = latencyNanos;
+                slot.scene = scene;
+                slot.provider = provider;
+                slot.mobile = mobile;
+                slot.bizId = bizId;
+                slot.providerCode = providerCode;
+                slot.errorCode = errorCode;
+                slot.sequence = claim + 1;
+                return;
+            }
+        }
+    }
+
+    /**
+     * 当前分段之前已写入的记录在页缓存中即可被 {@link SendJournalReader} 读取，此处只在停止时落盘。
+     */
+    private void drain() {
+        while (running || head != tail.get()) {
+            Slot slot = slots[(int) head & mask];
+            if (slot.sequence != head + 1) {
+                if (!running) {
+                    // 已停止：槽位已被认领但尚未填完，稍候再读
+                    Thread.yield();
+                    continue;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            try {
+                write(slot);
+            } catch (IOException | RuntimeException ex) {
+                log.warn("Write send journal failed, record dropped, err={}", ex.toString());
+            }
+            slot.scene = null;
+            slot.provider = null;
+            slot.mobile = null;
+            slot.bizId = null;
+            slot.providerCode = null;
+            slot.errorCode = null;
+            slot.sequence = head + slots.length;
+            head++;
+        }
+        segment.force();
+    }
+
+    private void write(Slot slot) throws IOException {
+        byte[] scene = encode(slot.scene);
+        byte[] provider = encode(slot.provider);
+        byte[] mobile = encode(mask(slot.mobile));
+        byte[] bizId = encode(slot.bizId);
+        byte[] providerCode = encode(slot.providerCode);
+        byte[] errorCode = encode(slot.errorCode == null ? null : slot.errorCode.name());
+        int length = JournalFormat.RECORD_HEADER_BYTES + sizeOf(scene) + sizeOf(provider) + sizeOf(mobile)
+            + sizeOf(bizId) + sizeOf(providerCode) + sizeOf(errorCode);
+        if (length + 4 > properties.getSegmentBytes() - JournalFormat.FILE_HEADER_BYTES) {
+            throw new IllegalArgumentException("record exceeds segment size, length=" + length);
+        }
+        if (segment.remaining() < length + 4) {
+            // 预留 4 字节保证分段末尾可以读到长度 0
+            rotate(slot.timestampMillis);
+        }
+        int start = segment.position();
+        segment.position(start + 4);
+        segment.putLong(slot.timestampMillis);
+        segment.putInt((int) Math.min(Integer.MAX_VALUE, TimeUnit.NANOSECONDS.toMicros(slot.latencyNanos)));
+        segment.put(slot.errorCode == null ? JournalFormat.SUCCESS : 0);
+        put(scene);
+        put(provider);
+        put(mobile);
+        put(bizId);
+        put(providerCode);
+        put(errorCode);
+        segment.putInt(start, length);
+    }
+
+    private void rotate(long startMillis) throws IOException {
+        if (segment != null) {
+            segment.force();
+        }
+        Path path = directory.resolve(JournalFormat.segmentName(startMillis, segmentSequence++));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, properties.getSegmentBytes());
+        }
+        segment.putInt(JournalFormat.MAGIC);
+        segment.putShort(JournalFormat.VERSION);
+        deleteExpiredSegments();
+    }
+
+    /**
+     * 映射在缓冲对象被回收前不会释放，Windows 上删除仍被映射的分段会失败，留待下次切换时重试。
+     */
+    private void deleteExpiredSegments() throws IOException {
+        List<Path> segments = JournalFormat.segments(directory);
+        for (int i = 0; i < segments.size() - properties.getMaxSegments(); i++) {
+            try {
+                Files.deleteIfExists(segments.get(i));
+            } catch (IOException ex) {
+                log.warn("Delete expired send journal segment failed path={}, err={}", segments.get(i), ex.toString());
+            }
+        }
+    }
+
+    private void put(byte[] value) {
+        if (value == null) {
+            segment.putShort((short) -1);
+            return;
+        }
+        segment.putShort((short) value.length);
+        segment.put(value);
+    }
+
+    private static int sizeOf(byte[] value) {
+        return 2 + (value == null ? 0 : value.length);
+    }
+
+    /**
+     * 超长时按字符边界截断，不拆开多字节字符，读取端解码不会出现替换字符。
+     */
+    private static byte[] encode(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= JournalFormat.MAX_STRING_BYTES) {
+            return bytes;
+        }
+        int length = JournalFormat.MAX_STRING_BYTES;
+        // 截断位置落在后续字节（10xxxxxx）上时回退到该字符的首字节之前
+        while (length > 0 && (bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        byte[] truncated = new byte[length];
+        System.arraycopy(bytes, 0, truncated, 0, length);
+        return truncated;
+    }
+
+    /**
+     * 与发送日志相同的脱敏规则。
+     */
+    private static String mask(String mobile) {
+        if (mobile == null) {
+            return null;
+        }
+        if (StringUtils.length(mobile) < 7) {
+            return "**" + StringUtils.right(mobile, 2);
+        }
+        return StringUtils.left(mobile, 3) + "****" + StringUtils.right(mobile, 2);
+    }
+
+    /**
+     * 停止接收新记录，写完缓冲中的记录并落盘。
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * 预分配的缓冲槽位。sequence 等于认领序号时可被认领，等于认领序号 + 1 时已填好待写入。
+     */
+    private static final class Slot {
+
+        private volatile long sequence;
+        private long timestampMillis;
+        private long latencyNanos;
+        private String scene;
+        private String provider;
+        private String mobile;
+        private String bizId;
+        private String providerCode;
+        private ErrorCode errorCode;
+
+        private Slot(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+}
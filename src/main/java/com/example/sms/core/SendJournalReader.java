@@ -0,0 +1,144 @@
+package com.example.sms.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 发送审计日志查询，可在写入进程运行时读取，也可离线读取拷贝出的分段目录。
+ * 按文件名中的起始时间跳过时间范围之外的分段，场景按字节比较，只为命中的记录解码字符串。
+ * 例如最近一小时某场景的全部失败：
+ * <pre>
+ * reader.find(now - 3_600_000, now, "login", true, 1000);
+ * </pre>
+ */
+public class SendJournalReader {
+
+    /** 分段起始时间取自首条记录，记录时间戳可能略早于分段名，留出余量 */
+    private static final long SEGMENT_SKEW_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final Path directory;
+
+    public SendJournalReader(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * 按时间顺序回调时间范围内的记录。
+     * @param fromMillis 起始时间（含）
+     * @param toMillis 结束时间（不含）
+     * @param scene 场景，null 表示全部场景
+     * @param failuresOnly 是否只返回失败记录
+     */
+    public void scan(long fromMillis, long toMillis, String scene, boolean failuresOnly,
+                     Consumer<JournalRecord> consumer) throws IOException {
+        byte[] sceneBytes = scene == null ? null : scene.getBytes(StandardCharsets.UTF_8);
+        List<Path> segments = JournalFormat.segments(directory);
+        for (int i = 0; i < segments.size(); i++) {
+            if (JournalFormat.startMillis(segments.get(i)) - SEGMENT_SKEW_MILLIS >= toMillis) {
+                break;
+            }
+            if (i + 1 < segments.size()
+                && JournalFormat.startMillis(segments.get(i + 1)) + SEGMENT_SKEW_MILLIS < fromMillis) {
+                continue;
+            }
+            scanSegment(segments.get(i), fromMillis, toMillis, sceneBytes, failuresOnly, consumer);
+        }
+    }
+
+    /**
+     * 同 {@link #scan}，最多返回 limit 条。
+     */
+    public List<JournalRecord> find(long fromMillis, long toMillis, String scene, boolean failuresOnly,
+                                    int limit) throws IOException {
+        List<JournalRecord> records = new ArrayList<>();
+        try {
+            scan(fromMillis, toMillis, scene, failuresOnly, record -> {
+                records.add(record);
+                if (records.size() >= limit) {
+                    throw new LimitReached();
+                }
+            });
+        } catch (LimitReached ignored) {
+            // 已取满
+        }
+        return records;
+    }
+
+    private void scanSegment(Path segment, long fromMillis, long toMillis, byte[] scene, boolean failuresOnly,
+                             Consumer<JournalRecord> consumer) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.remaining() < JournalFormat.FILE_HEADER_BYTES || buffer.getInt() != JournalFormat.MAGIC) {
+            return;
+        }
+        if (buffer.getShort() != JournalFormat.VERSION) {
+            return;
+        }
+        while (buffer.remaining() >= JournalFormat.RECORD_HEADER_BYTES) {
+            int start = buffer.position();
+            int length = buffer.getInt(start);
+            if (length < JournalFormat.RECORD_HEADER_BYTES || length > buffer.limit() - start) {
+                // 0 为分段末尾或正在写入的记录
+                return;
+            }
+            buffer.position(start + 4);
+            long timestamp = buffer.getLong();
+            int latencyMicros = buffer.getInt();
+            boolean success = (buffer.get() & JournalFormat.SUCCESS) != 0;
+            if (timestamp >= fromMillis && timestamp < toMillis && !(failuresOnly && success)
+                && matches(buffer, scene)) {
+                consumer.accept(new JournalRecord(timestamp, latencyMicros, success, readString(buffer),
+                    readString(buffer), readString(buffer), readString(buffer), readString(buffer),
+                    readString(buffer)));
+            }
+            buffer.position(start + length);
+        }
+    }
+
+    /**
+     * 比较场景字段而不移动读取位置。
+     */
+    private static boolean matches(ByteBuffer buffer, byte[] scene) {
+        if (scene == null) {
+            return true;
+        }
+        int position = buffer.position();
+        if (buffer.getShort(position) != scene.length) {
+            return false;
+        }
+        for (int i = 0; i < scene.length; i++) {
+            if (buffer.get(position + 2 + i) != scene[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class LimitReached extends RuntimeException {
+
+        private LimitReached() {
+            super(null, null, false, false);
+        }
+    }
+}
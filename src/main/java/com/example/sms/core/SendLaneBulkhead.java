@@ -0,0 +1,166 @@
+package com.example.sms.core;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.stereotype.Component;
+
+import com.example.sms.config.SceneConfig.SceneType;
+import com.example.sms.config.SmsProperties;
+import com.example.sms.config.SmsProperties.LaneProperties;
+
+/**
+ * 按场景类型隔离的服务商调用并发。两个通道共用 maxConcurrent 个并发，通知通道最多使用其中 maxConcurrent - verifyReserved 个；
+ * 并发占满时调用方在本通道的有界队列中等待，释放的并发优先唤醒验证码，验证码有人等待时通知不能插队。
+ * 队列已满或等待超时时抛出 LANE_SATURATED，请求未发出，可稍后重试。
+ */
+@Component
+public class SendLaneBulkhead {
+
+    private final LaneProperties properties;
+    private final SmsMetrics smsMetrics;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<SceneType, Lane> lanes = new EnumMap<>(SceneType.class);
+    /** 两个通道合计的占用数，由 lock 保护 */
+    private int inUse;
+
+    public SendLaneBulkhead(SmsProperties smsProperties, SmsMetrics smsMetrics) {
+        this.properties = smsProperties.getLane();
+        this.smsMetrics = smsMetrics;
+        if (!properties.isEnabled()) {
+            return;
+        }
+        lanes.put(SceneType.VERIFY_CODE, new Lane(SceneType.VERIFY_CODE, properties.getMaxConcurrent(),
+            properties.getVerifyMaxQueue(), properties.getVerifyMaxWaitMillis()));
+        lanes.put(SceneType.NOTIFY, new Lane(SceneType.NOTIFY, properties.getMaxConcurrent() - properties.getVerifyReserved(),
+            properties.getNotifyMaxQueue(), properties.getNotifyMaxWaitMillis()));
+    }
+
+    /**
+     * 占用一个本通道的并发，必要时排队等待，调用结束后必须调用 {@link Permit#release()}。
+     * @throws SmsException 排队已满或等待超时抛出 LANE_SATURATED
+     */
+    public Permit acquire(SceneType type) {
+        if (!properties.isEnabled()) {
+            return Permit.NOOP;
+        }
+        Lane lane = lanes.get(type);
+        lock.lock();
+        try {
+            if (!lane.admissible()) {
+                if (lane.waiting >= lane.maxQueue) {
+                    throw lane.saturated("排队已满");
+                }
+                long remaining = TimeUnit.MILLISECONDS.toNanos(lane.maxWaitMillis);
+                lane.waiting++;
+                try {
+                    while (!lane.admissible()) {
+                        if (remaining <= 0) {
+                            throw lane.saturated("排队超时");
+                        }
+                        remaining = lane.available.awaitNanos(remaining);
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new SmsException(ErrorCode.CLIENT_ERROR, "等待发送通道时被中断", ex);
+                } finally {
+                    lane.waiting--;
+                    if (lane.type == SceneType.VERIFY_CODE && lane.waiting == 0) {
+                        // 验证码排队清空后，被其挡住的通知可以继续尝试
+                        lanes.get(SceneType.NOTIFY).available.signal();
+                    }
+                }
+            }
+            lane.inUse++;
+            inUse++;
+            return () -> release(lane);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(Lane lane) {
+        lock.lock();
+        try {
+            lane.inUse--;
+            inUse--;
+            Lane verify = lanes.get(SceneType.VERIFY_CODE);
+            if (verify.waiting > 0) {
+                verify.available.signal();
+            } else {
+                lanes.get(SceneType.NOTIFY).available.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int inUse(Lane lane) {
+        lock.lock();
+        try {
+            return lane.inUse;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int waiting(Lane lane) {
+        lock.lock();
+        try {
+            return lane.waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 单次调用占用的通道并发。
+     */
+    public interface Permit {
+
+        Permit NOOP = () -> {
+        };
+
+        void release();
+    }
+
+    private final class Lane {
+
+        private final SceneType type;
+        private final String name;
+        private final int limit;
+        private final int maxQueue;
+        private final long maxWaitMillis;
+        private final Condition available = lock.newCondition();
+        private int inUse;
+        private int waiting;
+
+        private Lane(SceneType type, int limit, int maxQueue, long maxWaitMillis) {
+            this.type = type;
+            this.name = type.name().toLowerCase(Locale.ROOT);
+            this.limit = limit;
+            this.maxQueue = maxQueue;
+            this.maxWaitMillis = maxWaitMillis;
+            smsMetrics.gauge("sms.lane.in_flight", "lane", name, () -> inUse(this));
+            smsMetrics.gauge("sms.lane.waiting", "lane", name, () -> waiting(this));
+        }
+
+        /**
+         * 总并发与本通道上限都有空余，通知通道还要求没有等待中的验证码。
+         */
+        private boolean admissible() {
+            if (inUse >= limit || SendLaneBulkhead.this.inUse >= properties.getMaxConcurrent()) {
+                return false;
+            }
+            return type == SceneType.VERIFY_CODE || lanes.get(SceneType.VERIFY_CODE).waiting == 0;
+        }
+
+        private SmsException saturated(String reason) {
+            return new SmsException(ErrorCode.LANE_SATURATED, "发送通道" + reason + "：" + name);
+        }
+    }
+}
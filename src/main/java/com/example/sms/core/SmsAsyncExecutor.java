@@ -0,0 +1,239 @@
+package com.example.sms.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import com.example.sms.config.SceneConfig.SceneType;
+import com.example.sms.config.SmsProperties;
+import com.example.sms.config.SmsProperties.AsyncProperties;
+import com.example.sms.config.SmsProperties.LaneProperties;
+
+/**
+ * 短信异步发送专用线程池，线程数与队列均有界，队列满时按配置拒绝或由调用方执行。
+ * 开启发送通道隔离时验证码使用独立的小线程池，不受通知积压影响，队列满时直接拒绝。
+ * 开启虚拟线程且运行时支持时，每个任务使用一个虚拟线程，阻塞的服务商与 Redis 调用不再占用平台线程，
+ * 在途任务数改由信号量限制。
+ */
+@Component
+public class SmsAsyncExecutor implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SmsAsyncExecutor.class);
+
+    private final Executor executor;
+    /** 验证码专用执行器，未开启发送通道隔离时为 null */
+    private final Executor verifyExecutor;
+    private final List<ExecutorService> owned = new ArrayList<>(2);
+
+    public SmsAsyncExecutor(SmsProperties smsProperties) {
+        AsyncProperties async = smsProperties.getAsync();
+        LaneProperties lane = smsProperties.getLane();
+        if (async.isVirtualThreads()) {
+            if (VirtualThreads.isSupported()) {
+                boolean callerRuns = async.getRejectPolicy() == AsyncProperties.RejectPolicy.CALLER_RUNS;
+                this.executor = virtualExecutor("sms-async-", async.getVirtualMaxConcurrent(), callerRuns);
+                this.verifyExecutor = lane.isEnabled()
+                    ? virtualExecutor("sms-async-verify-", lane.getVerifyAsyncThreads() + lane.getVerifyAsyncQueueCapacity(), false)
+                    : null;
+                log.info("Async sms executor uses virtual threads, maxConcurrent={}", async.getVirtualMaxConcurrent());
+                return;
+            }
+            log.warn("Virtual threads require Java 21+, running on {}; falling back to the platform thread pool",
+                System.getProperty("java.version"));
+        }
+        BlockingQueue<Runnable> queue = async.getQueueCapacity() > 0
+            ? new ArrayBlockingQueue<>(async.getQueueCapacity())
+            : new SynchronousQueue<>();
+        RejectedExecutionHandler handler = async.getRejectPolicy() == AsyncProperties.RejectPolicy.CALLER_RUNS
+            ? new CallerRunsUnlessShutdownPolicy()
+            : new ThreadPoolExecutor.AbortPolicy();
+        this.verifyExecutor = lane.isEnabled() ? own(verifyExecutor(lane)) : null;
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = own(new ThreadPoolExecutor(
+            async.getCorePoolSize(),
+            Math.max(async.getCorePoolSize(), async.getMaxPoolSize()),
+            async.getKeepAliveSeconds(),
+            TimeUnit.SECONDS,
+            queue,
+            runnable -> {
+                Thread thread = new Thread(runnable, "sms-async-" + sequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            handler));
+    }
+
+    private ExecutorService own(ExecutorService executorService) {
+        owned.add(executorService);
+        return executorService;
+    }
+
+    private Executor virtualExecutor(String prefix, int maxConcurrent, boolean callerRuns) {
+        return new BoundedExecutor(own(VirtualThreads.newThreadPerTaskExecutor(prefix)), maxConcurrent, callerRuns);
+    }
+
+    private static ThreadPoolExecutor verifyExecutor(LaneProperties lane) {
+        BlockingQueue<Runnable> queue = lane.getVerifyAsyncQueueCapacity() > 0
+            ? new ArrayBlockingQueue<>(lane.getVerifyAsyncQueueCapacity())
+            : new SynchronousQueue<>();
+        AtomicInteger sequence = new AtomicInteger();
+        return new ThreadPoolExecutor(lane.getVerifyAsyncThreads(), lane.getVerifyAsyncThreads(), 0, TimeUnit.SECONDS, queue,
+            runnable -> {
+                Thread thread = new Thread(runnable, "sms-async-verify-" + sequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 提交前的容量预检，调用方在消耗限流额度等不可退还的资源前调用，避免额度已扣减而任务被拒绝。
+     * 只是尽力判断，并发提交时 {@link #submit} 仍可能拒绝。
+     * @throws SmsException 执行器已关闭，或队列已满且策略为拒绝时抛出 ASYNC_REJECTED
+     */
+    public void ensureCapacity(SceneType type) {
+        Executor target = verifyExecutor != null && type == SceneType.VERIFY_CODE ? verifyExecutor : executor;
+        if (!hasCapacity(target)) {
+            throw new SmsException(ErrorCode.ASYNC_REJECTED, "异步发送队列已满或已关闭");
+        }
+    }
+
+    private static boolean hasCapacity(Executor target) {
+        if (target instanceof BoundedExecutor) {
+            return ((BoundedExecutor) target).hasCapacity();
+        }
+        ThreadPoolExecutor pool = (ThreadPoolExecutor) target;
+        if (pool.isShutdown()) {
+            return false;
+        }
+        return pool.getRejectedExecutionHandler() instanceof CallerRunsUnlessShutdownPolicy
+            || pool.getActiveCount() < pool.getMaximumPoolSize()
+            || pool.getQueue().remainingCapacity() > 0;
+    }
+
+    /**
+     * 提交异步任务，调用方的 MDC 上下文会透传到工作线程。
+     * @throws SmsException 执行器已关闭，或队列已满且策略为拒绝时抛出 ASYNC_REJECTED
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return submit(executor, task);
+    }
+
+    /**
+     * 按场景类型提交异步任务，开启发送通道隔离时验证码进入专用线程池。
+     * @throws SmsException 执行器已关闭，或队列已满且策略为拒绝时抛出 ASYNC_REJECTED
+     */
+    public <T> CompletableFuture<T> submit(SceneType type, Supplier<T> task) {
+        return submit(verifyExecutor != null && type == SceneType.VERIFY_CODE ? verifyExecutor : executor, task);
+    }
+
+    private <T> CompletableFuture<T> submit(Executor target, Supplier<T> task) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                Map<String, String> previous = MDC.getCopyOfContextMap();
+                setContext(context);
+                try {
+                    return task.get();
+                } finally {
+                    setContext(previous);
+                }
+            }, target);
+        } catch (RejectedExecutionException ex) {
+            throw new SmsException(ErrorCode.ASYNC_REJECTED, "异步发送队列已满或已关闭", ex);
+        }
+    }
+
+    private void setContext(Map<String, String> context) {
+        if (context == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(context);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        owned.forEach(ExecutorService::shutdown);
+    }
+
+    /**
+     * 队列满时由调用方执行；与 {@link ThreadPoolExecutor.CallerRunsPolicy} 不同，线程池已关闭时抛出拒绝异常，
+     * 而不是静默丢弃任务，否则调用方拿到的 future 永远不会完成。
+     */
+    private static final class CallerRunsUnlessShutdownPolicy implements RejectedExecutionHandler {
+
+        @Override
+        public void rejectedExecution(Runnable command, ThreadPoolExecutor pool) {
+            if (pool.isShutdown()) {
+                throw new RejectedExecutionException("sms async executor has been shut down");
+            }
+            command.run();
+        }
+    }
+
+    /**
+     * 虚拟线程执行器不排队，在途任务达到上限时拒绝或由调用方执行，与线程池的拒绝策略一致；已关闭时总是拒绝。
+     */
+    private static final class BoundedExecutor implements Executor {
+
+        private final ExecutorService delegate;
+        private final Semaphore permits;
+        private final boolean callerRuns;
+
+        private BoundedExecutor(ExecutorService delegate, int maxConcurrent, boolean callerRuns) {
+            this.delegate = delegate;
+            this.permits = new Semaphore(maxConcurrent);
+            this.callerRuns = callerRuns;
+        }
+
+        private boolean hasCapacity() {
+            return !delegate.isShutdown() && (callerRuns || permits.availablePermits() > 0);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (delegate.isShutdown()) {
+                throw new RejectedExecutionException("virtual thread executor has been shut down");
+            }
+            if (!permits.tryAcquire()) {
+                if (!callerRuns) {
+                    throw new RejectedExecutionException("virtual thread executor saturated");
+                }
+                command.run();
+                return;
+            }
+            try {
+                delegate.execute(() -> {
+                    try {
+                        command.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                permits.release();
+                throw ex;
+            }
+        }
+    }
+}
@@ -6,18 +6,35 @@ package com.example.sms.core;
 public class SmsException extends RuntimeException {
 
     private final ErrorCode errorCode;
+    private final long retryAfterMillis;
 
     public SmsException(ErrorCode errorCode, String message) {
+        this(errorCode, message, 0L);
+    }
+
+    /**
+     * @param retryAfterMillis 建议的最短重试等待时间，单位毫秒，0 表示未知
+     */
+    public SmsException(ErrorCode errorCode, String message, long retryAfterMillis) {
         super(message);
         this.errorCode = errorCode;
+        this.retryAfterMillis = retryAfterMillis;
     }
 
     public SmsException(ErrorCode errorCode, String message, Throwable cause) {
         super(message, cause);
         this.errorCode = errorCode;
+        this.retryAfterMillis = 0L;
     }
 
     public ErrorCode getErrorCode() {
         return errorCode;
     }
+
+    /**
+     * 建议的最短重试等待时间，单位毫秒，0 表示未知；目前由限流拒绝给出。
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
 }
@@ -0,0 +1,87 @@
+package com.example.sms.core;
+
+import java.util.function.Supplier;
+
+/**
+ * 短信指标埋点，默认空实现；存在 MeterRegistry 时由 {@link MicrometerSmsMetrics} 接管。
+ * 本接口不依赖 Micrometer，未引入 Micrometer 时可正常加载。
+ */
+public interface SmsMetrics {
+
+    /** 空实现 */
+    SmsMetrics NOOP = new SmsMetrics() {
+    };
+
+    /**
+     * 记录一次服务商调用耗时。
+     * @param scene 场景编码，非场景调用时为空
+     * @param provider 服务商
+     * @param code 服务商返回码，调用异常时为映射后的错误码
+     * @param nanos 耗时，单位纳秒
+     */
+    default void recordSend(String scene, String provider, String code, long nanos) {
+    }
+
+    /**
+     * 记录一次发送失败。
+     */
+    default void recordError(String scene, ErrorCode errorCode) {
+    }
+
+    /**
+     * 记录一次限流拒绝。
+     */
+    default void recordRateLimited(String scene, RateLimitRule rule) {
+    }
+
+    /**
+     * 记录一次出站配额预约。
+     * @param waitMicros 等待配额的时间，单位微秒
+     * @param rejected 是否因超过最长等待时间未发送
+     */
+    default void recordProviderQuota(String provider, long waitMicros, boolean rejected) {
+    }
+
+    /**
+     * 记录一次热点检测命中。
+     * @param dimension 命中的维度，ip 或 mobile
+     * @param rejected 是否拒绝了本次发送
+     */
+    default void recordAbuseSuspected(String scene, String dimension, boolean rejected) {
+    }
+
+    /**
+     * 记录一次服务商调用重试相关事件。
+     * @param type retry 为重试，hedge 为对冲，exhausted 为预算不足放弃重试或对冲
+     */
+    default void recordRetry(String scene, String type) {
+    }
+
+    /**
+     * 记录一次幂等拒绝。
+     */
+    default void recordIdempotentRejected(String scene) {
+    }
+
+    /**
+     * 记录一次定时发送完成时发现认领已失效（租约过期后被重新排期或由其他节点认领），该消息可能被再次发送。
+     */
+    default void recordScheduleLeaseLost(String scene) {
+    }
+
+    /**
+     * 记录一条短信的最终送达状态。
+     */
+    default void recordReceipt(String scene, DeliveryReceipt.Status status) {
+    }
+
+    /**
+     * 注册瞬时值指标。
+     * @param name 指标名
+     * @param tagKey 标签名
+     * @param tagValue 标签值
+     * @param value 取值函数，采集时调用
+     */
+    default void gauge(String name, String tagKey, String tagValue, Supplier<Number> value) {
+    }
+}
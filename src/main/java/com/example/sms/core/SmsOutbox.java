@@ -0,0 +1,184 @@
+package com.example.sms.core;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.example.sms.config.SmsProperties;
+import com.example.sms.config.SmsProperties.OutboxProperties;
+
+/**
+ * 可靠发件箱：调用方线程完成参数过滤、限流与幂等校验后把请求持久化并立即返回消息 id，
+ * 由固定数量的工作线程投递。可重试的失败按指数退避加抖动重新投递，
+ * 不可重试或超过最大次数的消息转入死信；长时间未确认的消息定期认领，接管失联实例的投递。
+ */
+@Component
+@ConditionalOnProperty(prefix = "sms.outbox", name = "enabled", havingValue = "true")
+public class SmsOutbox implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SmsOutbox.class);
+
+    private final OutboxProperties properties;
+    private final SceneConfigResolver sceneConfigResolver;
+    private final AliyunSmsClient aliyunSmsClient;
+    private final OutboxStore outboxStore;
+    private final ProviderErrorMapper providerErrorMapper;
+    private final ExecutorService workers;
+    private final AtomicLong nextClaimAt = new AtomicLong();
+    private volatile boolean running = true;
+
+    public SmsOutbox(SmsProperties smsProperties,
+                     SceneConfigResolver sceneConfigResolver,
+                     AliyunSmsClient aliyunSmsClient,
+                     OutboxStore outboxStore,
+                     ProviderErrorMapper providerErrorMapper) {
+        this.properties = smsProperties.getOutbox();
+        this.sceneConfigResolver = sceneConfigResolver;
+        this.aliyunSmsClient = aliyunSmsClient;
+        this.outboxStore = outboxStore;
+        this.providerErrorMapper = providerErrorMapper;
+        AtomicInteger sequence = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(properties.getWorkers(), runnable -> {
+            Thread thread = new Thread(runnable, "sms-outbox-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < properties.getWorkers(); i++) {
+            workers.execute(this::drain);
+        }
+    }
+
+    /**
+     * 校验通过后写入发件箱，不等待服务商调用。写入成功即确认幂等预占，后续重试不再重复校验。
+     * @return 消息 id，同时作为服务商外部流水号
+     * @throws SmsException 场景、参数、限流或幂等校验失败，或发件箱不可写
+     */
+    public String submit(String scene, String mobile, Map<String, String> params, String clientIp) {
+        ScenePlan plan = sceneConfigResolver.getPlan(scene);
+        AliyunSmsClient.Admission admission = aliyunSmsClient.admit(scene, mobile, params, clientIp, plan);
+        OutboxMessage message = OutboxMessage.create(scene, mobile, admission.getParams(), clientIp);
+        try {
+            outboxStore.append(message);
+        } catch (SmsException ex) {
+            admission.getReservation().release();
+            throw ex;
+        } catch (RuntimeException ex) {
+            admission.getReservation().release();
+            throw new SmsException(ErrorCode.CLIENT_ERROR, "发件箱写入失败", ex);
+        }
+        admission.getReservation().commit();
+        return message.getId();
+    }
+
+    private void drain() {
+        while (running) {
+            try {
+                List<OutboxMessage> batch = claimDue()
+                    ? outboxStore.claimStale(properties.getBatchSize())
+                    : outboxStore.poll(properties.getBatchSize());
+                if (batch.isEmpty()) {
+                    TimeUnit.MILLISECONDS.sleep(properties.getPollIntervalMillis());
+                    continue;
+                }
+                for (OutboxMessage message : batch) {
+                    deliver(message);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.warn("Outbox drain failed, err={}", ex.toString());
+                try {
+                    TimeUnit.MILLISECONDS.sleep(properties.getPollIntervalMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 多个工作线程中只有一个会在到期时执行认领。
+     */
+    private boolean claimDue() {
+        long now = System.currentTimeMillis();
+        long due = nextClaimAt.get();
+        return now >= due && nextClaimAt.compareAndSet(due, now + properties.getClaimIntervalMillis());
+    }
+
+    private void deliver(OutboxMessage message) {
+        if (message.getDeliveries() > properties.getMaxAttempts()) {
+            // 反复认领仍未确认，说明处理该消息的进程持续异常退出
+            deadLetter(message, ErrorCode.CLIENT_ERROR);
+            return;
+        }
+        try {
+            aliyunSmsClient.deliver(message.getScene(), message.getMobile(),
+                new AliyunSmsClient.Admission(message.getParams(), IdempotencyHelper.Reservation.NONE), message.getId());
+        } catch (SmsException ex) {
+            if (providerErrorMapper.isRetryable(ex.getErrorCode()) && message.getAttempt() + 1 < properties.getMaxAttempts()) {
+                long delay = backoff(message.getAttempt());
+                outboxStore.retry(message, message.nextAttempt(), delay);
+                log.info("Outbox retry scheduled id={}, scene={}, attempt={}, delay={}ms, errorCode={}",
+                    message.getId(), message.getScene(), message.getAttempt() + 1, delay, ex.getErrorCode());
+            } else {
+                deadLetter(message, ex.getErrorCode());
+            }
+            return;
+        } catch (RuntimeException ex) {
+            log.warn("Outbox delivery failed id={}, scene={}, err={}", message.getId(), message.getScene(), ex.toString());
+            deadLetter(message, ErrorCode.CLIENT_ERROR);
+            return;
+        }
+        ack(message);
+    }
+
+    /**
+     * 短信已被服务商受理，确认失败只记录日志，不再转入死信或重试；消息留在待处理中由租约到期后回收，
+     * 与进程在确认前退出的情况相同。
+     */
+    private void ack(OutboxMessage message) {
+        try {
+            outboxStore.ack(message);
+        } catch (RuntimeException ex) {
+            log.warn("Outbox ack failed after delivery id={}, scene={}, err={}", message.getId(), message.getScene(), ex.toString());
+        }
+    }
+
+    private void deadLetter(OutboxMessage message, ErrorCode errorCode) {
+        outboxStore.deadLetter(message, errorCode);
+        log.warn("Outbox message dead-lettered id={}, scene={}, attempt={}, errorCode={}",
+            message.getId(), message.getScene(), message.getAttempt(), errorCode);
+    }
+
+    /**
+     * 指数退避加抖动：上限内翻倍，实际等待在 [一半, 全部] 之间随机，避免大量重试同时到期。
+     */
+    private long backoff(int attempt) {
+        long ceiling = Math.min(properties.getMaxBackoffMillis(),
+            properties.getInitialBackoffMillis() << Math.min(attempt, 20));
+        long half = ceiling / 2;
+        return half + ThreadLocalRandom.current().nextLong(ceiling - half + 1);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        workers.shutdown();
+        if (!workers.awaitTermination(properties.getPollIntervalMillis() * 2 + 5000, TimeUnit.MILLISECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+}
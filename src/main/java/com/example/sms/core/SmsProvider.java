@@ -0,0 +1,59 @@
+package com.example.sms.core;
+
+import java.util.List;
+import java.util.Map;
+
+import com.example.sms.config.SceneConfig;
+
+/**
+ * 短信服务商扩展点，只负责与服务商的单次交互；
+ * 场景治理、熔断、指标与路由由上层统一处理。
+ */
+public interface SmsProvider {
+
+    /**
+     * 服务商类型，与场景配置中的 provider 对应。
+     */
+    SceneConfig.Provider getProvider();
+
+    /**
+     * 单号码发送。
+     * @throws SmsException 调用异常时抛出，错误码为服务商错误的映射结果
+     */
+    SendResult send(String mobile, String signName, String templateCode, Map<String, Object> params, String outId);
+
+    /**
+     * 批量发送，号码与参数按下标一一对应。
+     * @throws SmsException 调用异常时抛出，错误码为服务商错误的映射结果
+     */
+    SendResult sendBatch(List<String> mobiles, String signName, String templateCode, List<Map<String, Object>> paramsList, String outId);
+
+    /**
+     * 是否支持按号码与日期查询送达回执。
+     */
+    default boolean supportsReceiptQuery() {
+        return false;
+    }
+
+    /**
+     * 查询号码在指定日期的全部发送记录及回执，结果按 outId 与跟踪中的短信关联。
+     * @param sendDate 发送日期，yyyyMMdd
+     * @param pacer 每次请求服务商（含分页的每一页）之前调用，由调用方按查询 QPS 限速
+     * @throws SmsException 调用异常时抛出，错误码为服务商错误的映射结果
+     */
+    default List<DeliveryReceipt> queryReceipts(String mobile, String sendDate, RequestPacer pacer) {
+        throw new SmsException(ErrorCode.CLIENT_ERROR, "服务商" + getProvider() + "不支持回执查询");
+    }
+
+    /**
+     * 服务商请求限速，需要等待时阻塞调用线程。
+     */
+    @FunctionalInterface
+    interface RequestPacer {
+
+        RequestPacer NONE = () -> {
+        };
+
+        void await() throws InterruptedException;
+    }
+}
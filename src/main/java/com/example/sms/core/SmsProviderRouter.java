@@ -0,0 +1,483 @@
+package com.example.sms.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+import com.example.sms.config.SceneConfig.Provider;
+import com.example.sms.config.SmsProperties;
+import com.example.sms.config.SmsProperties.RetryProperties;
+
+/**
+ * 按场景选择服务商：在健康的服务商中按权重随机选择，全部不健康时按权重兜底；
+ * 调用前先占用场景类型对应的发送通道并发（{@link SendLaneBulkhead}），再预约出站配额；选中的服务商熔断、并发已满或配额不足（请求未发出）时切换到备用服务商。
+ * 瞬时故障按 {@link RetryProperties} 重试，单号码发送可在超过滚动 p95 时对冲，重试与对冲复用同一 outId。
+ * 服务商调用的熔断、耗时指标、健康统计与发送审计日志统一在此处记录，发送成功的短信交给回执跟踪。
+ */
+@Component
+public class SmsProviderRouter implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SmsProviderRouter.class);
+
+    private final SmsProperties smsProperties;
+    private final RetryProperties retryProperties;
+    private final ObjectProvider<SmsProvider> providerBeans;
+    private final ProviderCallGuard providerCallGuard;
+    private final SendLaneBulkhead sendLaneBulkhead;
+    private final ProviderQuotaGovernor providerQuotaGovernor;
+    private final ProviderErrorMapper providerErrorMapper;
+    private final SendJournal sendJournal;
+    private final DeliveryReceiptTracker receiptTracker;
+    private final SmsMetrics smsMetrics;
+    private final RetryBudget retryBudget;
+    /** 对冲调用线程池，未开启对冲时为 null */
+    private final ThreadPoolExecutor hedgeExecutor;
+    private final String outIdPrefix;
+    private final AtomicLong outIdSequence = new AtomicLong();
+    private final Map<Provider, ProviderState> states = new EnumMap<>(Provider.class);
+    private volatile boolean initialized;
+
+    /**
+     * 服务商实现通过 ObjectProvider 延迟获取，避免与同时作为服务商实现的 AliyunSmsClient 形成构造循环依赖。
+     */
+    public SmsProviderRouter(SmsProperties smsProperties,
+                             ObjectProvider<SmsProvider> providerBeans,
+                             ProviderCallGuard providerCallGuard,
+                             SendLaneBulkhead sendLaneBulkhead,
+                             ProviderQuotaGovernor providerQuotaGovernor,
+                             ProviderErrorMapper providerErrorMapper,
+                             SendJournal sendJournal,
+                             DeliveryReceiptTracker receiptTracker,
+                             SmsMetrics smsMetrics) {
+        this.smsProperties = smsProperties;
+        this.retryProperties = smsProperties.getRetry();
+        this.providerBeans = providerBeans;
+        this.providerCallGuard = providerCallGuard;
+        this.sendLaneBulkhead = sendLaneBulkhead;
+        this.providerQuotaGovernor = providerQuotaGovernor;
+        this.providerErrorMapper = providerErrorMapper;
+        this.sendJournal = sendJournal;
+        this.receiptTracker = receiptTracker;
+        this.smsMetrics = smsMetrics;
+        this.retryBudget = new RetryBudget(retryProperties.getBudgetPercent(), retryProperties.getBudgetCapacity());
+        this.hedgeExecutor = retryProperties.isHedgeEnabled()
+            ? hedgeExecutor(retryProperties.getHedgeMaxThreads(), smsProperties.getAsync().isVirtualThreads())
+            : null;
+        this.outIdPrefix = Long.toString(ThreadLocalRandom.current().nextLong(Long.MAX_VALUE), 36) + "-";
+        smsMetrics.gauge("sms.send.retry_budget", "budget", "global", retryBudget::available);
+    }
+
+    /**
+     * 开启虚拟线程且运行时支持时对冲调用在虚拟线程上执行，上限仍为 maxThreads。
+     */
+    private static ThreadPoolExecutor hedgeExecutor(int maxThreads, boolean virtualThreads) {
+        ThreadFactory virtual = virtualThreads ? VirtualThreads.factory("sms-hedge-") : null;
+        if (virtual != null) {
+            return new ThreadPoolExecutor(0, maxThreads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), virtual);
+        }
+        AtomicInteger sequence = new AtomicInteger();
+        return new ThreadPoolExecutor(0, maxThreads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "sms-hedge-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public SendResult send(String scene, ScenePlan plan, String mobile, Map<String, Object> params, String outId) {
+        String attemptOutId = outId(outId);
+        return route(scene, plan, Collections.singletonList(mobile), attemptOutId, hedgeExecutor != null,
+            provider -> provider.send(mobile, plan.getSignName(), plan.getTemplateCode(), params, attemptOutId));
+    }
+
+    /**
+     * 批量发送既不重试也不对冲：超时后整批结果未知，重发可能让已受理的号码重复收到短信。
+     */
+    public SendResult sendBatch(String scene, ScenePlan plan, List<String> mobiles, List<Map<String, Object>> paramsList, String outId) {
+        String attemptOutId = outId(outId);
+        return attempt(scene, plan, mobiles, attemptOutId, false,
+            provider -> provider.sendBatch(mobiles, plan.getSignName(), plan.getTemplateCode(), paramsList, attemptOutId));
+    }
+
+    /**
+     * 调用方未指定 outId 且开启了回执跟踪、重试或对冲时生成一个，使重复发出的短信可按 outId 识别。
+     */
+    private String outId(String outId) {
+        if (outId != null || !(smsProperties.getReceipt().isEnabled() || retryProperties.getMaxAttempts() > 1
+            || hedgeExecutor != null)) {
+            return outId;
+        }
+        return outIdPrefix + Long.toString(outIdSequence.incrementAndGet(), 36);
+    }
+
+    /**
+     * 瞬时故障（接口限流、系统繁忙、超时）在最大尝试次数与重试预算内退避后重试，其余错误直接返回。
+     * 此前某次尝试结果未知（超时）而最终仍失败时抛出 PROVIDER_TIMEOUT，调用方不能据最后一次的错误认定短信未发出。
+     */
+    private SendResult route(String scene, ScenePlan plan, List<String> mobiles, String outId, boolean hedge,
+                             Function<SmsProvider, SendResult> call) {
+        retryBudget.deposit();
+        boolean unknown = false;
+        for (int attempt = 1; ; attempt++) {
+            ErrorCode failure;
+            try {
+                SendResult result = attempt(scene, plan, mobiles, outId, hedge, call);
+                if (result.isSuccess()) {
+                    return result;
+                }
+                failure = result.getErrorCode();
+                if (!retry(scene, failure, attempt)) {
+                    if (unknown && !providerErrorMapper.isOutcomeUnknown(failure)) {
+                        throw new SmsException(ErrorCode.PROVIDER_TIMEOUT, "此前的尝试结果未知，最后一次失败：" + result.getProviderCode());
+                    }
+                    return result;
+                }
+            } catch (SmsException ex) {
+                failure = ex.getErrorCode();
+                if (!retry(scene, failure, attempt)) {
+                    if (unknown && !providerErrorMapper.isOutcomeUnknown(failure)) {
+                        throw new SmsException(ErrorCode.PROVIDER_TIMEOUT, "此前的尝试结果未知，最后一次失败：" + failure, ex);
+                    }
+                    throw ex;
+                }
+            }
+            unknown |= providerErrorMapper.isOutcomeUnknown(failure);
+            long delay = backoffMillis(attempt);
+            log.info("Retrying provider call scene={}, outId={}, attempt={}, errorCode={}, delay={}ms",
+                scene, outId, attempt + 1, failure, delay);
+            try {
+                TimeUnit.MILLISECONDS.sleep(delay);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new SmsException(ErrorCode.CLIENT_ERROR, "等待重试时被中断", ex);
+            }
+        }
+    }
+
+    private boolean retry(String scene, ErrorCode failure, int attempt) {
+        if (attempt >= retryProperties.getMaxAttempts() || failure == null || !providerErrorMapper.isTransient(failure)) {
+            return false;
+        }
+        if (!retryBudget.tryWithdraw()) {
+            smsMetrics.recordRetry(scene, "exhausted");
+            return false;
+        }
+        smsMetrics.recordRetry(scene, "retry");
+        return true;
+    }
+
+    /**
+     * 全抖动退避：在 [0, min(max, base × 2^(attempt-1))] 内均匀随机。
+     */
+    private long backoffMillis(int attempt) {
+        long ceiling = retryProperties.getBaseBackoffMillis() << Math.min(attempt - 1, 20);
+        return ThreadLocalRandom.current().nextLong(Math.min(retryProperties.getMaxBackoffMillis(), ceiling) + 1);
+    }
+
+    /**
+     * 一次逻辑调用：占用发送通道并发后调用首选服务商，未发出请求时切换到备用服务商。
+     * 通道并发在配额等待期间同样占用，重试的退避等待期间不占用。
+     */
+    private SendResult attempt(String scene, ScenePlan plan, List<String> mobiles, String outId, boolean hedge,
+                               Function<SmsProvider, SendResult> call) {
+        SendLaneBulkhead.Permit permit = sendLaneBulkhead.acquire(plan.getType());
+        try {
+            return attemptCandidates(scene, plan, mobiles, outId, hedge, call);
+        } finally {
+            permit.release();
+        }
+    }
+
+    private SendResult attemptCandidates(String scene, ScenePlan plan, List<String> mobiles, String outId, boolean hedge,
+                                         Function<SmsProvider, SendResult> call) {
+        List<ProviderState> candidates = candidates(plan);
+        for (int i = 0; i < candidates.size(); i++) {
+            ProviderState state = candidates.get(i);
+            try {
+                ProviderCallGuard.Permit permit = reserve(state, plan);
+                SendResult result = hedge
+                    ? invokeHedged(scene, plan, state, permit, mobiles, call)
+                    : invoke(scene, state, permit, mobiles, call);
+                if (result.isSuccess()) {
+                    receiptTracker.track(scene, state.provider, state.name, mobiles, result.getProviderRequestId(), outId);
+                }
+                return result;
+            } catch (SmsException ex) {
+                boolean notSent = ex.getErrorCode() == ErrorCode.PROVIDER_CIRCUIT_OPEN
+                    || ex.getErrorCode() == ErrorCode.PROVIDER_CONCURRENCY_LIMITED
+                    || ex.getErrorCode() == ErrorCode.PROVIDER_QUOTA_LIMITED;
+                if (!notSent || i == candidates.size() - 1) {
+                    throw ex;
+                }
+                log.warn("Provider {} unavailable for scene={}, errorCode={}, falling back to {}",
+                    state.name, scene, ex.getErrorCode(), candidates.get(i + 1).name);
+            }
+        }
+        throw new SmsException(ErrorCode.INVALID_CONFIG, "场景" + scene + "没有可用的短信服务商");
+    }
+
+    /**
+     * 先取得服务商调用许可再预约出站配额：熔断或并发已满时直接失败，不占用配额也不做配额等待；
+     * 配额不足时归还许可。
+     */
+    private ProviderCallGuard.Permit reserve(ProviderState state, ScenePlan plan) {
+        ProviderCallGuard.Permit permit = providerCallGuard.acquire(state.name);
+        try {
+            providerQuotaGovernor.acquire(state.name, plan);
+            return permit;
+        } catch (RuntimeException ex) {
+            permit.cancel();
+            throw ex;
+        }
+    }
+
+    /**
+     * 首次调用在对冲线程上执行，超过滚动 p95（不低于 hedgeMinDelayMillis）仍未返回时，
+     * 在预算与出站配额允许的情况下对同一服务商发起第二次调用，返回先成功的结果，两次都失败时返回后完成的一次。
+     * 落败的调用不取消，继续在后台完成并照常记录指标。样本不足或线程用尽时不对冲。
+     */
+    private SendResult invokeHedged(String scene, ScenePlan plan, ProviderState state, ProviderCallGuard.Permit permit,
+                                    List<String> mobiles, Function<SmsProvider, SendResult> call) {
+        long p95 = state.health.getP95Millis();
+        if (p95 < 0) {
+            return invoke(scene, state, permit, mobiles, call);
+        }
+        CompletionService<SendResult> attempts = new ExecutorCompletionService<>(hedgeExecutor);
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        try {
+            attempts.submit(() -> withContext(context, () -> invoke(scene, state, permit, mobiles, call)));
+        } catch (RejectedExecutionException ex) {
+            return invoke(scene, state, permit, mobiles, call);
+        }
+        int outstanding = 1;
+        try {
+            Future<SendResult> done = attempts.poll(Math.max(p95, retryProperties.getHedgeMinDelayMillis()), TimeUnit.MILLISECONDS);
+            ProviderCallGuard.Permit hedgePermit = done == null ? hedge(scene, plan, state) : null;
+            if (hedgePermit != null) {
+                try {
+                    attempts.submit(() -> withContext(context, () -> invoke(scene, state, hedgePermit, mobiles, call)));
+                    outstanding++;
+                } catch (RejectedExecutionException ex) {
+                    hedgePermit.cancel();
+                    log.debug("Hedge skipped, executor saturated, scene={}", scene);
+                }
+            }
+            SmsException failure = null;
+            SendResult failed = null;
+            while (outstanding > 0) {
+                if (done == null) {
+                    done = attempts.take();
+                }
+                outstanding--;
+                try {
+                    SendResult result = done.get();
+                    if (result.isSuccess()) {
+                        return result;
+                    }
+                    failed = result;
+                    failure = null;
+                } catch (ExecutionException ex) {
+                    if (!(ex.getCause() instanceof SmsException)) {
+                        throw new SmsException(ErrorCode.CLIENT_ERROR, "服务商调用异常", ex.getCause());
+                    }
+                    failure = (SmsException) ex.getCause();
+                    failed = null;
+                }
+                done = null;
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return failed;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            // 调用仍在途，服务商可能已受理
+            throw new SmsException(ErrorCode.PROVIDER_TIMEOUT, "等待服务商调用结果时被中断，发送结果未知", ex);
+        }
+    }
+
+    /**
+     * 对冲同样消耗重试预算、服务商调用许可与出站配额，配额需要等待时放弃对冲而不阻塞。
+     * @return 对冲调用的许可，不对冲时返回 null
+     */
+    private ProviderCallGuard.Permit hedge(String scene, ScenePlan plan, ProviderState state) {
+        if (!retryBudget.tryWithdraw()) {
+            smsMetrics.recordRetry(scene, "exhausted");
+            return null;
+        }
+        ProviderCallGuard.Permit permit;
+        try {
+            permit = reserve(state, plan);
+        } catch (SmsException ex) {
+            return null;
+        }
+        smsMetrics.recordRetry(scene, "hedge");
+        return permit;
+    }
+
+    private static SendResult withContext(Map<String, String> context, Supplier<SendResult> call) {
+        if (context != null) {
+            MDC.setContextMap(context);
+        }
+        try {
+            return call.get();
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    /**
+     * 首选服务商在前，备用服务商（与首选不同时）在后。
+     */
+    private List<ProviderState> candidates(ScenePlan plan) {
+        ProviderState primary = state(pick(plan));
+        Provider fallback = plan.getFallbackProvider();
+        if (fallback == null || fallback == primary.provider.getProvider()) {
+            return Collections.singletonList(primary);
+        }
+        List<ProviderState> candidates = new ArrayList<>(2);
+        ProviderState secondary = state(fallback);
+        if (!primary.health.isHealthy() && secondary.health.isHealthy()) {
+            candidates.add(secondary);
+            candidates.add(primary);
+        } else {
+            candidates.add(primary);
+            candidates.add(secondary);
+        }
+        return candidates;
+    }
+
+    private Provider pick(ScenePlan plan) {
+        Map<Provider, Integer> weights = plan.getProviderWeights();
+        if (CollectionUtils.isEmpty(weights)) {
+            return plan.getProvider();
+        }
+        Provider healthy = weightedPick(weights, true);
+        return healthy != null ? healthy : weightedPick(weights, false);
+    }
+
+    private Provider weightedPick(Map<Provider, Integer> weights, boolean healthyOnly) {
+        int total = 0;
+        for (Map.Entry<Provider, Integer> entry : weights.entrySet()) {
+            if (eligible(entry.getKey(), healthyOnly)) {
+                total += entry.getValue();
+            }
+        }
+        if (total <= 0) {
+            return null;
+        }
+        int ticket = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<Provider, Integer> entry : weights.entrySet()) {
+            if (eligible(entry.getKey(), healthyOnly)) {
+                ticket -= entry.getValue();
+                if (ticket < 0) {
+                    return entry.getKey();
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean eligible(Provider provider, boolean healthyOnly) {
+        ProviderState state = states().get(provider);
+        return state != null && (!healthyOnly || state.health.isHealthy());
+    }
+
+    private SendResult invoke(String scene, ProviderState state, ProviderCallGuard.Permit permit, List<String> mobiles,
+                              Function<SmsProvider, SendResult> call) {
+        permit.begin();
+        ErrorCode outcome = ErrorCode.CLIENT_ERROR;
+        String code = null;
+        String bizId = null;
+        long start = System.nanoTime();
+        state.inFlight.incrementAndGet();
+        try {
+            SendResult result = call.apply(state.provider);
+            outcome = result.isSuccess() ? null : result.getErrorCode();
+            code = result.getProviderCode();
+            bizId = result.getProviderRequestId();
+            return result;
+        } catch (SmsException ex) {
+            outcome = ex.getErrorCode();
+            code = outcome.name();
+            throw ex;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            state.inFlight.decrementAndGet();
+            permit.release(outcome);
+            state.health.record(elapsed, outcome != null && providerErrorMapper.isProviderFault(outcome));
+            smsMetrics.recordSend(scene, state.name, code, elapsed);
+            for (String mobile : mobiles) {
+                sendJournal.record(scene, state.name, mobile, bizId, code, outcome, elapsed);
+            }
+        }
+    }
+
+    private ProviderState state(Provider provider) {
+        ProviderState state = states().get(provider);
+        if (state == null) {
+            throw new SmsException(ErrorCode.INVALID_CONFIG, "未注册的短信服务商:" + provider);
+        }
+        return state;
+    }
+
+    private Map<Provider, ProviderState> states() {
+        if (!initialized) {
+            synchronized (states) {
+                if (!initialized) {
+                    providerBeans.orderedStream().forEach(provider ->
+                        states.putIfAbsent(provider.getProvider(), new ProviderState(provider)));
+                    initialized = true;
+                }
+            }
+        }
+        return states;
+    }
+
+    @Override
+    public void destroy() {
+        if (hedgeExecutor != null) {
+            hedgeExecutor.shutdown();
+        }
+    }
+
+    private final class ProviderState {
+
+        private final SmsProvider provider;
+        private final String name;
+        private final ProviderHealth health;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private ProviderState(SmsProvider provider) {
+            this.provider = provider;
+            this.name = provider.getProvider().name().toLowerCase(Locale.ROOT);
+            this.health = new ProviderHealth(smsProperties.getRouting());
+            smsMetrics.gauge("sms.send.in_flight", "provider", name, inFlight::get);
+            smsMetrics.gauge("sms.provider.p99_millis", "provider", name, health::getP99Millis);
+        }
+    }
+}
@@ -19,14 +19,41 @@ public final class SmsRedisKeys {
         return String.format("sms:code:%s:%s", scene, mobile);
     }
 
+    /**
+     * 手机号限流 key 使用相同的 hash tag（场景与手机号），保证限流脚本涉及的 key 在集群模式下位于同一 slot。
+     */
     public static String limitMobileDay(String scene, String mobile, LocalDate date) {
-        return String.format("sms:limit:mobile:day:%s:%s:%s", scene, mobile, DATE_FMT.format(date));
+        return String.format("sms:limit:mobile:day:{%s:%s}:%s", scene, mobile, DATE_FMT.format(date));
+    }
+
+    public static String limitMobileInterval(String scene, String mobile) {
+        return String.format("sms:limit:mobile:interval:{%s:%s}", scene, mobile);
     }
 
     public static String limitIpMinute(String ip, LocalDateTime minuteWindow) {
         return String.format("sms:limit:ip:minute:%s:%s", ip, MINUTE_FMT.format(minuteWindow));
     }
 
+    public static String limitIpMinute(String scene, String ip, LocalDateTime minuteWindow) {
+        return String.format("sms:limit:ip:minute:%s:%s:%s", scene, ip, MINUTE_FMT.format(minuteWindow));
+    }
+
+    public static String limitMobileRate(String scene, String mobile) {
+        return String.format("sms:limit:mobile:rate:{%s:%s}", scene, mobile);
+    }
+
+    public static String limitIpRate(String scene, String ip) {
+        return String.format("sms:limit:ip:rate:%s:%s", scene, ip);
+    }
+
+    /**
+     * 服务商出站配额，同一服务商的 key 使用相同的 hash tag，保证一次脚本调用涉及的 key 位于同一 slot。
+     * @param bucket global、sign:签名 或 template:模板编码
+     */
+    public static String providerQuota(String provider, String bucket) {
+        return String.format("sms:provider:quota:{%s}:%s", provider, bucket);
+    }
+
     public static String lock(String scene, String mobile) {
         return String.format("sms:lock:%s:%s", scene, mobile);
     }
@@ -34,4 +61,31 @@ public final class SmsRedisKeys {
     public static String idempotent(String scene, String bizId) {
         return String.format("sms:idem:%s:%s", scene, bizId);
     }
+
+    public static String outboxStream() {
+        return "sms:outbox:stream";
+    }
+
+    public static String outboxDelayed() {
+        return "sms:outbox:delayed";
+    }
+
+    public static String outboxDead() {
+        return "sms:outbox:dead";
+    }
+
+    /**
+     * 定时发送的 key 使用相同的 hash tag，保证一次脚本调用涉及的 key 位于同一 slot。
+     */
+    public static String schedulePending() {
+        return "sms:schedule:{queue}:pending";
+    }
+
+    public static String scheduleClaimed() {
+        return "sms:schedule:{queue}:claimed";
+    }
+
+    public static String schedulePayload() {
+        return "sms:schedule:{queue}:payload";
+    }
 }
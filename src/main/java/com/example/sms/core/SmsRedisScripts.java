@@ -0,0 +1,78 @@
+package com.example.sms.core;
+
+import java.util.List;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.RedisScript;
+
+/**
+ * 短信 Lua 脚本规范，脚本统一放在 classpath:sms/lua 下。
+ */
+public final class SmsRedisScripts {
+
+    /** 计数：INCR 与首次 EXPIRE 原子完成 */
+    public static final RedisScript<Long> INCR_WITH_TTL = load("incr_with_ttl", Long.class);
+
+    /** 限流：手机号间隔与日计数一次校验并记录 */
+    public static final RedisScript<Long> RATE_LIMIT = load("rate_limit", Long.class);
+
+    /** 限流：GCRA 模式下手机号间隔与速率一次校验并记录，返回规则与可重试毫秒 */
+    @SuppressWarnings("rawtypes")
+    public static final RedisScript<List> RATE_LIMIT_GCRA = load("rate_limit_gcra", List.class);
+
+    /** 限流：GCRA 模式下 IP 速率校验并记录，返回需等待的毫秒数 */
+    public static final RedisScript<Long> RATE_LIMIT_GCRA_IP = load("rate_limit_gcra_ip", Long.class);
+
+    /** 限流：归还一次已记录的 IP 配额 */
+    public static final RedisScript<Long> RATE_LIMIT_REFUND = load("rate_limit_refund", Long.class);
+
+    /** 验证码：写入哈希并重置失败次数，锁定期内拒绝 */
+    public static final RedisScript<Long> VERIFY_CODE_ISSUE = load("verify_code_issue", Long.class);
+
+    /** 验证码：比对哈希、累计失败次数、成功即删除 */
+    public static final RedisScript<Long> VERIFY_CODE_CHECK = load("verify_code_check", Long.class);
+
+    /** 验证码：仍为本次签发的哈希时删除 */
+    public static final RedisScript<Long> VERIFY_CODE_DISCARD = load("verify_code_discard", Long.class);
+
+    /** 限流：按上限截断地租用一段配额 */
+    public static final RedisScript<Long> RATE_LIMIT_LEASE = load("rate_limit_lease", Long.class);
+
+    /** 服务商出站配额：多个桶一次预约发送时刻，返回需等待的微秒数 */
+    public static final RedisScript<Long> PROVIDER_QUOTA_ACQUIRE = load("provider_quota_acquire", Long.class);
+
+    /** 幂等：SET NX 预占，冲突时区分处理中与已发送 */
+    public static final RedisScript<Long> IDEMPOTENCY_RESERVE = load("idempotency_reserve", Long.class);
+
+    /** 幂等：令牌匹配时转为已发送并延长至幂等窗口 */
+    public static final RedisScript<Long> IDEMPOTENCY_COMMIT = load("idempotency_commit", Long.class);
+
+    /** 幂等：令牌匹配时释放预占 */
+    public static final RedisScript<Long> IDEMPOTENCY_RELEASE = load("idempotency_release", Long.class);
+
+    /** 发件箱：到期的延迟重试移回 Stream */
+    public static final RedisScript<Long> OUTBOX_PROMOTE = load("outbox_promote", Long.class);
+
+    /** 发件箱：确认当前投递并登记延迟重试 */
+    public static final RedisScript<Long> OUTBOX_RETRY = load("outbox_retry", Long.class);
+
+    /** 发件箱：确认当前投递并转入死信 */
+    public static final RedisScript<Long> OUTBOX_DEAD = load("outbox_dead", Long.class);
+
+    /** 定时发送：保存消息并按到期时间排期，同时移除认领记录 */
+    public static final RedisScript<Long> SCHEDULE_ADD = load("schedule_add", Long.class);
+
+    /** 定时发送：回收过期认领并认领即将到期的消息 */
+    @SuppressWarnings("rawtypes")
+    public static final RedisScript<List> SCHEDULE_CLAIM = load("schedule_claim", List.class);
+
+    /** 定时发送：从待发送或已认领队列删除消息及其内容 */
+    public static final RedisScript<Long> SCHEDULE_REMOVE = load("schedule_remove", Long.class);
+
+    private SmsRedisScripts() {
+    }
+
+    private static <T> RedisScript<T> load(String name, Class<T> resultType) {
+        return RedisScript.of(new ClassPathResource("sms/lua/" + name + ".lua"), resultType);
+    }
+}
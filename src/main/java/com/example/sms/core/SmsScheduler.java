@@ -0,0 +1,271 @@
+package com.example.sms.core;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import com.example.sms.config.SceneConfig.SceneType;
+import com.example.sms.config.SmsProperties;
+import com.example.sms.config.SmsProperties.ScheduleProperties;
+
+/**
+ * 定时发送通知短信。预约时只过滤参数并写入 {@link ScheduledSendStore}，限流与幂等在到期发送时校验。
+ * 后台线程按 loadIntervalMillis 认领未来 lookaheadMillis 内到期的消息放入本地 {@link TimingWheel}，
+ * 每个刻度取出到期消息按场景合并，经 {@link SmsAsyncExecutor} 调用批量发送。
+ * 瞬时故障按 retryDelayMillis 重新排期并计入发送次数；请求在本地被拒绝未发出（异步队列或发送通道已满等）时
+ * 同样延后但不计入发送次数，并暂停认领 retryDelayMillis，积压留在存储中而不是本地；其余失败放弃。
+ * 完成时发现认领已失效（租约过期）会记录告警与指标，该消息可能被再次发送；
+ * 节点停止时时间轮中的消息仍处于认领状态，租约过期后由其他节点或重启后的本节点重新认领。
+ */
+@Component
+@ConditionalOnProperty(prefix = "sms.schedule", name = "enabled", havingValue = "true")
+public class SmsScheduler implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SmsScheduler.class);
+
+    private final ScheduleProperties properties;
+    private final SceneConfigResolver sceneConfigResolver;
+    private final AliyunSmsClient aliyunSmsClient;
+    private final ScheduledSendStore store;
+    private final ProviderErrorMapper providerErrorMapper;
+    private final SmsAsyncExecutor asyncExecutor;
+    private final SmsMetrics smsMetrics;
+    /** 仅调度线程访问 */
+    private final TimingWheel<ScheduledSend> wheel;
+    /** 已提交发送但尚未处理结果的消息数 */
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Thread ticker;
+    /** 本地拒绝后暂停认领至该时间，毫秒时间戳 */
+    private volatile long loadPausedUntil;
+    private volatile boolean running = true;
+
+    public SmsScheduler(SmsProperties smsProperties,
+                        SceneConfigResolver sceneConfigResolver,
+                        AliyunSmsClient aliyunSmsClient,
+                        ScheduledSendStore store,
+                        ProviderErrorMapper providerErrorMapper,
+                        SmsAsyncExecutor asyncExecutor,
+                        SmsMetrics smsMetrics) {
+        this.properties = smsProperties.getSchedule();
+        this.sceneConfigResolver = sceneConfigResolver;
+        this.aliyunSmsClient = aliyunSmsClient;
+        this.store = store;
+        this.providerErrorMapper = providerErrorMapper;
+        this.asyncExecutor = asyncExecutor;
+        this.smsMetrics = smsMetrics;
+        this.wheel = new TimingWheel<>(properties.getTickMillis(), properties.getWheelSize(), System.currentTimeMillis());
+        smsMetrics.gauge("sms.schedule.buffered", "schedule", "local", this::buffered);
+        this.ticker = new Thread(this::run, "sms-schedule");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    /**
+     * 预约在指定时间发送通知短信，时间已过时尽快发送。
+     * @param scene 场景编码
+     * @param mobile 手机号
+     * @param params 模板参数，仅取白名单字段
+     * @param clientIp 客户端 IP
+     * @param sendAt 发送时间，最远 maxDelayDays 天
+     * @return 预约 id，可用于取消
+     */
+    public String schedule(String scene, String mobile, Map<String, String> params, String clientIp, Instant sendAt) {
+        ScenePlan plan = sceneConfigResolver.getPlan(scene);
+        Assert.isTrue(plan.getType() == SceneType.NOTIFY, "场景类型必须为通知");
+        Assert.notNull(sendAt, "发送时间不能为空");
+        long dueAt = sendAt.toEpochMilli();
+        if (dueAt - System.currentTimeMillis() > TimeUnit.DAYS.toMillis(properties.getMaxDelayDays())) {
+            throw new SmsException(ErrorCode.INVALID_CONFIG, "发送时间超过最远预约天数：" + properties.getMaxDelayDays());
+        }
+        ScheduledSend send = ScheduledSend.create(scene, mobile, plan.filterParams(params), clientIp, dueAt);
+        store.add(send);
+        return send.getId();
+    }
+
+    /**
+     * 预约在 delay 之后发送通知短信。
+     * @see #schedule(String, String, Map, String, Instant)
+     */
+    public String scheduleAfter(String scene, String mobile, Map<String, String> params, String clientIp, Duration delay) {
+        Assert.notNull(delay, "延迟时间不能为空");
+        return schedule(scene, mobile, params, clientIp, Instant.now().plus(delay));
+    }
+
+    /**
+     * 取消预约。距离发送时间不足 lookaheadMillis 的消息已被节点认领，不能再取消。
+     * @return 是否取消成功
+     */
+    public boolean cancel(String id) {
+        return store.cancel(id);
+    }
+
+    private int buffered() {
+        return wheel.size() + inFlight.get();
+    }
+
+    private void run() {
+        long nextLoadAt = 0;
+        while (running) {
+            try {
+                long now = System.currentTimeMillis();
+                List<ScheduledSend> due = new ArrayList<>();
+                if (now >= nextLoadAt && now >= loadPausedUntil) {
+                    nextLoadAt = now + properties.getLoadIntervalMillis();
+                    load(now, due);
+                }
+                wheel.advance(now, due::add);
+                dispatch(due);
+            } catch (RuntimeException ex) {
+                log.warn("Scheduled sms tick failed, err={}", ex.toString());
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(properties.getTickMillis());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 认领窗口内到期的消息直到本地持有量达到 maxBuffered，已到期的消息直接放入 due。
+     */
+    private void load(long now, List<ScheduledSend> due) {
+        int room = properties.getMaxBuffered() - buffered() - due.size();
+        while (room > 0) {
+            int max = Math.min(room, properties.getLoadBatchSize());
+            List<ScheduledSend> claimed = store.claim(now + properties.getLookaheadMillis(), properties.getLeaseMillis(), max);
+            for (ScheduledSend send : claimed) {
+                if (!wheel.add(send.getDueAt(), send)) {
+                    due.add(send);
+                }
+            }
+            if (claimed.size() < max) {
+                return;
+            }
+            room -= claimed.size();
+        }
+    }
+
+    private void dispatch(List<ScheduledSend> due) {
+        if (due.isEmpty()) {
+            return;
+        }
+        Map<String, List<ScheduledSend>> byScene = new LinkedHashMap<>();
+        for (ScheduledSend send : due) {
+            byScene.computeIfAbsent(send.getScene(), scene -> new ArrayList<>()).add(send);
+        }
+        SmsException rejected = null;
+        for (Map.Entry<String, List<ScheduledSend>> entry : byScene.entrySet()) {
+            List<ScheduledSend> sends = entry.getValue();
+            for (int from = 0; from < sends.size(); from += AliyunSmsClient.MAX_BATCH_SIZE) {
+                List<ScheduledSend> batch = sends.subList(from, Math.min(from + AliyunSmsClient.MAX_BATCH_SIZE, sends.size()));
+                if (rejected != null) {
+                    // 异步队列已满，本刻度剩余批次不再逐个提交，直接延后
+                    inFlight.addAndGet(batch.size());
+                    settle(batch, null, rejected);
+                } else {
+                    rejected = submit(entry.getKey(), batch);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return 异步队列已满时返回拒绝异常，批次已按未发出延后
+     */
+    private SmsException submit(String scene, List<ScheduledSend> sends) {
+        List<Recipient> recipients = new ArrayList<>(sends.size());
+        for (ScheduledSend send : sends) {
+            recipients.add(new Recipient(send.getMobile(), send.getParams(), send.getClientIp()));
+        }
+        inFlight.addAndGet(sends.size());
+        try {
+            asyncExecutor.submit(() -> aliyunSmsClient.sendBatch(scene, recipients))
+                .whenComplete((results, error) -> settle(sends, results, error));
+            return null;
+        } catch (SmsException ex) {
+            settle(sends, null, ex);
+            return ex;
+        }
+    }
+
+    /**
+     * 按发送结果完成、重新排期或放弃，存储写入失败的消息在租约过期后重新认领。
+     */
+    private void settle(List<ScheduledSend> sends, List<SendResult> results, Throwable error) {
+        long retryAt = System.currentTimeMillis() + properties.getRetryDelayMillis();
+        for (int i = 0; i < sends.size(); i++) {
+            ScheduledSend send = sends.get(i);
+            ErrorCode errorCode = error != null ? errorCode(error) : errorCode(results.get(i));
+            try {
+                if (errorCode == null) {
+                    complete(send);
+                } else if (providerErrorMapper.isNotSent(errorCode)) {
+                    store.reschedule(send.withDueAt(retryAt));
+                    loadPausedUntil = retryAt;
+                } else if (providerErrorMapper.isRetryable(errorCode) && send.getAttempt() + 1 < properties.getMaxAttempts()) {
+                    store.reschedule(send.retryAt(retryAt));
+                } else {
+                    complete(send);
+                    log.warn("Scheduled sms abandoned id={}, scene={}, mobile={}, attempt={}, errorCode={}",
+                        send.getId(), send.getScene(), maskMobile(send.getMobile()), send.getAttempt() + 1, errorCode);
+                }
+            } catch (RuntimeException ex) {
+                log.warn("Settle scheduled sms failed id={}, scene={}, err={}", send.getId(), send.getScene(), ex.toString());
+            }
+        }
+        inFlight.addAndGet(-sends.size());
+    }
+
+    private void complete(ScheduledSend send) {
+        if (!store.complete(send)) {
+            smsMetrics.recordScheduleLeaseLost(send.getScene());
+            log.warn("Scheduled sms lease lost before completion, it may be sent again id={}, scene={}, mobile={}",
+                send.getId(), send.getScene(), maskMobile(send.getMobile()));
+        }
+    }
+
+    private static ErrorCode errorCode(SendResult result) {
+        if (result.isSuccess()) {
+            return null;
+        }
+        return result.getErrorCode() != null ? result.getErrorCode() : ErrorCode.CLIENT_ERROR;
+    }
+
+    private static ErrorCode errorCode(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof SmsException ? ((SmsException) cause).getErrorCode() : ErrorCode.CLIENT_ERROR;
+    }
+
+    private static String maskMobile(String mobile) {
+        if (StringUtils.length(mobile) < 7) {
+            return "**" + StringUtils.right(mobile, 2);
+        }
+        return StringUtils.left(mobile, 3) + "****" + StringUtils.right(mobile, 2);
+    }
+
+    /**
+     * 停止认领与发送，时间轮中未发送的消息在租约过期后重新认领。
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        ticker.interrupt();
+        ticker.join(TimeUnit.SECONDS.toMillis(5));
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.sms.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.example.sms.config.SceneConfig;
+import com.example.sms.config.SmsProperties;
+import com.example.sms.config.SmsProperties.StubProperties;
+
+/**
+ * 进程内桩服务商，不发出真实短信，用于联调与压测。
+ * 可配置固定延迟与失败比例以模拟服务商变慢或出错。
+ * 成功发送的号码与 outId 保留在有界内存表中，回执在 receiptDelayMillis 后按 receiptFailurePercent 给出送达或失败，
+ * 回执查询不区分发送日期。
+ */
+@Component
+@ConditionalOnProperty(prefix = "sms.stub", name = "enabled", havingValue = "true")
+public class StubSmsProvider implements SmsProvider {
+
+    /** 保留发送记录的号码数上限 */
+    private static final int MAX_TRACKED_MOBILES = 65_536;
+    /** 每个号码保留的发送记录数上限 */
+    private static final int MAX_SENDS_PER_MOBILE = 50;
+
+    private final StubProperties properties;
+    /** 号码 -> 最近的发送记录，按插入顺序淘汰 */
+    private final Map<String, Deque<StubSend>> sends = new LinkedHashMap<String, Deque<StubSend>>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Deque<StubSend>> eldest) {
+            return size() > MAX_TRACKED_MOBILES;
+        }
+    };
+
+    public StubSmsProvider(SmsProperties smsProperties) {
+        this.properties = smsProperties.getStub();
+    }
+
+    @Override
+    public SceneConfig.Provider getProvider() {
+        return SceneConfig.Provider.STUB;
+    }
+
+    @Override
+    public SendResult send(String mobile, String signName, String templateCode, Map<String, Object> params, String outId) {
+        SendResult result = respond();
+        if (result.isSuccess()) {
+            remember(mobile, outId);
+        }
+        return result;
+    }
+
+    @Override
+    public SendResult sendBatch(List<String> mobiles, String signName, String templateCode, List<Map<String, Object>> paramsList, String outId) {
+        SendResult result = respond();
+        if (result.isSuccess()) {
+            mobiles.forEach(mobile -> remember(mobile, outId));
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supportsReceiptQuery() {
+        return true;
+    }
+
+    @Override
+    public List<DeliveryReceipt> queryReceipts(String mobile, String sendDate, RequestPacer pacer) {
+        try {
+            pacer.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SmsException(ErrorCode.CLIENT_ERROR, "回执查询等待限速时被中断", ex);
+        }
+        long now = System.currentTimeMillis();
+        List<DeliveryReceipt> receipts = new ArrayList<>();
+        synchronized (sends) {
+            Deque<StubSend> mobileSends = sends.get(mobile);
+            if (mobileSends == null) {
+                return receipts;
+            }
+            for (StubSend send : mobileSends) {
+                DeliveryReceipt.Status status = now - send.sentAtMillis < properties.getReceiptDelayMillis()
+                    ? DeliveryReceipt.Status.PENDING
+                    : send.failed ? DeliveryReceipt.Status.FAILED : DeliveryReceipt.Status.DELIVERED;
+                receipts.add(new DeliveryReceipt(send.outId, mobile, status,
+                    status == DeliveryReceipt.Status.FAILED ? "STUB_FAILED" : status.name(), null));
+            }
+        }
+        return receipts;
+    }
+
+    private void remember(String mobile, String outId) {
+        StubSend send = new StubSend(outId, System.currentTimeMillis(),
+            ThreadLocalRandom.current().nextInt(100) < properties.getReceiptFailurePercent());
+        synchronized (sends) {
+            Deque<StubSend> mobileSends = sends.computeIfAbsent(mobile, key -> new ArrayDeque<>());
+            if (mobileSends.size() >= MAX_SENDS_PER_MOBILE) {
+                mobileSends.removeFirst();
+            }
+            mobileSends.addLast(send);
+        }
+    }
+
+    private SendResult respond() {
+        if (properties.getLatencyMillis() > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(properties.getLatencyMillis());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new SmsException(ErrorCode.CLIENT_ERROR, "桩服务商调用被中断", ex);
+            }
+        }
+        String requestId = UUID.randomUUID().toString();
+        if (ThreadLocalRandom.current().nextInt(100) < properties.getFailurePercent()) {
+            return new SendResult(false, null, "Throttling", "stub failure", requestId, ErrorCode.PROVIDER_THROTTLED);
+        }
+        return new SendResult(true, "stub-" + requestId, "OK", "OK", requestId, null);
+    }
+
+    private static final class StubSend {
+
+        private final String outId;
+        private final long sentAtMillis;
+        private final boolean failed;
+
+        private StubSend(String outId, long sentAtMillis, boolean failed) {
+            this.outId = outId;
+            this.sentAtMillis = sentAtMillis;
+            this.failed = failed;
+        }
+    }
+}
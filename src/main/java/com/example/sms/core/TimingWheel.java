@@ -0,0 +1,140 @@
+package com.example.sms.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 分层时间轮，非线程安全，由单个线程驱动。
+ * 第 0 层每格 tickMillis，第 k 层每格等于第 k-1 层一圈的时长，超出现有层范围时按需增加一层；
+ * 时间推进到高层某格的起点时，先把该格的元素重新放入低层，再处理第 0 层当前格。
+ * 添加与到期的开销与元素总数无关，到期最多延迟一个刻度，不会提前。
+ */
+final class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final List<Level<T>> levels = new ArrayList<>();
+    /** 第 0 层当前格的起点，早于它的时间已全部处理 */
+    private long currentTime;
+    private int size;
+
+    TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.currentTime = startMillis - startMillis % tickMillis;
+        levels.add(new Level<>(tickMillis, wheelSize));
+    }
+
+    /**
+     * @return 到期时间早于当前格时返回 false，由调用方立即处理
+     */
+    boolean add(long dueAt, T item) {
+        if (dueAt < currentTime) {
+            return false;
+        }
+        place(dueAt, item);
+        size++;
+        return true;
+    }
+
+    /**
+     * 推进到 now，依次交给 expired 处理已到期的元素。
+     */
+    void advance(long now, Consumer<T> expired) {
+        if (size == 0) {
+            // 空轮直接跳到当前格，避免长时间空闲后逐格推进
+            currentTime = Math.max(currentTime, now - now % tickMillis);
+            return;
+        }
+        while (currentTime + tickMillis <= now) {
+            cascade();
+            List<Timer<T>> bucket = levels.get(0).take(currentTime);
+            if (bucket != null) {
+                size -= bucket.size();
+                for (Timer<T> timer : bucket) {
+                    expired.accept(timer.item);
+                }
+            }
+            currentTime += tickMillis;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 由高到低把起点等于当前时间的格子重新分配，高层元素可能先落入低层同一起点的格子。
+     */
+    private void cascade() {
+        for (int k = levels.size() - 1; k > 0; k--) {
+            Level<T> level = levels.get(k);
+            if (currentTime % level.tick != 0) {
+                continue;
+            }
+            List<Timer<T>> bucket = level.take(currentTime);
+            if (bucket != null) {
+                for (Timer<T> timer : bucket) {
+                    place(timer.dueAt, timer.item);
+                }
+            }
+        }
+    }
+
+    /**
+     * 放入能容纳该时间的最低层。低层一圈覆盖了高层当前格的剩余部分，因此高层当前格在处理后不会再被放入。
+     */
+    private void place(long dueAt, T item) {
+        for (int k = 0; ; k++) {
+            if (k == levels.size()) {
+                levels.add(new Level<>(levels.get(k - 1).interval, wheelSize));
+            }
+            Level<T> level = levels.get(k);
+            if (dueAt < currentTime - currentTime % level.tick + level.interval) {
+                level.put(dueAt, new Timer<>(dueAt, item));
+                return;
+            }
+        }
+    }
+
+    private static final class Level<T> {
+
+        private final long tick;
+        private final long interval;
+        private final List<Timer<T>>[] buckets;
+
+        @SuppressWarnings("unchecked")
+        private Level(long tick, int wheelSize) {
+            this.tick = tick;
+            this.interval = tick * wheelSize;
+            this.buckets = new List[wheelSize];
+        }
+
+        private void put(long dueAt, Timer<T> timer) {
+            int index = (int) (dueAt / tick % buckets.length);
+            if (buckets[index] == null) {
+                buckets[index] = new ArrayList<>();
+            }
+            buckets[index].add(timer);
+        }
+
+        private List<Timer<T>> take(long start) {
+            int index = (int) (start / tick % buckets.length);
+            List<Timer<T>> bucket = buckets[index];
+            buckets[index] = null;
+            return bucket;
+        }
+    }
+
+    private static final class Timer<T> {
+
+        private final long dueAt;
+        private final T item;
+
+        private Timer(long dueAt, T item) {
+            this.dueAt = dueAt;
+            this.item = item;
+        }
+    }
+}
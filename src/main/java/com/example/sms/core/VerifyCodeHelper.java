@@ -3,28 +3,123 @@ package com.example.sms.core;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 
-import com.example.sms.config.SceneConfig;
 import com.example.sms.config.SceneConfig.SceneType;
+import com.example.sms.config.SmsProperties;
 
 /**
  * 验证码发送与存储辅助工具。
  * 注意：不记录任何验证码明文或哈希日志，调用方仅可存储哈希。
+ * 也可使用 {@link #issue} 与 {@link #verify} 由服务端签发并校验，Redis 中仅保存加盐哈希。
  */
 @Component
 public class VerifyCodeHelper {
 
+    private static final long ISSUED = 1;
+    private static final long PASSED = 1;
+    private static final long MISMATCH = 2;
+    private static final long LOCKED = 3;
+
     private final AliyunSmsClient aliyunSmsClient;
     private final SceneConfigResolver sceneConfigResolver;
+    private final RedisSmsRepository redisSmsRepository;
+    private final SmsProperties smsProperties;
+    private final ProviderErrorMapper providerErrorMapper;
+    private final SecureRandom random = new SecureRandom();
 
-    public VerifyCodeHelper(AliyunSmsClient aliyunSmsClient, SceneConfigResolver sceneConfigResolver) {
+    public VerifyCodeHelper(AliyunSmsClient aliyunSmsClient,
+                            SceneConfigResolver sceneConfigResolver,
+                            RedisSmsRepository redisSmsRepository,
+                            SmsProperties smsProperties,
+                            ProviderErrorMapper providerErrorMapper) {
         this.aliyunSmsClient = aliyunSmsClient;
         this.sceneConfigResolver = sceneConfigResolver;
+        this.redisSmsRepository = redisSmsRepository;
+        this.smsProperties = smsProperties;
+        this.providerErrorMapper = providerErrorMapper;
+    }
+
+    /**
+     * 服务端签发验证码：生成随机验证码，Redis 中只保存加盐哈希并按场景过期时间失效，然后发送短信。
+     * 场景未配置过期时间时使用 sms.verify-code.default-expire-seconds。
+     * 限流与幂等校验先于写入，被拒绝时不会覆盖尚未使用的旧验证码；发送明确失败时仅在 Redis 中仍为本次哈希时删除，
+     * 不影响并发签发的新验证码；发送超时等结果未知时保留，短信可能已送达。
+     * @throws SmsException 校验失败、验证码已锁定（VERIFY_CODE_LOCKED）或发送失败
+     */
+    public void issue(String scene, String mobile, String clientIp) {
+        ScenePlan plan = sceneConfigResolver.getPlan(scene);
+        Assert.isTrue(plan.getType() == SceneType.VERIFY_CODE, "场景类型必须为验证码");
+        String code = generateCode(plan.getCodeLength());
+        AliyunSmsClient.Admission admission = aliyunSmsClient.admit(scene, mobile,
+            Collections.singletonMap(plan.getCodeParamKey(), code), clientIp, plan);
+        String key = SmsRedisKeys.smsCode(scene, mobile);
+        long expireSeconds = plan.getExpireSeconds() > 0
+            ? plan.getExpireSeconds()
+            : smsProperties.getVerifyCode().getDefaultExpireSeconds();
+        String hash;
+        Long stored;
+        try {
+            hash = saltedHash(scene, mobile, code);
+            stored = executeScript(SmsRedisScripts.VERIFY_CODE_ISSUE, key, hash,
+                String.valueOf(expireSeconds),
+                String.valueOf(plan.getMaxVerifyAttempts()));
+        } catch (SmsException ex) {
+            admission.getReservation().release();
+            throw ex;
+        }
+        if (stored == null || stored != ISSUED) {
+            admission.getReservation().release();
+            throw new SmsException(ErrorCode.VERIFY_CODE_LOCKED, "验证码错误次数过多，请稍后再试");
+        }
+        try {
+            aliyunSmsClient.deliver(scene, mobile, admission, null);
+        } catch (SmsException ex) {
+            if (providerErrorMapper.isOutcomeUnknown(ex.getErrorCode())) {
+                throw ex;
+            }
+            try {
+                executeScript(SmsRedisScripts.VERIFY_CODE_DISCARD, key, hash);
+            } catch (SmsException discardEx) {
+                ex.addSuppressed(discardEx);
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * 校验服务端签发的验证码，比对、失败计数、锁定与成功删除在一次脚本调用内原子完成。
+     */
+    public VerifyResult verify(String scene, String mobile, String code) {
+        ScenePlan plan = sceneConfigResolver.getPlan(scene);
+        Assert.isTrue(plan.getType() == SceneType.VERIFY_CODE, "场景类型必须为验证码");
+        if (!StringUtils.hasText(code)) {
+            return VerifyResult.MISMATCH;
+        }
+        Long verdict = executeScript(SmsRedisScripts.VERIFY_CODE_CHECK, SmsRedisKeys.smsCode(scene, mobile),
+            saltedHash(scene, mobile, code.trim()),
+            String.valueOf(plan.getMaxVerifyAttempts()));
+        long result = verdict == null ? 0 : verdict;
+        if (result == PASSED) {
+            return VerifyResult.PASSED;
+        }
+        if (result == MISMATCH) {
+            return VerifyResult.MISMATCH;
+        }
+        if (result == LOCKED) {
+            return VerifyResult.LOCKED;
+        }
+        return VerifyResult.EXPIRED;
     }
 
     /**
@@ -35,27 +130,66 @@ public class VerifyCodeHelper {
      * @param clientIp 客户端 IP
      */
     public void sendVerifyCode(String scene, String mobile, String code, String clientIp) {
-        SceneConfig config = sceneConfigResolver.getRequired(scene);
-        Assert.isTrue(config.getType() == SceneType.VERIFY_CODE, \"场景类型必须为验证码\");
+        ScenePlan plan = sceneConfigResolver.getPlan(scene);
+        Assert.isTrue(plan.getType() == SceneType.VERIFY_CODE, "场景类型必须为验证码");
         Map<String, String> params = new HashMap<>();
-        params.put(config.getCodeParamKey(), code);
+        params.put(plan.getCodeParamKey(), code);
         aliyunSmsClient.send(scene, mobile, params, clientIp);
     }
 
+    /**
+     * 异步发送验证码短信，场景与限流校验在调用线程完成。
+     * @see AliyunSmsClient#sendAsync(String, String, Map, String)
+     */
+    public CompletableFuture<SendResult> sendVerifyCodeAsync(String scene, String mobile, String code, String clientIp) {
+        ScenePlan plan = sceneConfigResolver.getPlan(scene);
+        Assert.isTrue(plan.getType() == SceneType.VERIFY_CODE, "场景类型必须为验证码");
+        Map<String, String> params = new HashMap<>();
+        params.put(plan.getCodeParamKey(), code);
+        return aliyunSmsClient.sendAsync(scene, mobile, params, clientIp);
+    }
+
     /**
      * 计算验证码哈希，供业务层存储校验。
      * 返回值仅用于存储，不应写入日志或透传。
      */
     public String hashCode(String code, String salt) {
         try {
-            MessageDigest digest = MessageDigest.getInstance(\"SHA-256\");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
             digest.update(safeBytes(code));
             digest.update(safeBytes(salt));
             byte[] hashed = digest.digest();
             // 不返回明文，仅返回哈希
             return bytesToHex(hashed);
         } catch (NoSuchAlgorithmException e) {
-            throw new SmsException(ErrorCode.CLIENT_ERROR, \"哈希算法不可用\", e);
+            throw new SmsException(ErrorCode.CLIENT_ERROR, "哈希算法不可用", e);
+        }
+    }
+
+    /**
+     * 盐由服务端密钥与场景、手机号组成，相同验证码在不同手机号下哈希不同。
+     */
+    private String saltedHash(String scene, String mobile, String code) {
+        String secret = smsProperties.getVerifyCode().getSecret();
+        if (!StringUtils.hasText(secret)) {
+            throw new SmsException(ErrorCode.INVALID_CONFIG, "验证码哈希密钥未配置");
+        }
+        return hashCode(code, secret + ":" + scene + ":" + mobile);
+    }
+
+    private String generateCode(int length) {
+        char[] digits = new char[length];
+        for (int i = 0; i < length; i++) {
+            digits[i] = (char) ('0' + random.nextInt(10));
+        }
+        return new String(digits);
+    }
+
+    private Long executeScript(RedisScript<Long> script, String key, String... args) {
+        try {
+            return redisSmsRepository.execute(script, Collections.singletonList(key), args);
+        } catch (DataAccessException ex) {
+            throw new SmsException(ErrorCode.CLIENT_ERROR, "验证码存储不可用", ex);
         }
     }
 
@@ -66,7 +200,7 @@ public class VerifyCodeHelper {
     private String bytesToHex(byte[] bytes) {
         StringBuilder sb = new StringBuilder(bytes.length * 2);
         for (byte b : bytes) {
-            sb.append(String.format(\"%02x\", b));
+            sb.append(String.format("%02x", b));
         }
         return sb.toString();
     }
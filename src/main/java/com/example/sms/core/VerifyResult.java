@@ -0,0 +1,19 @@
+package com.example.sms.core;
+
+/**
+ * 服务端验证码校验结果。
+ */
+public enum VerifyResult {
+
+    /** 校验通过，验证码已失效 */
+    PASSED,
+
+    /** 验证码不匹配 */
+    MISMATCH,
+
+    /** 验证码不存在或已过期 */
+    EXPIRED,
+
+    /** 失败次数过多，锁定至过期 */
+    LOCKED
+}
@@ -0,0 +1,77 @@
+package com.example.sms.core;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 运行时探测虚拟线程（Java 21+）。项目按 Java 8 编译，相关 API 全部通过反射调用，
+ * 运行时不支持时各方法返回 null，由调用方回退到平台线程。
+ */
+final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_FACTORY;
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method builderName = null;
+        Method builderFactory = null;
+        Method newThreadPerTaskExecutor = null;
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            builderName = builder.getMethod("name", String.class, long.class);
+            builderFactory = builder.getMethod("factory");
+            newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            // Java 19/20 未开启预览特性时 API 存在但调用失败
+            builderFactory.invoke(ofVirtual.invoke(null));
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError ex) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = builderName;
+        BUILDER_FACTORY = builderFactory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    }
+
+    private VirtualThreads() {
+    }
+
+    static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * @return 以 prefix 加序号命名的虚拟线程工厂，不支持时返回 null
+     */
+    static ThreadFactory factory(String prefix) {
+        if (OF_VIRTUAL == null) {
+            return null;
+        }
+        try {
+            Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), prefix, 1L);
+            return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+        } catch (ReflectiveOperationException ex) {
+            throw new SmsException(ErrorCode.CLIENT_ERROR, "创建虚拟线程工厂失败", ex);
+        }
+    }
+
+    /**
+     * @return 每个任务一个虚拟线程的执行器，不支持时返回 null
+     */
+    static ExecutorService newThreadPerTaskExecutor(String prefix) {
+        ThreadFactory factory = factory(prefix);
+        if (factory == null) {
+            return null;
+        }
+        try {
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+        } catch (ReflectiveOperationException ex) {
+            throw new SmsException(ErrorCode.CLIENT_ERROR, "创建虚拟线程执行器失败", ex);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+-- 幂等确认：仍持有预占时改写为已发送标记，TTL 延长至幂等窗口。
+-- KEYS[1] 幂等 key
+-- ARGV[1] 预占令牌，ARGV[2] 已发送标记，ARGV[3] 幂等窗口（秒）
+-- 返回 1 确认成功，0 预占已过期或被他人持有。
+if redis.call('GET', KEYS[1]) ~= ARGV[1] then
+    return 0
+end
+redis.call('SET', KEYS[1], ARGV[2], 'EX', ARGV[3])
+return 1
@@ -0,0 +1,9 @@
+-- 幂等释放：仅删除本次预占，避免误删他人的预占或已发送标记。
+-- KEYS[1] 幂等 key
+-- ARGV[1] 预占令牌
+-- 返回 1 已释放，0 预占已过期或被他人持有。
+if redis.call('GET', KEYS[1]) ~= ARGV[1] then
+    return 0
+end
+redis.call('DEL', KEYS[1])
+return 1
@@ -0,0 +1,11 @@
+-- 幂等预占：key 不存在时写入本次令牌并设置处理中 TTL。
+-- KEYS[1] 幂等 key
+-- ARGV[1] 预占令牌，ARGV[2] 处理中 TTL（秒），ARGV[3] 已发送标记
+-- 返回 0 预占成功，1 相同请求处理中，2 窗口内已发送。
+if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'EX', ARGV[2]) then
+    return 0
+end
+if redis.call('GET', KEYS[1]) == ARGV[3] then
+    return 2
+end
+return 1
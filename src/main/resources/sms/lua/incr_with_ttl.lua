@@ -0,0 +1,9 @@
+-- 计数加一并保证 key 带有过期时间：首次创建或此前写入未设置 TTL 时补设，避免计数永不过期。
+-- KEYS[1] 计数 key
+-- ARGV[1] TTL 秒
+-- 返回加一后的计数。
+local value = redis.call('INCR', KEYS[1])
+if value == 1 or redis.call('TTL', KEYS[1]) == -1 then
+    redis.call('EXPIRE', KEYS[1], ARGV[1])
+end
+return value
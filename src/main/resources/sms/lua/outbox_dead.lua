@@ -0,0 +1,10 @@
+-- 发件箱死信：确认并删除 Stream 中的当前投递，消息追加到死信 Stream（按长度近似裁剪）。
+-- KEYS[1] 发件箱 Stream，KEYS[2] 死信 Stream
+-- ARGV[1] 消费组，ARGV[2] 当前投递的 Stream 消息 ID，ARGV[3] 死信保留条数，ARGV[4..] 消息字段键值对
+-- 返回 1 写入成功，0 当前投递已被确认。
+if redis.call('XACK', KEYS[1], ARGV[1], ARGV[2]) == 0 then
+    return 0
+end
+redis.call('XDEL', KEYS[1], ARGV[2])
+redis.call('XADD', KEYS[2], 'MAXLEN', '~', ARGV[3], '*', unpack(ARGV, 4))
+return 1
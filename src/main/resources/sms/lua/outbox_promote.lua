@@ -0,0 +1,16 @@
+-- 发件箱延迟重试：将到期的消息从延迟队列移回 Stream，移动与删除在同一脚本内完成。
+-- KEYS[1] 延迟队列 ZSET，KEYS[2] 发件箱 Stream
+-- ARGV[1] 当前毫秒时间戳，ARGV[2] 单次最多移动条数
+-- 返回移动的条数；ZSET 成员为消息字段的 JSON。
+local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2]))
+for _, member in ipairs(due) do
+    local fields = cjson.decode(member)
+    local args = {}
+    for key, value in pairs(fields) do
+        args[#args + 1] = key
+        args[#args + 1] = value
+    end
+    redis.call('XADD', KEYS[2], '*', unpack(args))
+    redis.call('ZREM', KEYS[1], member)
+end
+return #due
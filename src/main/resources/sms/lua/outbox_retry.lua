@@ -0,0 +1,10 @@
+-- 发件箱重试登记：确认并删除 Stream 中的当前投递，同时写入延迟队列，避免重复或丢失。
+-- KEYS[1] 发件箱 Stream，KEYS[2] 延迟队列 ZSET
+-- ARGV[1] 消费组，ARGV[2] 当前投递的 Stream 消息 ID，ARGV[3] 到期毫秒时间戳，ARGV[4] 下一次投递的消息 JSON
+-- 返回 1 登记成功，0 当前投递已被确认（例如已被其他消费者认领处理）。
+if redis.call('XACK', KEYS[1], ARGV[1], ARGV[2]) == 0 then
+    return 0
+end
+redis.call('XDEL', KEYS[1], ARGV[2])
+redis.call('ZADD', KEYS[2], ARGV[3], ARGV[4])
+return 1
@@ -0,0 +1,30 @@
+-- 服务商出站配额：按 GCRA 为每个桶预约一个发送时刻，等价于容量为突发数的令牌桶，每个桶只保存理论到达时间 TAT（微秒）。
+-- KEYS[i] 第 i 个配额桶
+-- ARGV[1] 最长等待微秒，ARGV[2i] 第 i 个桶的发放间隔微秒，ARGV[2i+1] 第 i 个桶的突发容差微秒
+-- 时间取 Redis 服务端时钟，所有节点共用同一时间基准。
+-- 返回需等待的微秒数（>= 0）并已预约；所有桶中最长等待超过上限时返回其相反数且不修改任何桶。
+-- TIME 是非确定性命令，Redis 5 之前的脚本复制模式下其后不允许写入；按效果复制，从库与 AOF 重放得到相同的 TAT。
+redis.replicate_commands()
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+local maxWait = tonumber(ARGV[1])
+
+local wait = 0
+local tats = {}
+for i = 1, #KEYS do
+    local tolerance = tonumber(ARGV[i * 2 + 1])
+    local tat = math.max(tonumber(redis.call('GET', KEYS[i]) or '0'), now)
+    wait = math.max(wait, tat - tolerance - now)
+    tats[i] = tat
+end
+if wait > maxWait then
+    return -wait
+end
+
+-- 实际发送时刻由最慢的桶决定，其余桶也按该时刻推进；TAT 过期即与当前时间相同，key 只需保留到 TAT
+local sendAt = now + wait
+for i = 1, #KEYS do
+    tats[i] = math.max(tats[i], sendAt) + tonumber(ARGV[i * 2])
+    redis.call('SET', KEYS[i], string.format('%d', tats[i]), 'PX', string.format('%d', math.floor((tats[i] - now) / 1000) + 1))
+end
+return wait
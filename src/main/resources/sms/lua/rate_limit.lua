@@ -0,0 +1,23 @@
+-- 短信手机号限流：一次往返内完成间隔与日计数的校验与记录，IP 分钟计数由 rate_limit_lease.lua 单独扣减。
+-- KEYS[1] 手机号间隔 key，KEYS[2] 手机号日计数 key，两者带相同的 hash tag，集群模式下位于同一 slot
+-- ARGV[1] 间隔秒数，ARGV[2] 日上限，ARGV[3] 日计数 TTL 秒
+-- 返回 0 放行，1 间隔限制，2 日上限；被拒绝时不消耗任何配额。
+local interval = tonumber(ARGV[1])
+local dayLimit = tonumber(ARGV[2])
+
+if interval > 0 and redis.call('EXISTS', KEYS[1]) == 1 then
+    return 1
+end
+if dayLimit > 0 and tonumber(redis.call('GET', KEYS[2]) or '0') >= dayLimit then
+    return 2
+end
+
+if interval > 0 then
+    redis.call('SET', KEYS[1], '1', 'EX', interval)
+end
+if dayLimit > 0 then
+    if redis.call('INCR', KEYS[2]) == 1 then
+        redis.call('EXPIRE', KEYS[2], ARGV[3])
+    end
+end
+return 0
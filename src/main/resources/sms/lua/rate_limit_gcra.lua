@@ -0,0 +1,38 @@
+-- 短信手机号平滑限流（GCRA）：每个 key 只保存理论到达时间 TAT（毫秒），一次往返内完成间隔与手机号速率的校验与记录。
+-- IP 速率由 rate_limit_gcra_ip.lua 单独校验，IP 与手机号无法共用 hash tag。
+-- KEYS[1] 手机号间隔 key，KEYS[2] 手机号 TAT key，两者带相同的 hash tag，集群模式下位于同一 slot
+-- ARGV[1] 间隔秒数，ARGV[2] 手机号发放间隔毫秒，ARGV[3] 手机号突发容差毫秒
+-- 发放间隔为 0 表示不限制该项；时间取 Redis 服务端时钟，多实例不受本地时钟偏差影响。
+-- 返回 {规则, 可重试毫秒}：规则 0 放行，1 间隔限制，2 手机号限速；被拒绝时不修改任何 key。
+-- TIME 是非确定性命令，Redis 5 之前的脚本复制模式下其后不允许写入；按效果复制，从库与 AOF 重放得到相同的 TAT。
+redis.replicate_commands()
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+local interval = tonumber(ARGV[1])
+
+if interval > 0 then
+    local ttl = redis.call('PTTL', KEYS[1])
+    if ttl > 0 then
+        return {1, ttl}
+    end
+end
+
+local emission = tonumber(ARGV[2])
+local tat
+if emission > 0 then
+    tat = math.max(tonumber(redis.call('GET', KEYS[2]) or '0'), now)
+    local wait = tat - tonumber(ARGV[3]) - now
+    if wait > 0 then
+        return {2, wait}
+    end
+    tat = tat + emission
+end
+
+if interval > 0 then
+    redis.call('SET', KEYS[1], '1', 'EX', interval)
+end
+-- TAT 过期即与当前时间相同，key 只需保留到 TAT
+if tat then
+    redis.call('SET', KEYS[2], string.format('%d', tat), 'PX', string.format('%d', tat - now))
+end
+return {0, 0}
@@ -0,0 +1,17 @@
+-- IP 平滑限流（GCRA）：校验并推进单个 IP 的理论到达时间 TAT（毫秒），与手机号脚本分开执行，key 位于各自的 slot。
+-- KEYS[1] IP TAT key
+-- ARGV[1] 发放间隔毫秒，ARGV[2] 突发容差毫秒
+-- 返回 0 放行并已推进 TAT，大于 0 为被拒绝时需等待的毫秒数，被拒绝时不修改 key。
+-- TIME 是非确定性命令，按效果复制，从库与 AOF 重放得到相同的 TAT。
+redis.replicate_commands()
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local tat = math.max(tonumber(redis.call('GET', KEYS[1]) or '0'), now)
+local wait = tat - tonumber(ARGV[2]) - now
+if wait > 0 then
+    return wait
+end
+tat = tat + tonumber(ARGV[1])
+redis.call('SET', KEYS[1], string.format('%d', tat), 'PX', string.format('%d', tat - now))
+return 0
@@ -0,0 +1,13 @@
+-- 限流配额租用：从计数中一次划出至多 ARGV[2] 个配额，按上限截断，全局不会超发。
+-- KEYS[1] 计数 key
+-- ARGV[1] 上限，ARGV[2] 单次租用数，ARGV[3] 计数 TTL 秒
+-- 返回实际租到的配额数，0 表示已达上限。
+local used = tonumber(redis.call('GET', KEYS[1]) or '0')
+local grant = math.min(tonumber(ARGV[2]), tonumber(ARGV[1]) - used)
+if grant <= 0 then
+    return 0
+end
+if redis.call('INCRBY', KEYS[1], grant) == grant then
+    redis.call('EXPIRE', KEYS[1], ARGV[3])
+end
+return grant
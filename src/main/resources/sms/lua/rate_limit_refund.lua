@@ -0,0 +1,9 @@
+-- 限流配额归还：IP 已记录而手机号被拒绝时撤销 IP 的那一次记录，计数减一或 TAT 回退一个发放间隔，保留原 TTL。
+-- KEYS[1] 计数或 TAT key
+-- ARGV[1] 归还量：计数为 1，TAT 为发放间隔毫秒
+-- 返回归还后的值；key 已过期或不足归还量时不修改并返回 0。
+local value = tonumber(redis.call('GET', KEYS[1]) or '0')
+if value < tonumber(ARGV[1]) then
+    return 0
+end
+return redis.call('DECRBY', KEYS[1], ARGV[1])
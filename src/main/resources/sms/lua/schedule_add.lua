@@ -0,0 +1,7 @@
+-- 定时发送登记或重新排期：保存消息内容并按到期时间加入待发送队列，同时移除可能存在的认领记录。
+-- KEYS[1] 待发送 ZSET，KEYS[2] 已认领 ZSET，KEYS[3] 消息内容 HASH
+-- ARGV[1] 消息 id，ARGV[2] 到期毫秒时间戳，ARGV[3] 消息 JSON
+redis.call('HSET', KEYS[3], ARGV[1], ARGV[3])
+redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1])
+redis.call('ZREM', KEYS[2], ARGV[1])
+return 1
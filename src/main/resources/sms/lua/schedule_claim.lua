@@ -0,0 +1,27 @@
+-- 定时发送认领：先把租约已过期的认领（持有节点可能已失联）移回待发送队列立即到期，
+-- 再按到期时间升序认领不晚于截止时间的消息，认领租约到期时间为 max(到期时间, 当前时间) + 租约时长。
+-- 只按分值区间读取，与队列总长度无关。
+-- KEYS[1] 待发送 ZSET，KEYS[2] 已认领 ZSET，KEYS[3] 消息内容 HASH
+-- ARGV[1] 当前毫秒时间戳，ARGV[2] 认领截止毫秒时间戳，ARGV[3] 租约毫秒，ARGV[4] 最多条数
+-- 返回 {id, JSON, 到期时间, id, JSON, 到期时间, ...}
+local now = tonumber(ARGV[1])
+local limit = tonumber(ARGV[4])
+local expired = redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', now, 'LIMIT', 0, limit)
+for _, id in ipairs(expired) do
+    redis.call('ZREM', KEYS[2], id)
+    redis.call('ZADD', KEYS[1], now, id)
+end
+local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[2], 'WITHSCORES', 'LIMIT', 0, limit)
+local claimed = {}
+for i = 1, #due, 2 do
+    local id = due[i]
+    local payload = redis.call('HGET', KEYS[3], id)
+    redis.call('ZREM', KEYS[1], id)
+    if payload then
+        redis.call('ZADD', KEYS[2], math.max(tonumber(due[i + 1]), now) + tonumber(ARGV[3]), id)
+        claimed[#claimed + 1] = id
+        claimed[#claimed + 1] = payload
+        claimed[#claimed + 1] = due[i + 1]
+    end
+end
+return claimed
@@ -0,0 +1,9 @@
+-- 定时发送移除：从指定队列删除消息，删除成功时一并删除消息内容，用于取消（待发送队列）与完成（已认领队列）。
+-- KEYS[1] 待发送或已认领 ZSET，KEYS[2] 消息内容 HASH
+-- ARGV[1] 消息 id
+-- 返回 1 表示消息在该队列中并已删除
+if redis.call('ZREM', KEYS[1], ARGV[1]) == 1 then
+    redis.call('HDEL', KEYS[2], ARGV[1])
+    return 1
+end
+return 0
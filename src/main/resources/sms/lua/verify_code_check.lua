@@ -0,0 +1,20 @@
+-- 验证码校验：比对哈希，成功即删除；失败累计次数，达到上限后锁定至过期。
+-- KEYS[1] 验证码 key
+-- ARGV[1] 待校验验证码的哈希，ARGV[2] 最大失败次数
+-- 返回 0 不存在或已过期，1 校验通过，2 不匹配，3 已锁定。
+local stored = redis.call('HGET', KEYS[1], 'hash')
+if not stored then
+    return 0
+end
+local maxAttempts = tonumber(ARGV[2])
+if tonumber(redis.call('HGET', KEYS[1], 'attempts') or '0') >= maxAttempts then
+    return 3
+end
+if stored == ARGV[1] then
+    redis.call('DEL', KEYS[1])
+    return 1
+end
+if redis.call('HINCRBY', KEYS[1], 'attempts', 1) >= maxAttempts then
+    return 3
+end
+return 2
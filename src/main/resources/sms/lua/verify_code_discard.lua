@@ -0,0 +1,9 @@
+-- 验证码撤销：发送失败时删除本次签发的验证码，已被并发签发覆盖时保留新验证码。
+-- KEYS[1] 验证码 key
+-- ARGV[1] 本次签发的验证码哈希
+-- 返回 1 已删除，0 不存在或已被覆盖。
+if redis.call('HGET', KEYS[1], 'hash') == ARGV[1] then
+    redis.call('DEL', KEYS[1])
+    return 1
+end
+return 0
@@ -0,0 +1,12 @@
+-- 验证码签发：写入加盐哈希并重置失败次数；已锁定的验证码在过期前不允许重新签发。
+-- KEYS[1] 验证码 key
+-- ARGV[1] 验证码哈希，ARGV[2] 过期秒数，ARGV[3] 最大失败次数
+-- 返回 1 写入成功，0 已锁定。
+local attempts = tonumber(redis.call('HGET', KEYS[1], 'attempts') or '0')
+if attempts >= tonumber(ARGV[3]) then
+    return 0
+end
+redis.call('DEL', KEYS[1])
+redis.call('HSET', KEYS[1], 'hash', ARGV[1], 'attempts', 0)
+redis.call('EXPIRE', KEYS[1], ARGV[2])
+return 1